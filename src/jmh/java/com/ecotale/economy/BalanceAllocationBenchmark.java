@@ -0,0 +1,162 @@
+package com.ecotale.economy;
+
+import com.ecotale.Main;
+import com.ecotale.api.events.BalanceChangeEvent;
+import com.ecotale.api.events.EcotaleEvents;
+import com.ecotale.api.events.ListenerMode;
+import com.ecotale.config.EcotaleConfig;
+import com.ecotale.storage.StorageProvider;
+import com.hypixel.hytale.server.core.util.Config;
+import org.openjdk.jmh.annotations.*;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Allocation of the real balance mutation path: EconomyManager.deposit/withdraw
+ * and transfer through commit(), i.e. the event gate, the PlayerBalance update,
+ * the leaderboard re-rank (PERF-13), the running totals (PERF-15), the journal
+ * append (PERF-08) and the transaction log ring, on an in-memory StorageProvider.
+ *
+ * With no listener the balance update, re-rank, totals and journal allocate
+ * nothing; what remains is the transaction log entry. The listener case shows
+ * what the event gate saves.
+ *
+ * Run: ./gradlew jmh -Pjmh.includes=BalanceAllocation -Pjmh.profilers=gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BalanceAllocationBenchmark {
+
+    /** Whether a pre-commit BalanceChangeEvent listener is registered */
+    @Param({"false", "true"})
+    public boolean listener;
+
+    /** Where the listener keeps the last event, so the event escapes like in a real listener */
+    private static volatile BalanceChangeEvent lastEvent;
+
+    /** Accounts in storage, so re-ranking works on a realistic leaderboard */
+    private static final int OTHER_ACCOUNTS = 10_000;
+
+    private Path dataDir;
+    private EconomyManager economy;
+    private UUID alice;
+    private UUID bob;
+
+    /** Stored balances kept in a map; saves copy nothing, loads create new accounts */
+    static final class MemoryStorage implements StorageProvider {
+        private final Map<UUID, PlayerBalance> stored = new ConcurrentHashMap<>();
+
+        @Override
+        public CompletableFuture<Void> initialize() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<PlayerBalance> loadPlayer(@Nonnull UUID playerUuid) {
+            return CompletableFuture.completedFuture(stored.computeIfAbsent(playerUuid, PlayerBalance::new));
+        }
+
+        @Override
+        public CompletableFuture<Void> savePlayer(@Nonnull UUID playerUuid, @Nonnull PlayerBalance balance) {
+            stored.put(playerUuid, balance);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> saveAll(@Nonnull Map<UUID, PlayerBalance> dirtyPlayers) {
+            stored.putAll(dirtyPlayers);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Map<UUID, PlayerBalance>> loadAll() {
+            return CompletableFuture.completedFuture(new HashMap<>(stored));
+        }
+
+        @Override
+        public CompletableFuture<Boolean> playerExists(@Nonnull UUID playerUuid) {
+            return CompletableFuture.completedFuture(stored.containsKey(playerUuid));
+        }
+
+        @Override
+        public CompletableFuture<Void> deletePlayer(@Nonnull UUID playerUuid) {
+            stored.remove(playerUuid);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> shutdown() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public String getName() {
+            return "in-memory";
+        }
+
+        @Override
+        public int getPlayerCount() {
+            return stored.size();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("ecotale-bench");
+        Main.CONFIG = new Config<>(dataDir, "Ecotale", EcotaleConfig.CODEC);
+        Main.CONFIG.load().join(); // No file: defaults (H2 settings are unused, storage is in memory)
+
+        MemoryStorage storage = new MemoryStorage();
+        for (int i = 0; i < OTHER_ACCOUNTS; i++) {
+            PlayerBalance other = new PlayerBalance(UUID.randomUUID());
+            other.setBalance(i * 10.0, "Benchmark");
+            storage.savePlayer(other.getPlayerUuid(), other);
+        }
+        economy = new EconomyManager(storage, dataDir.resolve("balances.journal"));
+        alice = UUID.randomUUID();
+        bob = UUID.randomUUID();
+        economy.setBalance(alice, 1_000_000.0, "Benchmark");
+        economy.setBalance(bob, 1_000_000.0, "Benchmark");
+
+        EcotaleEvents.unregisterAll(BalanceChangeEvent.class);
+        if (listener) {
+            EcotaleEvents.register(BalanceChangeEvent.class, ListenerMode.SYNC_PRE_COMMIT, event -> lastEvent = event);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        EcotaleEvents.unregisterAll(BalanceChangeEvent.class);
+        economy.shutdown();
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public boolean depositWithdraw() {
+        return economy.deposit(alice, 1.25, "Kill") & economy.withdraw(alice, 1.25, "Shop");
+    }
+
+    @Benchmark
+    public boolean transfer() {
+        // And back, so the balances stay put
+        return economy.transfer(alice, bob, 2.5, "Trade") == EconomyManager.TransferResult.SUCCESS
+            & economy.transfer(bob, alice, 2.5, "Trade") == EconomyManager.TransferResult.SUCCESS;
+    }
+}
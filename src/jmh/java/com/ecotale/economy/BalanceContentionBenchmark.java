@@ -0,0 +1,81 @@
+package com.ecotale.economy;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single-account deposit/withdraw under contention, in both modes of
+ * EconomyManager (PERF-05): the account lock around each operation
+ * (LockFreeBalances = false) against the PlayerBalance CAS alone (true).
+ *
+ * Every thread hammers the same few accounts with small deposits and
+ * withdrawals, like a mob farm or job plugin paying out to a handful of players.
+ *
+ * Run: ./gradlew jmh -Pjmh.includes=BalanceContention
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class BalanceContentionBenchmark {
+
+    private static final double MAX_BALANCE = 1_000_000_000_000.0;
+
+    /** true = CAS only, false = account lock around the CAS (as EconomyManager does) */
+    @Param({"true", "false"})
+    public boolean lockFree;
+
+    /** Accounts the threads spread over; 1 is the worst case */
+    @Param({"1", "4"})
+    public int accounts;
+
+    /** Ledger mode: raw double cells or long minor units (see LedgerScale) */
+    @Param({"false", "true"})
+    public boolean minorUnits;
+
+    private PlayerBalance[] balances;
+    private ReentrantLock[] locks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LedgerScale.configure(minorUnits, 2);
+        balances = new PlayerBalance[accounts];
+        locks = new ReentrantLock[accounts];
+        for (int i = 0; i < accounts; i++) {
+            balances[i] = new PlayerBalance(UUID.randomUUID());
+            balances[i].setBalance(1_000_000.0, "Benchmark");
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Benchmark
+    public boolean depositWithdraw() {
+        int account = accounts == 1 ? 0 : ThreadLocalRandom.current().nextInt(accounts);
+        PlayerBalance balance = balances[account];
+        if (lockFree) {
+            return balance.depositInternal(1.25, MAX_BALANCE, null, "Kill")
+                & balance.withdrawInternal(1.25, null, "Shop");
+        }
+        ReentrantLock lock = locks[account];
+        boolean deposited;
+        lock.lock();
+        try {
+            deposited = balance.depositInternal(1.25, MAX_BALANCE, null, "Kill");
+        } finally {
+            lock.unlock();
+        }
+        lock.lock();
+        try {
+            return deposited & balance.withdrawInternal(1.25, null, "Shop");
+        } finally {
+            lock.unlock();
+        }
+    }
+}
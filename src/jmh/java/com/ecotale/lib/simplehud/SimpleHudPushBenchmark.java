@@ -0,0 +1,88 @@
+package com.ecotale.lib.simplehud;
+
+import com.hypixel.hytale.server.core.ui.builder.UICommandBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one SimpleHud push against the number of elements in the HUD.
+ *
+ * pushIdle is the common case on a busy server: hundreds of HUDs pushed with
+ * nothing changed. setAndPush changes some elements first, then sends them.
+ * The push walks only the dirty slots, so neither should grow with the
+ * element count beyond the elements actually changed.
+ *
+ * Nothing reaches a client: the HUD's show() and update() only count calls.
+ *
+ * Run: ./gradlew jmh -Pjmh.includes=SimpleHudPush
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimpleHudPushBenchmark {
+
+    /** A HUD that keeps its updates instead of sending them */
+    static final class CountingHud extends SimpleHud {
+        int updates;
+
+        CountingHud(String uiPath) {
+            super(null, uiPath);
+        }
+
+        @Override
+        public void show() {
+        }
+
+        @Override
+        public void update(boolean clear, @Nonnull UICommandBuilder builder) {
+            updates++;
+        }
+    }
+
+    /** Elements set on the HUD */
+    @Param({"8", "32", "128"})
+    public int elements;
+
+    /** Elements changed before each setAndPush */
+    @Param({"1", "8"})
+    public int changed;
+
+    private CountingHud hud;
+    private String[] ids;
+    private final String[] texts = {"$1,250.00", "$1,337.50"};
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // One schema per element count, as one per UI file
+        hud = new CountingHud("Pages/Benchmark_" + elements + ".ui");
+        ids = new String[elements];
+        for (int i = 0; i < elements; i++) {
+            ids[i] = "#Element" + i;
+            hud.setText(ids[i], "0");
+        }
+        hud.sendPendingValues(); // First push registers the HUD (show())
+        hud.sendPendingValues(); // Sends the initial values
+    }
+
+    @Benchmark
+    public int pushIdle() {
+        hud.sendPendingValues();
+        return hud.updates;
+    }
+
+    @Benchmark
+    public int setAndPush() {
+        String text = texts[round++ & 1];
+        for (int i = 0; i < changed; i++) {
+            hud.setText(ids[i * elements / changed], text);
+        }
+        hud.sendPendingValues();
+        return hud.updates;
+    }
+}
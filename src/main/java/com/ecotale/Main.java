@@ -25,6 +25,7 @@ import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.util.Config;
 import org.checkerframework.checker.nullness.compatqual.NonNullDecl;
 
+import java.util.UUID;
 import java.util.logging.Level;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -121,15 +122,20 @@ public class Main extends JavaPlugin {
             final var playerRef = event.getHolder().getComponent(PlayerRef.getComponentType());
             
             if (player != null && playerRef != null) {
-                // Ensure player has an account
-                this.economyManager.ensureAccount(playerRef.getUuid());
-
-                // Snapshot balance at login for session-based placeholders
-                if (this.placeholderManager != null) {
-                    var pb = this.economyManager.getPlayerBalance(playerRef.getUuid());
-                    double loginBalance = (pb != null) ? pb.getBalance() : 0.0;
-                    this.placeholderManager.onPlayerJoin(playerRef.getUuid(), loginBalance);
-                }
+                // Ensure player has an account without blocking the world thread.
+                // Preloaded accounts complete immediately; others finish on the storage thread.
+                final UUID joinedUuid = playerRef.getUuid();
+                this.economyManager.ensureAccountAsync(joinedUuid).thenAccept(pb -> {
+                    // Snapshot balance at login for session-based placeholders
+                    if (this.placeholderManager != null) {
+                        this.placeholderManager.onPlayerJoin(joinedUuid, pb.getBalance());
+                    }
+                    // HUD may have been built before the account finished loading
+                    com.ecotale.systems.BalanceHudSystem.updatePlayerHud(joinedUuid, pb.getBalance());
+                }).exceptionally(e -> {
+                    this.getLogger().at(Level.WARNING).log("Failed to load account for %s: %s", joinedUuid, e.getMessage());
+                    return null;
+                });
 
                 // Cache player name for leaderboards (all backends via centralized service)
                 PlayerNameService.getInstance().onPlayerJoin(playerRef.getUuid(), playerRef.getUsername());
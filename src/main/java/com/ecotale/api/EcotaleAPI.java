@@ -1,9 +1,13 @@
 package com.ecotale.api;
 
+import com.ecotale.economy.BalanceOp;
 import com.ecotale.economy.EconomyManager;
+import com.ecotale.economy.PayoutResult;
 import com.ecotale.util.RateLimiter;
 
 import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -12,7 +16,7 @@ import java.util.UUID;
  * Other plugins can use this API to interact with the economy system.
  * 
  * Rate Limiting:
- * - All write operations (deposit, withdraw, transfer, setBalance) are rate limited
+ * - All write operations (deposit, withdraw, transfer, setBalance, applyBatch, payout) are rate limited
  * - Default: 50 burst capacity, 10 operations/second sustained
  * - Read operations (getBalance, hasBalance) are NOT rate limited
  * - Throws EcotaleRateLimitException if rate limit exceeded
@@ -43,6 +47,9 @@ public final class EcotaleAPI {
     private static EconomyManager economyManager;
     private static RateLimiter rateLimiter;
     
+    /** Rate limit bucket shared by all applyBatch()/payout() calls */
+    private static final UUID BATCH_RATE_KEY = new UUID(0L, 0L);
+    
     private EcotaleAPI() {}
     
     /**
@@ -219,6 +226,53 @@ public final class EcotaleAPI {
         return economyManager.transfer(from, to, amount, reason);
     }
     
+    /**
+     * Apply several deposits/withdrawals as one atomic unit.
+     * Useful for round payouts or multi-seller settlements.
+     *
+     * Rate limited: one token per batch, from a bucket shared by all batches.
+     * Atomic: either every op succeeds or none does.
+     * Fires a single BatchBalanceChangeEvent instead of one event per op.
+     *
+     * @param ops Balance changes (amounts must be positive)
+     * @param reason Reason for the batch (for logging)
+     * @return BatchResult indicating success or failure reason
+     * @throws EcotaleRateLimitException if rate limit exceeded
+     */
+    public static EconomyManager.BatchResult applyBatch(@Nonnull List<BalanceOp> ops, @Nonnull String reason) {
+        validateAvailable();
+        checkRateLimit(BATCH_RATE_KEY);
+        return economyManager.applyBatch(ops, reason);
+    }
+
+    /**
+     * Deposit the same amount into many players (event or playtime rewards).
+     *
+     * Rate limited: one token per payout, from the bucket shared with applyBatch().
+     * NOT atomic: each recipient succeeds or fails on its own (e.g. max balance).
+     *
+     * @param recipients Players to pay (duplicates are paid once)
+     * @param amount Amount per player (must be positive)
+     * @param reason Reason for the payout (for logging)
+     * @return Per-recipient outcomes
+     * @throws EcotaleRateLimitException if rate limit exceeded
+     */
+    public static PayoutResult payout(@Nonnull Collection<UUID> recipients, double amount, @Nonnull String reason) {
+        validateAvailable();
+        checkRateLimit(BATCH_RATE_KEY);
+        return economyManager.payout(recipients, amount, reason);
+    }
+
+    /**
+     * Deposit the same amount into every online player.
+     * Same rate limiting and semantics as {@link #payout(Collection, double, String)}.
+     */
+    public static PayoutResult payoutOnline(double amount, @Nonnull String reason) {
+        validateAvailable();
+        checkRateLimit(BATCH_RATE_KEY);
+        return economyManager.payoutOnline(amount, reason);
+    }
+
     /**
      * Set a player's balance to a specific amount.
      * Intended for admin/console use only.
@@ -240,29 +294,23 @@ public final class EcotaleAPI {
      * Useful for leaderboards.
      * NOT rate limited.
      * 
-     * PERFORMANCE: Queries database directly with LIMIT instead of loading all players.
+     * PERFORMANCE: Read from the live leaderboard index, no sorting and no
+     * database query (see EconomyManager.getTopBalances).
      * 
      * @param limit Maximum number of entries to return
      * @return List of PlayerBalance objects sorted by balance descending
      */
     public static java.util.List<com.ecotale.economy.PlayerBalance> getTopBalances(int limit) {
         validateAvailable();
-        // Use efficient DB query instead of loading all players
-        var storage = com.ecotale.Main.getInstance().getEconomyManager().getStorage();
-        if (storage instanceof com.ecotale.storage.H2StorageProvider h2) {
-            return h2.getTopBalances(limit).join();
-        }
-        // Fallback for other storage providers (uses cache only)
-        return economyManager.getAllBalances().values().stream()
-            .sorted((a, b) -> Double.compare(b.getBalance(), a.getBalance()))
-            .limit(limit)
-            .toList();
+        return economyManager.getTopBalances(limit);
     }
     
     /**
      * Get all player UUIDs that have economy accounts.
      * NOT rate limited.
      * 
+     * In bounded cache mode (CacheMode = "bounded") only accounts currently in memory are returned.
+     * 
      * @return Set of all player UUIDs with accounts
      */
     public static java.util.Set<UUID> getAllPlayerUUIDs() {
@@ -272,16 +320,38 @@ public final class EcotaleAPI {
     
     /**
      * Get the total money circulating in the economy.
-     * Useful for economy statistics.
+     * Useful for economy statistics. Read from running totals, not a scan.
      * NOT rate limited.
      * 
      * @return Total sum of all player balances
      */
     public static double getTotalCirculating() {
         validateAvailable();
-        return economyManager.getAllBalances().values().stream()
-            .mapToDouble(com.ecotale.economy.PlayerBalance::getBalance)
-            .sum();
+        return economyManager.getTotalCirculating();
+    }
+    
+    /**
+     * Get the sum of every player's lifetime earnings.
+     * Read from running totals, not a scan.
+     * NOT rate limited.
+     * 
+     * @return Total earned across all accounts
+     */
+    public static double getTotalEarned() {
+        validateAvailable();
+        return economyManager.getTotalEarned();
+    }
+    
+    /**
+     * Get the sum of every player's lifetime spending.
+     * Read from running totals, not a scan.
+     * NOT rate limited.
+     * 
+     * @return Total spent across all accounts
+     */
+    public static double getTotalSpent() {
+        validateAvailable();
+        return economyManager.getTotalSpent();
     }
     
     /**
@@ -313,6 +383,42 @@ public final class EcotaleAPI {
         validateAvailable();
         return economyManager.getTransactionLogger().getRecentForPlayer(playerUuid, limit);
     }
+    
+    /**
+     * Get per-type transaction totals (count and amount) over a time range,
+     * e.g. money created today = GIVE + EARN of the current DAY bucket.
+     * Read from the hourly/daily rollups, never from raw transactions.
+     * Empty with JSON storage (no transaction log). NOT rate limited.
+     * 
+     * @param period Bucket size to sum (HOUR for sub-day ranges)
+     * @param fromMillis Range start (rounded down to its bucket)
+     * @param toMillis Range end, exclusive
+     * @return Totals per transaction type that occurred in the range
+     */
+    public static java.util.concurrent.CompletableFuture<List<com.ecotale.economy.TransactionRollup.TypeTotal>>
+            getTransactionTotals(@Nonnull com.ecotale.economy.TransactionRollup.Period period,
+                                 long fromMillis, long toMillis) {
+        validateAvailable();
+        return economyManager.getStorage().queryTypeTotalsAsync(period, fromMillis, toMillis);
+    }
+    
+    /**
+     * Get the players who earned the most over a time range (received payments,
+     * admin gives and EARN transactions), highest first.
+     * Read from the rollups. Empty with JSON storage. NOT rate limited.
+     * 
+     * @param period Bucket size to sum
+     * @param fromMillis Range start (rounded down to its bucket)
+     * @param toMillis Range end, exclusive
+     * @param limit Maximum number of players
+     * @return Per-player totals, by earned amount descending
+     */
+    public static java.util.concurrent.CompletableFuture<List<com.ecotale.economy.TransactionRollup.PlayerTotal>>
+            getTopEarners(@Nonnull com.ecotale.economy.TransactionRollup.Period period,
+                          long fromMillis, long toMillis, int limit) {
+        validateAvailable();
+        return economyManager.getStorage().queryTopEarnersAsync(period, fromMillis, toMillis, limit);
+    }
     private static PhysicalCoinsProvider coinsProvider = null;
     
     /**
@@ -0,0 +1,213 @@
+package com.ecotale.api.events;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers ASYNC_POST_COMMIT events on a dedicated thread.
+ *
+ * Producers (economy operations, often holding an account lock) claim a
+ * sequence with one CAS and write the event into a fixed ring slot, so
+ * publishing never allocates or takes a lock. The single consumer drains up to
+ * BATCH_SIZE events at a time, groups them by event type and hands each
+ * listener its whole run of events in one go.
+ *
+ * A slot is free again once the consumer has cleared it and moved past it.
+ * When the ring is full the overflow policy applies: DROP discards the new
+ * event, BLOCK waits for space for at most MAX_BLOCK_NANOS and then drops
+ * (the producer may hold an account lock that a listener is waiting for).
+ * Dropped events are counted.
+ *
+ * Batched subscribers receive lists instead of single events. Their pending
+ * batches are flushed by this thread too: between drains it checks their
+ * latency deadlines and parks no longer than the nearest one. A slow
+ * subscriber slows the consumer, and the full ring pushes back on producers
+ * through the overflow policy.
+ */
+final class AsyncEventDispatcher {
+
+    enum OverflowPolicy { DROP, BLOCK }
+
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = 10_000_000L; // Safety net; producers unpark the consumer
+    private static final long MAX_BLOCK_NANOS = 100_000_000L;
+    private static final long BLOCK_PARK_NANOS = 20_000L;
+
+    private final AtomicReferenceArray<EcotaleEvent> ring;
+    private final int mask;
+    private final OverflowPolicy policy;
+    private final Map<Class<? extends EcotaleEvent>, List<RegisteredListener<?>>> listeners;
+
+    private final AtomicLong tail = new AtomicLong(); // Next sequence to claim
+    private volatile long head = 0;                   // Next sequence to consume
+    private final LongAdder dropped = new LongAdder();
+
+    private final Thread consumer;
+    private volatile boolean idle = false;
+    private volatile boolean running = true;
+
+    /**
+     * @param capacity Ring size, rounded up to a power of two
+     * @param listeners Async listeners by event class, looked up at delivery
+     */
+    AsyncEventDispatcher(int capacity, OverflowPolicy policy,
+                         Map<Class<? extends EcotaleEvent>, List<RegisteredListener<?>>> listeners) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.policy = policy;
+        this.listeners = listeners;
+        this.consumer = new Thread(this::drainLoop, "Ecotale-Events");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Queue an event for delivery.
+     *
+     * @return false if it was dropped (ring full)
+     */
+    boolean publish(EcotaleEvent event) {
+        long deadline = 0;
+        while (true) {
+            long seq = tail.get();
+            if (seq - head > mask) {
+                // Full. The consumer itself must never wait for its own progress.
+                if (policy == OverflowPolicy.DROP || Thread.currentThread() == consumer) {
+                    dropped.increment();
+                    return false;
+                }
+                long now = System.nanoTime();
+                if (deadline == 0) {
+                    deadline = now + MAX_BLOCK_NANOS;
+                } else if (now - deadline > 0) {
+                    dropped.increment();
+                    return false;
+                }
+                if (idle) {
+                    LockSupport.unpark(consumer);
+                }
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                continue;
+            }
+            if (tail.compareAndSet(seq, seq + 1)) {
+                ring.set((int) (seq & mask), event);
+                if (idle) {
+                    LockSupport.unpark(consumer);
+                }
+                return true;
+            }
+        }
+    }
+
+    /** Events queued and not yet delivered. */
+    int depth() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    /** Events discarded because the ring was full. */
+    long droppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Stop the consumer once it has delivered what is queued, waiting at most timeoutMs.
+     */
+    void shutdown(long timeoutMs) {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        List<EcotaleEvent> batch = new ArrayList<>(BATCH_SIZE);
+        while (running || head != tail.get()) {
+            long seq = head;
+            while (batch.size() < BATCH_SIZE) {
+                int slot = (int) (seq & mask);
+                EcotaleEvent event = ring.get(slot);
+                if (event == null) {
+                    break; // Empty, or claimed but not written yet: keep order, retry later
+                }
+                ring.lazySet(slot, null);
+                batch.add(event);
+                seq++;
+            }
+            head = seq;
+
+            boolean drained = !batch.isEmpty();
+            if (drained) {
+                deliver(batch);
+                batch.clear();
+            }
+            long now = System.nanoTime();
+            long nextFlush = flushDue(now);
+
+            if (!drained) {
+                idle = true;
+                if (running && head == tail.get()) {
+                    long wait = nextFlush == Long.MAX_VALUE ? IDLE_PARK_NANOS : nextFlush - now;
+                    LockSupport.parkNanos(Math.max(1, Math.min(IDLE_PARK_NANOS, wait)));
+                } else {
+                    Thread.onSpinWait();
+                }
+                idle = false;
+            }
+        }
+        // Stopping: hand out what batched subscribers still hold
+        for (List<RegisteredListener<?>> targets : listeners.values()) {
+            for (RegisteredListener<?> listener : targets) {
+                listener.flush();
+            }
+        }
+    }
+
+    /**
+     * Flush batched subscribers whose latency deadline has passed.
+     *
+     * @return Nearest pending deadline (System.nanoTime), or Long.MAX_VALUE
+     */
+    private long flushDue(long now) {
+        long next = Long.MAX_VALUE;
+        for (List<RegisteredListener<?>> targets : listeners.values()) {
+            for (RegisteredListener<?> listener : targets) {
+                long deadline = listener.flushIfDue(now);
+                if (deadline != Long.MAX_VALUE && (next == Long.MAX_VALUE || deadline - next < 0)) {
+                    next = deadline;
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Per-listener batching: every listener of a type gets that type's events back to back.
+     */
+    private void deliver(List<EcotaleEvent> batch) {
+        Map<Class<?>, List<EcotaleEvent>> byType = new LinkedHashMap<>();
+        for (EcotaleEvent event : batch) {
+            byType.computeIfAbsent(event.getClass(), k -> new ArrayList<>()).add(event);
+        }
+        for (Map.Entry<Class<?>, List<EcotaleEvent>> group : byType.entrySet()) {
+            List<RegisteredListener<?>> targets = listeners.get(group.getKey());
+            if (targets == null) {
+                continue;
+            }
+            for (RegisteredListener<?> listener : targets) {
+                for (EcotaleEvent event : group.getValue()) {
+                    listener.invoke(event);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecotale.api.events;
+
+import com.ecotale.economy.BalanceOp;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Fired once for an atomic batch of balance changes, before anything is applied.
+ *
+ * <p>This event is cancellable - if cancelled, none of the changes in the batch occur.
+ * Batches do not fire one {@link BalanceChangeEvent} per op.</p>
+ *
+ * <p>Example:</p>
+ * <pre>
+ * EcotaleEvents.register(BatchBalanceChangeEvent.class, event -> {
+ *     if (event.getOps().size() > 200) {
+ *         event.setCancelled(true); // Refuse oversized payouts
+ *     }
+ * });
+ * </pre>
+ */
+public class BatchBalanceChangeEvent extends EcotaleEvent {
+
+    private final List<BalanceOp> ops;
+    private final Map<UUID, Double> netChanges;
+    private final String reason;
+
+    public BatchBalanceChangeEvent(@Nonnull List<BalanceOp> ops, @Nonnull Map<UUID, Double> netChanges,
+                                   @Nonnull String reason) {
+        this.ops = ops;
+        this.netChanges = netChanges;
+        this.reason = reason;
+    }
+
+    /**
+     * Get the ops in the batch, in submission order (read-only).
+     */
+    @Nonnull
+    public List<BalanceOp> getOps() {
+        return ops;
+    }
+
+    /**
+     * Get the net balance change per player (positive for increase, read-only).
+     */
+    @Nonnull
+    public Map<UUID, Double> getNetChanges() {
+        return netChanges;
+    }
+
+    /**
+     * Get the reason/description for this batch.
+     */
+    @Nonnull
+    public String getReason() {
+        return reason;
+    }
+}
@@ -4,55 +4,135 @@ import javax.annotation.Nonnull;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
  * Event manager for Ecotale events.
- * 
+ *
  * <p>External plugins can register listeners here to react to economy events.</p>
- * 
+ *
  * <p>Example registration:</p>
  * <pre>
  * // Register a listener for balance changes
  * EcotaleEvents.register(BalanceChangeEvent.class, event -> {
  *     System.out.println("Balance changed: " + event.getDelta());
- *     
+ *
  *     // Cancel if trying to go over 1 million
  *     if (event.getNewBalance() > 1_000_000) {
  *         event.setCancelled(true);
  *     }
  * });
- * 
+ *
+ * // Slow work (e.g. writing to your own database) after the change is committed,
+ * // off the economy's threads
+ * EcotaleEvents.register(BalanceChangeEvent.class, ListenerMode.ASYNC_POST_COMMIT, event -> {
+ *     myDatabase.recordChange(event.getPlayerUuid(), event.getDelta());
+ * });
+ *
+ * // Analytics: committed transactions in chunks of up to 500, at most 250 ms late
+ * EcotaleEvents.subscribeBatches(TransactionEvent.class, 500, 250, batch -> {
+ *     myWarehouse.insertAll(batch);
+ * });
+ *
  * // Unregister all listeners for a specific event type
  * EcotaleEvents.unregisterAll(BalanceChangeEvent.class);
  * </pre>
- * 
+ *
  * <p>Thread-safe: can be called from any thread.</p>
  */
 public final class EcotaleEvents {
-    
-    private static final Map<Class<? extends EcotaleEvent>, List<Consumer<? extends EcotaleEvent>>> listeners = 
+
+    private static final Map<Class<? extends EcotaleEvent>, List<RegisteredListener<?>>> listeners =
             new ConcurrentHashMap<>();
-    
+    private static final Map<Class<? extends EcotaleEvent>, List<RegisteredListener<?>>> asyncListeners =
+            new ConcurrentHashMap<>();
+
+    // Async delivery settings, applied when the dispatcher starts (on the first async event)
+    private static volatile int asyncQueueSize = 8192;
+    private static volatile AsyncEventDispatcher.OverflowPolicy asyncOverflow = AsyncEventDispatcher.OverflowPolicy.DROP;
+    private static volatile AsyncEventDispatcher dispatcher;
+    private static volatile boolean asyncStopped = false;
+
     private EcotaleEvents() {}
-    
+
     /**
      * Register a listener for a specific event type.
-     * 
+     * It runs before the change is applied and may cancel it ({@link ListenerMode#SYNC_PRE_COMMIT}),
+     * except for {@link TransactionEvent}, which only exists after the commit and is
+     * delivered {@link ListenerMode#ASYNC_POST_COMMIT}.
+     *
+     * @param eventClass The event class to listen for
+     * @param listener The listener callback
+     * @param <T> Event type
+     */
+    public static <T extends EcotaleEvent> void register(@Nonnull Class<T> eventClass,
+                                                          @Nonnull Consumer<T> listener) {
+        register(eventClass, isPostCommitOnly(eventClass) ? ListenerMode.ASYNC_POST_COMMIT
+            : ListenerMode.SYNC_PRE_COMMIT, listener);
+    }
+
+    /**
+     * Register a listener for a specific event type in the given mode.
+     *
      * @param eventClass The event class to listen for
+     * @param mode When and on which thread the listener runs
      * @param listener The listener callback
      * @param <T> Event type
+     * @throws IllegalArgumentException if a post-commit-only event ({@link TransactionEvent})
+     *         is registered {@link ListenerMode#SYNC_PRE_COMMIT}
      */
-    @SuppressWarnings("unchecked")
-    public static <T extends EcotaleEvent> void register(@Nonnull Class<T> eventClass, 
+    public static <T extends EcotaleEvent> void register(@Nonnull Class<T> eventClass,
+                                                          @Nonnull ListenerMode mode,
                                                           @Nonnull Consumer<T> listener) {
-        listeners.computeIfAbsent(eventClass, k -> new CopyOnWriteArrayList<>())
-                 .add(listener);
+        if (mode == ListenerMode.SYNC_PRE_COMMIT && isPostCommitOnly(eventClass)) {
+            throw new IllegalArgumentException(eventClass.getSimpleName()
+                + " is only published after the commit; register it ASYNC_POST_COMMIT");
+        }
+        registry(mode).computeIfAbsent(eventClass, k -> new CopyOnWriteArrayList<>())
+                 .add(new RegisteredListener<>(eventClass, listener, mode));
     }
-    
+
     /**
-     * Unregister a specific listener.
-     * 
+     * Subscribe to committed events in batches instead of one call per event.
+     *
+     * <p>The subscriber runs on the async event thread and receives a list once
+     * maxBatchSize events are pending or the oldest pending one has waited
+     * maxLatencyMs, whichever comes first. Events are in commit order. A slow
+     * subscriber holds back the async queue; when it is full the configured
+     * overflow policy applies to new events.</p>
+     *
+     * @param eventClass The event class to subscribe to
+     * @param maxBatchSize Most events per call (at least 1)
+     * @param maxLatencyMs Longest an event waits for its batch to fill
+     * @param subscriber Receives each batch (an unmodifiable list)
+     * @param <T> Event type
+     */
+    public static <T extends EcotaleEvent> void subscribeBatches(@Nonnull Class<T> eventClass,
+                                                                  int maxBatchSize, long maxLatencyMs,
+                                                                  @Nonnull Consumer<List<T>> subscriber) {
+        asyncListeners.computeIfAbsent(eventClass, k -> new CopyOnWriteArrayList<>())
+                      .add(new RegisteredListener<>(eventClass, subscriber, maxBatchSize,
+                          TimeUnit.MILLISECONDS.toNanos(maxLatencyMs)));
+    }
+
+    /**
+     * Remove a batched subscriber. Events it has not received yet are discarded.
+     *
+     * @param eventClass The event class
+     * @param subscriber The subscriber to remove
+     * @param <T> Event type
+     * @return true if the subscriber was found and removed
+     */
+    public static <T extends EcotaleEvent> boolean unsubscribeBatches(@Nonnull Class<T> eventClass,
+                                                                       @Nonnull Consumer<List<T>> subscriber) {
+        List<RegisteredListener<?>> list = asyncListeners.get(eventClass);
+        return list != null && list.removeIf(registered -> registered.callback() == subscriber);
+    }
+
+    /**
+     * Unregister a specific listener (in whichever mode it was registered).
+     *
      * @param eventClass The event class
      * @param listener The listener to remove
      * @param <T> Event type
@@ -60,57 +140,159 @@ public final class EcotaleEvents {
      */
     public static <T extends EcotaleEvent> boolean unregister(@Nonnull Class<T> eventClass,
                                                                @Nonnull Consumer<T> listener) {
-        List<Consumer<? extends EcotaleEvent>> list = listeners.get(eventClass);
-        if (list != null) {
-            return list.remove(listener);
+        boolean removed = false;
+        for (ListenerMode mode : ListenerMode.values()) {
+            List<RegisteredListener<?>> list = registry(mode).get(eventClass);
+            if (list != null) {
+                removed |= list.removeIf(registered -> registered.callback() == listener);
+            }
         }
-        return false;
+        return removed;
     }
-    
+
     /**
      * Unregister all listeners for a specific event type.
-     * 
+     *
      * @param eventClass The event class
      */
     public static void unregisterAll(@Nonnull Class<? extends EcotaleEvent> eventClass) {
         listeners.remove(eventClass);
+        asyncListeners.remove(eventClass);
     }
-    
+
     /**
-     * Fire an event to all registered listeners.
-     * 
+     * Fire an event to all {@link ListenerMode#SYNC_PRE_COMMIT} listeners.
+     *
      * <p>This method is called internally by Ecotale when events occur.
      * External plugins should not call this directly.</p>
-     * 
+     *
      * @param event The event to fire
      * @param <T> Event type
      * @return The event (may be modified/cancelled by listeners)
      */
-    @SuppressWarnings("unchecked")
     public static <T extends EcotaleEvent> T fire(@Nonnull T event) {
-        List<Consumer<? extends EcotaleEvent>> list = listeners.get(event.getClass());
+        List<RegisteredListener<?>> list = listeners.get(event.getClass());
         if (list != null) {
-            for (Consumer<? extends EcotaleEvent> consumer : list) {
-                try {
-                    ((Consumer<T>) consumer).accept(event);
-                } catch (Exception e) {
-                    // Log but don't propagate exceptions from listeners
-                    System.err.println("[Ecotale] Error in event listener: " + e.getMessage());
-                    e.printStackTrace();
-                }
+            for (RegisteredListener<?> listener : list) {
+                listener.invoke(event);
             }
         }
         return event;
     }
-    
+
     /**
-     * Get the number of registered listeners for an event type.
-     * 
+     * Queue a committed event for the {@link ListenerMode#ASYNC_POST_COMMIT} listeners.
+     * Never blocks for long: if the queue is full the event may be dropped.
+     *
+     * <p>This method is called internally by Ecotale after a change is committed.
+     * External plugins should not call this directly.</p>
+     *
+     * @param event The committed event
+     * @return false if the event was dropped
+     */
+    public static boolean publish(@Nonnull EcotaleEvent event) {
+        AsyncEventDispatcher current = dispatcher;
+        if (current == null) {
+            current = startDispatcher();
+            if (current == null) {
+                return false; // Shut down
+            }
+        }
+        return current.publish(event);
+    }
+
+    /**
+     * Check if an event type has listeners in a mode, so callers can skip
+     * building events nobody receives.
+     */
+    public static boolean hasListeners(@Nonnull Class<? extends EcotaleEvent> eventClass, @Nonnull ListenerMode mode) {
+        List<RegisteredListener<?>> list = registry(mode).get(eventClass);
+        return list != null && !list.isEmpty();
+    }
+
+    /**
+     * Get the number of registered listeners for an event type (all modes).
+     *
      * @param eventClass The event class
      * @return Number of listeners
      */
     public static int getListenerCount(@Nonnull Class<? extends EcotaleEvent> eventClass) {
-        List<Consumer<? extends EcotaleEvent>> list = listeners.get(eventClass);
-        return list != null ? list.size() : 0;
+        List<RegisteredListener<?>> sync = listeners.get(eventClass);
+        List<RegisteredListener<?>> async = asyncListeners.get(eventClass);
+        return (sync != null ? sync.size() : 0) + (async != null ? async.size() : 0);
+    }
+
+    /**
+     * Get latency and error counters of every registered listener.
+     */
+    @Nonnull
+    public static List<ListenerStats> getListenerStats() {
+        List<ListenerStats> stats = new ArrayList<>();
+        for (ListenerMode mode : ListenerMode.values()) {
+            for (List<RegisteredListener<?>> list : registry(mode).values()) {
+                for (RegisteredListener<?> listener : list) {
+                    stats.add(listener.stats());
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Get the number of async events queued and not yet delivered.
+     */
+    public static int getAsyncQueueDepth() {
+        AsyncEventDispatcher current = dispatcher;
+        return current != null ? current.depth() : 0;
+    }
+
+    /**
+     * Get the number of async events dropped because the queue was full.
+     */
+    public static long getDroppedAsyncEvents() {
+        AsyncEventDispatcher current = dispatcher;
+        return current != null ? current.droppedCount() : 0;
+    }
+
+    /**
+     * Set the async queue size and overflow policy ("drop" or "block").
+     * Called by Ecotale from its config before the first event; later calls have no effect.
+     */
+    public static void configureAsync(int queueSize, @Nonnull String overflow) {
+        asyncQueueSize = Math.max(2, queueSize);
+        asyncOverflow = "block".equalsIgnoreCase(overflow)
+            ? AsyncEventDispatcher.OverflowPolicy.BLOCK : AsyncEventDispatcher.OverflowPolicy.DROP;
+    }
+
+    /**
+     * Deliver the queued async events (waiting at most timeoutMs) and stop the event thread.
+     * Called by Ecotale on shutdown.
+     */
+    public static void shutdownAsync(long timeoutMs) {
+        AsyncEventDispatcher current;
+        synchronized (EcotaleEvents.class) {
+            asyncStopped = true;
+            current = dispatcher;
+            dispatcher = null;
+        }
+        if (current != null) {
+            current.shutdown(timeoutMs);
+        }
+    }
+
+    private static synchronized AsyncEventDispatcher startDispatcher() {
+        if (dispatcher == null && !asyncStopped) {
+            dispatcher = new AsyncEventDispatcher(asyncQueueSize, asyncOverflow, asyncListeners);
+        }
+        return dispatcher;
+    }
+
+    /** Events that are only created after the commit, so no listener can run before it */
+    private static boolean isPostCommitOnly(Class<? extends EcotaleEvent> eventClass) {
+        return TransactionEvent.class.isAssignableFrom(eventClass);
+    }
+
+    private static Map<Class<? extends EcotaleEvent>, List<RegisteredListener<?>>> registry(ListenerMode mode) {
+        return mode == ListenerMode.ASYNC_POST_COMMIT ? asyncListeners : listeners;
     }
 }
@@ -0,0 +1,24 @@
+package com.ecotale.api.events;
+
+/**
+ * When and on which thread a listener receives events.
+ *
+ * @see EcotaleEvents#register(Class, ListenerMode, java.util.function.Consumer)
+ */
+public enum ListenerMode {
+    /**
+     * Before the change is applied, on the calling thread, while the account
+     * lock is held. The listener may cancel the change. Keep it fast: every
+     * other operation on the account waits for it.
+     */
+    SYNC_PRE_COMMIT,
+
+    /**
+     * After the change is committed, on the Ecotale event thread. Events are
+     * queued in a bounded ring and delivered in batches, in commit order per
+     * event type. Cancelling has no effect. Suited to slow work such as writing
+     * to another database; if the ring is full, events are dropped or the
+     * economy waits briefly (AsyncEventOverflow).
+     */
+    ASYNC_POST_COMMIT
+}
@@ -0,0 +1,21 @@
+package com.ecotale.api.events;
+
+/**
+ * Counters of one registered listener.
+ *
+ * @param eventType Simple name of the event class
+ * @param listener Class name of the listener
+ * @param mode Registration mode
+ * @param invocations Calls to the listener (one per batch for batched subscribers)
+ * @param errors Deliveries that threw
+ * @param totalNanos Time spent in the listener
+ * @param maxNanos Slowest single call
+ */
+public record ListenerStats(String eventType, String listener, ListenerMode mode,
+                            long invocations, long errors, long totalNanos, long maxNanos) {
+
+    /** Average time per delivery in microseconds. */
+    public double getAverageMicros() {
+        return invocations > 0 ? totalNanos / 1000.0 / invocations : 0;
+    }
+}
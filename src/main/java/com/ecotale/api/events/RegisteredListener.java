@@ -0,0 +1,141 @@
+package com.ecotale.api.events;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * A listener with its mode and latency/error counters.
+ *
+ * Batched subscribers (see EcotaleEvents.subscribeBatches) collect events and
+ * receive them as one list once maxBatchSize events are pending or the oldest
+ * has waited maxLatency. Their pending list is only touched by the async event
+ * thread.
+ */
+final class RegisteredListener<T extends EcotaleEvent> {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.getLogger().getSubLogger("Ecotale-Events");
+
+    private final Class<T> eventClass;
+    private final Object callback; // Consumer<T>, or Consumer<List<T>> when batched
+    private final ListenerMode mode;
+
+    // Batching (maxBatchSize 0 = one call per event)
+    private final int maxBatchSize;
+    private final long maxLatencyNanos;
+    private List<T> pending;
+    private long pendingSince;
+
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    RegisteredListener(Class<T> eventClass, Consumer<T> consumer, ListenerMode mode) {
+        this.eventClass = eventClass;
+        this.callback = consumer;
+        this.mode = mode;
+        this.maxBatchSize = 0;
+        this.maxLatencyNanos = 0;
+    }
+
+    RegisteredListener(Class<T> eventClass, Consumer<List<T>> subscriber, int maxBatchSize, long maxLatencyNanos) {
+        this.eventClass = eventClass;
+        this.callback = subscriber;
+        this.mode = ListenerMode.ASYNC_POST_COMMIT;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxLatencyNanos = Math.max(0, maxLatencyNanos);
+        this.pending = new ArrayList<>(this.maxBatchSize);
+    }
+
+    Object callback() {
+        return callback;
+    }
+
+    /**
+     * Deliver one event (or add it to the pending batch).
+     * Exceptions are logged and counted, never propagated.
+     */
+    @SuppressWarnings("unchecked")
+    void invoke(EcotaleEvent event) {
+        if (pending != null) {
+            if (pending.isEmpty()) {
+                pendingSince = System.nanoTime();
+            }
+            pending.add((T) event);
+            if (pending.size() >= maxBatchSize) {
+                flush();
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            ((Consumer<T>) callback).accept((T) event);
+        } catch (Exception e) {
+            onError(e);
+        } finally {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Deliver the pending batch if its oldest event has waited maxLatency.
+     *
+     * @return Deadline (System.nanoTime) of the still pending batch, or Long.MAX_VALUE
+     */
+    long flushIfDue(long now) {
+        if (pending == null || pending.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+        long deadline = pendingSince + maxLatencyNanos;
+        if (now - deadline >= 0) {
+            flush();
+            return Long.MAX_VALUE;
+        }
+        return deadline;
+    }
+
+    /**
+     * Deliver the pending batch now (no-op for per-event listeners).
+     */
+    @SuppressWarnings("unchecked")
+    void flush() {
+        if (pending == null || pending.isEmpty()) {
+            return;
+        }
+        List<T> batch = Collections.unmodifiableList(pending);
+        pending = new ArrayList<>(maxBatchSize);
+        long start = System.nanoTime();
+        try {
+            ((Consumer<List<T>>) callback).accept(batch);
+        } catch (Exception e) {
+            onError(e);
+        } finally {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    ListenerStats stats() {
+        return new ListenerStats(eventClass.getSimpleName(), callback.getClass().getName(), mode,
+            invocations.sum(), errors.sum(), totalNanos.sum(), maxNanos.get());
+    }
+
+    private void onError(Exception e) {
+        errors.increment();
+        // Log but don't propagate exceptions from listeners
+        LOGGER.at(Level.WARNING).withCause(e).log("Error in %s listener %s: %s",
+            eventClass.getSimpleName(), callback.getClass().getName(), e.getMessage());
+    }
+
+    private void record(long elapsed) {
+        invocations.increment();
+        totalNanos.add(elapsed);
+        maxNanos.accumulateAndGet(elapsed, Math::max);
+    }
+}
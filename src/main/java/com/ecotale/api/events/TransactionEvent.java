@@ -8,9 +8,15 @@ import java.util.UUID;
  * Fired when a transaction occurs between players or with the system.
  * 
  * <p>This event is fired AFTER the transaction completes successfully.
- * It is NOT cancellable since the transaction already happened.</p>
+ * It is NOT cancellable since the transaction already happened, and it is
+ * only delivered {@link ListenerMode#ASYNC_POST_COMMIT}, on the event thread.</p>
  * 
  * <p>For cancellable logic, use {@link BalanceChangeEvent} instead.</p>
+ * 
+ * <p>One event is published per logged transaction. For high volumes (analytics,
+ * external ledgers) subscribe with
+ * {@link EcotaleEvents#subscribeBatches(Class, int, long, java.util.function.Consumer)}
+ * to receive them in chunks off the economy's threads.</p>
  */
 public class TransactionEvent extends EcotaleEvent {
     
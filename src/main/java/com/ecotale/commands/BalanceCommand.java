@@ -137,10 +137,10 @@ public class BalanceCommand extends AbstractAsyncCommand {
         HudHelper.setCustomHud(player, playerRef, hud);
         BalanceHudSystem.registerHud(playerUuid, hud);
         
-        // Update with current balance
+        // Update with current balance (on the next HUD frame, where animations run)
         var balance = Main.getInstance().getEconomyManager().getPlayerBalance(playerUuid);
         if (balance != null) {
-            hud.updateBalance(balance.getBalance());
+            BalanceHudSystem.updatePlayerHud(playerUuid, balance.getBalance());
         }
     }
     
@@ -1,9 +1,11 @@
 package com.ecotale.commands;
 
 import com.ecotale.Main;
+import com.ecotale.api.events.EcotaleEvents;
+import com.ecotale.api.events.ListenerStats;
 import com.ecotale.economy.PlayerBalance;
+import com.ecotale.economy.TransactionLogWriter;
 import com.ecotale.gui.EcoAdminGui;
-import com.ecotale.hud.BalanceHud;
 import com.ecotale.systems.BalanceHudSystem;
 import com.ecotale.util.PlayerNameService;
 
@@ -19,7 +21,6 @@ import com.hypixel.hytale.server.core.universe.PlayerRef;
 import org.checkerframework.checker.nullness.compatqual.NonNullDecl;
 
 import java.awt.Color;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Arrays;
 import java.util.Map;
@@ -407,9 +408,9 @@ public class EcoAdminCommand extends AbstractAsyncCommand {
         @NonNullDecl
         @Override
         protected CompletableFuture<Void> executeAsync(CommandContext ctx) {
-            Map<UUID, PlayerBalance> balances = Main.getInstance().getEconomyManager().getAllBalances();
+            List<Map.Entry<UUID, PlayerBalance>> leaderboard = Main.getInstance().getEconomyManager().getLeaderboard(10);
             
-            if (balances.isEmpty()) {
+            if (leaderboard.isEmpty()) {
                 ctx.sendMessage(Message.raw("No player balances found").color(Color.GRAY));
                 return CompletableFuture.completedFuture(null);
             }
@@ -417,9 +418,8 @@ public class EcoAdminCommand extends AbstractAsyncCommand {
             ctx.sendMessage(Message.raw("=== Top Balances ===").color(new Color(255, 215, 0)));
 
             // Get top 10 sorted by balance
-            List<PlayerBalance> top10 = balances.values().stream()
-                .sorted(Comparator.comparingDouble(PlayerBalance::getBalance).reversed())
-                .limit(10)
+            List<PlayerBalance> top10 = leaderboard.stream()
+                .map(Map.Entry::getValue)
                 .toList();
 
             // Build name resolution futures via centralized PlayerNameService
@@ -500,6 +500,68 @@ public class EcoAdminCommand extends AbstractAsyncCommand {
                     Message.raw(monitor.getCachedPlayers() + " / 1000").color(green)
                 ));
                 
+                if (monitor.getColumnStoreBytes() > 0) {
+                    ctx.sendMessage(Message.join(
+                        Message.raw("Column Store: ").color(white),
+                        Message.raw(monitor.getColumnStoreBytes() / 1024 + " KB").color(green)
+                    ));
+                }
+                
+                ctx.sendMessage(Message.join(
+                    Message.raw("Totals Drift: ").color(white),
+                    Message.raw(Main.CONFIG.get().format(monitor.getTotalsDrift()) + " (last reconciliation)").color(green)
+                ));
+                
+                // Event listeners: async queue and per-listener latency/errors
+                ctx.sendMessage(Message.join(
+                    Message.raw("Async Events: ").color(white),
+                    Message.raw(EcotaleEvents.getAsyncQueueDepth() + " queued, "
+                        + EcotaleEvents.getDroppedAsyncEvents() + " dropped").color(green)
+                ));
+                TransactionLogWriter logWriter = Main.getInstance().getEconomyManager()
+                    .getTransactionLogger().getWriter();
+                if (logWriter != null) {
+                    ctx.sendMessage(Message.join(
+                        Message.raw("Transaction Log: ").color(white),
+                        Message.raw(String.format("%d/%d queued, avg batch %.1f, commit avg %.1fms max %.1fms",
+                            logWriter.getQueueDepth(), logWriter.getQueueCapacity(), logWriter.getAverageBatchSize(),
+                            logWriter.getAverageCommitMs(), logWriter.getMaxCommitMs())).color(green)
+                    ));
+                    long lost = logWriter.getDroppedCount() + logWriter.getFailedCount();
+                    ctx.sendMessage(Message.join(
+                        Message.raw("  " + logWriter.getOverflowPolicy() + ": ").color(white),
+                        Message.raw(logWriter.getSpilledCount() + " spilled, " + logWriter.getDroppedCount()
+                            + " dropped, " + logWriter.getFailedCount() + " failed").color(lost > 0 ? Color.RED : green)
+                    ));
+                }
+                for (ListenerStats stats : EcotaleEvents.getListenerStats()) {
+                    ctx.sendMessage(Message.join(
+                        Message.raw("  " + stats.eventType() + " " + stats.mode() + ": ").color(white),
+                        Message.raw(String.format("%d calls, avg %.1fus, max %.1fms, %d errors (%s)",
+                            stats.invocations(), stats.getAverageMicros(), stats.maxNanos() / 1_000_000.0,
+                            stats.errors(), stats.listener())).color(stats.errors() > 0 ? Color.RED : green)
+                    ));
+                }
+                
+                long joins = monitor.getJoinLoads();
+                ctx.sendMessage(Message.join(
+                    Message.raw("Join Load Wait: ").color(white),
+                    Message.raw(monitor.getJoinWaitMillis() + "ms total over " + joins + " joins (avg "
+                        + (joins > 0 ? monitor.getJoinWaitMillis() / joins : 0) + "ms)").color(green)
+                ));
+                
+                if (monitor.getLockStripes() > 0) {
+                    ctx.sendMessage(Message.join(
+                        Message.raw("Lock Waits: ").color(white),
+                        Message.raw(monitor.getLockWaits() + " (" + monitor.getLockWaitMillis() + "ms, "
+                            + monitor.getLockStripes() + " stripes)").color(green)
+                    ));
+                    ctx.sendMessage(Message.join(
+                        Message.raw("Hottest Stripe: ").color(white),
+                        Message.raw("#" + monitor.getHottestStripe() + " (" + monitor.getHottestStripeWaits() + " waits)").color(green)
+                    ));
+                }
+                
                 ctx.sendMessage(Message.raw("---------------------------------").color(gold));
                 ctx.sendMessage(Message.raw("System metrics moved to /guard metrics").color(Color.GRAY));
             } else {
@@ -509,10 +571,7 @@ public class EcoAdminCommand extends AbstractAsyncCommand {
         }
     }
     private static void updateHud(UUID playerUuid, double newBalance) {
-        BalanceHud hud = BalanceHudSystem.getHud(playerUuid);
-        if (hud != null) {
-            hud.updateBalance(newBalance);
-        }
+        BalanceHudSystem.updatePlayerHud(playerUuid, newBalance);
     }
 }
 
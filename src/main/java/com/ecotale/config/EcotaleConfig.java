@@ -27,6 +27,8 @@ public class EcotaleConfig {
             (c, v, e) -> c.startingBalance = v, (c, e) -> c.startingBalance).add()
         .append(new KeyedCodec<>("MaxBalance", Codec.DOUBLE),
             (c, v, e) -> c.maxBalance = v, (c, e) -> c.maxBalance).add()
+        .append(new KeyedCodec<>("LedgerMode", Codec.STRING),
+            (c, v, e) -> c.ledgerMode = v, (c, e) -> c.ledgerMode).add()
         
         // Transaction settings
         .append(new KeyedCodec<>("TransferFee", Codec.DOUBLE),
@@ -69,6 +71,48 @@ public class EcotaleConfig {
         // Auto-save
         .append(new KeyedCodec<>("AutoSaveInterval", Codec.INTEGER),
             (c, v, e) -> c.autoSaveInterval = v, (c, e) -> c.autoSaveInterval).add()
+        .append(new KeyedCodec<>("EnableJournal", Codec.BOOLEAN),
+            (c, v, e) -> c.enableJournal = v, (c, e) -> c.enableJournal).add()
+        .append(new KeyedCodec<>("JournalSyncIntervalMs", Codec.INTEGER),
+            (c, v, e) -> c.journalSyncIntervalMs = v, (c, e) -> c.journalSyncIntervalMs).add()
+        .append(new KeyedCodec<>("JournalSizeMb", Codec.INTEGER),
+            (c, v, e) -> c.journalSizeMb = v, (c, e) -> c.journalSizeMb).add()
+        
+        // Account cache
+        .append(new KeyedCodec<>("CacheMode", Codec.STRING),
+            (c, v, e) -> c.cacheMode = v, (c, e) -> c.cacheMode).add()
+        .append(new KeyedCodec<>("MaxCachedAccounts", Codec.INTEGER),
+            (c, v, e) -> c.maxCachedAccounts = v, (c, e) -> c.maxCachedAccounts).add()
+        
+        // Account locking
+        .append(new KeyedCodec<>("LockMode", Codec.STRING),
+            (c, v, e) -> c.lockMode = v, (c, e) -> c.lockMode).add()
+        .append(new KeyedCodec<>("LockStripes", Codec.INTEGER),
+            (c, v, e) -> c.lockStripes = v, (c, e) -> c.lockStripes).add()
+        .append(new KeyedCodec<>("LockFreeBalances", Codec.BOOLEAN),
+            (c, v, e) -> c.lockFreeBalances = v, (c, e) -> c.lockFreeBalances).add()
+        
+        // Async event listeners
+        .append(new KeyedCodec<>("AsyncEventQueueSize", Codec.INTEGER),
+            (c, v, e) -> c.asyncEventQueueSize = v, (c, e) -> c.asyncEventQueueSize).add()
+        .append(new KeyedCodec<>("AsyncEventOverflow", Codec.STRING),
+            (c, v, e) -> c.asyncEventOverflow = v, (c, e) -> c.asyncEventOverflow).add()
+        
+        // Transaction log
+        .append(new KeyedCodec<>("TransactionLogBufferSize", Codec.INTEGER),
+            (c, v, e) -> c.transactionLogBufferSize = v, (c, e) -> c.transactionLogBufferSize).add()
+        .append(new KeyedCodec<>("TransactionLogQueueSize", Codec.INTEGER),
+            (c, v, e) -> c.transactionLogQueueSize = v, (c, e) -> c.transactionLogQueueSize).add()
+        .append(new KeyedCodec<>("TransactionLogBatchSize", Codec.INTEGER),
+            (c, v, e) -> c.transactionLogBatchSize = v, (c, e) -> c.transactionLogBatchSize).add()
+        .append(new KeyedCodec<>("TransactionLogFlushMs", Codec.INTEGER),
+            (c, v, e) -> c.transactionLogFlushMs = v, (c, e) -> c.transactionLogFlushMs).add()
+        .append(new KeyedCodec<>("TransactionLogOverflow", Codec.STRING),
+            (c, v, e) -> c.transactionLogOverflow = v, (c, e) -> c.transactionLogOverflow).add()
+        .append(new KeyedCodec<>("TransactionRetentionDays", Codec.INTEGER),
+            (c, v, e) -> c.transactionRetentionDays = v, (c, e) -> c.transactionRetentionDays).add()
+        .append(new KeyedCodec<>("TransactionMaintenanceMinutes", Codec.INTEGER),
+            (c, v, e) -> c.transactionMaintenanceMinutes = v, (c, e) -> c.transactionMaintenanceMinutes).add()
 
         // Top balance snapshot schedule
         .append(new KeyedCodec<>("TopBalanceSnapshotTime", Codec.STRING),
@@ -106,6 +150,7 @@ public class EcotaleConfig {
     // Balance limits
     private double startingBalance = 100.0;
     private double maxBalance = 1_000_000_000.0; // 1 billion
+    private String ledgerMode = "double"; // "double" or "minor" (long minor units scaled by DecimalPlaces)
     
     // Transactions
     private double transferFee = 0.05; // 5% fee
@@ -133,6 +178,31 @@ public class EcotaleConfig {
     
     // Auto-save
     private int autoSaveInterval = 300; // 5 minutes in seconds
+    private boolean enableJournal = false; // Write-ahead journal in mods/Ecotale_Ecotale/journal
+    private int journalSyncIntervalMs = 5;  // Group-commit fsync interval
+    private int journalSizeMb = 16;         // Journal capacity (~260k records); the file holds two segments of this size
+    
+    // Account cache - "all" (preload every account), "bounded" (hot accounts only) or "columnar" (hot accounts + compact rows)
+    private String cacheMode = "all";
+    private int maxCachedAccounts = 50_000; // Soft limit in bounded mode; online players are never evicted
+    
+    // Account locking - "player" (one lock per account) or "striped" (fixed lock table)
+    private String lockMode = "player";
+    private int lockStripes = 256; // Rounded up to a power of two
+    private boolean lockFreeBalances = false; // true = deposit/withdraw/set skip the account lock
+    
+    // Async event listeners (ListenerMode.ASYNC_POST_COMMIT)
+    private int asyncEventQueueSize = 8192;       // Ring size, rounded up to a power of two
+    private String asyncEventOverflow = "drop";   // Full ring: "drop" new events or "block" briefly (max 100 ms)
+    
+    // Transaction log (in-memory recent entries + group-commit writer to storage)
+    private int transactionLogBufferSize = 500;    // Recent entries kept in memory (dashboard, API history)
+    private int transactionLogQueueSize = 16384;   // Entries waiting for the writer
+    private int transactionLogBatchSize = 500;     // Most rows per storage write
+    private int transactionLogFlushMs = 250;       // Longest an entry waits for its batch
+    private String transactionLogOverflow = "spill"; // Full queue: "block", "spill" to disk or "drop"
+    private int transactionRetentionDays = 0;      // Stored history kept (H2/MySQL), 0 = forever
+    private int transactionMaintenanceMinutes = 60; // Retention + H2 compaction interval
 
     // Top balance snapshot schedule (HH:mm) + timezone
     private String topBalanceSnapshotTime = "03:00";
@@ -200,6 +270,15 @@ public class EcotaleConfig {
      * @param balance Maximum amount (must be > 0)
      */
     public void setMaxBalance(double balance) { this.maxBalance = balance; }
+    
+    /**
+     * Get the ledger mode used to store amounts.
+     * "double" keeps amounts as doubles. "minor" keeps them as long minor units
+     * scaled by DecimalPlaces (e.g. cents), making balance arithmetic exact.
+     * Read once at startup; changing it or DecimalPlaces requires a restart.
+     * @return "double" (default) or "minor"
+     */
+    public String getLedgerMode() { return ledgerMode; }
     /**
      * Get the transfer fee as a decimal (e.g., 0.05 = 5%).
      * This fee is charged to the sender on player-to-player transfers.
@@ -270,6 +349,129 @@ public class EcotaleConfig {
      * @return Interval in seconds (default: 300 = 5 minutes)
      */
     public int getAutoSaveInterval() { return autoSaveInterval; }
+    
+    /**
+     * Check if the write-ahead balance journal is enabled.
+     * Every balance change is journaled and replayed after a crash, so
+     * AutoSaveInterval can be long without risking lost money.
+     * @return true if the journal is enabled (default: false)
+     */
+    public boolean isEnableJournal() { return enableJournal; }
+    
+    /**
+     * Get how often journaled changes are forced to disk.
+     * This is the worst-case loss window on a crash.
+     * @return Interval in milliseconds (default: 5)
+     */
+    public int getJournalSyncIntervalMs() { return journalSyncIntervalMs; }
+    
+    /**
+     * Get the journal capacity. When full, an early save is triggered.
+     * The file is twice this size (two segments, see BalanceJournal).
+     * @return Size in megabytes (default: 16)
+     */
+    public int getJournalSizeMb() { return journalSizeMb; }
+    
+    /**
+     * Get the account cache mode.
+     * "all" preloads every stored account at startup and keeps it in memory.
+     * "bounded" keeps online and recently used accounts, loads others on
+     * demand, and evicts the least recently used saved accounts.
+     * "columnar" is bounded, but keeps every other account as a ~60 byte row
+     * in memory instead of reading it from storage (fast totals and leaderboards).
+     * @return "all" (default), "bounded" or "columnar"
+     */
+    public String getCacheMode() { return cacheMode; }
+    
+    /**
+     * Get the number of account objects kept in memory when CacheMode is "bounded" or "columnar".
+     * Online players and accounts with unsaved changes may exceed it.
+     * @return Maximum cached accounts (default: 50000)
+     */
+    public int getMaxCachedAccounts() { return maxCachedAccounts; }
+    
+    /**
+     * Get the account locking mode.
+     * "player" creates one lock per account (evicted for offline players every 30 min).
+     * "striped" shares a fixed table of locks keyed by UUID hash, with no eviction.
+     * @return "player" (default) or "striped"
+     */
+    public String getLockMode() { return lockMode; }
+    
+    /**
+     * Get the number of lock stripes used when LockMode is "striped".
+     * @return Stripe count, rounded up to a power of two (default: 256)
+     */
+    public int getLockStripes() { return lockStripes; }
+    
+    /**
+     * Check if single-account operations (deposit, withdraw, set) run without a lock.
+     * Balances are then updated with compare-and-set; only transfers take locks.
+     * BalanceChangeEvent old/new values become a best-effort snapshot under contention.
+     * @return true if single-account operations are lock-free (default: false)
+     */
+    public boolean isLockFreeBalances() { return lockFreeBalances; }
+    
+    /**
+     * Get the size of the queue feeding ASYNC_POST_COMMIT event listeners.
+     * @return Queued events before the overflow policy applies (default: 8192)
+     */
+    public int getAsyncEventQueueSize() { return asyncEventQueueSize; }
+    
+    /**
+     * Get what happens when the async event queue is full.
+     * "drop" discards the new event (counted in the admin metrics).
+     * "block" makes the economy operation wait for space, at most 100 ms, then drops.
+     * @return "drop" (default) or "block"
+     */
+    public String getAsyncEventOverflow() { return asyncEventOverflow; }
+    
+    /**
+     * Get how many recent transactions are kept in memory for the dashboard
+     * and the API's player history. Per-player lookups stay O(limit) at any size.
+     * @return Entries kept (default: 500)
+     */
+    public int getTransactionLogBufferSize() { return transactionLogBufferSize; }
+    
+    /**
+     * Get the size of the queue feeding the transaction log writer.
+     * @return Queued entries before the overflow policy applies (default: 16384)
+     */
+    public int getTransactionLogQueueSize() { return transactionLogQueueSize; }
+    
+    /**
+     * Get the most transactions stored in one multi-row write.
+     * @return Rows per write (default: 500)
+     */
+    public int getTransactionLogBatchSize() { return transactionLogBatchSize; }
+    
+    /**
+     * Get how long the writer waits for a batch to fill before storing it.
+     * @return Milliseconds (default: 250)
+     */
+    public int getTransactionLogFlushMs() { return transactionLogFlushMs; }
+    
+    /**
+     * Get what happens when the transaction log queue is full.
+     * "block" makes the economy operation wait for space, at most 1 s, then drops.
+     * "spill" appends to mods/Ecotale_Ecotale/txlog/spill.log, stored once the queue drains.
+     * "drop" discards the entry (counted in the admin metrics).
+     * @return "spill" (default), "block" or "drop"
+     */
+    public String getTransactionLogOverflow() { return transactionLogOverflow; }
+
+    /**
+     * Get how many days of transaction history H2 and MySQL keep.
+     * Older monthly partitions are dropped, the boundary month is trimmed in small batches.
+     * @return Retention in days, 0 (default) keeps everything
+     */
+    public int getTransactionRetentionDays() { return transactionRetentionDays; }
+
+    /**
+     * Get the interval of the background retention pass (and H2 file compaction).
+     * @return Minutes between passes (default 60)
+     */
+    public int getTransactionMaintenanceMinutes() { return transactionMaintenanceMinutes; }
 
     public String getTopBalanceSnapshotTime() { return topBalanceSnapshotTime; }
     public String getTopBalanceSnapshotTimeZone() { return topBalanceSnapshotTimeZone; }
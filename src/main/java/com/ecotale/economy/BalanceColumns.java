@@ -0,0 +1,293 @@
+package com.ecotale.economy;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compact store of every known account in primitive columns (CacheMode = "columnar").
+ *
+ * One row per account: the two UUID longs as the key, the balance cells
+ * (encoded like PlayerBalance, see LedgerScale) and the last transaction time.
+ * That is 48 bytes per row with no object headers, Strings or map nodes, and
+ * totals or top-N queries are sequential scans over long arrays.
+ *
+ * Rows are located with open addressing (linear probing) on the UUID bits.
+ * The table grows by 25% at 85% load, so it stays between ~68% and 85% full
+ * (about 56-70 bytes per account including empty slots).
+ *
+ * Accounts in use are materialized as regular PlayerBalance objects and their
+ * row is flagged hot: scans skip hot rows, whose live values are in the
+ * EconomyManager cache. When the account is evicted its saved state is written
+ * back and the flag cleared.
+ */
+final class BalanceColumns {
+
+    private static final double MAX_LOAD = 0.85;
+    private static final int MIN_CAPACITY = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock; all arrays have the same length (capacity)
+    private long[] msb;
+    private long[] lsb;
+    private long[] balance;
+    private long[] earned;
+    private long[] spent;
+    private long[] lastTime;
+    private long[] used; // Bitset: slot holds a row
+    private long[] hot;  // Bitset: row is materialized, live value is in the cache
+    private int size;
+    private int hotCount;
+
+    /**
+     * @param expectedAccounts Initial sizing hint (stored account count)
+     */
+    BalanceColumns(int expectedAccounts) {
+        allocate(Math.max(MIN_CAPACITY, (int) (expectedAccounts / MAX_LOAD) + 1));
+    }
+
+    /**
+     * Insert or overwrite a cold row.
+     */
+    void put(@Nonnull UUID playerUuid, long balanceCell, long earnedCell, long spentCell, long lastTransactionTime) {
+        lock.writeLock().lock();
+        try {
+            if (size + 1 > capacity() * MAX_LOAD) {
+                grow();
+            }
+            int slot = probe(playerUuid.getMostSignificantBits(), playerUuid.getLeastSignificantBits());
+            if (!isSet(used, slot)) {
+                set(used, slot);
+                msb[slot] = playerUuid.getMostSignificantBits();
+                lsb[slot] = playerUuid.getLeastSignificantBits();
+                size++;
+            } else if (isSet(hot, slot)) {
+                clear(hot, slot);
+                hotCount--;
+            }
+            balance[slot] = balanceCell;
+            earned[slot] = earnedCell;
+            spent[slot] = spentCell;
+            lastTime[slot] = lastTransactionTime;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Store an evicted account's state as its cold row.
+     * The account must be saved (its state matches storage).
+     */
+    void release(@Nonnull UUID playerUuid, @Nonnull PlayerBalance account) {
+        PlayerBalance state = account.snapshot();
+        put(playerUuid, state.balanceCell(), state.earnedCell(), state.spentCell(), state.getLastTransactionTime());
+    }
+
+    /**
+     * Create a PlayerBalance from an account's row and flag the row hot.
+     *
+     * @return The account, or null if there is no row for it
+     */
+    PlayerBalance materialize(@Nonnull UUID playerUuid) {
+        lock.writeLock().lock();
+        try {
+            int slot = probe(playerUuid.getMostSignificantBits(), playerUuid.getLeastSignificantBits());
+            if (!isSet(used, slot)) {
+                return null;
+            }
+            if (!isSet(hot, slot)) {
+                set(hot, slot);
+                hotCount++;
+            }
+            return PlayerBalance.fromCells(playerUuid, balance[slot], earned[slot], spent[slot], lastTime[slot]);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean contains(@Nonnull UUID playerUuid) {
+        lock.readLock().lock();
+        try {
+            return isSet(used, probe(playerUuid.getMostSignificantBits(), playerUuid.getLeastSignificantBits()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count and minor-unit sums of all cold rows (hot rows are counted from the cache instead).
+     */
+    EconomyTotals.Sums sumCold() {
+        lock.readLock().lock();
+        try {
+            long rows = 0;
+            long balanceSum = 0;
+            long earnedSum = 0;
+            long spentSum = 0;
+            for (int slot = 0; slot < balance.length; slot++) {
+                if (isCold(slot)) {
+                    rows++;
+                    balanceSum += PlayerBalance.minorOf(balance[slot]);
+                    earnedSum += PlayerBalance.minorOf(earned[slot]);
+                    spentSum += PlayerBalance.minorOf(spent[slot]);
+                }
+            }
+            return new EconomyTotals.Sums(rows, balanceSum, earnedSum, spentSum);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Highest cold balances, descending, as detached read-only views.
+     */
+    List<PlayerBalance> topCold(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            // Min-heap of slots on the sort key: holds the best `limit` rows seen so far
+            PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1,
+                (a, b) -> Long.compare(balance[a], balance[b]));
+            for (int slot = 0; slot < balance.length; slot++) {
+                if (!isCold(slot)) {
+                    continue;
+                }
+                if (best.size() < limit) {
+                    best.add(slot);
+                } else if (balance[slot] > balance[best.peek()]) {
+                    best.poll();
+                    best.add(slot);
+                }
+            }
+            List<PlayerBalance> result = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                int slot = best.poll();
+                result.add(PlayerBalance.fromCells(new UUID(msb[slot], lsb[slot]),
+                    balance[slot], earned[slot], spent[slot], lastTime[slot]));
+            }
+            return result.reversed();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of rows (known accounts). */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of rows currently materialized in the cache. */
+    int hotCount() {
+        lock.readLock().lock();
+        try {
+            return hotCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Heap used by the columns, in bytes (array payloads only). */
+    long footprintBytes() {
+        lock.readLock().lock();
+        try {
+            return 6L * Long.BYTES * capacity() + 2L * Long.BYTES * used.length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean isCold(int slot) {
+        return isSet(used, slot) && !isSet(hot, slot);
+    }
+
+    /**
+     * Slot holding the key, or the empty slot where it would be inserted.
+     */
+    private int probe(long keyMsb, long keyLsb) {
+        int capacity = capacity();
+        int slot = indexFor(keyMsb, keyLsb, capacity);
+        while (isSet(used, slot) && (msb[slot] != keyMsb || lsb[slot] != keyLsb)) {
+            slot = slot + 1 == capacity ? 0 : slot + 1;
+        }
+        return slot;
+    }
+
+    /**
+     * Mix both UUID halves (random UUIDs are already uniform, name-based ones less so),
+     * then map the hash onto [0, capacity) without a modulo.
+     */
+    private static int indexFor(long keyMsb, long keyLsb, int capacity) {
+        long h = keyMsb * 0x9E3779B97F4A7C15L ^ keyLsb;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) (((h >>> 32) * capacity) >>> 32);
+    }
+
+    private void grow() {
+        long[] oldMsb = msb;
+        long[] oldLsb = lsb;
+        long[] oldBalance = balance;
+        long[] oldEarned = earned;
+        long[] oldSpent = spent;
+        long[] oldLastTime = lastTime;
+        long[] oldUsed = used;
+        long[] oldHot = hot;
+
+        allocate(capacity() + capacity() / 4 + 1);
+        for (int old = 0; old < oldMsb.length; old++) {
+            if (!isSet(oldUsed, old)) {
+                continue;
+            }
+            int slot = probe(oldMsb[old], oldLsb[old]);
+            set(used, slot);
+            if (isSet(oldHot, old)) {
+                set(hot, slot);
+            }
+            msb[slot] = oldMsb[old];
+            lsb[slot] = oldLsb[old];
+            balance[slot] = oldBalance[old];
+            earned[slot] = oldEarned[old];
+            spent[slot] = oldSpent[old];
+            lastTime[slot] = oldLastTime[old];
+        }
+    }
+
+    private void allocate(int capacity) {
+        msb = new long[capacity];
+        lsb = new long[capacity];
+        balance = new long[capacity];
+        earned = new long[capacity];
+        spent = new long[capacity];
+        lastTime = new long[capacity];
+        used = new long[(capacity + 63) >>> 6];
+        hot = new long[(capacity + 63) >>> 6];
+    }
+
+    private int capacity() {
+        return msb.length;
+    }
+
+    private static boolean isSet(long[] bits, int slot) {
+        return (bits[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    private static void set(long[] bits, int slot) {
+        bits[slot >>> 6] |= 1L << slot;
+    }
+
+    private static void clear(long[] bits, int slot) {
+        bits[slot >>> 6] &= ~(1L << slot);
+    }
+}
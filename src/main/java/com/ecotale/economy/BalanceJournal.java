@@ -0,0 +1,471 @@
+package com.ecotale.economy;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only write-ahead journal of balance changes.
+ *
+ * Every committed mutation appends the account's resulting state (balance and
+ * totals) as one fixed-size record into a memory-mapped file. Records hold
+ * absolute values, so replay is idempotent: the last record per player wins.
+ * Amounts are stored as ledger cells (see LedgerScale), so minor-unit ledgers
+ * replay the exact committed value.
+ *
+ * Durability: a background thread forces the mapped pages to disk every
+ * JournalSyncIntervalMs when something was appended (group commit), so a crash
+ * loses at most that window instead of a whole AutoSaveInterval.
+ *
+ * Concurrency: append() takes no lock. It reserves its record with one atomic
+ * add on the active segment's fill and publishes the record by writing its
+ * flags last (release). A record whose account changed between reading the
+ * state and reserving the slot is written void instead, so a later record of
+ * a player never holds an older state; the writer of that change journals it.
+ *
+ * Lifecycle:
+ * - startup: replay() returns the latest state per player, applied to the cache
+ * - after a successful saveAll: truncate(mark) drops what that save covered
+ *
+ * File layout: [header slot 0][header slot 1][segment 0][segment 1]
+ * Records are appended to the active segment. Truncation never rewrites it:
+ * appends are switched to the other segment (after room for the records past
+ * the mark), those records are copied over, the segment is forced to disk and
+ * only then a new header naming it active is written and forced. A crash at
+ * any point leaves one complete segment to replay; records appended during the
+ * switch are durable once the header is. Header writes alternate between the
+ * two slots (by epoch), so a torn header write leaves the previous one valid.
+ *
+ * Header slot (32 bytes): [magic:4][epoch:8][active:4][segmentSize:4][crc32c:4][pad:8]
+ * Record (64 bytes): [seq:8][uuidMsb:8][uuidLsb:8][balance:8][earned:8][spent:8][check:4][flags:4][pad:8]
+ * Sequences are consecutive within a segment; replay stops at the first
+ * non-increasing, unpublished or corrupt record.
+ */
+public class BalanceJournal {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.getLogger().getSubLogger("Ecotale-Journal");
+
+    /** Size of one journal record in bytes */
+    static final int RECORD_SIZE = 64;
+    private static final int CHECK_OFFSET = 48;
+    private static final int FLAGS_OFFSET = 52;
+
+    // Record flags; PUBLISHED is set by the last write of a record
+    private static final int FLAG_PUBLISHED = 1;
+    private static final int FLAG_MINOR_UNITS = 2; // Cells are minor units, else double bits
+    private static final int FLAG_VOID = 4;        // Superseded before it was written: skip on replay
+
+    private static final int MAGIC = 0x45434A32; // "ECJ2"
+    private static final int HEADER_SLOT_SIZE = 32;
+    private static final int HEADER_CRC_OFFSET = 20;
+    private static final int HEADER_SIZE = 2 * HEADER_SLOT_SIZE;
+
+    /** Fill of a generation once truncate() closed it; appends then move to the next one */
+    private static final int CLOSED = Integer.MIN_VALUE;
+
+    // Ordered int access to the mapped file (record publication)
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    /**
+     * The active segment and the records appended to it since it became active.
+     */
+    private static final class Generation {
+        final int segment;
+        final long firstSeq;          // Sequence of the record at offset 0
+        final AtomicInteger reserved; // Bytes reserved; past the segment when full, negative when closed
+
+        Generation(int segment, long firstSeq, int reserved) {
+            this.segment = segment;
+            this.firstSeq = firstSeq;
+            this.reserved = new AtomicInteger(reserved);
+        }
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int segmentSize;
+    private final ScheduledExecutorService flusher;
+
+    private volatile Generation current;
+
+    // Guarded by this (replay, mark, truncate)
+    private long epoch;
+    private int inactiveUsed;        // Bytes of the inactive segment that may hold stale records
+    private final CRC32C crc = new CRC32C();
+
+    // Flusher state, guarded by flush()
+    private Generation forcedGeneration;
+    private int forcedReserved;
+
+    /**
+     * Open (or create) the journal file and start the group-commit flusher.
+     * An existing journal keeps its segment size until it is found empty.
+     *
+     * @param file Journal file path
+     * @param sizeBytes Size of each segment; rounded down to whole records
+     * @param syncIntervalMs Group-commit interval for fsync
+     */
+    public BalanceJournal(@Nonnull Path file, long sizeBytes, long syncIntervalMs) throws IOException {
+        Files.createDirectories(file.getParent());
+        int configured = (int) (Math.min(sizeBytes, (Integer.MAX_VALUE - HEADER_SIZE) / 2) / RECORD_SIZE * RECORD_SIZE);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        // Keep the stored layout while it still holds records
+        Header stored = readStoredHeader(channel);
+        if (stored == null && channel.size() > 0) {
+            LOGGER.at(Level.WARNING).log("Journal file has an unknown format, starting a new journal");
+        }
+        boolean keep = stored != null && (stored.segmentSize == configured || storedHasRecords(channel, stored));
+        this.segmentSize = keep ? stored.segmentSize : configured;
+        if (!keep) {
+            channel.truncate(0);
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + 2L * segmentSize);
+        if (keep) {
+            epoch = stored.epoch;
+            current = new Generation(stored.active, 1, segmentSize); // Full until replay() positions it
+            if (stored.segmentSize != configured) {
+                LOGGER.at(Level.INFO).log("Journal keeps its %d KB segments until it is empty", segmentSize / 1024);
+            }
+        } else {
+            epoch = 0;
+            current = new Generation(0, 1, 0);
+            writeHeader(0);
+        }
+        this.inactiveUsed = segmentSize; // Unknown until first cleared
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Ecotale-Journal");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(1, syncIntervalMs);
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Read back every valid record of the active segment and position the
+     * journal after the last one. Call once, before the first append.
+     *
+     * @return Latest journaled state per player, in journal order
+     */
+    public synchronized Map<UUID, JournalRecord> replay() {
+        Map<UUID, JournalRecord> latest = new LinkedHashMap<>();
+        int segment = current.segment;
+        int base = segmentBase(segment);
+        int offset = 0;
+        long lastSeq = 0;
+        long first = 0;
+        while (offset + RECORD_SIZE <= segmentSize) {
+            int at = base + offset;
+            long seq = buffer.getLong(at);
+            int flags = buffer.getInt(at + FLAGS_OFFSET);
+            if (seq <= lastSeq || (flags & FLAG_PUBLISHED) == 0 || check(at) != buffer.getInt(at + CHECK_OFFSET)) {
+                break;
+            }
+            if (first == 0) {
+                first = seq;
+            }
+            if ((flags & FLAG_VOID) == 0) {
+                UUID uuid = new UUID(buffer.getLong(at + 8), buffer.getLong(at + 16));
+                latest.remove(uuid); // Keep journal order of the last write per player
+                latest.put(uuid, new JournalRecord(uuid, (flags & FLAG_MINOR_UNITS) != 0,
+                    buffer.getLong(at + 24), buffer.getLong(at + 32), buffer.getLong(at + 40)));
+            }
+            lastSeq = seq;
+            offset += RECORD_SIZE;
+        }
+        // Anything past the valid prefix is a torn write or stale data
+        clear(base + offset, base + segmentSize);
+        current = new Generation(segment, first != 0 ? first : lastSeq + 1, offset);
+        return latest;
+    }
+
+    /**
+     * Append the current state of an account, without locking.
+     * The state is read with the account's seqlock and re-validated after the
+     * record is reserved: if the account changed in between, the record is
+     * voided and, unless that change's own record covers it, retried.
+     *
+     * @return false if the journal is full (caller should save and truncate)
+     */
+    public boolean append(@Nonnull UUID playerUuid, @Nonnull PlayerBalance balance) {
+        int flags = FLAG_PUBLISHED | (LedgerScale.isMinorUnits() ? FLAG_MINOR_UNITS : 0);
+        while (true) {
+            long version = balance.getVersion();
+            long stamp = balance.readStamp();
+            if (stamp < 0) {
+                Thread.onSpinWait(); // A write is in progress
+                continue;
+            }
+            long balanceCell = balance.balanceCell();
+            long earnedCell = balance.earnedCell();
+            long spentCell = balance.spentCell();
+
+            Generation gen = current;
+            int position = gen.reserved.get();
+            if (position >= segmentSize) {
+                return false; // Full: don't push the fill any further
+            }
+            if (position >= 0) {
+                position = gen.reserved.getAndAdd(RECORD_SIZE);
+            }
+            if (position < 0) {
+                Thread.onSpinWait(); // Closed by truncate(); the next generation is being installed
+                continue;
+            }
+            if (position + RECORD_SIZE > segmentSize) {
+                return false;
+            }
+
+            // State unchanged since it was read: it is current at the reserved sequence
+            boolean valid = balance.isStampValid(stamp);
+            int offset = segmentBase(gen.segment) + position;
+            long seq = gen.firstSeq + position / RECORD_SIZE;
+            int recordFlags = valid ? flags : flags | FLAG_VOID;
+            buffer.putLong(offset, seq);
+            buffer.putLong(offset + 8, playerUuid.getMostSignificantBits());
+            buffer.putLong(offset + 16, playerUuid.getLeastSignificantBits());
+            buffer.putLong(offset + 24, balanceCell);
+            buffer.putLong(offset + 32, earnedCell);
+            buffer.putLong(offset + 40, spentCell);
+            buffer.putInt(offset + CHECK_OFFSET,
+                check(seq, playerUuid.getMostSignificantBits(), playerUuid.getLeastSignificantBits(),
+                    balanceCell, earnedCell, spentCell, recordFlags));
+            INTS.setRelease(buffer, offset + FLAGS_OFFSET, recordFlags);
+            // A committed change since the read is journaled by its writer, after this reservation
+            if (valid || balance.getVersion() != version) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Sequence of the last reserved record, as a mark for truncate().
+     * Take the mark BEFORE snapshotting the dirty set that will be saved.
+     */
+    public synchronized long mark() {
+        Generation gen = current;
+        return gen.firstSeq + records(gen.reserved.get()) - 1;
+    }
+
+    /**
+     * Drop every record up to a mark once the save that followed it succeeded.
+     * Appends only wait while the next generation is installed; copying the
+     * records past the mark and forcing the segment and header (see class doc)
+     * happen while they go on.
+     */
+    public synchronized void truncate(long mark) {
+        Generation old = current;
+        int reserved = old.reserved.get();
+        if (reserved < 0 || mark - old.firstSeq + 1 <= 0) {
+            return;
+        }
+        int target = 1 - old.segment;
+        int to = segmentBase(target);
+        // Nobody appends to the inactive segment: clear it before it takes appends
+        clear(to, to + inactiveUsed);
+
+        // Switch appends to the target, after room for the records kept
+        int records = records(old.reserved.getAndSet(CLOSED));
+        int drop = (int) Math.min(records, mark - old.firstSeq + 1);
+        int remaining = (records - drop) * RECORD_SIZE;
+        current = new Generation(target, old.firstSeq + drop, remaining);
+
+        // Writers of the old generation may still be filling their records
+        int from = segmentBase(old.segment);
+        for (int i = 0; i < records; i++) {
+            awaitPublished(from + i * RECORD_SIZE);
+        }
+        from += drop * RECORD_SIZE;
+        for (int i = 0; i < remaining; i += 8) {
+            buffer.putLong(to + i, buffer.getLong(from + i));
+        }
+        buffer.force(to, segmentSize);
+
+        // Switch point: before this write the old segment is replayed, after it the new one
+        epoch++;
+        writeHeader(target);
+        inactiveUsed = records * RECORD_SIZE;
+    }
+
+    /** Fraction of the journal in use (0.0 - 1.0). */
+    public double getFillRatio() {
+        return (double) records(current.reserved.get()) * RECORD_SIZE / segmentSize;
+    }
+
+    /**
+     * Force pending records to disk and stop the flusher.
+     */
+    public void close() {
+        flusher.shutdown();
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.at(Level.WARNING).log("Failed to close journal: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Group commit: one fsync covers every record appended since the last one.
+     */
+    private synchronized void flush() {
+        Generation gen = current;
+        int reserved = gen.reserved.get();
+        if (gen == forcedGeneration && reserved == forcedReserved) {
+            return;
+        }
+        try {
+            buffer.force();
+            forcedGeneration = gen;
+            forcedReserved = reserved;
+        } catch (Exception e) {
+            LOGGER.at(Level.WARNING).log("Journal fsync failed: %s", e.getMessage());
+        }
+    }
+
+    /** Whole records in a fill (0 while closed, at most a full segment). */
+    private int records(int reserved) {
+        return reserved < 0 ? 0 : Math.min(reserved, segmentSize) / RECORD_SIZE;
+    }
+
+    private int segmentBase(int segment) {
+        return HEADER_SIZE + segment * segmentSize;
+    }
+
+    /** Wait for the writer that reserved a record to publish it (it never blocks in between). */
+    private void awaitPublished(int at) {
+        while (((int) INTS.getAcquire(buffer, at + FLAGS_OFFSET) & FLAG_PUBLISHED) == 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Write the current epoch and active segment to the slot of this epoch and force it.
+     */
+    private void writeHeader(int active) {
+        int at = (int) (epoch % 2) * HEADER_SLOT_SIZE;
+        buffer.putInt(at, MAGIC);
+        buffer.putLong(at + 4, epoch);
+        buffer.putInt(at + 12, active);
+        buffer.putInt(at + 16, segmentSize);
+        buffer.putInt(at + HEADER_CRC_OFFSET, headerChecksum(at));
+        buffer.force(at, HEADER_SLOT_SIZE);
+    }
+
+    private int headerChecksum(int at) {
+        crc.reset();
+        crc.update(buffer.slice(at, HEADER_CRC_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    /** Check value of a stored record. */
+    private int check(int at) {
+        return check(buffer.getLong(at), buffer.getLong(at + 8), buffer.getLong(at + 16),
+            buffer.getLong(at + 24), buffer.getLong(at + 32), buffer.getLong(at + 40),
+            buffer.getInt(at + FLAGS_OFFSET));
+    }
+
+    /**
+     * Check value of a record's fields: a 64-bit mix folded to 32 bits.
+     * Computed from the values (not the bytes), so appends need no scratch state.
+     */
+    private static int check(long seq, long msb, long lsb, long balance, long earned, long spent, int flags) {
+        long h = 0x45434A32L;
+        h = mix(h ^ seq);
+        h = mix(h ^ msb);
+        h = mix(h ^ lsb);
+        h = mix(h ^ balance);
+        h = mix(h ^ earned);
+        h = mix(h ^ spent);
+        h = mix(h ^ flags);
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /** Finalizer of MurmurHash3 (fmix64). */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private void clear(int from, int to) {
+        for (int i = from; i < to; i += 8) {
+            buffer.putLong(i, 0L);
+        }
+    }
+
+    /** A valid header slot. */
+    private record Header(long epoch, int active, int segmentSize) {}
+
+    /**
+     * The valid header slot of an existing journal file with the highest epoch,
+     * or null if it has none (new file, or not a journal).
+     */
+    private static Header readStoredHeader(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return null;
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        CRC32C check = new CRC32C();
+        Header best = null;
+        for (int slot = 0; slot < 2; slot++) {
+            int at = slot * HEADER_SLOT_SIZE;
+            check.reset();
+            check.update(header.slice(at, HEADER_CRC_OFFSET));
+            if (header.getInt(at) != MAGIC || (int) check.getValue() != header.getInt(at + HEADER_CRC_OFFSET)) {
+                continue;
+            }
+            Header candidate = new Header(header.getLong(at + 4), header.getInt(at + 12), header.getInt(at + 16));
+            if (best == null || candidate.epoch > best.epoch) {
+                best = candidate;
+            }
+        }
+        if (best == null || best.segmentSize <= 0 || best.segmentSize % RECORD_SIZE != 0
+                || (best.active & ~1) != 0 || channel.size() < HEADER_SIZE + 2L * best.segmentSize) {
+            return null;
+        }
+        return best;
+    }
+
+    /**
+     * Whether the active segment of an existing journal file starts with a record.
+     * A non-zero sequence is enough: a torn first record is simply not replayed later.
+     */
+    private static boolean storedHasRecords(FileChannel channel, Header header) throws IOException {
+        long first = HEADER_SIZE + (long) header.active * header.segmentSize;
+        MappedByteBuffer record = channel.map(FileChannel.MapMode.READ_ONLY, first, 8);
+        return record.getLong(0) != 0;
+    }
+
+    /**
+     * Latest journaled state of one account, as ledger cells (see LedgerScale).
+     *
+     * @param minorUnits true if the cells are minor units, false if double bits
+     */
+    public record JournalRecord(UUID playerUuid, boolean minorUnits, long balanceCell, long earnedCell,
+                                long spentCell) {}
+}
@@ -0,0 +1,44 @@
+package com.ecotale.economy;
+
+import javax.annotation.Nonnull;
+import java.util.UUID;
+
+/**
+ * One balance change inside an atomic batch (see EconomyManager.applyBatch).
+ *
+ * Design notes:
+ * - Immutable: built by the caller, read by the manager under lock
+ * - Amount is always positive; the direction comes from the kind
+ * - Several ops may target the same player; they are netted before validation
+ */
+public record BalanceOp(
+    @Nonnull UUID playerUuid,
+    @Nonnull Kind kind,
+    double amount
+) {
+    public enum Kind {
+        DEPOSIT,
+        WITHDRAW
+    }
+
+    /**
+     * Create a deposit op.
+     */
+    public static BalanceOp deposit(@Nonnull UUID playerUuid, double amount) {
+        return new BalanceOp(playerUuid, Kind.DEPOSIT, amount);
+    }
+
+    /**
+     * Create a withdraw op.
+     */
+    public static BalanceOp withdraw(@Nonnull UUID playerUuid, double amount) {
+        return new BalanceOp(playerUuid, Kind.WITHDRAW, amount);
+    }
+
+    /**
+     * Signed change to the balance (positive for deposits).
+     */
+    public double signedAmount() {
+        return kind == Kind.DEPOSIT ? amount : -amount;
+    }
+}
@@ -2,7 +2,9 @@ package com.ecotale.economy;
 
 import com.ecotale.Main;
 import com.ecotale.api.events.BalanceChangeEvent;
+import com.ecotale.api.events.BatchBalanceChangeEvent;
 import com.ecotale.api.events.EcotaleEvents;
+import com.ecotale.api.events.ListenerMode;
 import com.ecotale.api.events.TransactionEvent;
 import com.ecotale.storage.H2StorageProvider;
 import com.ecotale.storage.JsonStorageProvider;
@@ -14,16 +16,31 @@ import com.hypixel.hytale.logger.HytaleLogger;
 import com.hypixel.hytale.server.core.universe.Universe;
 
 import javax.annotation.Nonnull;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Thread-safe economy manager with:
@@ -39,6 +56,24 @@ import java.util.stream.Collectors;
  * - PERF-01: Bulk preload on startup
  * - PERF-02: Leaderboard cache with rate-limit
  * - PERF-03: Lock eviction for offline players
+ * - PERF-04: Optional striped lock table (LockMode = "striped")
+ * - PERF-05: Optional lock-free single-account operations (LockFreeBalances)
+ * - PERF-06: Atomic batches (one lock pass, one event, one log write)
+ * - PERF-07: One-to-many payouts: concurrent preload, lock-ordered batches, per-recipient results
+ * - PERF-08: Optional write-ahead journal between auto-saves (EnableJournal)
+ * - PERF-09: Non-blocking account loads with shared in-flight futures
+ * - PERF-10: Versioned saves from immutable snapshots; shutdown flushes only unsaved accounts
+ * - PERF-11: Optional bounded account cache with LRU eviction of saved, offline accounts (CacheMode)
+ * - PERF-12: Columnar store of cold accounts in primitive arrays (CacheMode = "columnar")
+ * - PERF-13: Leaderboard index re-ranked on every balance change, no periodic full sort
+ * - PERF-14: O(log n) rank queries from a Fenwick tree over balance buckets
+ * - PERF-15: Economy-wide totals kept incrementally, reconciled against a full scan
+ * - PERF-16: Balance quantiles (median, p90, p99) from the rank buckets, no sorting
+ * - PERF-17: HUD updates only record the latest balance; BalanceHudSystem shows it once per frame
+ * - PERF-18: Transaction log group commit: bounded queue, multi-row writes, block/spill/drop on overflow
+ * - PERF-19: SQL transaction log in monthly partitions with cached counts, retention and H2 compaction
+ * - PERF-20: Hourly/daily transaction rollups (per type, per player) upserted by the log writer
+ * - PERF-21: Keyset (timestamp, id) pagination of the admin transaction log
  */
 public class EconomyManager {
     
@@ -48,23 +83,85 @@ public class EconomyManager {
     // Per-player locks for atomic operations
     private final ConcurrentHashMap<UUID, ReentrantLock> playerLocks = new ConcurrentHashMap<>();
     
+    // PERF-04: Fixed lock table, replaces playerLocks when LockMode = "striped" (null otherwise)
+    private final StripedLockTable stripedLocks;
+    
+    // PERF-05: deposit/withdraw/setBalance rely on PlayerBalance CAS instead of the account lock
+    private final boolean lockFreeBalances;
+    
+    // PERF-09: In-flight account loads, shared by concurrent requests for the same player
+    private final ConcurrentHashMap<UUID, CompletableFuture<PlayerBalance>> loadingAccounts = new ConcurrentHashMap<>();
+    private final LongAdder joinLoads = new LongAdder();
+    private final LongAdder joinWaitNanos = new LongAdder();
+    
+    // PERF-11: Cache limit when CacheMode = "bounded" (0 = keep every account)
+    private final int maxCachedAccounts;
+    private final AtomicBoolean evictionRunning = new AtomicBoolean(false);
+    private final LongAdder evictedAccounts = new LongAdder();
+    
+    // PERF-12: Every known account as a compact row; the cache holds only the hot set (null unless columnar)
+    private final BalanceColumns columns;
+    
+    /** Bounded mode evicts down to this fraction of MaxCachedAccounts, so sweeps are not triggered on every load */
+    private static final double EVICTION_TARGET_RATIO = 0.9;
+    
+    /** Extra stored rows fetched for a bounded-mode leaderboard, to cover rows superseded by live values */
+    private static final int LEADERBOARD_STORAGE_FACTOR = 2;
+    
+    /** Payout recipients locked and paid together (one parallel task); bounds how long any one account lock is held */
+    private static final int PAYOUT_LOCK_BATCH = 32;
+    
     // Tracks which players have unsaved changes
     private final Set<UUID> dirtyPlayers = ConcurrentHashMap.newKeySet();
     
+    // PERF-08: Write-ahead journal of balance changes (null unless EnableJournal)
+    private final BalanceJournal journal;
+    private final AtomicBoolean journalFullWarned = new AtomicBoolean(false);
+    // Players whose change did not fit the full journal, and how many changes that was;
+    // they are journaled again once a save makes room
+    private final Set<UUID> unjournaled = ConcurrentHashMap.newKeySet();
+    private final LongAdder journalDrops = new LongAdder();
+    
+    // Saves run one after another: a save may only truncate the journal if every
+    // earlier save succeeded, or their players would lose their journaled changes
+    private final Object saveQueueLock = new Object();
+    private CompletableFuture<Void> lastSave = CompletableFuture.completedFuture(null); // Guarded by saveQueueLock
+    private boolean saveQueued = false; // A save is queued but has not taken its snapshot yet
+    
+    /** Journal file, next to the H2/JSON data */
+    private static final Path JOURNAL_FILE = Path.of("mods", "Ecotale_Ecotale", "journal", "balances.journal");
+    
     // Storage backend (H2 or JSON based on config)
     private final StorageProvider storage;
     
     // Transaction logger for activity monitoring
     private final TransactionLogger transactionLogger = TransactionLogger.getInstance();
     
-    // Leaderboard cache
-    private volatile List<Map.Entry<UUID, PlayerBalance>> cachedLeaderboard;
-    private volatile long lastLeaderboardRebuild = 0;
+    // PERF-13: Live ranking of cached accounts
+    private final LeaderboardIndex leaderboard = new LeaderboardIndex();
+    
+    // PERF-15: Supply, count, earned and spent of every account ("all" and columnar modes)
+    private final EconomyTotals totals = new EconomyTotals();
+    private volatile EconomyTotals.Sums lastTotalsDrift = new EconomyTotals.Sums(0, 0, 0, 0);
+    private volatile long lastTotalsReconcile = System.currentTimeMillis();
+    
+    /** Time in milliseconds shutdown waits for queued async events to be delivered */
+    private static final long ASYNC_EVENT_DRAIN_MS = 5000;
+    
+    /** Time in milliseconds shutdown waits for queued transaction log entries to be stored */
+    private static final long TRANSACTION_LOG_DRAIN_MS = 5000;
+    
+    /** Time in milliseconds between totals reconciliation passes (10 minutes) */
+    private static final long TOTALS_RECONCILE_INTERVAL_MS = 10 * 60 * 1000;
+    
+    // Top cold accounts (bounded/columnar modes), merged with the live ranking
+    private volatile List<PlayerBalance> cachedColdTop;
+    private volatile long lastColdTopRebuild = 0;
     
-    /** Time in milliseconds to cache leaderboard data before rebuilding */
+    /** Time in milliseconds to cache the top cold accounts before re-reading them */
     private static final long LEADERBOARD_CACHE_MS = 2000;
     
-    /** Maximum number of entries to cache in the leaderboard for performance */
+    /** Number of top cold accounts kept for bounded/columnar leaderboards */
     private static final int MAX_LEADERBOARD_CACHE_SIZE = 100;
     
     /** Number of characters to show when displaying truncated UUIDs */
@@ -82,42 +179,93 @@ public class EconomyManager {
     private final HytaleLogger logger;
     
     public EconomyManager(@Nonnull Object plugin) {
+        this(null, Main.CONFIG.get().isEnableJournal() ? JOURNAL_FILE : null);
+    }
+    
+    /**
+     * Run on the given storage instead of the configured provider, e.g. an
+     * in-memory one in the JMH benchmarks. Main.CONFIG must be loaded.
+     * 
+     * @param storageOverride Storage to use, or null for the configured provider
+     * @param journalFile Balance journal (PERF-08), or null to run without one
+     */
+    EconomyManager(StorageProvider storageOverride, Path journalFile) {
         this.logger = HytaleLogger.getLogger().getSubLogger("Ecotale");
         
+        // Ledger scale must be fixed before storage loads any balance
+        boolean minorUnits = "minor".equalsIgnoreCase(Main.CONFIG.get().getLedgerMode());
+        LedgerScale.configure(minorUnits, Main.CONFIG.get().getDecimalPlaces());
+        if (minorUnits) {
+            logger.at(Level.INFO).log("Using minor-unit ledger (%d decimal places)", LedgerScale.getDecimalPlaces());
+        }
+        
+        if ("striped".equalsIgnoreCase(Main.CONFIG.get().getLockMode())) {
+            this.stripedLocks = new StripedLockTable(Main.CONFIG.get().getLockStripes());
+            logger.at(Level.INFO).log("Using striped account locks (%d stripes)", stripedLocks.getStripeCount());
+        } else {
+            this.stripedLocks = null;
+        }
+        this.lockFreeBalances = Main.CONFIG.get().isLockFreeBalances();
+        EcotaleEvents.configureAsync(Main.CONFIG.get().getAsyncEventQueueSize(), Main.CONFIG.get().getAsyncEventOverflow());
+        if (lockFreeBalances) {
+            logger.at(Level.INFO).log("Single-account balance operations are lock-free");
+        }
+        String cacheMode = Main.CONFIG.get().getCacheMode();
+        boolean columnar = "columnar".equalsIgnoreCase(cacheMode);
+        this.maxCachedAccounts = columnar || "bounded".equalsIgnoreCase(cacheMode)
+            ? Math.max(1, Main.CONFIG.get().getMaxCachedAccounts()) : 0;
+        
         // Initialize storage provider based on config
-        String providerType = Main.CONFIG.get().getStorageProvider().toLowerCase();
-        switch (providerType) {
-            case "mysql" -> {
-                MySQLStorageProvider mysql = new MySQLStorageProvider();
-                this.storage = mysql;
-                // Connect TransactionLogger to MySQL for persistent logging
-                transactionLogger.setMysqlStorage(mysql);
-                logger.at(Level.INFO).log("Using MySQL storage provider (shared database)");
-            }
-            case "json" -> {
-                this.storage = new JsonStorageProvider();
-                logger.at(Level.INFO).log("Using JSON storage provider");
-            }
-            case "mongodb" -> {
-                MongoDBStorageProvider mongo = new MongoDBStorageProvider();
-                this.storage = mongo;
-                // Connect TransactionLogger to MongoDB for persistent logging
-                transactionLogger.setMongoStorage(mongo);
-                logger.at(Level.INFO).log("Using MongoDB storage provider");
-            }
-            default -> {
-                // H2 is default for reliability and transaction logging
-                H2StorageProvider h2 = new H2StorageProvider();
-                this.storage = h2;
-                // Connect TransactionLogger to H2 for persistent logging
-                transactionLogger.setH2Storage(h2);
-                logger.at(Level.INFO).log("Using H2 storage provider");
+        if (storageOverride != null) {
+            this.storage = storageOverride;
+            logger.at(Level.INFO).log("Using %s storage provider", storageOverride.getName());
+        } else {
+            String providerType = Main.CONFIG.get().getStorageProvider().toLowerCase();
+            switch (providerType) {
+                case "mysql" -> {
+                    MySQLStorageProvider mysql = new MySQLStorageProvider();
+                    this.storage = mysql;
+                    // Connect TransactionLogger to MySQL for persistent logging
+                    transactionLogger.setMysqlStorage(mysql);
+                    logger.at(Level.INFO).log("Using MySQL storage provider (shared database)");
+                }
+                case "json" -> {
+                    this.storage = new JsonStorageProvider();
+                    logger.at(Level.INFO).log("Using JSON storage provider");
+                }
+                case "mongodb" -> {
+                    MongoDBStorageProvider mongo = new MongoDBStorageProvider();
+                    this.storage = mongo;
+                    // Connect TransactionLogger to MongoDB for persistent logging
+                    transactionLogger.setMongoStorage(mongo);
+                    logger.at(Level.INFO).log("Using MongoDB storage provider");
+                }
+                default -> {
+                    // H2 is default for reliability and transaction logging
+                    H2StorageProvider h2 = new H2StorageProvider();
+                    this.storage = h2;
+                    // Connect TransactionLogger to H2 for persistent logging
+                    transactionLogger.setH2Storage(h2);
+                    logger.at(Level.INFO).log("Using H2 storage provider");
+                }
             }
         }
         storage.initialize().join();
+        transactionLogger.startWriter();
         
-        // PERF-01: Bulk preload all player data on startup
-        bulkPreload();
+        this.columns = columnar ? new BalanceColumns(storage.getPlayerCount()) : null;
+        this.journal = openJournal(journalFile);
+        
+        // PERF-01: Bulk preload all player data on startup (replays the journal on top)
+        // PERF-11: Bounded mode skips the preload and loads accounts on demand
+        if (maxCachedAccounts == 0) {
+            bulkPreload();
+        } else if (columns != null) {
+            columnarPreload();
+        } else {
+            logger.at(Level.INFO).log("Bounded account cache (%d accounts), loading on demand", maxCachedAccounts);
+            replayJournal();
+        }
         
         // Start auto-save thread
         this.saveThread = new Thread(this::autoSaveLoop, "Ecotale-AutoSave");
@@ -134,34 +282,197 @@ public class EconomyManager {
     private ReentrantLock getLock(UUID playerUuid) {
         return playerLocks.computeIfAbsent(playerUuid, k -> new ReentrantLock());
     }
+    
+    /**
+     * Acquire the lock guarding a player's account in the configured mode.
+     * @return The acquired lock (caller must unlock)
+     */
+    private ReentrantLock lockAccount(UUID playerUuid) {
+        if (stripedLocks != null) {
+            return stripedLocks.lock(playerUuid);
+        }
+        ReentrantLock lock = getLock(playerUuid);
+        lock.lock();
+        return lock;
+    }
+    
+    /**
+     * Acquire the account lock for a single-account operation.
+     * @return The acquired lock, or null in lock-free mode (PlayerBalance CAS handles it)
+     */
+    private ReentrantLock lockSingleAccount(UUID playerUuid) {
+        return lockFreeBalances ? null : lockAccount(playerUuid);
+    }
     /**
      * Ensure a player has an account (load from storage or create new).
-     * This is called when a player joins the server.
+     * Blocks until the account is loaded; prefer ensureAccountAsync() on world threads.
      */
     public void ensureAccount(@Nonnull UUID playerUuid) {
-        cache.computeIfAbsent(playerUuid, uuid -> {
-            // Load from storage or create new
-            PlayerBalance balance = storage.loadPlayer(uuid).join();
-            dirtyPlayers.add(uuid); // Mark as dirty to ensure it's saved
-            return balance;
+        ensureAccountAsync(playerUuid).join();
+    }
+    
+    /**
+     * Ensure a player has an account without blocking the caller.
+     * This is called when a player joins the server. The time until the
+     * account is ready is recorded as join wait (see getJoinWaitNanos()).
+     */
+    public CompletableFuture<PlayerBalance> ensureAccountAsync(@Nonnull UUID playerUuid) {
+        PlayerBalance cached = cache.get(playerUuid);
+        if (cached != null) {
+            joinLoads.increment(); // Preloaded: no wait
+            return CompletableFuture.completedFuture(cached);
+        }
+        long start = System.nanoTime();
+        return loadAccountAsync(playerUuid).whenComplete((balance, error) -> {
+            joinLoads.increment();
+            joinWaitNanos.add(System.nanoTime() - start);
         });
     }
     
+    /**
+     * Get an account, loading it from storage if not cached.
+     * Concurrent requests for the same player share one storage load, and the
+     * load runs on the storage executor rather than inside the cache's bin lock.
+     */
+    public CompletableFuture<PlayerBalance> loadAccountAsync(@Nonnull UUID playerUuid) {
+        PlayerBalance cached = cache.get(playerUuid);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<PlayerBalance> created = new CompletableFuture<>();
+        CompletableFuture<PlayerBalance> inFlight = loadingAccounts.putIfAbsent(playerUuid, created);
+        if (inFlight != null) {
+            // null = the account was evicted while we waited (PERF-11): load it again
+            return inFlight.thenCompose(balance -> balance != null
+                ? CompletableFuture.completedFuture(balance) : loadAccountAsync(playerUuid));
+        }
+        // Loaded between the cache check and registering the future
+        cached = cache.get(playerUuid);
+        if (cached != null) {
+            loadingAccounts.remove(playerUuid, created);
+            created.complete(cached);
+            return created;
+        }
+        // PERF-12: Known accounts are rebuilt from their row, no storage round trip
+        if (columns != null) {
+            PlayerBalance row = columns.materialize(playerUuid);
+            if (row != null) {
+                publishLoaded(playerUuid, row, created, true);
+                return created;
+            }
+        }
+        storage.loadPlayer(playerUuid).whenComplete((loaded, error) -> {
+            if (error != null || loaded == null) {
+                loadingAccounts.remove(playerUuid, created);
+                created.completeExceptionally(error != null ? error
+                    : new IllegalStateException("No account loaded for " + playerUuid));
+                return;
+            }
+            loaded.markPersisted(); // loadPlayer() stores new accounts itself
+            publishLoaded(playerUuid, loaded, created, false);
+        });
+        return created;
+    }
+    
+    /**
+     * Publish a loaded account to the cache before retiring its load future,
+     * so callers always see one of them.
+     *
+     * @param fromRow True if materialized from a columnar row (already in the totals)
+     */
+    private void publishLoaded(UUID playerUuid, PlayerBalance loaded, CompletableFuture<PlayerBalance> created,
+                               boolean fromRow) {
+        loaded.touch();
+        PlayerBalance existing = cache.putIfAbsent(playerUuid, loaded);
+        if (existing == null) {
+            leaderboard.update(loaded);
+            if (fromRow) {
+                totals.adopt(loaded);
+            } else if (tracksTotals()) {
+                totals.add(loaded);
+            }
+        }
+        loadingAccounts.remove(playerUuid, created);
+        created.complete(existing != null ? existing : loaded);
+        if (maxCachedAccounts > 0 && cache.size() > maxCachedAccounts) {
+            scheduleEviction();
+        }
+    }
+    
     /**
      * Get an account, loading from storage if not in cache.
+     * Blocks only the calling thread on a cache miss.
      */
     private PlayerBalance getOrLoadAccount(@Nonnull UUID playerUuid) {
-        return cache.computeIfAbsent(playerUuid, uuid -> 
-            storage.loadPlayer(uuid).join()
-        );
+        while (true) {
+            PlayerBalance account = cache.get(playerUuid);
+            if (account == null) {
+                account = loadAccountAsync(playerUuid).join();
+            }
+            if (maxCachedAccounts == 0) {
+                return account;
+            }
+            // PERF-11: A touch after eviction is caught here; use the reloaded instance
+            account.touch();
+            if (cache.get(playerUuid) == account) {
+                return account;
+            }
+        }
+    }
+    
+    /**
+     * Load (or create) an account before its lock is taken, so no mutator holds
+     * a lock or stripe while waiting on storage. The in-lock getOrLoadAccount()
+     * then only goes to storage for an account evicted in between (PERF-11).
+     */
+    private CompletableFuture<PlayerBalance> loadBeforeLock(@Nonnull UUID playerUuid) {
+        PlayerBalance cached = cache.get(playerUuid);
+        return cached != null ? CompletableFuture.completedFuture(cached) : loadAccountAsync(playerUuid);
+    }
+    
+    /**
+     * Get an existing account without creating one.
+     * Cached accounts only, except in bounded mode where stored accounts are loaded on demand.
+     */
+    private PlayerBalance getExistingAccount(@Nonnull UUID playerUuid) {
+        PlayerBalance cached = cache.get(playerUuid);
+        if (cached != null || maxCachedAccounts == 0) {
+            return cached;
+        }
+        return loadExistingAccountAsync(playerUuid).join() != null ? getOrLoadAccount(playerUuid) : null;
     }
+    
+    /**
+     * Get an existing account without creating one, without blocking.
+     * In bounded mode a stored account is loaded through the shared in-flight load.
+     * @return The account, or null if the player has none
+     */
+    private CompletableFuture<PlayerBalance> loadExistingAccountAsync(@Nonnull UUID playerUuid) {
+        PlayerBalance cached = cache.get(playerUuid);
+        if (cached != null || maxCachedAccounts == 0) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        if (columns != null) {
+            return columns.contains(playerUuid) ? loadAccountAsync(playerUuid) : CompletableFuture.completedFuture(null);
+        }
+        return storage.playerExists(playerUuid).thenCompose(exists -> exists
+            ? loadAccountAsync(playerUuid) : CompletableFuture.completedFuture(null));
+    }
+    
     public double getBalance(@Nonnull UUID playerUuid) {
-        PlayerBalance balance = cache.get(playerUuid);
+        PlayerBalance balance = getExistingAccount(playerUuid);
         return balance != null ? balance.getBalance() : 0.0;
     }
     
     public PlayerBalance getPlayerBalance(@Nonnull UUID playerUuid) {
-        return cache.get(playerUuid);
+        return getExistingAccount(playerUuid);
+    }
+    
+    /**
+     * Check if a player has an account, cached or (in bounded mode) stored.
+     */
+    public boolean hasAccount(@Nonnull UUID playerUuid) {
+        return getExistingAccount(playerUuid) != null;
     }
     
     public boolean hasBalance(@Nonnull UUID playerUuid, double amount) {
@@ -170,13 +481,14 @@ public class EconomyManager {
     
     /**
      * Deposit money into a player's account.
-     * Thread-safe with per-player locking.
+     * Thread-safe with per-player locking (or lock-free CAS if LockFreeBalances).
      * Rejects if would exceed maxBalance.
      * Fires BalanceChangeEvent (cancellable).
      */
     public boolean deposit(@Nonnull UUID playerUuid, double amount, String reason) {
-        ReentrantLock lock = getLock(playerUuid);
-        lock.lock();
+        amount = LedgerScale.normalize(amount);
+        loadBeforeLock(playerUuid).join();
+        ReentrantLock lock = lockSingleAccount(playerUuid);
         try {
             PlayerBalance balance = getOrLoadAccount(playerUuid);
             if (balance == null) return false;
@@ -184,15 +496,20 @@ public class EconomyManager {
             double oldBalance = balance.getBalance();
             double newBalance = oldBalance + amount;
             
-            // Fire cancellable event
-            BalanceChangeEvent event = EcotaleEvents.fire(new BalanceChangeEvent(
-                playerUuid, oldBalance, newBalance, 
-                BalanceChangeEvent.Cause.DEPOSIT, reason != null ? reason : "Deposit"
-            ));
-            if (event.isCancelled()) return false;
+            // Fire cancellable event (skipped entirely when nobody listens)
+            BalanceChangeEvent event = null;
+            if (EcotaleEvents.hasListeners(BalanceChangeEvent.class, ListenerMode.SYNC_PRE_COMMIT)) {
+                event = EcotaleEvents.fire(new BalanceChangeEvent(
+                    playerUuid, oldBalance, newBalance,
+                    BalanceChangeEvent.Cause.DEPOSIT, reason != null ? reason : "Deposit"
+                ));
+                if (event.isCancelled()) return false;
+            }
             
             if (balance.deposit(amount, reason)) {
-                dirtyPlayers.add(playerUuid);
+                commit(playerUuid, balance);
+                publishCommitted(event, playerUuid, oldBalance, newBalance,
+                    BalanceChangeEvent.Cause.DEPOSIT, reason != null ? reason : "Deposit");
                 BalanceHudSystem.updatePlayerHud(playerUuid, balance.getBalance());
                 
                 // Log transaction (skip internal transfer logs)
@@ -200,40 +517,52 @@ public class EconomyManager {
                     TransactionType type = reason.startsWith("Admin") 
                         ? TransactionType.GIVE : TransactionType.EARN;
                     transactionLogger.logAction(type, playerUuid, 
-                        resolvePlayerName(playerUuid), amount);
+                        resolvePlayerName(playerUuid), amount, reason);
                 }
                 return true;
             }
             return false;
         } finally {
-            lock.unlock();
+            if (lock != null) {
+                lock.unlock();
+            }
         }
     }
     
     /**
      * Withdraw money from a player's account.
-     * Thread-safe with per-player locking.
+     * Thread-safe with per-player locking (or lock-free CAS if LockFreeBalances).
      * Fires BalanceChangeEvent (cancellable).
      */
     public boolean withdraw(@Nonnull UUID playerUuid, double amount, String reason) {
-        ReentrantLock lock = getLock(playerUuid);
-        lock.lock();
+        amount = LedgerScale.normalize(amount);
+        // Bounded mode: a cold account is looked up and loaded before its lock is taken,
+        // so the lock is never held while waiting on storage
+        if (cache.get(playerUuid) == null && loadExistingAccountAsync(playerUuid).join() == null) {
+            return false;
+        }
+        ReentrantLock lock = lockSingleAccount(playerUuid);
         try {
-            PlayerBalance balance = cache.get(playerUuid);
-            if (balance == null) return false;
+            // Normally cached by now; an account evicted in between is loaded again (it exists)
+            PlayerBalance balance = getOrLoadAccount(playerUuid);
             
             double oldBalance = balance.getBalance();
             double newBalance = oldBalance - amount;
             
-            // Fire cancellable event
-            BalanceChangeEvent event = EcotaleEvents.fire(new BalanceChangeEvent(
-                playerUuid, oldBalance, newBalance,
-                BalanceChangeEvent.Cause.WITHDRAW, reason != null ? reason : "Withdraw"
-            ));
-            if (event.isCancelled()) return false;
+            // Fire cancellable event (skipped entirely when nobody listens)
+            BalanceChangeEvent event = null;
+            if (EcotaleEvents.hasListeners(BalanceChangeEvent.class, ListenerMode.SYNC_PRE_COMMIT)) {
+                event = EcotaleEvents.fire(new BalanceChangeEvent(
+                    playerUuid, oldBalance, newBalance,
+                    BalanceChangeEvent.Cause.WITHDRAW, reason != null ? reason : "Withdraw"
+                ));
+                if (event.isCancelled()) return false;
+            }
             
             if (balance.withdraw(amount, reason)) {
-                dirtyPlayers.add(playerUuid);
+                commit(playerUuid, balance);
+                publishCommitted(event, playerUuid, oldBalance, newBalance,
+                    BalanceChangeEvent.Cause.WITHDRAW, reason != null ? reason : "Withdraw");
                 BalanceHudSystem.updatePlayerHud(playerUuid, balance.getBalance());
                 
                 // Log transaction (skip internal transfer logs)
@@ -241,47 +570,58 @@ public class EconomyManager {
                     TransactionType type = reason.startsWith("Admin") 
                         ? TransactionType.TAKE : TransactionType.SPEND;
                     transactionLogger.logAction(type, playerUuid, 
-                        resolvePlayerName(playerUuid), amount);
+                        resolvePlayerName(playerUuid), amount, reason);
                 }
                 return true;
             }
             return false;
         } finally {
-            lock.unlock();
+            if (lock != null) {
+                lock.unlock();
+            }
         }
     }
     
     /**
      * Set a player's balance to a specific amount.
-     * Thread-safe with per-player locking.
+     * Thread-safe with per-player locking (or lock-free CAS if LockFreeBalances).
      * Fires BalanceChangeEvent (cancellable).
      */
     public void setBalance(@Nonnull UUID playerUuid, double amount, String reason) {
-        ReentrantLock lock = getLock(playerUuid);
-        lock.lock();
+        amount = LedgerScale.normalize(amount);
+        loadBeforeLock(playerUuid).join();
+        ReentrantLock lock = lockSingleAccount(playerUuid);
         try {
             PlayerBalance balance = getOrLoadAccount(playerUuid);
             if (balance != null) {
                 double oldBalance = balance.getBalance();
                 
-                // Fire cancellable event
-                BalanceChangeEvent event = EcotaleEvents.fire(new BalanceChangeEvent(
-                    playerUuid, oldBalance, amount,
-                    BalanceChangeEvent.Cause.ADMIN, reason != null ? reason : "Set balance"
-                ));
-                if (event.isCancelled()) return;
+                // Fire cancellable event (skipped entirely when nobody listens)
+                BalanceChangeEvent event = null;
+                if (EcotaleEvents.hasListeners(BalanceChangeEvent.class, ListenerMode.SYNC_PRE_COMMIT)) {
+                    event = EcotaleEvents.fire(new BalanceChangeEvent(
+                        playerUuid, oldBalance, amount,
+                        BalanceChangeEvent.Cause.ADMIN, reason != null ? reason : "Set balance"
+                    ));
+                    if (event.isCancelled()) return;
+                }
                 
                 balance.setBalance(amount, reason);
-                dirtyPlayers.add(playerUuid);
+                commit(playerUuid, balance);
+                publishCommitted(event, playerUuid, oldBalance, amount,
+                    BalanceChangeEvent.Cause.ADMIN, reason != null ? reason : "Set balance");
                 BalanceHudSystem.updatePlayerHud(playerUuid, amount);
                 
                 // Log transaction
                 TransactionType type = (reason != null && reason.contains("reset")) 
                     ? TransactionType.RESET : TransactionType.SET;
-                transactionLogger.logAction(type, playerUuid, resolvePlayerName(playerUuid), amount);
+                transactionLogger.logAction(type, playerUuid, resolvePlayerName(playerUuid), amount,
+                    reason != null ? reason : "Set balance");
             }
         } finally {
-            lock.unlock();
+            if (lock != null) {
+                lock.unlock();
+            }
         }
     }
     
@@ -297,69 +637,406 @@ public class EconomyManager {
             return TransferResult.SELF_TRANSFER;
         }
         
+        amount = LedgerScale.normalize(amount);
         if (amount <= 0) {
             return TransferResult.INVALID_AMOUNT;
         }
         
         // Calculate total with fee
-        double fee = amount * Main.CONFIG.get().getTransferFee();
+        double fee = LedgerScale.normalize(amount * Main.CONFIG.get().getTransferFee());
         double total = amount + fee;
         
+        // Both accounts are loaded (concurrently) before either lock is taken
+        CompletableFuture.allOf(loadBeforeLock(from), loadBeforeLock(to)).join();
+        
         // CRITICAL: Ordered lock acquisition to prevent deadlock
-        // Always lock the "smaller" UUID first (consistent ordering)
-        UUID first = from.compareTo(to) < 0 ? from : to;
-        UUID second = from.compareTo(to) < 0 ? to : from;
+        ReentrantLock lock1;
+        ReentrantLock lock2;
+        if (stripedLocks != null) {
+            // Striped mode: always lock the lower stripe first; one lock if both share a stripe
+            int fromStripe = stripedLocks.stripeOf(from);
+            int toStripe = stripedLocks.stripeOf(to);
+            lock1 = stripedLocks.lockStripe(Math.min(fromStripe, toStripe));
+            lock2 = fromStripe == toStripe ? null : stripedLocks.lockStripe(Math.max(fromStripe, toStripe));
+        } else {
+            // Always lock the "smaller" UUID first (consistent ordering)
+            UUID first = from.compareTo(to) < 0 ? from : to;
+            UUID second = from.compareTo(to) < 0 ? to : from;
+            lock1 = getLock(first);
+            lock2 = getLock(second);
+            lock1.lock();
+            lock2.lock();
+        }
         
-        ReentrantLock lock1 = getLock(first);
-        ReentrantLock lock2 = getLock(second);
+        try {
+            // Get both balances (ensure accounts exist)
+            PlayerBalance fromBalance = getOrLoadAccount(from);
+            PlayerBalance toBalance = getOrLoadAccount(to);
+            
+            // Check sufficient funds INSIDE the lock
+            if (fromBalance == null || !fromBalance.hasBalance(total)) {
+                return TransferResult.INSUFFICIENT_FUNDS;
+            }
+            
+            // Check recipient can receive (maxBalance)
+            double maxBalance = Main.CONFIG.get().getMaxBalance();
+            if (toBalance != null && toBalance.getBalance() + amount > maxBalance) {
+                return TransferResult.RECIPIENT_MAX_BALANCE;
+            }
+            
+            // ATOMIC: Both operations under lock. Lock-free deposits/withdrawals may still
+            // race with us, so the CAS results are authoritative over the checks above.
+            if (!fromBalance.withdrawInternal(total, to, reason)) {
+                return TransferResult.INSUFFICIENT_FUNDS;
+            }
+            if (!toBalance.depositInternal(amount, maxBalance, from, reason)) {
+                fromBalance.revertWithdrawInternal(total);
+                return TransferResult.RECIPIENT_MAX_BALANCE;
+            }
+            
+            // Mark both as dirty
+            commit(from, fromBalance);
+            commit(to, toBalance);
+            
+            // Update HUDs
+            BalanceHudSystem.updatePlayerHud(from, fromBalance.getBalance());
+            BalanceHudSystem.updatePlayerHud(to, toBalance.getBalance());
+            
+            // Log transfer
+            transactionLogger.logTransfer(from, resolvePlayerName(from), 
+                to, resolvePlayerName(to), amount, fee, reason);
+            
+            return TransferResult.SUCCESS;
+        } finally {
+            if (lock2 != null) {
+                lock2.unlock();
+            }
+            lock1.unlock();
+        }
+    }
+    
+    /**
+     * Apply a batch of balance changes as one unit.
+     * ATOMIC: every op succeeds or none does.
+     * 
+     * Ops are netted per player, all involved locks are taken once in the same
+     * order transfer() uses, and every account is validated before anything is
+     * mutated. Fires one BatchBalanceChangeEvent (cancellable) and writes all log
+     * rows in a single storage write.
+     * 
+     * @param ops Balance changes (amounts must be positive)
+     * @param reason Reason for the whole batch
+     */
+    public BatchResult applyBatch(@Nonnull List<BalanceOp> ops, String reason) {
+        if (ops.isEmpty()) {
+            return BatchResult.INVALID_AMOUNT;
+        }
+        
+        // Net change per player; the TreeMap also yields the lock order
+        double[] amounts = new double[ops.size()];
+        TreeMap<UUID, Double> net = new TreeMap<>();
+        for (int i = 0; i < amounts.length; i++) {
+            BalanceOp op = ops.get(i);
+            double amount = LedgerScale.normalize(op.amount());
+            if (!(amount > 0) || Double.isInfinite(amount)) {
+                return BatchResult.INVALID_AMOUNT;
+            }
+            amounts[i] = amount;
+            net.merge(op.playerUuid(), op.kind() == BalanceOp.Kind.DEPOSIT ? amount : -amount, Double::sum);
+        }
+        
+        int size = net.size();
+        UUID[] players = net.keySet().toArray(new UUID[size]);
+        double[] deltas = new double[size];
+        int n = 0;
+        for (double delta : net.values()) {
+            deltas[n++] = LedgerScale.normalize(delta);
+        }
+        
+        // Cold accounts load concurrently, before any lock is taken
+        CompletableFuture<?>[] loads = new CompletableFuture<?>[size];
+        for (int i = 0; i < size; i++) {
+            loads[i] = loadBeforeLock(players[i]);
+        }
+        CompletableFuture.allOf(loads).join();
         
-        lock1.lock();
+        ReentrantLock[] locks = lockAccounts(players);
         try {
-            lock2.lock();
-            try {
-                // Get both balances (ensure accounts exist)
-                PlayerBalance fromBalance = getOrLoadAccount(from);
-                PlayerBalance toBalance = getOrLoadAccount(to);
-                
-                // Check sufficient funds INSIDE the lock
-                if (fromBalance == null || !fromBalance.hasBalance(total)) {
-                    return TransferResult.INSUFFICIENT_FUNDS;
+            PlayerBalance[] accounts = new PlayerBalance[size];
+            double maxBalance = Main.CONFIG.get().getMaxBalance();
+            
+            // Validate everything before touching any balance
+            for (int i = 0; i < size; i++) {
+                PlayerBalance account = getOrLoadAccount(players[i]);
+                if (account == null) {
+                    return BatchResult.ACCOUNT_NOT_FOUND;
                 }
-                
-                // Check recipient can receive (maxBalance)
-                double maxBalance = Main.CONFIG.get().getMaxBalance();
-                if (toBalance != null && toBalance.getBalance() + amount > maxBalance) {
-                    return TransferResult.RECIPIENT_MAX_BALANCE;
+                if (deltas[i] < 0 && !account.hasBalance(-deltas[i])) {
+                    return BatchResult.INSUFFICIENT_FUNDS;
                 }
-                
-                // ATOMIC: Both operations under lock
-                fromBalance.withdrawInternal(total, "Transfer to " + to + ": " + reason);
-                toBalance.depositInternal(amount, "Transfer from " + from + ": " + reason);
-                
-                // Mark both as dirty
-                dirtyPlayers.add(from);
-                dirtyPlayers.add(to);
-                
-                // Update HUDs
-                BalanceHudSystem.updatePlayerHud(from, fromBalance.getBalance());
-                BalanceHudSystem.updatePlayerHud(to, toBalance.getBalance());
-                
-                // Log transfer
-                transactionLogger.logTransfer(from, resolvePlayerName(from), 
-                    to, resolvePlayerName(to), amount);
-                
-                return TransferResult.SUCCESS;
-                
-            } finally {
-                lock2.unlock();
+                if (deltas[i] > 0 && account.getBalance() + deltas[i] > maxBalance) {
+                    return BatchResult.EXCEEDS_MAX_BALANCE;
+                }
+                accounts[i] = account;
+            }
+            
+            String batchReason = reason != null ? reason : "Batch";
+            BatchBalanceChangeEvent event = null;
+            if (EcotaleEvents.hasListeners(BatchBalanceChangeEvent.class, ListenerMode.SYNC_PRE_COMMIT)) {
+                event = EcotaleEvents.fire(new BatchBalanceChangeEvent(
+                    Collections.unmodifiableList(ops), Collections.unmodifiableMap(net), batchReason
+                ));
+                if (event.isCancelled()) {
+                    return BatchResult.EVENT_CANCELLED;
+                }
+            }
+            
+            // Apply net deltas. Lock-free deposits/withdrawals may still race with us,
+            // so a failed CAS rolls back what was already applied.
+            for (int i = 0; i < size; i++) {
+                boolean applied = true; // Ops that net to zero leave the balance untouched
+                if (deltas[i] > 0) {
+                    applied = accounts[i].depositInternal(deltas[i], maxBalance, null, batchReason);
+                } else if (deltas[i] < 0) {
+                    applied = accounts[i].withdrawInternal(-deltas[i], null, batchReason);
+                }
+                if (!applied) {
+                    for (int j = i - 1; j >= 0; j--) {
+                        if (deltas[j] > 0) {
+                            accounts[j].revertDepositInternal(deltas[j]);
+                        } else if (deltas[j] < 0) {
+                            accounts[j].revertWithdrawInternal(-deltas[j]);
+                        }
+                    }
+                    return deltas[i] > 0 ? BatchResult.EXCEEDS_MAX_BALANCE : BatchResult.INSUFFICIENT_FUNDS;
+                }
+            }
+            
+            for (int i = 0; i < size; i++) {
+                commit(players[i], accounts[i]);
+                BalanceHudSystem.updatePlayerHud(players[i], accounts[i].getBalance());
+            }
+            if (EcotaleEvents.hasListeners(BatchBalanceChangeEvent.class, ListenerMode.ASYNC_POST_COMMIT)) {
+                EcotaleEvents.publish(event != null ? event : new BatchBalanceChangeEvent(
+                    Collections.unmodifiableList(ops), Collections.unmodifiableMap(net), batchReason));
             }
+            
+            // One log row per op, persisted in one write
+            boolean admin = batchReason.startsWith("Admin");
+            Map<UUID, String> names = new HashMap<>();
+            List<TransactionEntry> entries = new ArrayList<>(amounts.length);
+            for (int i = 0; i < amounts.length; i++) {
+                BalanceOp op = ops.get(i);
+                TransactionType type = op.kind() == BalanceOp.Kind.DEPOSIT
+                    ? (admin ? TransactionType.GIVE : TransactionType.EARN)
+                    : (admin ? TransactionType.TAKE : TransactionType.SPEND);
+                String name = names.computeIfAbsent(op.playerUuid(), this::resolvePlayerName);
+                entries.add(TransactionEntry.single(type, op.playerUuid(), name, amounts[i]));
+            }
+            transactionLogger.logBatch(entries, batchReason);
+            
+            return BatchResult.SUCCESS;
         } finally {
-            lock1.unlock();
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
         }
     }
+    
     /**
-     * Get all balances (for leaderboards).
+     * Acquire the locks for several accounts in a deadlock-free order.
+     * Player mode locks in UUID order (players must be sorted); striped mode
+     * locks each distinct stripe once, lowest first. Matches transfer().
+     * @return Acquired locks in acquisition order (caller must unlock)
+     */
+    private ReentrantLock[] lockAccounts(UUID[] sortedPlayers) {
+        if (stripedLocks != null) {
+            int[] stripes = new int[sortedPlayers.length];
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = stripedLocks.stripeOf(sortedPlayers[i]);
+            }
+            Arrays.sort(stripes);
+            int distinct = 0;
+            for (int i = 0; i < stripes.length; i++) {
+                if (i == 0 || stripes[i] != stripes[i - 1]) {
+                    stripes[distinct++] = stripes[i];
+                }
+            }
+            ReentrantLock[] locks = new ReentrantLock[distinct];
+            for (int i = 0; i < distinct; i++) {
+                locks[i] = stripedLocks.lockStripe(stripes[i]);
+            }
+            return locks;
+        }
+        ReentrantLock[] locks = new ReentrantLock[sortedPlayers.length];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = getLock(sortedPlayers[i]);
+            locks[i].lock();
+        }
+        return locks;
+    }
+    
+    /**
+     * Deposit the same amount into many accounts (server-wide rewards).
+     * NOT atomic: each recipient succeeds or fails independently.
+     * 
+     * Cold accounts are loaded concurrently before any lock is taken; recipients are
+     * then paid in UUID-ordered batches, each batch under its account locks, and
+     * every deposit is committed before its lock is released. Batches are paid in
+     * parallel across cores.
+     * Fires one BatchBalanceChangeEvent (cancelling it cancels the whole payout),
+     * writes all log rows in one storage write and hands the HUD refreshes to
+     * BalanceHudSystem as a single task. Duplicate recipients are paid once.
+     * 
+     * @param recipients Players to pay
+     * @param amount Amount per player (must be positive)
+     * @param reason Reason for the payout
+     */
+    public PayoutResult payout(@Nonnull Collection<UUID> recipients, double amount, String reason) {
+        UUID[] players = new LinkedHashSet<>(recipients).toArray(new UUID[0]);
+        DepositResult[] results = new DepositResult[players.length];
+        double normalized = LedgerScale.normalize(amount);
+        String payoutReason = reason != null ? reason : "Payout";
+        
+        if (!(normalized > 0) || Double.isInfinite(normalized)) {
+            Arrays.fill(results, DepositResult.INVALID_AMOUNT);
+            return toPayoutResult(players, results, normalized);
+        }
+        
+        if (EcotaleEvents.hasListeners(BatchBalanceChangeEvent.class, ListenerMode.SYNC_PRE_COMMIT)) {
+            List<BalanceOp> ops = new ArrayList<>(players.length);
+            Map<UUID, Double> net = new LinkedHashMap<>();
+            for (UUID player : players) {
+                ops.add(BalanceOp.deposit(player, normalized));
+                net.put(player, normalized);
+            }
+            BatchBalanceChangeEvent event = EcotaleEvents.fire(new BatchBalanceChangeEvent(
+                Collections.unmodifiableList(ops), Collections.unmodifiableMap(net), payoutReason
+            ));
+            if (event.isCancelled()) {
+                Arrays.fill(results, DepositResult.EVENT_CANCELLED);
+                return toPayoutResult(players, results, normalized);
+            }
+        }
+        
+        // Storage loads overlap here, so no lock is held while waiting on storage
+        List<CompletableFuture<PlayerBalance>> loads = new ArrayList<>();
+        for (UUID player : players) {
+            if (cache.get(player) == null) {
+                loads.add(loadBeforeLock(player).exceptionally(error -> null));
+            }
+        }
+        CompletableFuture.allOf(loads.toArray(new CompletableFuture[0])).join();
+        
+        // Lock order is UUID order, as in transfer() and applyBatch()
+        Integer[] order = new Integer[players.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> players[i]));
+        
+        // Batches run in parallel on the common pool (the caller joins in). Each batch
+        // takes its locks in ascending order, so batches sharing a stripe only queue.
+        double maxBalance = Main.CONFIG.get().getMaxBalance();
+        double[] newBalances = new double[players.length];
+        int batches = (order.length + PAYOUT_LOCK_BATCH - 1) / PAYOUT_LOCK_BATCH;
+        IntStream.range(0, batches).parallel().forEach(b -> payBatch(players, order, b * PAYOUT_LOCK_BATCH,
+            Math.min(order.length, (b + 1) * PAYOUT_LOCK_BATCH), normalized, maxBalance, payoutReason,
+            results, newBalances));
+        
+        TransactionType type = payoutReason.startsWith("Admin") ? TransactionType.GIVE : TransactionType.EARN;
+        Map<UUID, Double> hudUpdates = new HashMap<>();
+        List<TransactionEntry> entries = new ArrayList<>();
+        for (int i = 0; i < players.length; i++) {
+            if (results[i] != DepositResult.SUCCESS) continue;
+            hudUpdates.put(players[i], newBalances[i]);
+            entries.add(TransactionEntry.single(type, players[i], resolvePlayerName(players[i]), normalized));
+        }
+        BalanceHudSystem.updatePlayerHuds(hudUpdates);
+        transactionLogger.logBatch(entries, payoutReason);
+        
+        // Post-commit listeners only hear about the recipients that were paid
+        if (!hudUpdates.isEmpty()
+                && EcotaleEvents.hasListeners(BatchBalanceChangeEvent.class, ListenerMode.ASYNC_POST_COMMIT)) {
+            List<BalanceOp> paidOps = new ArrayList<>(hudUpdates.size());
+            Map<UUID, Double> paid = new LinkedHashMap<>();
+            for (int i = 0; i < players.length; i++) {
+                if (results[i] == DepositResult.SUCCESS) {
+                    paidOps.add(BalanceOp.deposit(players[i], normalized));
+                    paid.put(players[i], normalized);
+                }
+            }
+            EcotaleEvents.publish(new BatchBalanceChangeEvent(
+                Collections.unmodifiableList(paidOps), Collections.unmodifiableMap(paid), payoutReason));
+        }
+        
+        return toPayoutResult(players, results, normalized);
+    }
+    
+    /**
+     * Pay one lock batch of a payout: recipients order[start..end), all under their locks.
+     * Each recipient writes only its own slot of results and newBalances.
+     */
+    private void payBatch(UUID[] players, Integer[] order, int start, int end, double amount, double maxBalance,
+                          String reason, DepositResult[] results, double[] newBalances) {
+        UUID[] batch = new UUID[end - start];
+        for (int k = start; k < end; k++) {
+            batch[k - start] = players[order[k]];
+        }
+        ReentrantLock[] locks = lockAccounts(batch);
+        try {
+            for (int k = start; k < end; k++) {
+                int i = order[k];
+                PlayerBalance balance;
+                try {
+                    // Preloaded by payout(); only an account evicted since is loaded again here
+                    balance = getOrLoadAccount(players[i]);
+                } catch (CompletionException e) {
+                    balance = null; // Load failed (preload already tried once)
+                }
+                if (balance == null) {
+                    results[i] = DepositResult.ACCOUNT_NOT_FOUND;
+                } else if (balance.depositInternal(amount, maxBalance, null, reason)) {
+                    commit(players[i], balance);
+                    newBalances[i] = balance.getBalance();
+                    results[i] = DepositResult.SUCCESS;
+                } else {
+                    results[i] = DepositResult.EXCEEDS_MAX_BALANCE;
+                }
+            }
+        } finally {
+            for (int l = locks.length - 1; l >= 0; l--) {
+                locks[l].unlock();
+            }
+        }
+    }
+    
+    /**
+     * Pay every online player (see payout()).
+     */
+    public PayoutResult payoutOnline(double amount, String reason) {
+        List<UUID> online = Universe.get().getPlayers().stream()
+            .map(p -> p.getUuid())
+            .collect(Collectors.toList());
+        return payout(online, amount, reason);
+    }
+    
+    private static PayoutResult toPayoutResult(UUID[] players, DepositResult[] results, double amount) {
+        Map<UUID, DepositResult> outcomes = new LinkedHashMap<>();
+        int succeeded = 0;
+        for (int i = 0; i < players.length; i++) {
+            outcomes.put(players[i], results[i]);
+            if (results[i] == DepositResult.SUCCESS) {
+                succeeded++;
+            }
+        }
+        return new PayoutResult(Collections.unmodifiableMap(outcomes), succeeded, succeeded * amount);
+    }
+    /**
+     * Get all cached balances.
      * Returns a snapshot copy to prevent external modification.
+     * In bounded cache mode this is only the hot set; use getLeaderboard(),
+     * getTotalCirculating() and getAccountCount() for server-wide figures.
      */
     public Map<UUID, PlayerBalance> getAllBalances() {
         return new HashMap<>(cache);
@@ -371,6 +1048,133 @@ public class EconomyManager {
     public int getCachedPlayerCount() {
         return cache.size();
     }
+    
+    /**
+     * Get the number of accounts, including ones not loaded in bounded cache mode.
+     */
+    public int getAccountCount() {
+        if (tracksTotals()) {
+            return (int) totals.sums().accounts();
+        }
+        return Math.max(storage.getPlayerCount(), cache.size());
+    }
+    
+    /**
+     * PERF-15: Get the total money in circulation, read from the running totals.
+     * In bounded cache mode this is summed by storage, so changes not yet
+     * auto-saved are not included.
+     */
+    public double getTotalCirculating() {
+        if (!tracksTotals()) {
+            return storage.getTotalBalance().join();
+        }
+        return LedgerScale.fromMinor(totals.sums().balance());
+    }
+    
+    /**
+     * PERF-15: Get the sum of every account's lifetime earnings.
+     * In bounded cache mode only cached accounts are included.
+     */
+    public double getTotalEarned() {
+        return LedgerScale.fromMinor(tracksTotals() ? totals.sums().earned() : scanCached().earned());
+    }
+    
+    /**
+     * PERF-15: Get the sum of every account's lifetime spending.
+     * In bounded cache mode only cached accounts are included.
+     */
+    public double getTotalSpent() {
+        return LedgerScale.fromMinor(tracksTotals() ? totals.sums().spent() : scanCached().spent());
+    }
+    
+    /**
+     * Get the average balance per account (0 without accounts).
+     */
+    public double getAverageBalance() {
+        int count = getAccountCount();
+        return count > 0 ? getTotalCirculating() / count : 0;
+    }
+    
+    /**
+     * PERF-15: Balance drift found by the last totals reconciliation (0 when they matched).
+     */
+    public double getTotalsDrift() {
+        return LedgerScale.fromMinor(lastTotalsDrift.balance());
+    }
+    
+    /**
+     * Running totals cover every account, except in bounded mode (cold accounts are only in storage).
+     */
+    private boolean tracksTotals() {
+        return maxCachedAccounts == 0 || columns != null;
+    }
+    
+    /**
+     * Count and minor-unit sums of the cached accounts, by a full scan.
+     */
+    private EconomyTotals.Sums scanCached() {
+        long count = 0;
+        long balanceSum = 0;
+        long earnedSum = 0;
+        long spentSum = 0;
+        for (PlayerBalance balance : cache.values()) {
+            count++;
+            balanceSum += balance.getBalanceMinor();
+            earnedSum += balance.getTotalEarnedMinor();
+            spentSum += balance.getTotalSpentMinor();
+        }
+        return new EconomyTotals.Sums(count, balanceSum, earnedSum, spentSum);
+    }
+    
+    /**
+     * PERF-15: Verify the running totals against a full scan and report drift.
+     * A pass is skipped if the totals moved or accounts were evicted during the
+     * scan, since those would show up as false drift. A drift that persists
+     * across passes points to a change that bypassed commit().
+     */
+    private void reconcileTotals() {
+        if (!tracksTotals()) {
+            return;
+        }
+        long evictedBefore = evictedAccounts.sum();
+        EconomyTotals.Sums before = totals.sums();
+        EconomyTotals.Sums scanned = scanCached();
+        if (columns != null) {
+            scanned = scanned.plus(columns.sumCold());
+        }
+        EconomyTotals.Sums after = totals.sums();
+        if (!before.equals(after) || evictedAccounts.sum() != evictedBefore) {
+            logger.at(Level.FINE).log("Totals reconciliation skipped, economy changed during the scan");
+            return;
+        }
+        EconomyTotals.Sums drift = after.minus(scanned);
+        lastTotalsDrift = drift;
+        if (!drift.isZero()) {
+            logger.at(Level.WARNING).log("Economy totals drifted from a full scan: accounts %+d, balance %+d, earned %+d, spent %+d (minor units)",
+                drift.accounts(), drift.balance(), drift.earned(), drift.spent());
+        }
+    }
+    
+    /**
+     * Heap used by the columnar account store in bytes, or 0 unless CacheMode is "columnar".
+     */
+    public long getColumnStoreBytes() {
+        return columns != null ? columns.footprintBytes() : 0;
+    }
+    
+    /**
+     * True if CacheMode is "bounded" or "columnar" (not every account is a cached object).
+     */
+    public boolean isBoundedCache() {
+        return maxCachedAccounts > 0;
+    }
+    
+    /**
+     * Number of accounts evicted from the bounded cache since startup.
+     */
+    public long getEvictedAccounts() {
+        return evictedAccounts.sum();
+    }
     /**
      * Mark a player as needing to be saved.
      */
@@ -398,11 +1202,23 @@ public class EconomyManager {
                     saveDirtyPlayers();
                 }
                 
+                // PERF-11: Accounts saved by earlier cycles may now be evictable
+                if (maxCachedAccounts > 0 && cache.size() > maxCachedAccounts) {
+                    scheduleEviction();
+                }
+                
                 // PERF-03: Lock eviction for offline players (every 30 min)
-                if (System.currentTimeMillis() - lastLockCleanup > LOCK_CLEANUP_INTERVAL_MS) {
+                // Striped mode has a fixed table, nothing to evict
+                if (stripedLocks == null && System.currentTimeMillis() - lastLockCleanup > LOCK_CLEANUP_INTERVAL_MS) {
                     cleanupStaleLocks();
                     lastLockCleanup = System.currentTimeMillis();
                 }
+                
+                // PERF-15: Check the running totals (every 10 min)
+                if (System.currentTimeMillis() - lastTotalsReconcile > TOTALS_RECONCILE_INTERVAL_MS) {
+                    reconcileTotals();
+                    lastTotalsReconcile = System.currentTimeMillis();
+                }
             } catch (InterruptedException e) {
                 break;
             }
@@ -411,27 +1227,58 @@ public class EconomyManager {
     
     /**
      * Save all dirty players asynchronously.
+     * Queued behind the save in flight, if any; a save already queued covers this request too.
      */
     private void saveDirtyPlayers() {
+        synchronized (saveQueueLock) {
+            if (saveQueued) {
+                return;
+            }
+            saveQueued = true;
+            lastSave = lastSave.thenCompose(ignored -> {
+                synchronized (saveQueueLock) {
+                    saveQueued = false;
+                }
+                return saveDirtyNow();
+            });
+        }
+    }
+    
+    /**
+     * Snapshot and save the dirty players; completes (never exceptionally) when the save is done.
+     */
+    private CompletableFuture<Void> saveDirtyNow() {
         if (dirtyPlayers.isEmpty()) {
-            return;
+            return CompletableFuture.completedFuture(null);
         }
         
+        // Journal mark must precede the snapshot: every record before it belongs to a dirty player
+        long journalMark = journal != null ? journal.mark() : 0;
+        
         // Snapshot and clear dirty set
         Set<UUID> toSave = new HashSet<>(dirtyPlayers);
         dirtyPlayers.clear();
         
-        // Build map of dirty players
-        Map<UUID, PlayerBalance> dirty = new HashMap<>();
-        for (UUID uuid : toSave) {
-            PlayerBalance balance = cache.get(uuid);
-            if (balance != null) {
-                dirty.put(uuid, balance);
-            }
+        // PERF-10: Snapshot accounts whose version advanced since their last save
+        Map<UUID, PlayerBalance> dirty = snapshotUnsaved(toSave);
+        if (dirty.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
         }
         
-        // Save asynchronously
-        storage.saveAll(dirty).exceptionally(e -> {
+        // Save asynchronously; journaled changes up to the mark are then safe to drop
+        CompletableFuture<Void> save;
+        try {
+            save = storage.saveAll(dirty);
+        } catch (RuntimeException e) {
+            save = CompletableFuture.failedFuture(e);
+        }
+        return save.thenRun(() -> {
+            acknowledgeSaved(dirty);
+            if (journal != null) {
+                journal.truncate(journalMark);
+                rejournalDropped();
+            }
+        }).exceptionally(e -> {
             logger.at(Level.SEVERE).log("Auto-save failed: %s", e.getMessage());
             // Re-mark as dirty for retry on next cycle
             dirtyPlayers.addAll(toSave);
@@ -439,9 +1286,36 @@ public class EconomyManager {
         });
     }
     
+    /**
+     * PERF-10: Take snapshots of the given accounts that have unsaved changes.
+     * Each snapshot is consistent and immutable, so storage threads never read live accounts.
+     */
+    private Map<UUID, PlayerBalance> snapshotUnsaved(Collection<UUID> players) {
+        Map<UUID, PlayerBalance> snapshots = new HashMap<>();
+        for (UUID uuid : players) {
+            PlayerBalance balance = cache.get(uuid);
+            if (balance != null && balance.isUnsaved()) {
+                snapshots.put(uuid, balance.snapshot());
+            }
+        }
+        return snapshots;
+    }
+    
+    /**
+     * PERF-10: Report the versions a successful save persisted back to the live accounts.
+     */
+    private void acknowledgeSaved(Map<UUID, PlayerBalance> snapshots) {
+        for (Map.Entry<UUID, PlayerBalance> entry : snapshots.entrySet()) {
+            PlayerBalance live = cache.get(entry.getKey());
+            if (live != null) {
+                live.acknowledgePersisted(entry.getValue().getVersion());
+            }
+        }
+    }
+    
     /**
      * Shutdown the economy manager.
-     * Saves all dirty players and stops the auto-save thread.
+     * Saves all unsaved players and stops the auto-save thread.
      */
     public void shutdown() {
         logger.at(Level.INFO).log("EconomyManager shutdown starting... (%d dirty, %d cached)", 
@@ -451,27 +1325,59 @@ public class EconomyManager {
         logger.at(Level.INFO).log("Interrupting auto-save thread...");
         saveThread.interrupt();
         
-        // Save ALL cached players on shutdown (not just dirty) to ensure nothing is lost
-        // Use SYNC save to avoid executor issues during server shutdown
-        if (!cache.isEmpty()) {
-            logger.at(Level.INFO).log("Saving %d player balances...", cache.size());
+        // Deliver events already committed to async listeners
+        EcotaleEvents.shutdownAsync(ASYNC_EVENT_DRAIN_MS);
+        
+        // Let the save in flight finish first, so it cannot overwrite the final one
+        CompletableFuture<Void> pendingSave;
+        synchronized (saveQueueLock) {
+            pendingSave = lastSave;
+        }
+        try {
+            pendingSave.get(5, java.util.concurrent.TimeUnit.SECONDS);
+        } catch (Exception e) {
+            logger.at(Level.WARNING).log("Auto-save still running at shutdown: %s", e.getMessage());
+        }
+        
+        // PERF-10: Save every cached account storage has not acknowledged yet
+        // (dirty or not: covers saves still in flight or failed). Use SYNC save
+        // to avoid executor issues during server shutdown
+        long journalMark = journal != null ? journal.mark() : 0;
+        Map<UUID, PlayerBalance> unsaved = snapshotUnsaved(cache.keySet());
+        if (!unsaved.isEmpty()) {
+            logger.at(Level.INFO).log("Saving %d of %d player balances...", unsaved.size(), cache.size());
             try {
                 if (storage instanceof H2StorageProvider h2) {
                     // Use sync method directly - bypasses executor which may be killed during shutdown
-                    h2.saveAllSync(cache);
+                    h2.saveAllSync(unsaved);
                     logger.at(Level.INFO).log("Player balances saved successfully (sync)");
                 } else {
                     // For other providers, use async with timeout as fallback
-                    storage.saveAll(cache).get(10, java.util.concurrent.TimeUnit.SECONDS);
+                    storage.saveAll(unsaved).get(10, java.util.concurrent.TimeUnit.SECONDS);
                     logger.at(Level.INFO).log("Player balances saved successfully");
                 }
+                acknowledgeSaved(unsaved);
+                if (journal != null) {
+                    journal.truncate(journalMark);
+                }
             } catch (java.util.concurrent.TimeoutException e) {
                 logger.at(Level.WARNING).log("Save operation timed out after 10 seconds - data may be lost");
             } catch (Exception e) {
                 logger.at(Level.SEVERE).log("Error saving player balances: %s", e.getMessage());
             }
+        } else if (journal != null) {
+            // Storage already holds every change
+            journal.truncate(journalMark);
         }
         
+        // Anything not truncated above is replayed on the next start
+        if (journal != null) {
+            journal.close();
+        }
+        
+        // Store queued transaction log entries while storage is still open
+        transactionLogger.shutdownWriter(TRANSACTION_LOG_DRAIN_MS);
+        
         // Shutdown storage provider
         logger.at(Level.INFO).log("Shutting down storage provider...");
         try {
@@ -519,38 +1425,287 @@ public class EconomyManager {
     private void bulkPreload() {
         try {
             Map<UUID, PlayerBalance> all = storage.loadAll().join();
+            // Loaders go through setBalance(); what was just read is already in storage
+            all.values().forEach(PlayerBalance::markPersisted);
             cache.putAll(all);
+            all.values().forEach(leaderboard::update);
+            all.values().forEach(totals::add);
             logger.at(Level.INFO).log("Bulk preloaded %d player balances", all.size());
         } catch (Exception e) {
             logger.at(Level.WARNING).log("Bulk preload failed, will load on-demand: %s", e.getMessage());
         }
+        replayJournal();
+    }
+    
+    /**
+     * PERF-12: Fill the columnar store from storage, one row per account.
+     * Accounts are streamed, so no PlayerBalance map of the whole table is built.
+     */
+    private void columnarPreload() {
+        try {
+            storage.forEachStored(pb -> {
+                columns.put(pb.getPlayerUuid(),
+                    pb.balanceCell(), pb.earnedCell(), pb.spentCell(), pb.getLastTransactionTime());
+                totals.addRow(pb.balanceCell(), pb.earnedCell(), pb.spentCell());
+            }).join();
+            logger.at(Level.INFO).log("Columnar store loaded %d accounts (%d KB)",
+                columns.size(), columns.footprintBytes() / 1024);
+        } catch (Exception e) {
+            logger.at(Level.WARNING).log("Columnar preload failed, will load on-demand: %s", e.getMessage());
+        }
+        replayJournal();
     }
     
     /**
-     * PERF-02: Get leaderboard with caching and rate-limit.
-     * Avoids sorting entire cache on every request.
+     * PERF-08: Open the write-ahead journal if enabled.
+     * Falls back to auto-save only if the file cannot be mapped.
+     */
+    private BalanceJournal openJournal(Path file) {
+        if (file == null) {
+            return null;
+        }
+        try {
+            BalanceJournal opened = new BalanceJournal(file,
+                Main.CONFIG.get().getJournalSizeMb() * 1024L * 1024L,
+                Main.CONFIG.get().getJournalSyncIntervalMs());
+            logger.at(Level.INFO).log("Balance journal enabled (%d ms group commit)",
+                Main.CONFIG.get().getJournalSyncIntervalMs());
+            return opened;
+        } catch (Exception e) {
+            logger.at(Level.SEVERE).log("Failed to open balance journal, continuing without it: %s", e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * PERF-08: Apply changes journaled after the last successful save (crash recovery),
+     * then save them right away so the journal can be truncated.
+     */
+    private void replayJournal() {
+        if (journal == null) {
+            return;
+        }
+        Map<UUID, BalanceJournal.JournalRecord> recovered = journal.replay();
+        if (recovered.isEmpty()) {
+            return;
+        }
+        for (BalanceJournal.JournalRecord record : recovered.values()) {
+            PlayerBalance balance = getOrLoadAccount(record.playerUuid());
+            balance.restore(record);
+            dirtyPlayers.add(record.playerUuid());
+            leaderboard.update(balance);
+            totals.update(balance);
+        }
+        logger.at(Level.WARNING).log("Recovered %d balances from journal (unclean shutdown?)", recovered.size());
+        saveDirtyPlayers();
+    }
+    
+    /**
+     * Record a committed change: mark dirty, journal it (PERF-08), re-rank it (PERF-13)
+     * and apply it to the running totals (PERF-15).
+     */
+    private void commit(UUID playerUuid, PlayerBalance balance) {
+        dirtyPlayers.add(playerUuid);
+        journal(playerUuid, balance);
+        if (balance != null) {
+            leaderboard.update(balance);
+            totals.update(balance);
+        }
+    }
+    
+    /**
+     * Hand a committed balance change to ASYNC_POST_COMMIT listeners.
+     * Reuses the event the pre-commit listeners saw, if one was fired.
+     */
+    private static void publishCommitted(BalanceChangeEvent fired, UUID playerUuid, double oldBalance,
+                                         double newBalance, BalanceChangeEvent.Cause cause, String reason) {
+        if (EcotaleEvents.hasListeners(BalanceChangeEvent.class, ListenerMode.ASYNC_POST_COMMIT)) {
+            EcotaleEvents.publish(fired != null ? fired
+                : new BalanceChangeEvent(playerUuid, oldBalance, newBalance, cause, reason));
+        }
+    }
+    
+    /**
+     * PERF-08: Journal an account's state after a committed change.
+     * A full journal triggers an early save; the next truncate makes room again.
+     */
+    private void journal(UUID playerUuid, PlayerBalance balance) {
+        if (journal == null || balance == null) {
+            return;
+        }
+        if (journal.append(playerUuid, balance)) {
+            return;
+        }
+        // The change stays dirty in memory; it is journaled again after the early save
+        unjournaled.add(playerUuid);
+        journalDrops.increment();
+        if (journalFullWarned.compareAndSet(false, true)) {
+            logger.at(Level.WARNING).log("Balance journal full, saving early");
+            CompletableFuture.runAsync(this::saveDirtyPlayers);
+        }
+    }
+    
+    /**
+     * PERF-08: After a truncate, journal the current state of the players whose
+     * changes did not fit while the journal was full.
+     */
+    private void rejournalDropped() {
+        journalFullWarned.set(false);
+        long dropped = journalDrops.sumThenReset();
+        if (dropped == 0) {
+            return;
+        }
+        int rejournaled = 0;
+        for (UUID uuid : unjournaled) {
+            PlayerBalance balance = cache.get(uuid);
+            if (balance != null && !journal.append(uuid, balance)) {
+                break; // Still full: the next failed append saves again
+            }
+            unjournaled.remove(uuid);
+            rejournaled++;
+        }
+        logger.at(Level.WARNING).log("Balance journal was full: %d changes were not journaled, %d players journaled again",
+            dropped, rejournaled);
+    }
+    
+    /**
+     * PERF-13: Get the top of the leaderboard from the live index.
      * 
      * @param limit Maximum number of entries to return
      * @return Sorted list of top players by balance
      */
     public List<Map.Entry<UUID, PlayerBalance>> getLeaderboard(int limit) {
-        long now = System.currentTimeMillis();
-        
-        // Rebuild if cache is stale or null
-        if (cachedLeaderboard == null || now - lastLeaderboardRebuild > LEADERBOARD_CACHE_MS) {
-            cachedLeaderboard = cache.entrySet().stream()
-                .sorted((a, b) -> Double.compare(b.getValue().getBalance(), a.getValue().getBalance()))
-                .limit(MAX_LEADERBOARD_CACHE_SIZE)
-                .collect(Collectors.toList());
-            lastLeaderboardRebuild = now;
+        return getLeaderboardPage(0, limit);
+    }
+    
+    /**
+     * PERF-13: Get the top balances, highest first, from the live index.
+     * In bounded/columnar modes the index covers the top MAX_LEADERBOARD_CACHE_SIZE
+     * accounts (see getLeaderboardPage); a longer list is read from storage.
+     */
+    public List<PlayerBalance> getTopBalances(int limit) {
+        if (maxCachedAccounts != 0 && limit > MAX_LEADERBOARD_CACHE_SIZE) {
+            return storage.getTopBalances(limit).join();
         }
-        
-        // Return requested limit from cache
-        return cachedLeaderboard.stream()
+        List<Map.Entry<UUID, PlayerBalance>> top = getLeaderboardPage(0, limit);
+        List<PlayerBalance> balances = new ArrayList<>(top.size());
+        for (Map.Entry<UUID, PlayerBalance> entry : top) {
+            balances.add(entry.getValue());
+        }
+        return balances;
+    }
+    
+    /**
+     * PERF-13: Get the entries at ranks offset+1 .. offset+limit.
+     * Reads the live index; in bounded/columnar modes the top cold accounts are
+     * merged in, so pages past MAX_LEADERBOARD_CACHE_SIZE only contain cached accounts.
+     */
+    public List<Map.Entry<UUID, PlayerBalance>> getLeaderboardPage(int offset, int limit) {
+        if (maxCachedAccounts == 0) {
+            return leaderboard.page(offset, limit);
+        }
+        Map<UUID, PlayerBalance> merged = new HashMap<>();
+        for (PlayerBalance cold : getColdTop()) {
+            merged.put(cold.getPlayerUuid(), cold);
+        }
+        // Live values win over cold rows of accounts loaded since
+        for (Map.Entry<UUID, PlayerBalance> hot : leaderboard.page(0, offset + limit)) {
+            merged.put(hot.getKey(), hot.getValue());
+        }
+        return merged.entrySet().stream()
+            .sorted((a, b) -> Long.compare(b.getValue().getBalanceSortKey(), a.getValue().getBalanceSortKey()))
+            .skip(offset)
             .limit(limit)
             .collect(Collectors.toList());
     }
     
+    /**
+     * PERF-13: Get the entries around a rank (1-based), e.g. a player's neighbours.
+     * 
+     * @param radius Entries to include above and below the rank
+     */
+    public List<Map.Entry<UUID, PlayerBalance>> getLeaderboardAround(int rank, int radius) {
+        int offset = Math.max(0, rank - 1 - radius);
+        return getLeaderboardPage(offset, rank - offset + radius);
+    }
+    
+    /**
+     * Number of ranked accounts (all accounts, unless the cache is bounded).
+     */
+    public int getLeaderboardSize() {
+        return maxCachedAccounts == 0 ? leaderboard.size() : getAccountCount();
+    }
+    
+    /**
+     * PERF-14: Get a player's rank (1-based; equal balances share a rank).
+     * Exact over all accounts in "all" cache mode; in bounded/columnar modes
+     * it ranks among the cached accounts only. Never waits on storage: a cold
+     * account in bounded mode is loaded in the background and ranked once cached.
+     * 
+     * @return The rank, or -1 if not known yet
+     */
+    public int getRank(@Nonnull UUID playerUuid) {
+        PlayerBalance account = cache.get(playerUuid);
+        if (account == null && maxCachedAccounts != 0) {
+            loadExistingAccountAsync(playerUuid);
+            return -1;
+        }
+        long sortKey = account != null ? account.getBalanceSortKey() : LedgerScale.encode(0.0);
+        return (int) leaderboard.countAbove(sortKey) + 1;
+    }
+    
+    /**
+     * PERF-14: Get the rank a balance would have (1-based).
+     */
+    public int getRankOf(double balance) {
+        return countAbove(balance) + 1;
+    }
+    
+    /**
+     * PERF-14: Count ranked accounts with a balance strictly above the given one.
+     */
+    public int countAbove(double balance) {
+        if (balance < 0) {
+            return leaderboard.size(); // Balances are never negative
+        }
+        return (int) leaderboard.countAbove(LedgerScale.encode(balance));
+    }
+    
+    /**
+     * PERF-16: Get the balance at a quantile, e.g. 0.5 for the median or 0.99 for p99.
+     * Within 0.2% of the true value, read in O(log buckets). Covers the same
+     * accounts as getRank(): all of them, or the cached ones in bounded/columnar modes.
+     * 
+     * @param quantile Fraction of accounts at or below the returned balance (0-1)
+     * @return The balance, or 0 if there are no accounts
+     */
+    public double getBalanceQuantile(double quantile) {
+        long minor = leaderboard.quantile(quantile);
+        return minor > 0 ? LedgerScale.fromMinor(minor) : 0.0;
+    }
+    
+    /**
+     * Whether rank queries cover every account (false when the cache is bounded).
+     */
+    public boolean isRankExact() {
+        return maxCachedAccounts == 0;
+    }
+    
+    /**
+     * Top accounts outside the cache: stored rows (bounded) or cold rows (columnar).
+     * Re-read at most every LEADERBOARD_CACHE_MS.
+     */
+    private List<PlayerBalance> getColdTop() {
+        long now = System.currentTimeMillis();
+        if (cachedColdTop == null || now - lastColdTopRebuild > LEADERBOARD_CACHE_MS) {
+            cachedColdTop = columns != null
+                ? columns.topCold(MAX_LEADERBOARD_CACHE_SIZE)
+                : storage.getTopBalances(MAX_LEADERBOARD_CACHE_SIZE * LEADERBOARD_STORAGE_FACTOR).join();
+            lastColdTopRebuild = now;
+        }
+        return cachedColdTop;
+    }
+    
     /**
      * PERF-03: Clean up locks for offline players.
      * Prevents unbounded growth of playerLocks map.
@@ -577,6 +1732,133 @@ public class EconomyManager {
         }
     }
     
+    /**
+     * PERF-11: Run an eviction sweep in the background unless one is already running.
+     */
+    private void scheduleEviction() {
+        if (!evictionRunning.compareAndSet(false, true)) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            try {
+                evictColdAccounts();
+            } catch (Exception e) {
+                logger.at(Level.WARNING).log("Account eviction failed: %s", e.getMessage());
+            } finally {
+                evictionRunning.set(false);
+            }
+        });
+    }
+    
+    /**
+     * PERF-11: Evict least recently used accounts until the cache is back under its target size.
+     * Online players, accounts with unsaved changes and locked or loading accounts are kept.
+     */
+    private void evictColdAccounts() {
+        int excess = cache.size() - (int) (maxCachedAccounts * EVICTION_TARGET_RATIO);
+        if (excess <= 0) {
+            return;
+        }
+        Set<UUID> onlinePlayers = Universe.get().getPlayers().stream()
+            .map(p -> p.getUuid())
+            .collect(Collectors.toSet());
+        
+        // Max-heap on last access: holds the `excess` oldest candidates seen so far
+        PriorityQueue<EvictionCandidate> oldest = new PriorityQueue<>(
+            Comparator.comparingLong(EvictionCandidate::lastAccess).reversed());
+        for (Map.Entry<UUID, PlayerBalance> entry : cache.entrySet()) {
+            UUID uuid = entry.getKey();
+            PlayerBalance account = entry.getValue();
+            if (onlinePlayers.contains(uuid) || account.isUnsaved() || account.isWriting() || isLocked(uuid)) {
+                continue;
+            }
+            long access = account.getLastAccess();
+            if (oldest.size() < excess) {
+                oldest.add(new EvictionCandidate(uuid, account, access));
+            } else if (access < oldest.peek().lastAccess()) {
+                oldest.poll();
+                oldest.add(new EvictionCandidate(uuid, account, access));
+            }
+        }
+        
+        int evicted = 0;
+        for (EvictionCandidate candidate : oldest) {
+            if (evict(candidate)) {
+                evicted++;
+            }
+        }
+        evictedAccounts.add(evicted);
+        logger.at(Level.FINE).log("Evicted %d cold accounts (%d cached)", evicted, cache.size());
+    }
+    
+    /**
+     * PERF-11: Remove one account from the cache if it is still unused and saved.
+     * A placeholder load future keeps concurrent loads of the same player waiting
+     * until the decision is made, so they never load a second copy next to ours.
+     */
+    private boolean evict(EvictionCandidate candidate) {
+        UUID uuid = candidate.playerUuid();
+        PlayerBalance account = candidate.account();
+        CompletableFuture<PlayerBalance> gate = new CompletableFuture<>();
+        if (loadingAccounts.putIfAbsent(uuid, gate) != null) {
+            return false; // Being loaded right now
+        }
+        PlayerBalance kept = null;
+        try {
+            if (!cache.remove(uuid, account)) {
+                return false;
+            }
+            // Looked up, changed or being changed since it was picked: keep it
+            if (account.getLastAccess() != candidate.lastAccess() || account.isUnsaved() || account.isWriting()) {
+                cache.put(uuid, account);
+                kept = account;
+                return false;
+            }
+            // PERF-12: Back to a cold row before any waiter can materialize it again
+            if (columns != null) {
+                columns.release(uuid, account);
+            }
+            leaderboard.remove(account);
+            return true;
+        } finally {
+            loadingAccounts.remove(uuid, gate);
+            // Waiters get the kept account, or null to load it again
+            gate.complete(kept != null ? kept : cache.get(uuid));
+        }
+    }
+    
+    private boolean isLocked(UUID playerUuid) {
+        if (stripedLocks != null) {
+            return false; // Stripes are shared; isWriting() covers the account itself
+        }
+        ReentrantLock lock = playerLocks.get(playerUuid);
+        return lock != null && lock.isLocked();
+    }
+    
+    private record EvictionCandidate(UUID playerUuid, PlayerBalance account, long lastAccess) {}
+    
+    /**
+     * Number of join-time account lookups (preloaded or loaded from storage).
+     */
+    public long getJoinLoads() {
+        return joinLoads.sum();
+    }
+    
+    /**
+     * Total nanoseconds joins spent waiting for accounts to load from storage.
+     */
+    public long getJoinWaitNanos() {
+        return joinWaitNanos.sum();
+    }
+    
+    /**
+     * Get the striped lock table, for contention metrics.
+     * Returns null unless LockMode is "striped".
+     */
+    public StripedLockTable getStripedLocks() {
+        return stripedLocks;
+    }
+    
     private String resolvePlayerName(UUID uuid) {
         var service = com.ecotale.util.PlayerNameService.getInstance();
         return (service != null) ? service.resolve(uuid) : uuid.toString().substring(0, UUID_PREVIEW_LENGTH) + "...";
@@ -588,4 +1870,13 @@ public class EconomyManager {
         INVALID_AMOUNT,
         RECIPIENT_MAX_BALANCE
     }
+    
+    public enum BatchResult {
+        SUCCESS,
+        INVALID_AMOUNT,
+        INSUFFICIENT_FUNDS,
+        EXCEEDS_MAX_BALANCE,
+        EVENT_CANCELLED,
+        ACCOUNT_NOT_FOUND
+    }
 }
@@ -0,0 +1,113 @@
+package com.ecotale.economy;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Economy-wide sums kept up to date on every committed change: account count,
+ * money supply, total earned and total spent.
+ *
+ * Sums are exact fixed-point integers in minor units (see LedgerScale), so they
+ * never drift the way a running double would. Each account remembers the values
+ * it was last counted with; a change adds the difference to its current values,
+ * so concurrent updates of one account converge on its latest state whatever
+ * order they run in (the same scheme as LeaderboardIndex).
+ *
+ * Columnar rows (PERF-12) are counted from their cells at startup. Their
+ * accounts are adopted when materialized and stay counted after eviction,
+ * since the row takes over the account's saved state.
+ */
+final class EconomyTotals {
+
+    private final LongAdder accounts = new LongAdder();
+    private final LongAdder balance = new LongAdder();
+    private final LongAdder earned = new LongAdder();
+    private final LongAdder spent = new LongAdder();
+
+    /**
+     * Start counting an account that is not counted yet.
+     */
+    void add(@Nonnull PlayerBalance account) {
+        synchronized (account) {
+            if (account.counted) {
+                return;
+            }
+            accounts.increment();
+            count(account, 0, 0, 0);
+        }
+    }
+
+    /**
+     * Take over an account whose values are already counted (a columnar row).
+     */
+    void adopt(@Nonnull PlayerBalance account) {
+        synchronized (account) {
+            if (!account.counted) {
+                account.counted = true;
+                account.countedBalance = account.getBalanceMinor();
+                account.countedEarned = account.getTotalEarnedMinor();
+                account.countedSpent = account.getTotalSpentMinor();
+            }
+        }
+    }
+
+    /**
+     * Apply an account's change since it was last counted.
+     */
+    void update(@Nonnull PlayerBalance account) {
+        synchronized (account) {
+            if (account.counted) {
+                count(account, account.countedBalance, account.countedEarned, account.countedSpent);
+            }
+        }
+    }
+
+    /**
+     * Count a columnar row from its encoded cells.
+     */
+    void addRow(long balanceCell, long earnedCell, long spentCell) {
+        accounts.increment();
+        balance.add(PlayerBalance.minorOf(balanceCell));
+        earned.add(PlayerBalance.minorOf(earnedCell));
+        spent.add(PlayerBalance.minorOf(spentCell));
+    }
+
+    /** Current sums. Each field is exact; fields may be read a change apart. */
+    Sums sums() {
+        return new Sums(accounts.sum(), balance.sum(), earned.sum(), spent.sum());
+    }
+
+    // Caller holds the account monitor
+    private void count(PlayerBalance account, long oldBalance, long oldEarned, long oldSpent) {
+        long newBalance = account.getBalanceMinor();
+        long newEarned = account.getTotalEarnedMinor();
+        long newSpent = account.getTotalSpentMinor();
+        balance.add(newBalance - oldBalance);
+        earned.add(newEarned - oldEarned);
+        spent.add(newSpent - oldSpent);
+        account.counted = true;
+        account.countedBalance = newBalance;
+        account.countedEarned = newEarned;
+        account.countedSpent = newSpent;
+    }
+
+    /**
+     * Account count and amounts in minor units.
+     */
+    record Sums(long accounts, long balance, long earned, long spent) {
+
+        Sums plus(Sums other) {
+            return new Sums(accounts + other.accounts, balance + other.balance,
+                earned + other.earned, spent + other.spent);
+        }
+
+        Sums minus(Sums other) {
+            return new Sums(accounts - other.accounts, balance - other.balance,
+                earned - other.earned, spent - other.spent);
+        }
+
+        boolean isZero() {
+            return accounts == 0 && balance == 0 && earned == 0 && spent == 0;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.ecotale.economy;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live ranking of cached accounts by balance (highest first, ties by UUID).
+ *
+ * EconomyManager re-ranks an account after every committed change, so reads
+ * never sort: top-N and a page at an offset walk the skip list from the head
+ * (O(log n + offset + k)) and always reflect the latest balances.
+ *
+ * Each account remembers its current entry. Most commits do not change an
+ * account's position: its new sort key stays in the same balance bucket and
+ * between the same two neighbours, so the entry's key is updated in place and
+ * nothing is allocated. Only a change that passes a neighbour or leaves the
+ * bucket removes the entry and inserts a new one. Re-ranking reads the
+ * account's balance at that moment, so concurrent updates of one account
+ * converge on its latest value whatever order they run in.
+ *
+ * In-place updates are safe because a key never leaves its bucket that way and
+ * buckets are ordered like keys, so comparisons against keys of other buckets
+ * do not change. Within a bucket, inserts and in-place updates hold the
+ * bucket's stripe lock; reads and removals take no lock.
+ *
+ * Rank queries: a RankBuckets tree counts the same entries per balance bucket,
+ * so "how many accounts are above X" is a bucket prefix sum plus a walk
+ * inside X's own bucket, capped at MAX_BUCKET_WALK steps (see countAbove).
+ * The tree also answers balance quantiles within 0.2% (see quantile).
+ */
+final class LeaderboardIndex {
+
+    private static final Comparator<Entry> ORDER = (a, b) -> compare(a.sortKey(), a.account(), b.sortKey(), b.account());
+
+    /** In-bucket entries walked per side by countAbove before it interpolates */
+    static final int MAX_BUCKET_WALK = 64;
+
+    /** Stripe locks for inserts and in-place updates, by bucket (power of two) */
+    private static final int LOCK_STRIPES = 64;
+
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(ORDER);
+    private final AtomicInteger size = new AtomicInteger(); // ConcurrentSkipListSet.size() is O(n)
+    private final RankBuckets buckets = new RankBuckets();
+    private final Object[] stripes = new Object[LOCK_STRIPES];
+
+    {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    // Sorts before every real account with the same sort key (UUID order is signed)
+    private static final PlayerBalance FLOOR = new PlayerBalance(new UUID(Long.MIN_VALUE, Long.MIN_VALUE));
+
+    /**
+     * Insert an account or move it to its current balance.
+     */
+    void update(@Nonnull PlayerBalance account) {
+        synchronized (account) {
+            long sortKey = account.getBalanceSortKey();
+            int bucket = RankBuckets.bucketOf(sortKey);
+            Entry current = account.rankEntry;
+            if (current != null) {
+                long oldKey = current.sortKey();
+                if (oldKey == sortKey) {
+                    return;
+                }
+                int oldBucket = RankBuckets.bucketOf(oldKey);
+                if (oldBucket == bucket) {
+                    synchronized (stripes[bucket & (LOCK_STRIPES - 1)]) {
+                        if (staysInPlace(current, sortKey)) {
+                            current.sortKey = sortKey;
+                            return;
+                        }
+                    }
+                }
+                ranking.remove(current);
+                moveBucket(oldBucket, bucket);
+            } else {
+                size.incrementAndGet();
+                buckets.add(bucket, 1);
+            }
+            Entry updated = new Entry(sortKey, account);
+            synchronized (stripes[bucket & (LOCK_STRIPES - 1)]) {
+                ranking.add(updated);
+            }
+            account.rankEntry = updated;
+        }
+    }
+
+    /**
+     * Whether an entry would keep its position with a new key: still below the
+     * entry ranked just above it and above the one ranked just below it.
+     * Caller holds the bucket's stripe lock, so neither neighbour can be
+     * inserted or moved within the bucket meanwhile.
+     */
+    private boolean staysInPlace(Entry entry, long sortKey) {
+        PlayerBalance account = entry.account();
+        Entry above = ranking.lower(entry);
+        if (above != null && compare(above.sortKey(), above.account(), sortKey, account) >= 0) {
+            return false;
+        }
+        Entry below = ranking.higher(entry);
+        return below == null || compare(sortKey, account, below.sortKey(), below.account()) < 0;
+    }
+
+    /**
+     * Drop an account (evicted from the cache).
+     */
+    void remove(@Nonnull PlayerBalance account) {
+        synchronized (account) {
+            Entry current = account.rankEntry;
+            if (current != null) {
+                ranking.remove(current);
+                size.decrementAndGet();
+                buckets.add(RankBuckets.bucketOf(current.sortKey()), -1);
+                account.rankEntry = null;
+            }
+        }
+    }
+
+    /**
+     * Entries at ranks offset+1 .. offset+limit, highest balance first.
+     */
+    List<Map.Entry<UUID, PlayerBalance>> page(int offset, int limit) {
+        List<Map.Entry<UUID, PlayerBalance>> result = new ArrayList<>(Math.min(Math.max(limit, 0), 256));
+        Iterator<Entry> it = ranking.iterator();
+        for (int skipped = 0; skipped < offset && it.hasNext(); skipped++) {
+            it.next();
+        }
+        while (result.size() < limit && it.hasNext()) {
+            PlayerBalance account = it.next().account();
+            result.add(Map.entry(account.getPlayerUuid(), account));
+        }
+        return result;
+    }
+
+    /**
+     * Number of ranked accounts with a strictly higher sort key.
+     *
+     * Buckets above the key's bucket come from the Fenwick tree. Inside its own
+     * bucket the skip list is walked up and down from the key in lockstep and
+     * the shorter side decides, so a crowd of equal balances just above or just
+     * below the key (e.g. everyone still on the starting balance) is never
+     * walked in full.
+     *
+     * The walk is capped at MAX_BUCKET_WALK entries per side, so a call costs
+     * O(MAX_BUCKET_WALK * log n) however full the bucket. The count is exact
+     * whenever the key is within MAX_BUCKET_WALK entries of either end of its
+     * bucket. Otherwise the rest is interpolated from where the key falls in
+     * the bucket's balance range. That stays within the walked bounds and the
+     * bucket's count, and the bucket spans at most 0.4% of its balances.
+     */
+    long countAbove(long sortKey) {
+        int bucket = RankBuckets.bucketOf(sortKey);
+        long aboveBucket = buckets.countFrom(bucket + 1);
+        long inBucket = buckets.count(bucket);
+
+        Entry probe = new Entry(sortKey, FLOOR);
+        Iterator<Entry> up = ranking.headSet(probe, false).descendingIterator();
+        Iterator<Entry> down = ranking.tailSet(probe, true).iterator();
+        long higher = 0;
+        long notHigher = 0;
+        while (higher < MAX_BUCKET_WALK) {
+            if (!nextInBucket(up, bucket)) {
+                return aboveBucket + higher;
+            }
+            higher++;
+            if (!nextInBucket(down, bucket)) {
+                return aboveBucket + Math.max(inBucket - notHigher, higher);
+            }
+            notHigher++;
+        }
+        // Both sides go on: estimate the share of the bucket above the key
+        long width = RankBuckets.width(bucket);
+        long fromTop = RankBuckets.lowerBound(bucket) + width - 1 - RankBuckets.toMinor(sortKey);
+        long estimate = Math.round(inBucket * (fromTop + 0.5) / width);
+        return aboveBucket + Math.max(higher, Math.min(estimate, inBucket - notHigher));
+    }
+
+    /**
+     * Balance at quantile q (0.5 = median), in minor units, within 0.2%.
+     *
+     * @return The estimate, or -1 without ranked accounts
+     */
+    long quantile(double q) {
+        long count = buckets.countFrom(0);
+        if (count <= 0) {
+            return -1;
+        }
+        long k = Math.min(count, Math.max(1, (long) Math.ceil(q * count)));
+        int bucket = buckets.bucketOfKth(k);
+        return bucket >= 0 ? RankBuckets.midpoint(bucket) : -1;
+    }
+
+    /** Number of ranked accounts. */
+    int size() {
+        return size.get();
+    }
+
+    private void moveBucket(int from, int to) {
+        if (from != to) {
+            buckets.add(from, -1);
+            buckets.add(to, 1);
+        }
+    }
+
+    private static boolean nextInBucket(Iterator<Entry> it, int bucket) {
+        return it.hasNext() && RankBuckets.bucketOf(it.next().sortKey()) == bucket;
+    }
+
+    /** Ranking order: highest sort key first, ties by UUID. */
+    private static int compare(long keyA, PlayerBalance a, long keyB, PlayerBalance b) {
+        int byKey = Long.compare(keyB, keyA);
+        return byKey != 0 ? byKey : a.getPlayerUuid().compareTo(b.getPlayerUuid());
+    }
+
+    /**
+     * One ranked account, ordered by its sort key. The key only changes in
+     * place, within its bucket and between the same neighbours (see update).
+     */
+    static final class Entry {
+        private volatile long sortKey;
+        private final PlayerBalance account;
+
+        Entry(long sortKey, PlayerBalance account) {
+            this.sortKey = sortKey;
+            this.account = account;
+        }
+
+        long sortKey() {
+            return sortKey;
+        }
+
+        PlayerBalance account() {
+            return account;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.ecotale.economy;
+
+import java.math.BigDecimal;
+
+/**
+ * Money representation used by the ledger.
+ *
+ * Two modes (config LedgerMode):
+ * - "double" (default): amounts are kept as doubles, as they always were
+ * - "minor": amounts are kept as long minor units (cents for DecimalPlaces = 2),
+ *   so balance arithmetic is exact integer math
+ *
+ * The scale is captured once at startup by configure(), before any balance is
+ * loaded, and cached here so conversions are a single multiply/divide. Storage
+ * providers always write both the DOUBLE and the BIGINT *_minor columns, which
+ * keeps switching modes (and changing DecimalPlaces) a restart-only operation.
+ */
+public final class LedgerScale {
+
+    /** Highest supported DecimalPlaces in minor-unit mode */
+    public static final int MAX_DECIMAL_PLACES = 8;
+
+    private static volatile boolean minorUnits = false;
+    private static volatile int decimalPlaces = 2;
+    private static volatile long factor = 100L;
+    private static volatile double doubleFactor = 100.0;
+
+    private LedgerScale() {}
+
+    /**
+     * Select the ledger mode and cache the scale.
+     * Must be called before any PlayerBalance is created or loaded.
+     *
+     * @param useMinorUnits true for long minor units, false for doubles
+     * @param places DecimalPlaces from config (clamped to 0..MAX_DECIMAL_PLACES)
+     */
+    public static void configure(boolean useMinorUnits, int places) {
+        int clamped = Math.max(0, Math.min(MAX_DECIMAL_PLACES, places));
+        long f = 1L;
+        for (int i = 0; i < clamped; i++) {
+            f *= 10L;
+        }
+        decimalPlaces = clamped;
+        factor = f;
+        doubleFactor = f;
+        minorUnits = useMinorUnits;
+    }
+
+    /** @return true if balances are stored as long minor units */
+    public static boolean isMinorUnits() { return minorUnits; }
+
+    /** @return Decimal places of one minor unit */
+    public static int getDecimalPlaces() { return decimalPlaces; }
+
+    /** @return Minor units per major unit (10^DecimalPlaces) */
+    public static long getFactor() { return factor; }
+
+    /**
+     * Convert a major-unit amount to minor units, rounding half up.
+     * Exact as long as |amount * factor| stays below 2^53.
+     */
+    public static long toMinor(double amount) {
+        return Math.round(amount * doubleFactor);
+    }
+
+    /** Convert minor units back to a major-unit double. */
+    public static double fromMinor(long minor) {
+        return minor / doubleFactor;
+    }
+
+    /**
+     * Convert a BigDecimal to minor units without allocating.
+     * Same precision bound as toMinor(double).
+     */
+    public static long toMinor(BigDecimal amount) {
+        return Math.round(amount.doubleValue() * doubleFactor);
+    }
+
+    /** Convert minor units to an exact BigDecimal at the ledger scale. */
+    public static BigDecimal toBigDecimal(long minor) {
+        return BigDecimal.valueOf(minor, decimalPlaces);
+    }
+
+    /**
+     * Round an amount to what the ledger can represent.
+     * Identity in double mode; rounds to whole minor units in minor mode.
+     */
+    public static double normalize(double amount) {
+        return minorUnits ? fromMinor(toMinor(amount)) : amount;
+    }
+
+    // Cell encoding for PlayerBalance: one long per amount in either mode.
+    // Double mode stores the raw IEEE bits, which order like the value for
+    // non-negative balances, so the cell doubles as a primitive sort key.
+
+    static long encode(double amount) {
+        return minorUnits ? toMinor(amount) : Double.doubleToRawLongBits(amount);
+    }
+
+    static double decode(long cell) {
+        return minorUnits ? fromMinor(cell) : Double.longBitsToDouble(cell);
+    }
+}
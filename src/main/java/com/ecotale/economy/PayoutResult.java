@@ -0,0 +1,45 @@
+package com.ecotale.economy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Outcome of a one-to-many payout (see EconomyManager.payout).
+ * Unlike applyBatch(), payouts are not all-or-nothing: each recipient
+ * succeeds or fails on its own.
+ *
+ * @param outcomes Result per recipient, in the order recipients were given
+ * @param successCount Number of recipients that were paid
+ * @param totalPaid Sum of all successful deposits
+ */
+public record PayoutResult(
+    Map<UUID, DepositResult> outcomes,
+    int successCount,
+    double totalPaid
+) {
+    /**
+     * Get the result for one recipient, or null if it was not part of the payout.
+     */
+    public DepositResult get(UUID playerUuid) {
+        return outcomes.get(playerUuid);
+    }
+
+    /**
+     * Recipients that were not paid (max balance, cancelled, ...).
+     */
+    public List<UUID> getRejected() {
+        List<UUID> rejected = new ArrayList<>();
+        for (Map.Entry<UUID, DepositResult> entry : outcomes.entrySet()) {
+            if (entry.getValue() != DepositResult.SUCCESS) {
+                rejected.add(entry.getKey());
+            }
+        }
+        return rejected;
+    }
+
+    public boolean isAllSuccessful() {
+        return successCount == outcomes.size();
+    }
+}
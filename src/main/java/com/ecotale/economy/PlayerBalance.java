@@ -6,6 +6,8 @@ import com.hypixel.hytale.codec.KeyedCodec;
 import com.hypixel.hytale.codec.builder.BuilderCodec;
 import com.hypixel.hytale.codec.codecs.array.ArrayCodec;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.UUID;
 
 /**
@@ -15,39 +17,114 @@ import java.util.UUID;
  * - SEC-02: MaxBalance validation in deposit() - rejects if exceeded
  * - Internal methods for atomic operations (package-private)
  * 
+ * Concurrency: balance and totals are updated with compare-and-set retry loops,
+ * so deposit()/withdraw() are safe without a lock. Limits (maxBalance, no negative
+ * balance) are re-checked against the latest value on every attempt.
+ * 
+ * Representation: each amount is one long cell, either raw double bits or long
+ * minor units depending on the ledger mode (see LedgerScale).
+ * 
+ * Allocation: the last transaction is kept as primitives plus the caller's
+ * reason reference and only turned into a string by getLastTransaction(),
+ * so successful mutations build no strings.
+ * 
+ * Versioning: every committed change advances getVersion(). Writers bracket
+ * their updates with a start/finish counter pair (a seqlock that tolerates
+ * concurrent lock-free writers), so snapshot() can take a consistent copy
+ * without the account lock. Storage acknowledges the version it persisted,
+ * and isUnsaved() tells whether anything changed since.
+ * 
  * NOTE: BuilderCodec keys MUST start with uppercase (PascalCase)
  */
 public class PlayerBalance {
     
+    // Last transaction kinds, formatted lazily by getLastTransaction()
+    private static final byte TX_NONE = 0;
+    private static final byte TX_DEPOSIT = 1;
+    private static final byte TX_WITHDRAW = 2;
+    private static final byte TX_SET = 3;
+    private static final byte TX_TEXT = 4; // Pre-formatted text (loaded from storage, recovery)
+    
     public static final BuilderCodec<PlayerBalance> CODEC = BuilderCodec.builder(PlayerBalance.class, PlayerBalance::new)
         .append(new KeyedCodec<>("Uuid", Codec.STRING),
             (p, v, extraInfo) -> p.playerUuid = UUID.fromString(v), 
             (p, extraInfo) -> p.playerUuid.toString()).add()
         .append(new KeyedCodec<>("Balance", Codec.DOUBLE),
-            (p, v, extraInfo) -> p.balance = v, 
-            (p, extraInfo) -> p.balance).add()
+            (p, v, extraInfo) -> p.balance = LedgerScale.encode(v), 
+            (p, extraInfo) -> p.getBalance()).add()
         .append(new KeyedCodec<>("TotalEarned", Codec.DOUBLE),
-            (p, v, extraInfo) -> p.totalEarned = v, 
-            (p, extraInfo) -> p.totalEarned).add()
+            (p, v, extraInfo) -> p.totalEarned = LedgerScale.encode(v), 
+            (p, extraInfo) -> p.getTotalEarned()).add()
         .append(new KeyedCodec<>("TotalSpent", Codec.DOUBLE),
-            (p, v, extraInfo) -> p.totalSpent = v, 
-            (p, extraInfo) -> p.totalSpent).add()
+            (p, v, extraInfo) -> p.totalSpent = LedgerScale.encode(v), 
+            (p, extraInfo) -> p.getTotalSpent()).add()
         .append(new KeyedCodec<>("LastTransaction", Codec.STRING),
-            (p, v, extraInfo) -> p.lastTransaction = v, 
-            (p, extraInfo) -> p.lastTransaction).add()
+            (p, v, extraInfo) -> { p.lastTxKind = TX_TEXT; p.lastTxReason = v; }, 
+            (p, extraInfo) -> p.getLastTransaction()).add()
         .append(new KeyedCodec<>("LastTransactionTime", Codec.LONG),
             (p, v, extraInfo) -> p.lastTransactionTime = v, 
-            (p, extraInfo) -> p.lastTransactionTime).add()
+            (p, extraInfo) -> p.getLastTransactionTime()).add()
         .build();
     
     public static final ArrayCodec<PlayerBalance> ARRAY_CODEC = new ArrayCodec<>(CODEC, PlayerBalance[]::new, PlayerBalance::new);
     
+    private static final VarHandle BALANCE;
+    private static final VarHandle TOTAL_EARNED;
+    private static final VarHandle TOTAL_SPENT;
+    private static final VarHandle WRITES_STARTED;
+    private static final VarHandle WRITES_FINISHED;
+    private static final VarHandle VERSION;
+    private static final VarHandle PERSISTED_VERSION;
+    private static final VarHandle SNAPSHOT_WAITERS;
+    
+    /** Failed snapshot attempts before new writers are held back */
+    private static final int SNAPSHOT_SPINS = 64;
+    
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            BALANCE = lookup.findVarHandle(PlayerBalance.class, "balance", long.class);
+            TOTAL_EARNED = lookup.findVarHandle(PlayerBalance.class, "totalEarned", long.class);
+            TOTAL_SPENT = lookup.findVarHandle(PlayerBalance.class, "totalSpent", long.class);
+            WRITES_STARTED = lookup.findVarHandle(PlayerBalance.class, "writesStarted", long.class);
+            WRITES_FINISHED = lookup.findVarHandle(PlayerBalance.class, "writesFinished", long.class);
+            VERSION = lookup.findVarHandle(PlayerBalance.class, "version", long.class);
+            PERSISTED_VERSION = lookup.findVarHandle(PlayerBalance.class, "persistedVersion", long.class);
+            SNAPSHOT_WAITERS = lookup.findVarHandle(PlayerBalance.class, "snapshotWaiters", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
     private UUID playerUuid;
-    private double balance = 0;
-    private double totalEarned = 0;
-    private double totalSpent = 0;
-    private String lastTransaction = "";
-    private long lastTransactionTime = 0;
+    // Encoded with LedgerScale.encode(); 0 is zero in both modes
+    private volatile long balance = 0;
+    private volatile long totalEarned = 0;
+    private volatile long totalSpent = 0;
+    
+    // Last transaction (see getLastTransaction())
+    private volatile byte lastTxKind = TX_NONE;
+    private volatile double lastTxAmount = 0;
+    private volatile UUID lastTxCounterparty = null; // Other side of a transfer, if any
+    private volatile String lastTxReason = "";
+    private volatile long lastTransactionTime = 0;
+    
+    // Seqlock: equal counters mean no write in progress (see snapshot())
+    private volatile long writesStarted = 0;
+    private volatile long writesFinished = 0;
+    private volatile int snapshotWaiters = 0; // Readers that gave up spinning; writers yield to them
+    // Committed changes, and the latest one storage acknowledged
+    private volatile long version = 0;
+    private volatile long persistedVersion = 0;
+    // Last lookup through EconomyManager (bounded cache eviction order)
+    private volatile long lastAccess = 0;
+    // Current LeaderboardIndex entry, guarded by this account's monitor
+    LeaderboardIndex.Entry rankEntry;
+    // Values EconomyTotals last counted (minor units), guarded by this account's monitor
+    boolean counted;
+    long countedBalance;
+    long countedEarned;
+    long countedSpent;
     
     public PlayerBalance() {}
     
@@ -55,6 +132,20 @@ public class PlayerBalance {
         this.playerUuid = playerUuid;
     }
     
+    /**
+     * Rebuild an account from encoded cells (see BalanceColumns).
+     * The result counts as saved: version and persisted version are both 0.
+     */
+    static PlayerBalance fromCells(UUID playerUuid, long balanceCell, long earnedCell, long spentCell,
+                                   long lastTransactionTime) {
+        PlayerBalance account = new PlayerBalance(playerUuid);
+        account.balance = balanceCell;
+        account.totalEarned = earnedCell;
+        account.totalSpent = spentCell;
+        account.lastTransactionTime = lastTransactionTime;
+        return account;
+    }
+    
     /**
      * Deposit money into this account.
      * 
@@ -70,15 +161,7 @@ public class PlayerBalance {
         
         // SEC-02: Enforce maxBalance - REJECT entire transaction
         double maxBalance = Main.CONFIG.get().getMaxBalance();
-        if (this.balance + amount > maxBalance) {
-            return false; // Reject - would exceed max balance
-        }
-        
-        this.balance += amount;
-        this.totalEarned += amount;
-        this.lastTransaction = "+" + amount + " (" + reason + ")";
-        this.lastTransactionTime = System.currentTimeMillis();
-        return true;
+        return depositInternal(amount, maxBalance, null, reason);
     }
     
     /**
@@ -89,12 +172,8 @@ public class PlayerBalance {
      * @return true if successful, false if insufficient funds
      */
     public boolean withdraw(double amount, String reason) {
-        if (amount <= 0 || this.balance < amount) return false;
-        this.balance -= amount;
-        this.totalSpent += amount;
-        this.lastTransaction = "-" + amount + " (" + reason + ")";
-        this.lastTransactionTime = System.currentTimeMillis();
-        return true;
+        if (amount <= 0) return false;
+        return withdrawInternal(amount, null, reason);
     }
     
     /**
@@ -102,42 +181,349 @@ public class PlayerBalance {
      * Enforces minimum of 0 but allows bypassing maxBalance for admin use.
      */
     public void setBalance(double amount, String reason) {
-        this.balance = Math.max(0, amount);
-        this.lastTransaction = "Set to " + amount + " (" + reason + ")";
-        this.lastTransactionTime = System.currentTimeMillis();
+        beginWrite();
+        BALANCE.setVolatile(this, LedgerScale.encode(Math.max(0, amount)));
+        recordTransaction(TX_SET, amount, null, reason);
+        endWrite(true);
+    }
+    
+    /**
+     * Set balance from stored minor units (storage loaders in minor-unit mode).
+     * Exact: no round trip through double.
+     */
+    public void setBalanceMinor(long minorUnits, String reason) {
+        if (!LedgerScale.isMinorUnits()) {
+            setBalance(LedgerScale.fromMinor(minorUnits), reason);
+            return;
+        }
+        beginWrite();
+        BALANCE.setVolatile(this, Math.max(0L, minorUnits));
+        recordTransaction(TX_SET, LedgerScale.fromMinor(minorUnits), null, reason);
+        endWrite(true);
+    }
+    
+    /**
+     * Restore balance and totals from the write-ahead journal (startup replay only).
+     * Cells journaled in the current ledger mode are restored as they are.
+     */
+    void restore(BalanceJournal.JournalRecord record) {
+        beginWrite();
+        BALANCE.setVolatile(this, Math.max(0L, toCurrentMode(record.balanceCell(), record.minorUnits())));
+        TOTAL_EARNED.setVolatile(this, toCurrentMode(record.earnedCell(), record.minorUnits()));
+        TOTAL_SPENT.setVolatile(this, toCurrentMode(record.spentCell(), record.minorUnits()));
+        recordTransaction(TX_TEXT, 0, null, "Recovered from journal");
+        endWrite(true);
+    }
+    
+    private static long toCurrentMode(long cell, boolean minorUnits) {
+        if (minorUnits == LedgerScale.isMinorUnits()) {
+            return cell;
+        }
+        return LedgerScale.encode(minorUnits ? LedgerScale.fromMinor(cell) : Double.longBitsToDouble(cell));
     }
     // These are called ONLY from EconomyManager with locks held.
-    // They bypass validation because the caller already verified.
+    // The caller already validated amounts, but lock-free deposit()/withdraw()
+    // may still run concurrently, so limits are re-checked atomically here.
     
     /**
-     * Internal deposit - NO validation.
+     * Internal deposit - skips amount validation.
      * ONLY call from EconomyManager.transfer() with lock held.
+     * @param from Sender for transfers (shown as "Transfer from ..."), or null
+     * @return false if the deposit would exceed maxBalance
      */
-    void depositInternal(double amount, String reason) {
-        this.balance += amount;
-        this.totalEarned += amount;
-        this.lastTransaction = "+" + amount + " (" + reason + ")";
-        this.lastTransactionTime = System.currentTimeMillis();
+    boolean depositInternal(double amount, double maxBalance, UUID from, String reason) {
+        beginWrite();
+        if (!tryAddBalance(amount, maxBalance)) {
+            endWrite(false);
+            return false;
+        }
+        addTotal(TOTAL_EARNED, amount);
+        recordTransaction(TX_DEPOSIT, amount, from, reason);
+        endWrite(true);
+        return true;
     }
     
     /**
-     * Internal withdraw - NO validation.
+     * Internal withdraw - skips amount validation.
      * ONLY call from EconomyManager.transfer() with lock held.
+     * @param to Recipient for transfers (shown as "Transfer to ..."), or null
+     * @return false if funds are insufficient
+     */
+    boolean withdrawInternal(double amount, UUID to, String reason) {
+        beginWrite();
+        if (!tryAddBalance(-amount, Double.POSITIVE_INFINITY)) {
+            endWrite(false);
+            return false;
+        }
+        addTotal(TOTAL_SPENT, amount);
+        recordTransaction(TX_WITHDRAW, amount, to, reason);
+        endWrite(true);
+        return true;
+    }
+    
+    /**
+     * Undo a successful withdrawInternal() when the other side of a transfer fails.
+     */
+    void revertWithdrawInternal(double amount) {
+        beginWrite();
+        addTotal(BALANCE, amount);
+        addTotal(TOTAL_SPENT, -amount);
+        endWrite(true);
+    }
+    
+    /**
+     * Undo a successful depositInternal() when a later op in the same batch fails.
+     */
+    void revertDepositInternal(double amount) {
+        beginWrite();
+        addTotal(BALANCE, -amount);
+        addTotal(TOTAL_EARNED, -amount);
+        endWrite(true);
+    }
+    
+    /**
+     * Consistent, detached copy of the persisted fields for storage.
+     * Retries while a write is in progress instead of taking the account lock.
+     * Under sustained writes it holds back new writers until one copy succeeds.
+     * The copy is never mutated and carries the version it reflects.
+     */
+    PlayerBalance snapshot() {
+        PlayerBalance copy = tryCopy(SNAPSHOT_SPINS);
+        if (copy != null) {
+            return copy;
+        }
+        SNAPSHOT_WAITERS.getAndAdd(this, 1);
+        try {
+            return tryCopy(Integer.MAX_VALUE);
+        } finally {
+            SNAPSHOT_WAITERS.getAndAdd(this, -1);
+        }
+    }
+    
+    private PlayerBalance tryCopy(int attempts) {
+        for (int i = 0; i < attempts; i++) {
+            long started = writesStarted;
+            long finished = writesFinished;
+            if (started == finished) {
+                PlayerBalance copy = new PlayerBalance(playerUuid);
+                copy.balance = balance;
+                copy.totalEarned = totalEarned;
+                copy.totalSpent = totalSpent;
+                copy.lastTxKind = lastTxKind;
+                copy.lastTxAmount = lastTxAmount;
+                copy.lastTxCounterparty = lastTxCounterparty;
+                copy.lastTxReason = lastTxReason;
+                copy.lastTransactionTime = lastTransactionTime;
+                copy.version = version;
+                // No write finished or started while copying
+                if (writesFinished == finished && writesStarted == started) {
+                    return copy;
+                }
+            }
+            Thread.onSpinWait();
+        }
+        return null;
+    }
+    
+    /**
+     * Record that storage holds this account at the given version (from a snapshot).
+     * Acknowledgements may arrive out of order; the highest one wins.
      */
-    void withdrawInternal(double amount, String reason) {
-        this.balance -= amount;
-        this.totalSpent += amount;
-        this.lastTransaction = "-" + amount + " (" + reason + ")";
+    void acknowledgePersisted(long savedVersion) {
+        long current;
+        do {
+            current = persistedVersion;
+            if (savedVersion <= current) {
+                return;
+            }
+        } while (!PERSISTED_VERSION.compareAndSet(this, current, savedVersion));
+    }
+    
+    /**
+     * Mark the current state as persisted (freshly loaded from storage).
+     */
+    void markPersisted() {
+        acknowledgePersisted(version);
+    }
+    
+    /**
+     * Record a lookup, for least-recently-used eviction.
+     */
+    void touch() {
+        lastAccess = System.nanoTime();
+    }
+    
+    long getLastAccess() {
+        return lastAccess;
+    }
+    
+    /**
+     * True while a mutation is in progress.
+     */
+    boolean isWriting() {
+        return writesStarted != writesFinished;
+    }
+    
+    /**
+     * Seqlock stamp for a lock-free read of the cells (BalanceJournal): read the
+     * cells after it and check isStampValid() afterwards. Unlike snapshot() this
+     * never holds writers back.
+     * 
+     * @return The stamp, or -1 while a write is in progress
+     */
+    long readStamp() {
+        long finished = writesFinished;
+        return writesStarted == finished ? finished : -1;
+    }
+    
+    /**
+     * Whether no write started since readStamp() returned this stamp.
+     */
+    boolean isStampValid(long stamp) {
+        return writesStarted == stamp;
+    }
+
+    
+    private void beginWrite() {
+        while (snapshotWaiters != 0) {
+            Thread.onSpinWait();
+        }
+        WRITES_STARTED.getAndAdd(this, 1L);
+    }
+    
+    /**
+     * @param changed false for a rejected attempt (no version change)
+     */
+    private void endWrite(boolean changed) {
+        if (changed) {
+            VERSION.getAndAdd(this, 1L);
+        }
+        WRITES_FINISHED.getAndAdd(this, 1L);
+    }
+    
+    /**
+     * CAS retry loop on the balance.
+     * Rejects (without writing) if the result would be negative or above maxBalance.
+     */
+    private boolean tryAddBalance(double delta, double maxBalance) {
+        if (LedgerScale.isMinorUnits()) {
+            long maxMinor = maxBalance == Double.POSITIVE_INFINITY ? Long.MAX_VALUE : LedgerScale.toMinor(maxBalance);
+            return tryAddMinor(LedgerScale.toMinor(delta), maxMinor);
+        }
+        while (true) {
+            long cell = (long) BALANCE.getVolatile(this);
+            double updated = Double.longBitsToDouble(cell) + delta;
+            if (updated < 0 || (delta > 0 && updated > maxBalance)) {
+                return false;
+            }
+            if (BALANCE.compareAndSet(this, cell, Double.doubleToRawLongBits(updated))) {
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+    }
+    
+    /**
+     * Minor-unit CAS loop: plain long arithmetic.
+     * A delta that rounds to zero minor units is rejected rather than treated as a no-op success.
+     */
+    private boolean tryAddMinor(long delta, long maxMinor) {
+        if (delta == 0) {
+            return false;
+        }
+        while (true) {
+            long current = (long) BALANCE.getVolatile(this);
+            long updated = current + delta;
+            if (updated < 0 || (delta > 0 && (updated > maxMinor || updated < current))) {
+                return false;
+            }
+            if (BALANCE.compareAndSet(this, current, updated)) {
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+    }
+    
+    private void addTotal(VarHandle cell, double delta) {
+        if (LedgerScale.isMinorUnits()) {
+            long minorDelta = LedgerScale.toMinor(delta);
+            long current;
+            do {
+                current = (long) cell.getVolatile(this);
+            } while (!cell.compareAndSet(this, current, current + minorDelta));
+            return;
+        }
+        long current;
+        do {
+            current = (long) cell.getVolatile(this);
+        } while (!cell.compareAndSet(this, current,
+            Double.doubleToRawLongBits(Double.longBitsToDouble(current) + delta)));
+    }
+    
+    private void recordTransaction(byte kind, double amount, UUID counterparty, String reason) {
+        this.lastTxKind = kind;
+        this.lastTxAmount = amount;
+        this.lastTxCounterparty = counterparty;
+        this.lastTxReason = reason;
         this.lastTransactionTime = System.currentTimeMillis();
     }
     public UUID getPlayerUuid() { return playerUuid; }
-    public double getBalance() { return balance; }
-    public double getTotalEarned() { return totalEarned; }
-    public double getTotalSpent() { return totalSpent; }
-    public String getLastTransaction() { return lastTransaction; }
+    public double getBalance() { return LedgerScale.decode(balance); }
+    public double getTotalEarned() { return LedgerScale.decode(totalEarned); }
+    public double getTotalSpent() { return LedgerScale.decode(totalSpent); }
+    
+    /** Balance in minor units (exact in minor-unit mode, rounded otherwise). */
+    public long getBalanceMinor() { return minorOf(balance); }
+    public long getTotalEarnedMinor() { return minorOf(totalEarned); }
+    public long getTotalSpentMinor() { return minorOf(totalSpent); }
+    
+    /**
+     * Primitive sort key that orders like getBalance() in either ledger mode
+     * (balances are never negative, so raw double bits are monotonic too).
+     * Compare with Long.compare() for leaderboards.
+     */
+    public long getBalanceSortKey() { return balance; }
+    
+    // Raw encoded cells, for BalanceColumns
+    long balanceCell() { return balance; }
+    long earnedCell() { return totalEarned; }
+    long spentCell() { return totalSpent; }
+    
+    /**
+     * Describe the last transaction, e.g. "+50.0 (Quest reward)".
+     * Built on each call; not meant for hot paths.
+     */
+    public String getLastTransaction() {
+        String reason = lastTxReason;
+        UUID counterparty = lastTxCounterparty;
+        return switch (lastTxKind) {
+            case TX_DEPOSIT -> "+" + lastTxAmount + " (" + describe("Transfer from ", counterparty, reason) + ")";
+            case TX_WITHDRAW -> "-" + lastTxAmount + " (" + describe("Transfer to ", counterparty, reason) + ")";
+            case TX_SET -> "Set to " + lastTxAmount + " (" + reason + ")";
+            case TX_TEXT -> reason;
+            default -> "";
+        };
+    }
+    
+    private static String describe(String transferPrefix, UUID counterparty, String reason) {
+        return counterparty == null ? String.valueOf(reason) : transferPrefix + counterparty + ": " + reason;
+    }
     public long getLastTransactionTime() { return lastTransactionTime; }
     
+    /** Number of committed changes since this account was loaded. */
+    public long getVersion() { return version; }
+    
+    /** True if a change has not been acknowledged by storage yet. */
+    public boolean isUnsaved() { return version != persistedVersion; }
+    
     public boolean hasBalance(double amount) {
-        return this.balance >= amount;
+        if (LedgerScale.isMinorUnits()) {
+            return this.balance >= LedgerScale.toMinor(amount);
+        }
+        return getBalance() >= amount;
+    }
+    
+    static long minorOf(long cell) {
+        return LedgerScale.isMinorUnits() ? cell : LedgerScale.toMinor(Double.longBitsToDouble(cell));
     }
 }
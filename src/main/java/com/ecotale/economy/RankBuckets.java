@@ -0,0 +1,117 @@
+package com.ecotale.economy;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fenwick (binary indexed) tree counting ranked accounts per balance bucket.
+ *
+ * Buckets are log-linear over the balance in minor units: values below 256
+ * get one bucket each, above that every power of two is split into 256
+ * buckets, so a bucket is never wider than 0.4% of its balances. Counting the
+ * accounts above a bucket is two prefix sums over ~14k counters: O(log buckets),
+ * no allocation and no copying, whatever the number of accounts.
+ *
+ * The same counters are a log-linear histogram of balances, so quantiles
+ * (median, p90, p99) come from a descent of the tree to the bucket holding the
+ * k-th lowest account. Its midpoint is within 0.2% of every balance in it.
+ * Like any histogram it is mergeable by adding counts bucket by bucket.
+ *
+ * Counters are atomic and only ever incremented or decremented, so concurrent
+ * moves commute; a read racing a move may be off by that one move.
+ */
+final class RankBuckets {
+
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Number of buckets: 256 exact ones, then 256 per power of two up to 2^63. */
+    static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray tree = new AtomicLongArray(BUCKETS + 1); // 1-based
+
+    /**
+     * Bucket of a balance sort key (see PlayerBalance.getBalanceSortKey).
+     * Monotonic: a higher sort key never maps to a lower bucket.
+     */
+    static int bucketOf(long sortKey) {
+        long minor = toMinor(sortKey);
+        if (minor < SUB_BUCKETS) {
+            return (int) Math.max(minor, 0);
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(minor)) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (int) ((minor >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /** A balance sort key in minor units. */
+    static long toMinor(long sortKey) {
+        return LedgerScale.isMinorUnits()
+            ? sortKey
+            : LedgerScale.toMinor(Double.longBitsToDouble(sortKey));
+    }
+
+    /**
+     * Midpoint of a bucket in minor units (exact for the first 256 buckets).
+     */
+    static long midpoint(int bucket) {
+        return lowerBound(bucket) + (width(bucket) - 1) / 2;
+    }
+
+    /** Lowest balance in a bucket, in minor units. */
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+    }
+
+    /** Number of minor-unit balances a bucket spans. */
+    static long width(int bucket) {
+        return bucket < SUB_BUCKETS ? 1 : 1L << ((bucket - SUB_BUCKETS) / SUB_BUCKETS);
+    }
+
+    void add(int bucket, int delta) {
+        for (int i = bucket + 1; i <= BUCKETS; i += i & -i) {
+            tree.getAndAdd(i, delta);
+        }
+    }
+
+    /** Accounts in buckets [0, bucket). */
+    long countBelow(int bucket) {
+        long count = 0;
+        for (int i = bucket; i > 0; i -= i & -i) {
+            count += tree.get(i);
+        }
+        return count;
+    }
+
+    /** Accounts in buckets [bucket, BUCKETS). */
+    long countFrom(int bucket) {
+        return countBelow(BUCKETS) - countBelow(bucket);
+    }
+
+    /**
+     * Bucket holding the k-th lowest account (1-based), or -1 if there are fewer.
+     * Fenwick descent: one pass from the highest power of two, O(log buckets).
+     */
+    int bucketOfKth(long k) {
+        int index = 0;
+        for (int step = Integer.highestOneBit(BUCKETS); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next <= BUCKETS) {
+                long count = tree.get(next);
+                if (count < k) {
+                    index = next;
+                    k -= count;
+                }
+            }
+        }
+        // index = last position whose prefix sum is below k; the answer is the next one
+        return index < BUCKETS ? index : -1;
+    }
+
+    /** Accounts in one bucket. */
+    long count(int bucket) {
+        return countBelow(bucket + 1) - countBelow(bucket);
+    }
+}
@@ -0,0 +1,132 @@
+package com.ecotale.economy;
+
+import javax.annotation.Nonnull;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed-size table of locks shared by all accounts.
+ *
+ * Each UUID hashes to one of a power-of-two number of stripes, so the table
+ * never grows with the number of accounts touched and never needs an eviction
+ * pass. Two accounts may share a stripe; that only costs some extra contention.
+ *
+ * Contention is tracked per stripe: every acquisition that could not take the
+ * lock immediately counts as a wait, together with the time spent blocked.
+ * If a few stripes dominate the wait counters, the stripe count is too small.
+ */
+public class StripedLockTable {
+
+    /** Upper bound on the stripe count to keep the table small */
+    public static final int MAX_STRIPES = 1 << 16;
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    // Per-stripe contention counters (index = stripe)
+    private final AtomicLongArray waitCounts;
+    private final AtomicLongArray waitNanos;
+
+    /**
+     * @param requestedStripes Desired stripe count, rounded up to a power of two (1..MAX_STRIPES)
+     */
+    public StripedLockTable(int requestedStripes) {
+        int size = roundToPowerOfTwo(requestedStripes);
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.waitCounts = new AtomicLongArray(size);
+        this.waitNanos = new AtomicLongArray(size);
+    }
+
+    /**
+     * Get the stripe index guarding a player.
+     * Mixes both UUID halves so version/variant bits don't skew the spread.
+     */
+    public int stripeOf(@Nonnull UUID playerUuid) {
+        long h = playerUuid.getMostSignificantBits() ^ playerUuid.getLeastSignificantBits();
+        int x = (int) (h ^ (h >>> 32));
+        x ^= (x >>> 16);
+        return x & mask;
+    }
+
+    /**
+     * Acquire the stripe guarding a player.
+     * @return The acquired lock (caller must unlock)
+     */
+    public ReentrantLock lock(@Nonnull UUID playerUuid) {
+        return lockStripe(stripeOf(playerUuid));
+    }
+
+    /**
+     * Acquire a stripe by index, recording a wait if it was contended.
+     * @return The acquired lock (caller must unlock)
+     */
+    public ReentrantLock lockStripe(int stripe) {
+        ReentrantLock lock = stripes[stripe];
+        if (lock.tryLock()) {
+            return lock;
+        }
+        long start = System.nanoTime();
+        lock.lock();
+        waitCounts.incrementAndGet(stripe);
+        waitNanos.addAndGet(stripe, System.nanoTime() - start);
+        return lock;
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /** Number of contended acquisitions on one stripe. */
+    public long getWaitCount(int stripe) {
+        return waitCounts.get(stripe);
+    }
+
+    /** Total nanoseconds spent blocked on one stripe. */
+    public long getWaitNanos(int stripe) {
+        return waitNanos.get(stripe);
+    }
+
+    /** Number of contended acquisitions across all stripes. */
+    public long getTotalWaitCount() {
+        long total = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            total += waitCounts.get(i);
+        }
+        return total;
+    }
+
+    /** Total nanoseconds spent blocked across all stripes. */
+    public long getTotalWaitNanos() {
+        long total = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            total += waitNanos.get(i);
+        }
+        return total;
+    }
+
+    /** Index of the stripe with the most contended acquisitions. */
+    public int getHottestStripe() {
+        int hottest = 0;
+        for (int i = 1; i < stripes.length; i++) {
+            if (waitCounts.get(i) > waitCounts.get(hottest)) {
+                hottest = i;
+            }
+        }
+        return hottest;
+    }
+
+    private static int roundToPowerOfTwo(int requested) {
+        if (requested <= 1) {
+            return 1;
+        }
+        if (requested >= MAX_STRIPES) {
+            return MAX_STRIPES;
+        }
+        return Integer.highestOneBit(requested - 1) << 1;
+    }
+}
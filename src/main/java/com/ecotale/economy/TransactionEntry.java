@@ -13,6 +13,8 @@ import java.util.UUID;
  * - Immutable: safe for concurrent access without synchronization
  * - Pre-formatted time: avoids DateTimeFormatter work per render
  * - Nullable targetPlayer: some actions don't have a target (e.g., EARN)
+ * - Amount is rounded to the ledger scale; amountMinor() gives the exact
+ *   minor-unit value persisted to the *_minor BIGINT columns
  */
 public record TransactionEntry(
     Instant timestamp,
@@ -41,7 +43,7 @@ public record TransactionEntry(
             type,
             player,
             null,
-            amount,
+            LedgerScale.normalize(amount),
             playerName
         );
     }
@@ -62,11 +64,39 @@ public record TransactionEntry(
             TransactionType.PAY,
             from,
             to,
-            amount,
+            LedgerScale.normalize(amount),
             fromName + " → " + toName
         );
     }
     
+    /**
+     * Rebuild an entry read back from a log (storage row or spill file).
+     */
+    public static TransactionEntry restore(
+            Instant timestamp,
+            TransactionType type,
+            UUID source,
+            UUID target,
+            double amount,
+            String playerName) {
+        return new TransactionEntry(
+            timestamp,
+            TIME_FORMATTER.format(timestamp),
+            type,
+            source,
+            target,
+            amount,
+            playerName
+        );
+    }
+    
+    /**
+     * Amount in minor units at the current ledger scale.
+     */
+    public long amountMinor() {
+        return LedgerScale.toMinor(amount);
+    }
+    
     /**
      * Format for UI display. Example: "[14:30] Admin give: PlayerX +$1,000"
      */
@@ -0,0 +1,471 @@
+package com.ecotale.economy;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Group-commit writer for persistent transaction logs.
+ *
+ * Economy operations (often holding an account lock) only offer their entries
+ * to a bounded queue. One writer thread drains up to BatchSize entries, or
+ * whatever arrived within FlushMs of the first one, and stores each drain as a
+ * single multi-row write (JDBC batch / insertMany) on a connection of its own,
+ * instead of one storage task per transaction on the shared storage thread.
+ *
+ * When the queue is full the overflow policy applies:
+ * - BLOCK: the caller waits for space (at most MAX_BLOCK_MS), then the entry is dropped
+ * - SPILL: the entry is appended to a spill file, written to storage once the queue drains
+ * - DROP: the entry is discarded
+ * Batches storage rejects are spilled too under SPILL. A replay cut short by
+ * a storage error resumes after the last stored batch; spill files left by a
+ * crash are replayed at startup (entries stored just before the crash may
+ * then be stored twice).
+ *
+ * Stored batches also feed the rollup stage (TransactionRollup): the writer
+ * accumulates hourly/daily deltas and hands them to storage at most every
+ * ROLLUP_FLUSH_MS. Deltas storage rejects stay pending for the next flush.
+ */
+public final class TransactionLogWriter {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.getLogger().getSubLogger("Ecotale-TxLog");
+
+    private static final Path SPILL_DIR = Path.of("mods", "Ecotale_Ecotale", "txlog");
+    private static final Path SPILL_FILE = SPILL_DIR.resolve("spill.log");
+    private static final Path REPLAY_FILE = SPILL_DIR.resolve("spill.replay");
+
+    private static final long MAX_BLOCK_MS = 1000;
+    private static final long IDLE_POLL_MS = 100;
+    private static final long REPLAY_RETRY_MS = 10_000;
+    private static final long ROLLUP_FLUSH_MS = 1000;
+
+    public enum OverflowPolicy {
+        BLOCK, SPILL, DROP;
+
+        static OverflowPolicy parse(String value) {
+            for (OverflowPolicy policy : values()) {
+                if (policy.name().equalsIgnoreCase(value)) {
+                    return policy;
+                }
+            }
+            return SPILL;
+        }
+    }
+
+    /**
+     * Persistent store for a drained batch. Called only from the writer thread.
+     */
+    @FunctionalInterface
+    interface Sink {
+        void write(List<TransactionEntry> entries) throws Exception;
+    }
+
+    /**
+     * Applies accumulated rollup deltas (all or nothing). Called only from the writer thread.
+     */
+    @FunctionalInterface
+    interface RollupSink {
+        void write(TransactionRollup rollup) throws Exception;
+    }
+
+    private final ArrayBlockingQueue<TransactionEntry> queue;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushNanos;
+    private final OverflowPolicy policy;
+    private final Sink sink;
+    private final RollupSink rollupSink; // null = no rollups
+    private final TransactionRollup rollup = new TransactionRollup(); // Writer thread only
+    private long nextRollupAt = 0; // Writer thread only
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder commitNanos = new LongAdder();
+    private final AtomicLong maxCommitNanos = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    // Spill file; guarded by spillLock
+    private final Object spillLock = new Object();
+    private BufferedWriter spillOut;
+    private volatile boolean spillPending;
+    private long nextReplayAt = 0; // Writer thread only
+    private long replayedEntries = 0; // Entries of REPLAY_FILE already stored; writer thread only
+
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * @param queueSize Entries waiting for the writer before the overflow policy applies
+     * @param batchSize Most entries per storage write
+     * @param flushMs Longest an entry waits for its batch to fill
+     * @param rollupSink Storage of the hourly/daily aggregates, or null for none
+     */
+    TransactionLogWriter(@Nonnull Sink sink, RollupSink rollupSink, int queueSize, int batchSize, long flushMs,
+                         @Nonnull String overflow) {
+        this.capacity = Math.max(16, queueSize);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, flushMs));
+        this.policy = OverflowPolicy.parse(overflow);
+        this.sink = sink;
+        this.rollupSink = rollupSink;
+        this.spillPending = Files.exists(SPILL_FILE) || Files.exists(REPLAY_FILE);
+        this.thread = new Thread(this::run, "Ecotale-TxLog");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queue one entry. Never waits unless the policy is BLOCK and the queue is full.
+     */
+    void submit(@Nonnull TransactionEntry entry) {
+        if (!queue.offer(entry)) {
+            overflow(List.of(entry));
+        }
+    }
+
+    /**
+     * Queue entries of one batch operation, in order.
+     */
+    void submitAll(@Nonnull List<TransactionEntry> entries) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (!queue.offer(entries.get(i))) {
+                overflow(entries.subList(i, entries.size()));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Write what is queued (waiting at most timeoutMs) and stop the writer.
+     * Entries submitted afterwards are spilled or dropped.
+     */
+    void shutdown(long timeoutMs) {
+        running = false;
+        try {
+            thread.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            LOGGER.at(Level.WARNING).log("Transaction log writer still busy after %d ms (%d queued)",
+                timeoutMs, queue.size());
+        }
+    }
+
+    // ========== Metrics ==========
+
+    /** Entries waiting for the writer. */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return capacity;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return policy;
+    }
+
+    /** Entries stored so far. */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    /** Average entries per storage write. */
+    public double getAverageBatchSize() {
+        long count = batches.sum();
+        return count > 0 ? (double) written.sum() / count : 0;
+    }
+
+    /** Average time of one storage write in milliseconds. */
+    public double getAverageCommitMs() {
+        long count = batches.sum();
+        return count > 0 ? commitNanos.sum() / 1_000_000.0 / count : 0;
+    }
+
+    /** Slowest storage write in milliseconds. */
+    public double getMaxCommitMs() {
+        return maxCommitNanos.get() / 1_000_000.0;
+    }
+
+    /** Entries discarded (full queue under DROP/BLOCK, or spill file unwritable). */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /** Entries that went through the spill file. */
+    public long getSpilledCount() {
+        return spilled.sum();
+    }
+
+    /** Entries storage rejected and that could not be spilled. */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    // ========== Writer thread ==========
+
+    private void run() {
+        List<TransactionEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                TransactionEntry first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    replaySpillIfDue();
+                    flushRollup(false);
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0 || !running) {
+                        break;
+                    }
+                    TransactionEntry next = queue.poll(left, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+                batch.clear();
+                if (queue.size() < capacity / 2) {
+                    replaySpillIfDue();
+                }
+                flushRollup(false);
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+        if (!batch.isEmpty()) {
+            commit(batch);
+        }
+        flushRollup(true);
+        synchronized (spillLock) {
+            closeSpill();
+        }
+    }
+
+    private void commit(List<TransactionEntry> batch) {
+        try {
+            store(batch);
+        } catch (Exception e) {
+            LOGGER.at(Level.WARNING).log("Failed to log %d transactions: %s", batch.size(), e.getMessage());
+            if (policy == OverflowPolicy.SPILL) {
+                spill(batch);
+            } else {
+                failed.add(batch.size());
+            }
+        }
+    }
+
+    /**
+     * One storage write, timed for the metrics.
+     */
+    private void store(List<TransactionEntry> batch) throws Exception {
+        long start = System.nanoTime();
+        sink.write(batch);
+        long elapsed = System.nanoTime() - start;
+        if (rollupSink != null) {
+            rollup.addAll(batch);
+        }
+        written.add(batch.size());
+        batches.increment();
+        commitNanos.add(elapsed);
+        maxCommitNanos.accumulateAndGet(elapsed, Math::max);
+    }
+
+    /**
+     * Hand the accumulated rollup deltas to storage, at most every ROLLUP_FLUSH_MS unless forced.
+     */
+    private void flushRollup(boolean force) {
+        if (rollupSink == null || rollup.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (!force && now < nextRollupAt) {
+            return;
+        }
+        nextRollupAt = now + ROLLUP_FLUSH_MS;
+        try {
+            rollupSink.write(rollup);
+            rollup.clear();
+        } catch (Exception e) {
+            LOGGER.at(Level.WARNING).log("Failed to store transaction rollups, retrying: %s", e.getMessage());
+        }
+    }
+
+    private void overflow(List<TransactionEntry> entries) {
+        switch (policy) {
+            case SPILL -> spill(entries);
+            case DROP -> dropped.add(entries.size());
+            case BLOCK -> {
+                for (int i = 0; i < entries.size(); i++) {
+                    try {
+                        if (!queue.offer(entries.get(i), MAX_BLOCK_MS, TimeUnit.MILLISECONDS)) {
+                            dropped.add(entries.size() - i);
+                            return;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        dropped.add(entries.size() - i);
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    // ========== Spill file ==========
+
+    /**
+     * Append entries to the spill file, one line each:
+     * epochMillis|TYPE|sourceUuid|targetUuid|amount|playerName ("-" for no UUID).
+     */
+    private void spill(List<TransactionEntry> entries) {
+        synchronized (spillLock) {
+            try {
+                if (spillOut == null) {
+                    Files.createDirectories(SPILL_DIR);
+                    spillOut = Files.newBufferedWriter(SPILL_FILE, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                for (TransactionEntry entry : entries) {
+                    spillOut.write(toLine(entry));
+                    spillOut.newLine();
+                }
+                spillOut.flush();
+                spilled.add(entries.size());
+                spillPending = true;
+            } catch (IOException e) {
+                LOGGER.at(Level.WARNING).log("Failed to spill %d transactions: %s", entries.size(), e.getMessage());
+                dropped.add(entries.size());
+            }
+        }
+    }
+
+    /**
+     * Store spilled entries, oldest file first. A failed replay keeps its file
+     * and is retried after REPLAY_RETRY_MS.
+     */
+    private void replaySpillIfDue() {
+        if (!spillPending || System.currentTimeMillis() < nextReplayAt) {
+            return;
+        }
+        try {
+            if (Files.exists(REPLAY_FILE)) {
+                replay(REPLAY_FILE);
+            }
+            synchronized (spillLock) {
+                closeSpill();
+                spillPending = false;
+                if (!Files.exists(SPILL_FILE)) {
+                    return;
+                }
+                Files.move(SPILL_FILE, REPLAY_FILE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            replay(REPLAY_FILE);
+        } catch (Exception e) {
+            LOGGER.at(Level.WARNING).log("Failed to replay spilled transactions, retrying later: %s", e.getMessage());
+            spillPending = true;
+            nextReplayAt = System.currentTimeMillis() + REPLAY_RETRY_MS;
+        }
+    }
+
+    private void replay(Path file) throws Exception {
+        long skip = replayedEntries;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<TransactionEntry> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = in.readLine()) != null) {
+                TransactionEntry entry = fromLine(line);
+                if (entry == null) {
+                    continue; // Torn last line after a crash
+                }
+                if (skip > 0) {
+                    skip--; // Stored by an earlier, interrupted replay
+                    continue;
+                }
+                batch.add(entry);
+                if (batch.size() == batchSize) {
+                    storeReplayed(batch);
+                }
+            }
+            if (!batch.isEmpty()) {
+                storeReplayed(batch);
+            }
+        }
+        Files.delete(file);
+        LOGGER.at(Level.INFO).log("Stored %d spilled transactions", replayedEntries);
+        replayedEntries = 0;
+    }
+
+    private void storeReplayed(List<TransactionEntry> batch) throws Exception {
+        store(batch);
+        replayedEntries += batch.size();
+        batch.clear();
+    }
+
+    // Caller holds spillLock
+    private void closeSpill() {
+        if (spillOut != null) {
+            try {
+                spillOut.close();
+            } catch (IOException e) {
+                LOGGER.at(Level.WARNING).log("Failed to close spill file: %s", e.getMessage());
+            }
+            spillOut = null;
+        }
+    }
+
+    private static String toLine(TransactionEntry entry) {
+        return entry.timestamp().toEpochMilli() + "|" + entry.type().name()
+            + "|" + (entry.sourcePlayer() != null ? entry.sourcePlayer() : "-")
+            + "|" + (entry.targetPlayer() != null ? entry.targetPlayer() : "-")
+            + "|" + entry.amount()
+            + "|" + (entry.playerName() != null ? entry.playerName().replace('\n', ' ') : "");
+    }
+
+    private static TransactionEntry fromLine(String line) {
+        String[] parts = line.split("\\|", 6);
+        if (parts.length < 6) {
+            return null;
+        }
+        try {
+            return TransactionEntry.restore(
+                Instant.ofEpochMilli(Long.parseLong(parts[0])),
+                TransactionType.valueOf(parts[1]),
+                "-".equals(parts[2]) ? null : UUID.fromString(parts[2]),
+                "-".equals(parts[3]) ? null : UUID.fromString(parts[3]),
+                Double.parseDouble(parts[4]),
+                parts[5]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -1,33 +1,41 @@
 package com.ecotale.economy;
 
+import com.ecotale.Main;
+import com.ecotale.api.events.EcotaleEvents;
+import com.ecotale.api.events.ListenerMode;
+import com.ecotale.api.events.TransactionEvent;
 import com.ecotale.storage.H2StorageProvider;
 import com.ecotale.storage.MongoDBStorageProvider;
 import com.ecotale.storage.MySQLStorageProvider;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Thread-safe transaction logger with dual storage:
- * - Ring buffer: Fast in-memory access for Dashboard (last 500)
+ * - Ring buffer: Fast in-memory access for Dashboard and API history
+ *   (last TransactionLogBufferSize entries, default 500)
  * - H2 Database: Persistent storage for LOG tab (unlimited)
  * 
  * Performance characteristics:
- * - Write: O(1) lock-free to ring buffer, async to H2
- * - Read (recent): O(n) from ring buffer
+ * - Write: O(1) lock-free to ring buffer, queued for the group-commit
+ *   writer (TransactionLogWriter), which stores them in multi-row batches
+ * - Read (recent): O(n) from ring buffer, no locks (TransactionRing)
+ * - Read (player history): O(limit) through the ring's per-player index
  * - Read (history): SQL query from H2
+ * - Aggregates: the writer keeps hourly/daily rollups (TransactionRollup)
+ *   in storage for dashboards and earnings leaderboards
+ * 
+ * Every logged entry is also published as a TransactionEvent (only built when
+ * someone listens). Async and batched subscribers get them from the event
+ * thread, so logging never waits for a listener.
  */
 public class TransactionLogger {
     
     private static final int DEFAULT_BUFFER_SIZE = 500;
     
-    private final TransactionEntry[] buffer;
-    private final int bufferSize;
-    private final AtomicInteger writeIndex = new AtomicInteger(0);
-    private final AtomicInteger totalWrites = new AtomicInteger(0);
+    private final TransactionRing ring;
     
     // H2 storage for persistence
     private H2StorageProvider h2Storage;
@@ -36,16 +44,18 @@ public class TransactionLogger {
     // MySQL storage for persistence
     private MySQLStorageProvider mysqlStorage;
     
+    // Group-commit writer to the storage above (null until startWriter)
+    private volatile TransactionLogWriter writer;
+    
     // Singleton instance
     private static TransactionLogger instance;
     
     public TransactionLogger() {
-        this(DEFAULT_BUFFER_SIZE);
+        this(Main.CONFIG != null ? Main.CONFIG.get().getTransactionLogBufferSize() : DEFAULT_BUFFER_SIZE);
     }
     
     public TransactionLogger(int bufferSize) {
-        this.bufferSize = bufferSize;
-        this.buffer = new TransactionEntry[bufferSize];
+        this.ring = new TransactionRing(bufferSize);
     }
     
     public static TransactionLogger getInstance() {
@@ -82,42 +92,167 @@ public class TransactionLogger {
     public void setMysqlStorage(MySQLStorageProvider storage) {
         this.mysqlStorage = storage;
     }
+    
+    /**
+     * Start the group-commit writer for the storage set above.
+     * Called by EconomyManager once storage is initialized; no-op without persistent logging.
+     */
+    public void startWriter() {
+        TransactionLogWriter.Sink sink;
+        TransactionLogWriter.RollupSink rollupSink;
+        if (h2Storage != null) {
+            sink = h2Storage::writeTransactionsSync;
+            rollupSink = h2Storage::writeRollupsSync;
+        } else if (mongoStorage != null) {
+            sink = mongoStorage::writeTransactionsSync;
+            rollupSink = mongoStorage::writeRollupsSync;
+        } else if (mysqlStorage != null) {
+            sink = mysqlStorage::writeTransactionsSync;
+            rollupSink = mysqlStorage::writeRollupsSync;
+        } else {
+            return;
+        }
+        var config = Main.CONFIG.get();
+        writer = new TransactionLogWriter(sink, rollupSink, config.getTransactionLogQueueSize(),
+            config.getTransactionLogBatchSize(), config.getTransactionLogFlushMs(),
+            config.getTransactionLogOverflow());
+    }
+    
+    /**
+     * Store what the writer still holds (waiting at most timeoutMs) and stop it.
+     * Called by EconomyManager before storage shuts down.
+     */
+    public void shutdownWriter(long timeoutMs) {
+        TransactionLogWriter current = writer;
+        writer = null;
+        if (current != null) {
+            current.shutdown(timeoutMs);
+        }
+    }
+    
+    /**
+     * Get the group-commit writer (queue depth, batch size, commit latency), or null.
+     */
+    public TransactionLogWriter getWriter() {
+        return writer;
+    }
     /**
      * Log a single-player action (give, take, set, reset).
      */
     public void logAction(TransactionType type, UUID player, String playerName, double amount) {
-        log(TransactionEntry.single(type, player, playerName, amount));
+        logAction(type, player, playerName, amount, null);
+    }
+    
+    /**
+     * Log a single-player action with the reason given by the caller.
+     */
+    public void logAction(TransactionType type, UUID player, String playerName, double amount, String reason) {
+        TransactionEntry entry = TransactionEntry.single(type, player, playerName, amount);
+        log(entry);
+        publish(entry, 0, reason);
     }
     
     /**
      * Log a transfer between players.
      */
     public void logTransfer(UUID from, String fromName, UUID to, String toName, double amount) {
-        log(TransactionEntry.transfer(from, fromName, to, toName, amount));
+        logTransfer(from, fromName, to, toName, amount, 0, null);
+    }
+    
+    /**
+     * Log a transfer between players, with the fee charged to the sender.
+     */
+    public void logTransfer(UUID from, String fromName, UUID to, String toName, double amount,
+                            double fee, String reason) {
+        TransactionEntry entry = TransactionEntry.transfer(from, fromName, to, toName, amount);
+        log(entry);
+        publish(entry, fee, reason);
+    }
+    
+    /**
+     * Log several entries at once (batch operations).
+     * Each entry lands in the ring buffer; persistent storage gets one multi-row write.
+     */
+    public void logBatch(List<TransactionEntry> entries) {
+        logBatch(entries, null);
+    }
+    
+    /**
+     * Log several entries of one batch operation, with its reason.
+     */
+    public void logBatch(List<TransactionEntry> entries, String reason) {
+        if (entries.isEmpty()) return;
+        for (TransactionEntry entry : entries) {
+            ring.add(entry);
+        }
+        
+        TransactionLogWriter current = writer;
+        if (current != null) {
+            current.submitAll(entries);
+        } else if (h2Storage != null) {
+            h2Storage.logTransactions(entries);
+        } else if (mongoStorage != null) {
+            mongoStorage.logTransactions(entries);
+        } else if (mysqlStorage != null) {
+            mysqlStorage.logTransactions(entries);
+        }
+        
+        if (EcotaleEvents.hasListeners(TransactionEvent.class, ListenerMode.ASYNC_POST_COMMIT)) {
+            for (TransactionEntry entry : entries) {
+                EcotaleEvents.publish(toEvent(entry, 0, reason));
+            }
+        }
     }
     
     /**
      * Internal log method - writes to ring buffer AND H2.
      */
     private void log(TransactionEntry entry) {
-        // Write to ring buffer (fast, for Dashboard)
-        int idx = writeIndex.getAndIncrement() % bufferSize;
-        buffer[idx] = entry;
-        totalWrites.incrementAndGet();
+        // Write to ring buffer (fast, for Dashboard and API history)
+        ring.add(entry);
         
-        // Write to H2 (async, for persistent LOG tab)
-        if (h2Storage != null) {
+        // Queue for persistent storage (LOG tab); before startWriter, one storage task per entry
+        TransactionLogWriter current = writer;
+        if (current != null) {
+            current.submit(entry);
+        } else if (h2Storage != null) {
             h2Storage.logTransaction(entry);
-        }
-        // Write to MongoDB (async, for persistent LOG tab)
-        if (mongoStorage != null) {
+        } else if (mongoStorage != null) {
             mongoStorage.logTransaction(entry);
-        }
-        // Write to MySQL (async, for persistent LOG tab)
-        if (mysqlStorage != null) {
+        } else if (mysqlStorage != null) {
             mysqlStorage.logTransaction(entry);
         }
     }
+    
+    /**
+     * Publish an entry as a TransactionEvent, if anyone listens.
+     * Always asynchronous: the transaction is already committed, so listeners run
+     * on the event thread rather than the mutation thread (see EcotaleEvents.register).
+     */
+    private void publish(TransactionEntry entry, double fee, String reason) {
+        if (EcotaleEvents.hasListeners(TransactionEvent.class, ListenerMode.ASYNC_POST_COMMIT)) {
+            EcotaleEvents.publish(toEvent(entry, fee, reason));
+        }
+    }
+    
+    private static TransactionEvent toEvent(TransactionEntry entry, double fee, String reason) {
+        TransactionEvent.Type type = switch (entry.type()) {
+            case PAY -> TransactionEvent.Type.PLAYER_TRANSFER;
+            case GIVE -> TransactionEvent.Type.ADMIN_GIVE;
+            case TAKE -> TransactionEvent.Type.ADMIN_TAKE;
+            case SET -> TransactionEvent.Type.ADMIN_SET;
+            case RESET -> TransactionEvent.Type.RESET;
+            case EARN, SPEND -> TransactionEvent.Type.API;
+        };
+        // Transfers go source -> target; single actions only have the affected player
+        boolean transfer = entry.targetPlayer() != null;
+        return new TransactionEvent(type,
+            transfer ? entry.sourcePlayer() : null,
+            transfer ? entry.targetPlayer() : entry.sourcePlayer(),
+            entry.amount(), fee,
+            reason != null ? reason : entry.type().getDisplayName());
+    }
+    
     /**
      * Get the most recent entries in reverse chronological order.
      * 
@@ -125,79 +260,57 @@ public class TransactionLogger {
      * @return List of entries, newest first. May be smaller than count if buffer not full.
      */
     public List<TransactionEntry> getRecent(int count) {
-        int total = totalWrites.get();
-        int available = Math.min(total, bufferSize);
-        int toReturn = Math.min(count, available);
-        
-        if (toReturn == 0) {
-            return Collections.emptyList();
-        }
-        
-        List<TransactionEntry> result = new ArrayList<>(toReturn);
-        int currentIdx = (writeIndex.get() - 1 + bufferSize) % bufferSize;
-        
-        for (int i = 0; i < toReturn; i++) {
-            TransactionEntry entry = buffer[currentIdx];
-            if (entry != null) {
-                result.add(entry);
-            }
-            currentIdx = (currentIdx - 1 + bufferSize) % bufferSize;
-        }
-        
-        return result;
+        return ring.recent(count);
     }
     
     /**
      * Get all available entries in reverse chronological order.
      */
     public List<TransactionEntry> getAll() {
-        return getRecent(bufferSize);
+        return ring.recent(ring.capacity());
     }
     
     /**
      * Get recent entries for a specific player.
+     * Follows the player's index chain: cost grows with limit, not with the buffer size.
      * 
      * @param playerUuid The player to filter by
      * @param limit Maximum entries to return
      * @return List of entries involving the player, newest first
      */
     public List<TransactionEntry> getRecentForPlayer(UUID playerUuid, int limit) {
-        List<TransactionEntry> all = getRecent(bufferSize);
-        List<TransactionEntry> filtered = new ArrayList<>();
-        
-        for (TransactionEntry entry : all) {
-            if (entry.involvesPlayer(playerUuid)) {
-                filtered.add(entry);
-                if (filtered.size() >= limit) break;
-            }
+        if (playerUuid == null) {
+            return Collections.emptyList();
         }
-        
-        return filtered;
+        return ring.recentFor(playerUuid, limit);
     }
     
     /**
      * Get statistics for monitoring.
      */
     public int getTotalTransactions() {
-        return totalWrites.get();
+        return (int) Math.min(Integer.MAX_VALUE, ring.size());
     }
     
     public int getBufferSize() {
-        return bufferSize;
+        return ring.capacity();
     }
     
     public int getAvailableCount() {
-        return Math.min(totalWrites.get(), bufferSize);
+        return (int) Math.min(ring.size(), ring.capacity());
+    }
+    
+    /**
+     * Get the number of players with entries in the buffer.
+     */
+    public int getIndexedPlayerCount() {
+        return ring.indexedPlayers();
     }
     
     /**
      * Clear all entries (for testing).
      */
     public void clear() {
-        for (int i = 0; i < bufferSize; i++) {
-            buffer[i] = null;
-        }
-        writeIndex.set(0);
-        totalWrites.set(0);
+        ring.clear();
     }
 }
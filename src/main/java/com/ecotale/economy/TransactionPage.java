@@ -0,0 +1,32 @@
+package com.ecotale.economy;
+
+import java.util.List;
+
+/**
+ * One page of the persistent transaction log, newest first, with the cursors
+ * of the neighbouring pages.
+ *
+ * Pages are addressed by key instead of offset: storage seeks to the cursor in
+ * its (timestamp, id) index and reads one page from there, so a deep page costs
+ * the same as the first one. Cursors are opaque; pass them back to the storage
+ * that returned them.
+ *
+ * @param entries Newest first, at most the requested page size
+ * @param newer Cursor of the previous (newer) page, null on the first page
+ * @param older Cursor of the next (older) page, null on the last page
+ */
+public record TransactionPage(List<TransactionEntry> entries, Cursor newer, Cursor older) {
+
+    /**
+     * Position in the log, between two entries.
+     *
+     * @param partition Monthly partition of SQL storage (yyyyMM, 0 for the original table); 0 for MongoDB
+     * @param timestamp Entry timestamp (epoch millis)
+     * @param id Row key: the SQL id, or the MongoDB ObjectId as hex
+     */
+    public record Cursor(int partition, long timestamp, String id) {}
+
+    public static TransactionPage empty() {
+        return new TransactionPage(List.of(), null, null);
+    }
+}
@@ -0,0 +1,225 @@
+package com.ecotale.economy;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-memory log of the most recent transactions, with a per-player index.
+ *
+ * Every entry gets a sequence number and lands in slot seq % capacity as an
+ * immutable Slot, published with a CAS after it is fully built; the CAS only
+ * replaces an older lap, so a slot's sequence never goes backwards.
+ * Readers load slots with acquire semantics and check the slot's sequence:
+ * a lower one is a slot still being written, a higher one was overwritten by
+ * a newer lap. Readers never see half-published entries and take no lock.
+ *
+ * The per-player index maps each player to the sequence of their newest
+ * entry; each slot links to the player's previous entry (one link for the
+ * source, one for the target of a transfer). A player's history is a walk
+ * down that chain, O(limit) whatever the buffer size. A link whose entry is
+ * still unpublished after a short spin cannot be followed; the walk then
+ * finds the player's remaining entries with a scan of the ring instead.
+ * Players whose newest entry is overwritten are dropped from the index.
+ */
+final class TransactionRing {
+
+    private static final long NONE = -1;
+    private static final int PUBLISH_SPINS = 1_000;
+
+    /**
+     * One published entry and the previous entries of the players it involves.
+     */
+    private record Slot(long seq, TransactionEntry entry, long prevSource, long prevTarget) {}
+
+    /** awaitPublished(): linked, but its writer has not stored it yet */
+    private static final Slot PENDING = new Slot(NONE, null, NONE, NONE);
+
+    private final int capacity;
+    private final AtomicReferenceArray<Slot> slots;
+    private final AtomicLong nextSeq = new AtomicLong();
+    private final ConcurrentHashMap<UUID, Long> newestByPlayer = new ConcurrentHashMap<>();
+
+    TransactionRing(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+    }
+
+    /**
+     * Append an entry. Lock-free; concurrent appends of the same player link in
+     * the order they reach the index (readers sort by sequence).
+     * The slot is only replaced if it holds an older lap: a writer stalled for a
+     * whole lap finds its entry already overwritten and drops it.
+     */
+    void add(@Nonnull TransactionEntry entry) {
+        long seq = nextSeq.getAndIncrement();
+        UUID source = entry.sourcePlayer();
+        UUID target = entry.targetPlayer();
+        long prevSource = link(source, seq);
+        long prevTarget = target != null && !target.equals(source) ? link(target, seq) : NONE;
+
+        int index = (int) (seq % capacity);
+        Slot slot = new Slot(seq, entry, prevSource, prevTarget);
+        Slot old;
+        do {
+            old = slots.get(index);
+            if (old != null && old.seq > seq) {
+                // A newer lap is already published here: this entry counts as overwritten
+                unlink(source, seq);
+                unlink(target, seq);
+                return;
+            }
+        } while (!slots.compareAndSet(index, old, slot));
+
+        // The replaced entry may have been a player's newest: unindex them
+        if (old != null) {
+            unlink(old.entry.sourcePlayer(), old.seq);
+            unlink(old.entry.targetPlayer(), old.seq);
+        }
+    }
+
+    /**
+     * Newest entries first, at most count.
+     */
+    List<TransactionEntry> recent(int count) {
+        long newest = nextSeq.get() - 1;
+        long oldest = Math.max(0, newest - capacity + 1);
+        int limit = (int) Math.min(count, newest - oldest + 1);
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<TransactionEntry> result = new ArrayList<>(limit);
+        for (long seq = newest; seq >= oldest && result.size() < limit; seq--) {
+            Slot slot = slots.getAcquire((int) (seq % capacity));
+            if (slot == null || slot.seq < seq) {
+                continue; // Claimed but not published yet
+            }
+            if (slot.seq > seq) {
+                break; // Overwritten by a newer lap: everything older is gone too
+            }
+            result.add(slot.entry);
+        }
+        return result;
+    }
+
+    /**
+     * Newest entries involving a player first, at most limit. Walks the player's chain.
+     */
+    List<TransactionEntry> recentFor(@Nonnull UUID player, int limit) {
+        Long head = newestByPlayer.get(player);
+        if (head == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<Slot> found = new ArrayList<>(Math.min(limit, capacity));
+        long seq = head;
+        while (seq != NONE && found.size() < limit) {
+            Slot slot = awaitPublished(seq);
+            if (slot == null) {
+                break; // Overwritten: the rest of the chain is older still
+            }
+            if (slot == PENDING) {
+                // Its links are not readable yet: find the rest by scanning the ring
+                scanFor(player, limit, found);
+                break;
+            }
+            found.add(slot);
+            seq = player.equals(slot.entry.sourcePlayer()) ? slot.prevSource : slot.prevTarget;
+        }
+        // Concurrent appends may link slightly out of order
+        found.sort((a, b) -> Long.compare(b.seq, a.seq));
+        List<TransactionEntry> result = new ArrayList<>(found.size());
+        for (Slot slot : found) {
+            result.add(slot.entry);
+        }
+        return result;
+    }
+
+    /**
+     * Add the player's published entries not found yet, newest first, until
+     * found holds limit. O(capacity); only used when a chain link is pending.
+     */
+    private void scanFor(UUID player, int limit, List<Slot> found) {
+        long newest = nextSeq.get() - 1;
+        long oldest = Math.max(0, newest - capacity + 1);
+        for (long seq = newest; seq >= oldest && found.size() < limit; seq--) {
+            Slot slot = slots.getAcquire((int) (seq % capacity));
+            if (slot == null || slot.seq < seq) {
+                continue; // Claimed but not published yet
+            }
+            if (slot.seq > seq) {
+                break; // Overwritten by a newer lap: everything older is gone too
+            }
+            if ((player.equals(slot.entry.sourcePlayer()) || player.equals(slot.entry.targetPlayer()))
+                    && !found.contains(slot)) {
+                found.add(slot);
+            }
+        }
+    }
+
+    /** Entries appended since start (or the last clear). */
+    long size() {
+        return nextSeq.get();
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /** Number of players with an entry still in the buffer. */
+    int indexedPlayers() {
+        return newestByPlayer.size();
+    }
+
+    /**
+     * Forget everything. Not safe against concurrent appends (testing only).
+     */
+    void clear() {
+        for (int i = 0; i < capacity; i++) {
+            slots.set(i, null);
+        }
+        newestByPlayer.clear();
+        nextSeq.set(0);
+    }
+
+    private long link(UUID player, long seq) {
+        if (player == null) {
+            return NONE;
+        }
+        Long previous = newestByPlayer.put(player, seq);
+        return previous != null ? previous : NONE;
+    }
+
+    private void unlink(UUID player, long seq) {
+        if (player != null) {
+            newestByPlayer.remove(player, seq);
+        }
+    }
+
+    /**
+     * The slot holding seq, waiting briefly if its writer has linked it but not
+     * stored it yet; PENDING if it is still not stored, null once it has been
+     * overwritten.
+     */
+    private Slot awaitPublished(long seq) {
+        if (seq <= nextSeq.get() - 1 - capacity) {
+            return null;
+        }
+        int index = (int) (seq % capacity);
+        for (int spin = 0; spin < PUBLISH_SPINS; spin++) {
+            Slot slot = slots.getAcquire(index);
+            if (slot != null && slot.seq == seq) {
+                return slot;
+            }
+            if (slot != null && slot.seq > seq) {
+                return null;
+            }
+            Thread.onSpinWait();
+        }
+        return PENDING;
+    }
+}
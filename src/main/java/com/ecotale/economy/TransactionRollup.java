@@ -0,0 +1,156 @@
+package com.ecotale.economy;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Hourly and daily transaction aggregates, accumulated from stored batches.
+ *
+ * The log writer adds every batch it stores and hands the accumulated deltas
+ * to storage, which adds them to its rollup tables (upsert count += n,
+ * amount += x). Dashboards and earnings leaderboards then read a handful of
+ * rollup rows instead of scanning raw transactions.
+ *
+ * Two aggregates per bucket (UTC hour and UTC day):
+ * - per TransactionType: count and amount (minor units)
+ * - per player: count, earned and spent (minor units). GIVE/EARN credit the
+ *   player, TAKE/SPEND debit them, PAY debits the sender and credits the
+ *   receiver; SET/RESET only count.
+ *
+ * Not thread-safe: owned by the log writer thread.
+ */
+public final class TransactionRollup {
+
+    /** Hourly rows are kept this long by storage; daily rows are kept. */
+    public static final int HOURLY_RETENTION_DAYS = 31;
+
+    public enum Period {
+        HOUR("H", 3_600_000L),
+        DAY("D", 86_400_000L);
+
+        private final String code;
+        private final long millis;
+
+        Period(String code, long millis) {
+            this.code = code;
+            this.millis = millis;
+        }
+
+        /** Stored key of the period ("H" / "D"). */
+        public String code() {
+            return code;
+        }
+
+        /** Length of one bucket in milliseconds. */
+        public long millis() {
+            return millis;
+        }
+
+        /** Start of the (UTC) bucket containing a timestamp. */
+        public long bucketStart(long epochMillis) {
+            return Math.floorDiv(epochMillis, millis) * millis;
+        }
+    }
+
+    /**
+     * Transactions of one type in a bucket (or, from range queries, in the range starting at bucketStart).
+     */
+    public record TypeTotal(Period period, long bucketStart, TransactionType type, long count, long amountMinor) {
+        public double amount() {
+            return LedgerScale.fromMinor(amountMinor);
+        }
+    }
+
+    /**
+     * One player's transactions in a bucket (or, from range queries, in the range starting at bucketStart).
+     */
+    public record PlayerTotal(Period period, long bucketStart, UUID player, long count, long earnedMinor, long spentMinor) {
+        public double earned() {
+            return LedgerScale.fromMinor(earnedMinor);
+        }
+
+        public double spent() {
+            return LedgerScale.fromMinor(spentMinor);
+        }
+    }
+
+    private record TypeKey(Period period, long bucketStart, TransactionType type) {}
+    private record PlayerKey(Period period, long bucketStart, UUID player) {}
+
+    // Pending deltas: {count, amount} and {count, earned, spent}
+    private final Map<TypeKey, long[]> types = new HashMap<>();
+    private final Map<PlayerKey, long[]> players = new HashMap<>();
+
+    /**
+     * Add stored entries to the pending deltas.
+     */
+    public void addAll(@Nonnull List<TransactionEntry> entries) {
+        for (TransactionEntry entry : entries) {
+            add(entry);
+        }
+    }
+
+    /**
+     * Add one stored entry to the pending deltas.
+     */
+    public void add(@Nonnull TransactionEntry entry) {
+        long time = entry.timestamp().toEpochMilli();
+        long amount = entry.amountMinor();
+        for (Period period : Period.values()) {
+            long bucket = period.bucketStart(time);
+            long[] type = types.computeIfAbsent(new TypeKey(period, bucket, entry.type()), k -> new long[2]);
+            type[0]++;
+            type[1] += amount;
+            switch (entry.type()) {
+                case GIVE, EARN -> addPlayer(period, bucket, entry.sourcePlayer(), amount, 0);
+                case TAKE, SPEND -> addPlayer(period, bucket, entry.sourcePlayer(), 0, amount);
+                case PAY -> {
+                    addPlayer(period, bucket, entry.sourcePlayer(), 0, amount);
+                    addPlayer(period, bucket, entry.targetPlayer(), amount, 0);
+                }
+                case SET, RESET -> addPlayer(period, bucket, entry.sourcePlayer(), 0, 0);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return types.isEmpty();
+    }
+
+    /** Pending per-type deltas. */
+    public List<TypeTotal> typeDeltas() {
+        List<TypeTotal> result = new ArrayList<>(types.size());
+        types.forEach((key, sums) -> result.add(new TypeTotal(key.period, key.bucketStart, key.type, sums[0], sums[1])));
+        return result;
+    }
+
+    /** Pending per-player deltas. */
+    public List<PlayerTotal> playerDeltas() {
+        List<PlayerTotal> result = new ArrayList<>(players.size());
+        players.forEach((key, sums) -> result.add(
+            new PlayerTotal(key.period, key.bucketStart, key.player, sums[0], sums[1], sums[2])));
+        return result;
+    }
+
+    /**
+     * Forget the pending deltas (after storage applied them).
+     */
+    public void clear() {
+        types.clear();
+        players.clear();
+    }
+
+    private void addPlayer(Period period, long bucket, UUID player, long earned, long spent) {
+        if (player == null) {
+            return;
+        }
+        long[] sums = players.computeIfAbsent(new PlayerKey(period, bucket, player), k -> new long[3]);
+        sums[0]++;
+        sums[1] += earned;
+        sums[2] += spent;
+    }
+}
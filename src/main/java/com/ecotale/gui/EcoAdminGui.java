@@ -1,9 +1,12 @@
 package com.ecotale.gui;
 
 import com.ecotale.Main;
+import com.ecotale.economy.LedgerScale;
 import com.ecotale.economy.PlayerBalance;
 import com.ecotale.economy.TransactionEntry;
 import com.ecotale.economy.TransactionLogger;
+import com.ecotale.economy.TransactionPage;
+import com.ecotale.economy.TransactionRollup;
 import com.ecotale.systems.BalanceHudSystem;
 import com.hypixel.hytale.codec.Codec;
 import com.hypixel.hytale.codec.KeyedCodec;
@@ -44,6 +47,11 @@ public class EcoAdminGui extends InteractiveCustomUIPage<EcoAdminGui.AdminGuiDat
     
     private static final int PAGE_SIZE = 20;
     private static final int LOG_SIZE = 50;
+    /** Percentiles shown in the dashboard's wealth distribution row */
+    private static final int[] DISTRIBUTION_PERCENTILES = {10, 25, 50, 75, 90, 99};
+    /** Players listed in the dashboard's top earners row */
+    private static final int TOP_EARNERS = 3;
+    private static final int TOP_EARNERS_DAYS = 7;
     
     // Available languages (scalable - add new languages here)
     private static final List<String> AVAILABLE_LANGUAGES = List.of(
@@ -54,7 +62,11 @@ public class EcoAdminGui extends InteractiveCustomUIPage<EcoAdminGui.AdminGuiDat
     private String searchQuery = "";
     private String logFilter = "";
     private int currentPage = 0;
-    private int logPage = 0;  // Separate pagination for LOG tab
+    private volatile int logPage = 0;  // Separate pagination for LOG tab (page number shown)
+    // LOG tab keyset pagination: the page shown is read from logCursor in the logOlder direction
+    private TransactionPage.Cursor logCursor = null;
+    private boolean logOlder = true;
+    private volatile TransactionPage logShown = TransactionPage.empty();
     
     // Selection state
     private String selectedPlayerUuid = null;
@@ -160,6 +172,10 @@ public class EcoAdminGui extends InteractiveCustomUIPage<EcoAdminGui.AdminGuiDat
             EventData.of("Action", "PrevPage"), false);
         events.addEventBinding(CustomUIEventBindingType.Activating, "#NextPageButton", 
             EventData.of("Action", "NextPage"), false);
+        events.addEventBinding(CustomUIEventBindingType.Activating, "#LogPrevButton", 
+            EventData.of("Action", "LogPrev"), false);
+        events.addEventBinding(CustomUIEventBindingType.Activating, "#LogNextButton", 
+            EventData.of("Action", "LogNext"), false);
         
         // Build current tab content
         buildDashboard(cmd);
@@ -212,7 +228,11 @@ public class EcoAdminGui extends InteractiveCustomUIPage<EcoAdminGui.AdminGuiDat
         
         // Handle log filter
         if (data.logFilter != null) {
-            this.logFilter = data.logFilter.trim().toLowerCase();
+            String newFilter = data.logFilter.trim().toLowerCase();
+            if (!newFilter.equals(this.logFilter)) {
+                resetLogPage();  // Cursors belong to the old filter
+            }
+            this.logFilter = newFilter;
             refreshUI(ref, store);
             return;
         }
@@ -357,6 +377,26 @@ public class EcoAdminGui extends InteractiveCustomUIPage<EcoAdminGui.AdminGuiDat
                     refreshUI(ref, store);
                     return;
                 }
+                case "LogPrev" -> {
+                    TransactionPage.Cursor newer = logShown.newer();
+                    if (newer != null) {
+                        logCursor = newer;
+                        logOlder = false;
+                        logPage = Math.max(0, logPage - 1);
+                    }
+                    refreshUI(ref, store);
+                    return;
+                }
+                case "LogNext" -> {
+                    TransactionPage.Cursor older = logShown.older();
+                    if (older != null) {
+                        logCursor = older;
+                        logOlder = true;
+                        logPage++;
+                    }
+                    refreshUI(ref, store);
+                    return;
+                }
                 // Config actions
                 case "ReloadConfig" -> {
                     Main.CONFIG.load();
@@ -442,19 +482,25 @@ public class EcoAdminGui extends InteractiveCustomUIPage<EcoAdminGui.AdminGuiDat
     }
     
     private void buildDashboard(@NonNullDecl UICommandBuilder cmd) {
-        var allBalances = Main.getInstance().getEconomyManager().getAllBalances();
-        
-        double totalCirculating = allBalances.values().stream()
-            .mapToDouble(PlayerBalance::getBalance)
-            .sum();
+        var economyManager = Main.getInstance().getEconomyManager();
         
-        int playerCount = allBalances.size();
+        double totalCirculating = economyManager.getTotalCirculating();
+        int playerCount = economyManager.getAccountCount();
         double average = playerCount > 0 ? totalCirculating / playerCount : 0;
         
         cmd.set("#TotalCirculating.Text", Main.CONFIG.get().format(totalCirculating));
         cmd.set("#TotalPlayers.Text", String.valueOf(playerCount));
         cmd.set("#AverageBalance.Text", Main.CONFIG.get().format(average));
         
+        // Wealth distribution (PERF-16 quantiles, no sorting)
+        for (int percentile : DISTRIBUTION_PERCENTILES) {
+            cmd.set("#QuantileP" + percentile + ".Text",
+                Main.CONFIG.get().format(economyManager.getBalanceQuantile(percentile / 100.0)));
+        }
+        
+        // Today's activity and top earners, from the transaction rollups
+        loadRollupStats();
+        
         // Config info
         cmd.set("#ConfigMaxBalance.Text", Main.CONFIG.get().formatShort(Main.CONFIG.get().getMaxBalance()));
         cmd.set("#ConfigTransferFee.Text", String.format("%.1f%%", Main.CONFIG.get().getTransferFee() * 100));
@@ -478,6 +524,58 @@ public class EcoAdminGui extends InteractiveCustomUIPage<EcoAdminGui.AdminGuiDat
         }
     }
     
+    /**
+     * Fill the dashboard's today and top earners rows from the hourly/daily
+     * rollups: a few aggregate rows per query, no scan of raw transactions.
+     * Shows "-" where storage keeps no transaction log (JSON).
+     */
+    private void loadRollupStats() {
+        var storage = Main.getInstance().getEconomyManager().getStorage();
+        TransactionRollup.Period day = TransactionRollup.Period.DAY;
+        long today = day.bucketStart(System.currentTimeMillis());
+        long tomorrow = today + day.millis();
+        long weekStart = today - (TOP_EARNERS_DAYS - 1) * day.millis();
+        
+        // thenCombineAsync: build the update on the common pool, not the storage thread
+        storage.queryTypeTotalsAsync(day, today, tomorrow).thenCombineAsync(
+            storage.queryTopEarnersAsync(day, weekStart, tomorrow, TOP_EARNERS),
+            (totals, earners) -> {
+                if (totals.isEmpty() && earners.isEmpty()) {
+                    return null;
+                }
+                var config = Main.CONFIG.get();
+                UICommandBuilder asyncCmd = new UICommandBuilder();
+                if (!totals.isEmpty()) {
+                    long created = 0, removed = 0, transferred = 0, count = 0;
+                    for (TransactionRollup.TypeTotal total : totals) {
+                        count += total.count();
+                        switch (total.type()) {
+                            case GIVE, EARN -> created += total.amountMinor();
+                            case TAKE, SPEND -> removed += total.amountMinor();
+                            case PAY -> transferred += total.amountMinor();
+                            default -> { }
+                        }
+                    }
+                    asyncCmd.set("#TodayCreated.Text", config.format(LedgerScale.fromMinor(created)));
+                    asyncCmd.set("#TodayRemoved.Text", config.format(LedgerScale.fromMinor(removed)));
+                    asyncCmd.set("#TodayTransferred.Text", config.format(LedgerScale.fromMinor(transferred)));
+                    asyncCmd.set("#TodayCount.Text", String.valueOf(count));
+                }
+                if (!earners.isEmpty()) {
+                    StringBuilder text = new StringBuilder();
+                    for (TransactionRollup.PlayerTotal earner : earners) {
+                        if (!text.isEmpty()) {
+                            text.append("   ");
+                        }
+                        text.append(getPlayerName(earner.player())).append(" +").append(config.format(earner.earned()));
+                    }
+                    asyncCmd.set("#TopEarners.Text", text.toString());
+                }
+                this.sendUpdate(asyncCmd, new UIEventBuilder(), false);
+                return null;
+            });
+    }
+    
     private void buildPlayersTab(@NonNullDecl UICommandBuilder cmd, @NonNullDecl UIEventBuilder events) {
         cmd.clear("#PlayerList");
         
@@ -490,7 +588,7 @@ public class EcoAdminGui extends InteractiveCustomUIPage<EcoAdminGui.AdminGuiDat
                 String playerName = getPlayerName(e.getKey());
                 return playerName.toLowerCase().contains(searchQuery);
             })
-            .sorted((a, b) -> Double.compare(b.getValue().getBalance(), a.getValue().getBalance()))
+            .sorted((a, b) -> Long.compare(b.getValue().getBalanceSortKey(), a.getValue().getBalanceSortKey()))
             .collect(Collectors.toList());
         
         // Calculate pagination
@@ -566,13 +664,8 @@ public class EcoAdminGui extends InteractiveCustomUIPage<EcoAdminGui.AdminGuiDat
     private void buildTopTab(@NonNullDecl UICommandBuilder cmd) {
         cmd.clear("#TopList");
         
-        var allBalances = Main.getInstance().getEconomyManager().getAllBalances();
-        
-        // Sort by balance descending, take top 10
-        List<Map.Entry<UUID, PlayerBalance>> top10 = allBalances.entrySet().stream()
-            .sorted((a, b) -> Double.compare(b.getValue().getBalance(), a.getValue().getBalance()))
-            .limit(10)
-            .collect(Collectors.toList());
+        // Top 10 by balance (cached leaderboard, includes stored accounts in bounded cache mode)
+        List<Map.Entry<UUID, PlayerBalance>> top10 = Main.getInstance().getEconomyManager().getLeaderboard(10);
         
         int rank = 1;
         for (var entry : top10) {
@@ -596,33 +689,43 @@ public class EcoAdminGui extends InteractiveCustomUIPage<EcoAdminGui.AdminGuiDat
     private void buildLogTab(@NonNullDecl UICommandBuilder cmd) {
         cmd.clear("#LogList");
         
-        var h2Storage = Main.getInstance().getEconomyManager().getH2Storage();
-        
-        // LOG tab only works with H2 storage
-        if (h2Storage == null) {
-            cmd.appendInline("#LogList", "Label { Text: \"Transaction log requires H2 storage provider.\"; Style: (FontSize: 14, TextColor: #888888); Padding: (Top: 20); }");
-            return;
-        }
+        var storage = Main.getInstance().getEconomyManager().getStorage();
         
         // Show loading state
         cmd.set("#LogCountInfo.Text", "Loading...");
         
-        // Query H2 asynchronously to avoid blocking main thread
+        // Query storage asynchronously to avoid blocking main thread
         String filter = logFilter.isEmpty() ? null : logFilter;
-        int offset = logPage * LOG_SIZE;
         
         // Combine both queries into one async operation
-        // IMPORTANT: Use thenCombineAsync to run callback on ForkJoinPool, NOT on H2 executor
-        // Otherwise the callback blocks the H2 executor and causes deadlock on shutdown
-        h2Storage.countTransactionsAsync(filter).thenCombineAsync(
-            h2Storage.queryTransactionsAsync(filter, LOG_SIZE, offset),
-            (totalCount, entries) -> {
+        // IMPORTANT: Use thenCombineAsync to run callback on ForkJoinPool, NOT on the storage executor
+        // Otherwise the callback blocks the storage executor and causes deadlock on shutdown
+        // The page is read from a cursor (keyset), the total from cached counts:
+        // neither cost grows with the page number
+        storage.countTransactionsAsync(filter).thenCombineAsync(
+            storage.queryTransactionPageAsync(filter, LOG_SIZE, logCursor, logOlder),
+            (totalCount, page) -> {
+                if (totalCount == null) {
+                    // LOG tab only works with a storage that keeps a transaction log
+                    UICommandBuilder asyncCmd = new UICommandBuilder();
+                    asyncCmd.clear("#LogList");
+                    asyncCmd.set("#LogCountInfo.Text", "");
+                    asyncCmd.appendInline("#LogList", "Label { Text: \"Transaction log requires H2, MySQL or MongoDB storage.\"; Style: (FontSize: 14, TextColor: #888888); Padding: (Top: 20); }");
+                    this.sendUpdate(asyncCmd, new UIEventBuilder(), false);
+                    return null;
+                }
+                logShown = page;
+                if (page.newer() == null) {
+                    logPage = 0;  // Paged back to (or fell back on) the newest page
+                }
+                List<TransactionEntry> entries = page.entries();
+                
                 // Build UI update on the result
                 UICommandBuilder asyncCmd = new UICommandBuilder();
                 asyncCmd.clear("#LogList");
                 
                 // Calculate total pages
-                int totalPages = Math.max(1, (int) Math.ceil((double) totalCount / LOG_SIZE));
+                int totalPages = Math.max(logPage + 1, (int) Math.ceil((double) totalCount / LOG_SIZE));
                 
                 // Update count and page info
                 int showing = entries.size();
@@ -658,6 +761,14 @@ public class EcoAdminGui extends InteractiveCustomUIPage<EcoAdminGui.AdminGuiDat
         );
     }
     
+    /** Back to the newest page of the LOG tab */
+    private void resetLogPage() {
+        logCursor = null;
+        logOlder = true;
+        logPage = 0;
+        logShown = TransactionPage.empty();
+    }
+    
     private void buildConfigTab(@NonNullDecl UICommandBuilder cmd) {
         var config = Main.CONFIG.get();
         String lang = config.getLanguage(); // Get server language setting
@@ -729,7 +840,10 @@ public class EcoAdminGui extends InteractiveCustomUIPage<EcoAdminGui.AdminGuiDat
         cmd.set("#LblPlayersWithBalance.Text", getTranslation(lang, "ecotale.gui.dashboard.total_players", "Players with Balance"));
         cmd.set("#LblAverageBalance.Text", getTranslation(lang, "ecotale.gui.dashboard.avg_balance", "Average Balance"));
         cmd.set("#LblCurrentConfig.Text", getTranslation(lang, "ecotale.gui.dashboard.current_config", "Current Configuration"));
+        cmd.set("#LblWealthDistribution.Text", getTranslation(lang, "ecotale.gui.dashboard.wealth_distribution", "Wealth Distribution"));
         cmd.set("#LblRecentActivity.Text", getTranslation(lang, "ecotale.gui.dashboard.recent_activity", "Recent Activity"));
+        cmd.set("#LblTodayActivity.Text", getTranslation(lang, "ecotale.gui.dashboard.today_activity", "Today (UTC)"));
+        cmd.set("#LblTopEarners.Text", getTranslation(lang, "ecotale.gui.dashboard.top_earners", "Top Earners (7 days)"));
         
         // Players tab
         cmd.set("#LblSearch.Text", getTranslation(lang, "ecotale.gui.players.search_label", "Search"));
@@ -150,7 +150,7 @@ public class TopBalanceGui extends InteractiveCustomUIPage<TopBalanceGui.TopBala
                 case MONTHLY -> invokeTopPeriodQuery(h2, PAGE_SIZE, offset, MONTH_DAYS);
             };
             CompletableFuture<Integer> countFuture = invokeCountPlayers(h2);
-            CompletableFuture<Integer> rankFuture = invokeCountRank(h2, myBalance);
+            CompletableFuture<Integer> rankFuture = countAbove(h2, myBalance);
 
             listFuture.thenCombineAsync(countFuture, (entries, total) -> {
                 // If DB is empty or not yet populated, keep cached view
@@ -165,26 +165,21 @@ public class TopBalanceGui extends InteractiveCustomUIPage<TopBalanceGui.TopBala
 
         // Fallback: cached leaderboard
         CachedPage cached = getCachedEntries(offset);
-        updateList(cached.entries, cached.totalCount, myBalance, CompletableFuture.completedFuture(null));
+        updateList(cached.entries, cached.totalCount, myBalance, countAbove(null, myBalance));
     }
 
     private CachedPage getCachedEntries(int offset) {
-        Map<UUID, PlayerBalance> allBalances = Main.getInstance().getEconomyManager().getAllBalances();
-        List<Map.Entry<UUID, PlayerBalance>> sorted = allBalances.entrySet().stream()
-            .sorted((a, b) -> Double.compare(b.getValue().getBalance(), a.getValue().getBalance()))
-            .toList();
-
-        int start = Math.min(offset, sorted.size());
-        int end = Math.min(offset + PAGE_SIZE, sorted.size());
-        List<TopBalanceEntry> entries = new ArrayList<>();
-        for (int i = start; i < end; i++) {
-            var entry = sorted.get(i);
+        var economyManager = Main.getInstance().getEconomyManager();
+        List<Map.Entry<UUID, PlayerBalance>> page = economyManager.getLeaderboardPage(offset, PAGE_SIZE);
+
+        List<TopBalanceEntry> entries = new ArrayList<>(page.size());
+        for (var entry : page) {
             UUID uuid = entry.getKey();
             PlayerBalance balance = entry.getValue();
             String name = resolveName(uuid, null);
             entries.add(new TopBalanceEntry(uuid, name, balance.getBalance(), 0.0));
         }
-        return new CachedPage(entries, sorted.size());
+        return new CachedPage(entries, economyManager.getLeaderboardSize());
     }
 
     private record CachedPage(List<TopBalanceEntry> entries, int totalCount) {
@@ -293,6 +288,18 @@ public class TopBalanceGui extends InteractiveCustomUIPage<TopBalanceGui.TopBala
     }
 
     @SuppressWarnings("unchecked")
+    /**
+     * Accounts above a balance: from the in-memory rank index when it covers
+     * every account, otherwise a COUNT query on H2 (null if neither is available).
+     */
+    private CompletableFuture<Integer> countAbove(H2StorageProvider h2, double balance) {
+        var economyManager = Main.getInstance().getEconomyManager();
+        if (economyManager.isRankExact()) {
+            return CompletableFuture.completedFuture(economyManager.countAbove(balance));
+        }
+        return h2 != null ? invokeCountRank(h2, balance) : CompletableFuture.completedFuture(null);
+    }
+
     private CompletableFuture<Integer> invokeCountRank(H2StorageProvider h2, double balance) {
         try {
             var method = h2.getClass().getMethod("countPlayersWithBalanceGreaterAsync", double.class);
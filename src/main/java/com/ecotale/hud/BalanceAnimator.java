@@ -0,0 +1,109 @@
+package com.ecotale.hud;
+
+import com.ecotale.lib.simplehud.HudScheduler;
+import com.ecotale.lib.simplehud.SimpleHud;
+
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Drives every balance HUD animation from a single frame tick.
+ *
+ * Instead of one scheduled task per animation step per player, animating HUDs
+ * sit in a flat array and one fixed-rate task advances them all each frame,
+ * reading the easing curve from precomputed tables. A HUD that reaches its
+ * target leaves the array (swap with the last entry), and the tick stops
+ * when nothing is animating.
+ *
+ * Frames are batched with SimpleHud.batchUpdates(), so each world gets one
+ * World.execute() per frame for all of its animating HUDs.
+ *
+ * Thread-confined to the HUD scheduler thread, so no locking is needed:
+ * animations are only started by BalanceHudSystem's frame pass, which runs
+ * there. Other threads hand balances to BalanceHudSystem.updatePlayerHud().
+ */
+final class BalanceAnimator {
+
+    static final int MIN_STEPS = 15;
+    static final int MAX_STEPS = 30;
+    static final long FRAME_MS = 50; // One server tick at 20 TPS
+
+    // EASING[steps][step] = ease-out 1 - (1 - step/steps)^2.5
+    private static final double[][] EASING = new double[MAX_STEPS + 1][];
+
+    static {
+        for (int steps = MIN_STEPS; steps <= MAX_STEPS; steps++) {
+            double[] table = new double[steps + 1];
+            for (int step = 0; step <= steps; step++) {
+                table[step] = 1.0 - Math.pow(1.0 - (double) step / steps, 2.5);
+            }
+            EASING[steps] = table;
+        }
+    }
+
+    private static BalanceHud[] active = new BalanceHud[64];
+    private static int count = 0;
+    private static ScheduledFuture<?> ticker;
+
+    private BalanceAnimator() {}
+
+    /**
+     * Eased progress of a step, 0 to 1.
+     */
+    static double ease(int steps, int step) {
+        return EASING[steps][step];
+    }
+
+    /**
+     * Add a HUD whose animation state was just (re)set. No-op if it is already animating.
+     */
+    static void start(BalanceHud hud) {
+        if (hud.animSlot >= 0) {
+            return;
+        }
+        if (count == active.length) {
+            BalanceHud[] grown = new BalanceHud[count * 2];
+            System.arraycopy(active, 0, grown, 0, count);
+            active = grown;
+        }
+        hud.animSlot = count;
+        active[count++] = hud;
+        if (ticker == null) {
+            long delay = FRAME_MS - System.currentTimeMillis() % FRAME_MS;
+            ticker = HudScheduler.runAtFixedRate(BalanceAnimator::tick, delay, FRAME_MS);
+        }
+    }
+
+    /**
+     * Number of HUDs currently animating.
+     */
+    static int activeCount() {
+        return count;
+    }
+
+    private static void tick() {
+        SimpleHud.batchUpdates(() -> {
+            int i = 0;
+            while (i < count) {
+                BalanceHud hud = active[i];
+                if (hud.advanceFrame()) {
+                    i++;
+                } else {
+                    remove(i); // The last entry moved into slot i: advance it on this pass too
+                }
+            }
+        });
+        if (count == 0 && ticker != null) {
+            HudScheduler.cancel(ticker);
+            ticker = null;
+        }
+    }
+
+    private static void remove(int slot) {
+        BalanceHud hud = active[slot];
+        BalanceHud last = active[--count];
+        active[slot] = last;
+        last.animSlot = slot;
+        active[count] = null;
+        hud.animSlot = -1;
+    }
+}
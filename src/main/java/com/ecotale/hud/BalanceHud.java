@@ -1,16 +1,13 @@
 package com.ecotale.hud;
 
 import com.ecotale.lib.simplehud.SimpleHud;
-import com.ecotale.lib.simplehud.HudScheduler;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.Message;
 
-import java.util.concurrent.ScheduledFuture;
-
 /**
  * HUD to display player balance with smart animated counting.
  * Features:
- * - Progressive counter animation
+ * - Progressive counter animation (one frame per tick, driven by BalanceAnimator)
  * - Trailing digits for large balances (shows ...005 during animation)
  * @author michidev
  */
@@ -18,10 +15,6 @@ public class BalanceHud extends SimpleHud {
     
     // HUD enabled/disabled is now controlled by config: EnableHudDisplay
     
-    private static final int MIN_STEPS = 15;
-    private static final int MAX_STEPS = 30;
-    private static final long STEP_INTERVAL_MS = 50;
-    
     // If change is less than 0.1% of balance, use trailing digits
     private static final double TRAILING_THRESHOLD = 0.001;
     private final PlayerRef ownerRef;
@@ -30,8 +23,15 @@ public class BalanceHud extends SimpleHud {
     private double displayedBalance = 0;
     private double targetBalance = 0;
     private boolean useTrailingDigits = false;
-    private ScheduledFuture<?> animationFuture;
     private boolean warnedDisabled = false;
+    
+    // Animation state, owned by BalanceAnimator's thread
+    int animSlot = -1;
+    private double animStart;
+    private double animEnd;
+    private int animStep;
+    private int animSteps;
+    private volatile boolean removed = false;
 
     public BalanceHud(PlayerRef playerRef) {
         super(playerRef, "Pages/Ecotale_BalanceHud.ui");
@@ -97,10 +97,13 @@ public class BalanceHud extends SimpleHud {
         super.build(builder);
     }
 
+    /**
+     * Show a new balance (animated if enabled).
+     * Called by BalanceHudSystem's frame pass, which refreshes the world cache first.
+     * Must run on the HUD scheduler thread (it starts animations); elsewhere use
+     * BalanceHudSystem.updatePlayerHud().
+     */
     public void updateBalance(double newBalance) {
-        // Refresh world cache for thread-safe dispatch when called from async context
-        this.refreshWorldCache();
-        
         if (Math.abs(newBalance - targetBalance) < 0.01) {
             return;
         }
@@ -109,6 +112,8 @@ public class BalanceHud extends SimpleHud {
         if (!com.ecotale.Main.CONFIG.get().isEnableHudAnimation()) {
             targetBalance = newBalance;
             displayedBalance = newBalance;
+            animEnd = newBalance; // An animation still running ends on this value
+            animStep = animSteps;
             updateDisplayFinal(newBalance);
             return;
         }
@@ -133,56 +138,50 @@ public class BalanceHud extends SimpleHud {
     }
     
     /**
-     * Cleanup resources when HUD is removed (cancel pending animations)
+     * Cleanup resources when HUD is removed (its animation stops on the next frame)
      */
     public void cleanup() {
-        if (animationFuture != null) {
-            HudScheduler.cancel(animationFuture);
-            animationFuture = null;
-        }
+        removed = true;
     }
     
     private void startAnimation() {
-        if (animationFuture != null) {
-            HudScheduler.cancel(animationFuture);
-        }
-        
-        double startValue = displayedBalance;
-        double endValue = targetBalance;
-        int totalSteps = calculateSteps(Math.abs(endValue - startValue));
-        
-        animateWithEasing(startValue, endValue, 0, totalSteps);
+        // Restart from what is shown now; an animation in progress just changes course
+        animStart = displayedBalance;
+        animEnd = targetBalance;
+        animSteps = calculateSteps(Math.abs(animEnd - animStart));
+        animStep = 1; // Step 0 is the value already on screen
+        BalanceAnimator.start(this);
     }
     
     private int calculateSteps(double delta) {
         int steps = (int) Math.ceil(delta / 1.5);
-        return Math.max(MIN_STEPS, Math.min(steps, MAX_STEPS));
+        return Math.max(BalanceAnimator.MIN_STEPS, Math.min(steps, BalanceAnimator.MAX_STEPS));
     }
     
-    private void animateWithEasing(double start, double end, int currentStep, int totalSteps) {
-        if (currentStep >= totalSteps) {
-            displayedBalance = end;
+    /**
+     * Show the next animation frame.
+     * 
+     * @return false once the target is shown (or the HUD was removed)
+     */
+    boolean advanceFrame() {
+        if (removed) {
+            return false;
+        }
+        if (animStep >= animSteps) {
+            displayedBalance = animEnd;
             useTrailingDigits = false;
-            updateDisplayFinal(end);
-            return;
+            updateDisplayFinal(animEnd);
+            return false;
         }
         
-        double t = (double) currentStep / totalSteps;
-        double eased = 1.0 - Math.pow(1.0 - t, 2.5);
-        
-        displayedBalance = start + (end - start) * eased;
+        displayedBalance = animStart + (animEnd - animStart) * BalanceAnimator.ease(animSteps, animStep++);
         
         if (useTrailingDigits) {
             updateDisplayTrailing(displayedBalance);
         } else {
             updateDisplayFinal(displayedBalance);
         }
-        
-        animationFuture = HudScheduler.runLater(() -> {
-            // Refresh world cache before animation step for correct threading
-            this.refreshWorldCache();
-            animateWithEasing(start, end, currentStep + 1, totalSteps);
-        }, STEP_INTERVAL_MS);
+        return true;
     }
     
     /**
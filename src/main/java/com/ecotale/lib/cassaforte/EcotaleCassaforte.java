@@ -48,7 +48,7 @@ public class EcotaleCassaforte extends AbstractEconomy {
 
     @Override
     public boolean hasAccount(UUID playerId) {
-        return plugin.getEconomyManager().getAllBalances().containsKey(playerId);
+        return plugin.getEconomyManager().hasAccount(playerId);
     }
 
     @Override
@@ -10,7 +10,6 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -29,9 +28,10 @@ import java.util.regex.Pattern;
  * Design decisions:
  * <ul>
  *   <li>Static switch for O(1) common placeholders, regex fallback for dynamic ones</li>
- *   <li>All expensive computations (leaderboard sort, median, totals) are cached via {@link PlaceholderCache}</li>
- *   <li>Leaderboard and rank derived entirely from {@link EconomyManager#getAllBalances()} (in-memory) —
- *       works on all storage backends including JSON</li>
+ *   <li>Expensive computations (leaderboard, totals) are cached via {@link PlaceholderCache}</li>
+ *   <li>Leaderboard from {@link EconomyManager#getLeaderboard(int)}, rank from {@link EconomyManager#getRank(UUID)}
+ *       and median/percentiles from {@link EconomyManager#getBalanceQuantile(double)} (in-memory, live)
+ *       — works on all storage backends including JSON</li>
  *   <li>Trend placeholders use {@code loginBalances} snapshot (session-based) which works universally,
  *       no dependency on DB-specific snapshot tables</li>
  * </ul>
@@ -42,6 +42,7 @@ public final class EcotalePlaceholders {
     private static final Pattern BALANCE_DP = Pattern.compile("^balance_(\\d{1,2})dp$");
     private static final Pattern TOP_NAME   = Pattern.compile("^top_name_(\\d{1,3})$");
     private static final Pattern TOP_BAL    = Pattern.compile("^top_balance_(\\d{1,3})$");
+    private static final Pattern SERVER_PCT = Pattern.compile("^server_p(\\d{1,2})$");
 
     // Maximum rank index for top_name/top_balance to prevent query abuse
     private static final int MAX_TOP_RANK = 100;
@@ -50,11 +51,9 @@ public final class EcotalePlaceholders {
     private static final String CK_LEADERBOARD = "leaderboard";
     private static final String CK_TOTAL       = "total_circulating";
     private static final String CK_ACCOUNTS    = "total_accounts";
-    private static final String CK_MEDIAN      = "median_balance";
 
     // TTLs
     private static final long TTL_GLOBAL = 30_000;  // 30s for server-wide stats
-    private static final long TTL_RANK   = 15_000;  // 15s for per-player rank
 
     // Shared instances — set once by PlaceholderManager.init()
     private static PlaceholderCache cache;
@@ -178,19 +177,10 @@ public final class EcotalePlaceholders {
         long months = days / 30;
         return months + "mo ago";
     }
+    // O(log n) from the rank index, so it is always live (no TTL cache)
     private static int computeRank(@Nullable UUID uuid) {
         if (uuid == null) return -1;
-        double myBalance = EcotaleAPI.getBalance(uuid);
-        String cacheKey = "rank_" + uuid;
-        return cache.get(cacheKey, () -> {
-            int higher = 0;
-            for (PlayerBalance pb : economy().getAllBalances().values()) {
-                if (pb.getBalance() > myBalance) {
-                    higher++;
-                }
-            }
-            return higher + 1;
-        }, TTL_RANK);
+        return economy().getRank(uuid);
     }
 
     private static String resolveRank(@Nullable UUID uuid) {
@@ -207,7 +197,7 @@ public final class EcotalePlaceholders {
     private static String resolvePercentile(@Nullable UUID uuid) {
         int rank = computeRank(uuid);
         if (rank <= 0) return "N/A";
-        int total = cachedAccountCount();
+        int total = Math.max(cachedAccountCount(), rank);
         if (total <= 0) return "N/A";
         double percentile = ((double) rank / total) * 100.0;
         if (percentile <= 1)  return "Top 1%";
@@ -253,7 +243,7 @@ public final class EcotalePlaceholders {
         int rank = computeRank(uuid);
         if (rank <= 0) return "0";
         int total = cachedAccountCount();
-        int aheadOf = total - rank;
+        int aheadOf = Math.max(0, total - rank);
         return aheadOf + " player" + (aheadOf != 1 ? "s" : "");
     }
     private static String resolveServerTotal() {
@@ -268,20 +258,14 @@ public final class EcotalePlaceholders {
         return config().format(total / count);
     }
 
+    // Quantiles are O(log n) reads from the rank index (within 0.2%), no TTL cache
     private static String resolveServerMedian() {
-        double median = cache.get(CK_MEDIAN, () -> {
-            var balances = economy().getAllBalances().values().stream()
-                    .mapToDouble(PlayerBalance::getBalance)
-                    .sorted()
-                    .toArray();
-            if (balances.length == 0) return 0.0;
-            int mid = balances.length / 2;
-            if (balances.length % 2 == 0) {
-                return (balances[mid - 1] + balances[mid]) / 2.0;
-            }
-            return balances[mid];
-        }, TTL_GLOBAL);
-        return config().format(median);
+        return config().format(economy().getBalanceQuantile(0.5));
+    }
+
+    private static String resolveServerPercentile(int percentile) {
+        if (percentile < 1 || percentile > 99) return "N/A";
+        return config().format(economy().getBalanceQuantile(percentile / 100.0));
     }
 
     private static String resolveServerPlayers() {
@@ -354,6 +338,12 @@ public final class EcotalePlaceholders {
             return resolveTopBalance(rank);
         }
 
+        // server_p<n>
+        m = SERVER_PCT.matcher(key);
+        if (m.matches()) {
+            return resolveServerPercentile(Integer.parseInt(m.group(1)));
+        }
+
         return "";
     }
 
@@ -383,23 +373,19 @@ public final class EcotalePlaceholders {
      */
     private static List<LeaderboardEntry> cachedLeaderboard() {
         return cache.get(CK_LEADERBOARD, () -> {
-            Map<UUID, PlayerBalance> all = economy().getAllBalances();
-            List<LeaderboardEntry> entries = new ArrayList<>(all.size());
-            for (var e : all.entrySet()) {
+            // Already sorted and capped at MAX_TOP_RANK
+            List<Map.Entry<UUID, PlayerBalance>> top = economy().getLeaderboard(MAX_TOP_RANK);
+            List<LeaderboardEntry> entries = new ArrayList<>(top.size());
+            for (var e : top) {
                 String name = resolvePlayerName(e.getKey());
                 entries.add(new LeaderboardEntry(e.getKey(), name, e.getValue().getBalance()));
             }
-            entries.sort(Comparator.comparingDouble(LeaderboardEntry::balance).reversed());
-            // Cap at MAX_TOP_RANK to avoid holding huge lists
-            if (entries.size() > MAX_TOP_RANK) {
-                return entries.subList(0, MAX_TOP_RANK);
-            }
             return entries;
         }, TTL_GLOBAL);
     }
 
     private static int cachedAccountCount() {
-        return cache.get(CK_ACCOUNTS, () -> economy().getAllBalances().size(), TTL_GLOBAL);
+        return cache.get(CK_ACCOUNTS, () -> economy().getAccountCount(), TTL_GLOBAL);
     }
     @Nullable
     private static PlayerBalance getPlayerBalance(@Nonnull UUID uuid) {
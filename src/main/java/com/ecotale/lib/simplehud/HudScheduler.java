@@ -39,6 +39,19 @@ public final class HudScheduler {
         }, delayMs, TimeUnit.MILLISECONDS);
     }
     
+    /**
+     * Schedule a task to run repeatedly at a fixed rate until cancelled.
+     */
+    public static ScheduledFuture<?> runAtFixedRate(Runnable task, long initialDelayMs, long periodMs) {
+        return EXECUTOR.scheduleAtFixedRate(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Error executing repeating HUD task", e);
+            }
+        }, initialDelayMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+    
     /**
      * Cancel a scheduled task.
      */
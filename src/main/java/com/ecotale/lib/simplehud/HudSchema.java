@@ -0,0 +1,69 @@
+package com.ecotale.lib.simplehud;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Element keys of one UI file, numbered as small integer slots.
+ * <p>
+ * A .ui file has a fixed set of elements, so every HUD built from it uses the
+ * same keys ("#BalanceAmount.Text", ...). The schema gives each key a slot the
+ * first time any HUD of that file sets it; HUDs then keep their values in
+ * plain arrays indexed by slot instead of per-HUD string maps.
+ * <p>
+ * One schema per uiPath, shared by all HUDs of that file. Thread-safe: slots
+ * are only ever added, never renumbered.
+ */
+final class HudSchema {
+
+    private static final Map<String, HudSchema> SCHEMAS = new ConcurrentHashMap<>();
+
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private volatile String[] keys = new String[0];
+
+    private HudSchema() {}
+
+    /**
+     * Get the schema of a UI file, creating it on first use.
+     */
+    static HudSchema forPath(@Nonnull String uiPath) {
+        return SCHEMAS.computeIfAbsent(uiPath, p -> new HudSchema());
+    }
+
+    /**
+     * Slot of a key, assigning the next free one if the key is new.
+     */
+    int slotOf(@Nonnull String key) {
+        Integer slot = slots.get(key);
+        return slot != null ? slot : register(key);
+    }
+
+    /**
+     * Key stored in a slot.
+     */
+    String keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Number of slots assigned so far.
+     */
+    int size() {
+        return keys.length;
+    }
+
+    private synchronized int register(String key) {
+        Integer existing = slots.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        String[] grown = Arrays.copyOf(keys, keys.length + 1);
+        int slot = keys.length;
+        grown[slot] = key;
+        keys = grown; // Publish the key before the slot can be looked up
+        slots.put(key, slot);
+        return slot;
+    }
+}
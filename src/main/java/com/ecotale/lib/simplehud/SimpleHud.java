@@ -11,8 +11,12 @@ import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -22,6 +26,7 @@ import java.util.logging.Logger;
  * This abstract class handles the complexity of the Hytale UI system, providing:
  * <ul>
  *     <li>Automatic state tracking to minimize bandwidth (smart updates).</li>
+ *     <li>Values held in slot arrays with a dirty bitset; a push only visits changed elements.</li>
  *     <li>Thread-safe updates via World.execute() for MultipleHUD compatibility.</li>
  *     <li>Incremental updates instead of full re-registration.</li>
  *     <li>Robust error handling for invalid IDs or null values.</li>
@@ -34,15 +39,25 @@ import java.util.logging.Logger;
 public abstract class SimpleHud extends CustomUIHud {
 
     private static final Logger LOGGER = Logger.getLogger(SimpleHud.class.getName());
+    
+    // Pushes collected by batchUpdates() on this thread, per world (null = not batching)
+    private static final ThreadLocal<Map<World, Set<SimpleHud>>> BATCH = new ThreadLocal<>();
 
     private final String uiPath;
     protected final PlayerRef ownerRef;
     
-    // Concurrent map to ensure thread safety during async updates
-    private final Map<String, String> values = new ConcurrentHashMap<>();
+    // Element keys of this UI file as slots, shared by every HUD of the file
+    private final HudSchema schema;
+    
+    // Values by slot; guarded by valueLock (set from any thread, sent on the WorldThread)
+    private final Object valueLock = new Object();
+    private String[] values = new String[0];
+    
+    // Last sent values by slot, to avoid unnecessary packet spam
+    private String[] lastSentValues = new String[0];
     
-    // Track last sent values to avoid unnecessary packet spam
-    private final Map<String, String> lastSentValues = new ConcurrentHashMap<>();
+    // Slots set since the last push; a push walks only these
+    private final BitSet dirty = new BitSet();
     
     // Auto-size configuration
     private AutoSizeConfig autoSizeConfig = null;
@@ -68,6 +83,7 @@ public abstract class SimpleHud extends CustomUIHud {
         }
         
         this.uiPath = uiPath;
+        this.schema = HudSchema.forPath(uiPath);
     }
 
     /**
@@ -145,7 +161,18 @@ public abstract class SimpleHud extends CustomUIHud {
     }
     
     private void updateValue(String key, String value) {
-        values.put(key, value);
+        int slot = schema.slotOf(key);
+        synchronized (valueLock) {
+            if (slot >= values.length) {
+                int size = Math.max(slot + 1, schema.size());
+                values = Arrays.copyOf(values, size);
+                lastSentValues = Arrays.copyOf(lastSentValues, size);
+            }
+            if (!value.equals(values[slot])) {
+                values[slot] = value;
+                dirty.set(slot);
+            }
+        }
     }
     
     private String normalizeId(String id) {
@@ -189,34 +216,14 @@ public abstract class SimpleHud extends CustomUIHud {
         // Use provided world or fall back to cached world
         World targetWorld = (world != null) ? world : this.cachedWorld;
         
-        Runnable updateTask = () -> {
-            try {
-                if (!initialized) {
-                    // First time: register with MHUD or vanilla
-                    registerHudInitial();
-                    initialized = true;
-                } else {
-                    // Subsequent updates: use update(false) for incremental changes
-                    UICommandBuilder builder = new UICommandBuilder();
-                    boolean hasChanges = false;
-                    
-                    for (Map.Entry<String, String> entry : values.entrySet()) {
-                        String lastValue = lastSentValues.get(entry.getKey());
-                        if (!entry.getValue().equals(lastValue)) {
-                            builder.set(entry.getKey(), entry.getValue());
-                            lastSentValues.put(entry.getKey(), entry.getValue());
-                            hasChanges = true;
-                        }
-                    }
-                    
-                    if (hasChanges) {
-                        this.update(false, builder);
-                    }
-                }
-            } catch (Exception e) {
-                LOGGER.log(Level.WARNING, "Failed to push HUD updates: " + e.getMessage());
-            }
-        };
+        Runnable updateTask = this::sendPendingValues;
+        
+        // Inside batchUpdates(): one push per HUD, one World.execute() per world at the end
+        Map<World, Set<SimpleHud>> batch = BATCH.get();
+        if (batch != null && targetWorld != null) {
+            batch.computeIfAbsent(targetWorld, w -> new LinkedHashSet<>()).add(this);
+            return;
+        }
         
         // Execute on WorldThread if we have a valid World reference
         if (targetWorld != null) {
@@ -242,6 +249,74 @@ public abstract class SimpleHud extends CustomUIHud {
         updateTask.run();
     }
 
+    /**
+     * Run work that pushes many HUDs, coalescing the pushes.
+     * 
+     * Pushes made on this thread while work runs are grouped by world: each HUD
+     * is sent once (with its latest values) and each world gets a single
+     * World.execute() for all of its HUDs, instead of one task per push.
+     * Nested calls join the outer batch.
+     */
+    public static void batchUpdates(@Nonnull Runnable work) {
+        if (BATCH.get() != null) {
+            work.run();
+            return;
+        }
+        Map<World, Set<SimpleHud>> batch = new LinkedHashMap<>();
+        BATCH.set(batch);
+        try {
+            work.run();
+        } finally {
+            BATCH.remove();
+        }
+        for (Map.Entry<World, Set<SimpleHud>> entry : batch.entrySet()) {
+            Set<SimpleHud> huds = entry.getValue();
+            entry.getKey().execute(() -> {
+                for (SimpleHud hud : huds) {
+                    hud.sendPendingValues();
+                }
+            });
+        }
+    }
+
+    /**
+     * Send changed values to the client (or register the HUD on first use).
+     * Runs on the HUD's WorldThread. Package-private for the push benchmark.
+     */
+    void sendPendingValues() {
+        try {
+            if (!initialized) {
+                // First time: register with MHUD or vanilla
+                registerHudInitial();
+                initialized = true;
+            } else {
+                // Subsequent updates: use update(false) for incremental changes
+                UICommandBuilder builder = null;
+                
+                synchronized (valueLock) {
+                    for (int slot = dirty.nextSetBit(0); slot >= 0; slot = dirty.nextSetBit(slot + 1)) {
+                        String value = values[slot];
+                        // Set back to what the client already shows: nothing to send
+                        if (!value.equals(lastSentValues[slot])) {
+                            if (builder == null) {
+                                builder = new UICommandBuilder();
+                            }
+                            builder.set(schema.keyAt(slot), value);
+                            lastSentValues[slot] = value;
+                        }
+                    }
+                    dirty.clear();
+                }
+                
+                if (builder != null) {
+                    this.update(false, builder);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to push HUD updates: " + e.getMessage());
+        }
+    }
+
     /**
      * Register the HUD for the first time.
      * Uses MultipleHUD API if available, otherwise vanilla show().
@@ -298,9 +373,14 @@ public abstract class SimpleHud extends CustomUIHud {
         try {
             builder.append(uiPath);
 
-            for (Map.Entry<String, String> entry : values.entrySet()) {
-                builder.set(entry.getKey(), entry.getValue());
-                lastSentValues.put(entry.getKey(), entry.getValue());
+            synchronized (valueLock) {
+                for (int slot = 0; slot < values.length; slot++) {
+                    if (values[slot] != null) {
+                        builder.set(schema.keyAt(slot), values[slot]);
+                        lastSentValues[slot] = values[slot];
+                    }
+                }
+                dirty.clear();
             }
             
             onBuild(builder);
@@ -2,6 +2,7 @@ package com.ecotale.lib.vaultunlocked;
 
 import com.ecotale.Main;
 import com.ecotale.api.EcotaleAPI;
+import com.ecotale.economy.LedgerScale;
 import net.milkbowl.vault2.economy.AccountPermission;
 import net.milkbowl.vault2.economy.Economy;
 import net.milkbowl.vault2.economy.EconomyResponse;
@@ -192,7 +193,7 @@ public class EcotaleUnlocked implements Economy {
     @Override
     public boolean hasAccount(@NotNull final UUID accountID) {
 
-        return plugin.getEconomyManager().getAllBalances().containsKey(accountID);
+        return plugin.getEconomyManager().hasAccount(accountID);
     }
 
     @Override
@@ -245,7 +246,8 @@ public class EcotaleUnlocked implements Economy {
     @Override
     public BigDecimal getBalance(@NotNull final String pluginName, @NotNull final UUID accountID) {
 
-        return new BigDecimal(EcotaleAPI.getBalance(accountID));
+        // Scaled to the ledger's decimal places instead of the double's binary expansion
+        return LedgerScale.toBigDecimal(LedgerScale.toMinor(EcotaleAPI.getBalance(accountID)));
     }
 
     /**
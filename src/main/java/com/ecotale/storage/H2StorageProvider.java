@@ -1,11 +1,17 @@
 package com.ecotale.storage;
 
 import com.ecotale.Main;
+import com.ecotale.economy.LedgerScale;
 import com.ecotale.economy.PlayerBalance;
 import com.ecotale.economy.TopBalanceEntry;
 import com.ecotale.economy.TransactionEntry;
+import com.ecotale.economy.TransactionPage;
+import com.ecotale.economy.TransactionRollup;
 import com.ecotale.economy.TransactionType;
 import com.hypixel.hytale.logger.HytaleLogger;
+import org.h2.engine.SessionLocal;
+import org.h2.jdbc.JdbcConnection;
+import org.h2.mvstore.db.Store;
 
 import javax.annotation.Nonnull;
 import java.io.File;
@@ -17,6 +23,9 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
@@ -30,6 +39,15 @@ public class H2StorageProvider implements StorageProvider {
 
     private static final Path ECOTALE_PATH = Path.of("mods", "Ecotale_Ecotale");
     
+    /** Rows per UPDATE when backfilling minor-unit columns */
+    private static final int MIGRATION_BATCH_SIZE = 5000;
+    
+    /** Rows per DELETE when trimming expired transactions */
+    private static final int RETENTION_BATCH_SIZE = 2000;
+    
+    /** Longest a maintenance pass may spend compacting the database file */
+    private static final int COMPACT_MAX_MS = 2000;
+    
     private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
         Thread t = new Thread(r, "Ecotale-H2-IO");
         t.setDaemon(false); // Must be non-daemon to ensure tasks complete during shutdown
@@ -37,6 +55,10 @@ public class H2StorageProvider implements StorageProvider {
     });
     
     private Connection connection;
+    private Connection logConnection; // Transaction log writer thread only
+    private TransactionPartitions partitions;
+    private final TransactionRollupTables rollups = new TransactionRollupTables("");
+    private ScheduledExecutorService maintenance;
     private String dbPath;
     private int playerCount = 0;
     
@@ -61,13 +83,19 @@ public class H2StorageProvider implements StorageProvider {
                 }
                 
                 // Connect to H2 (creates file if not exists)
-                connection = DriverManager.getConnection(
-                    "jdbc:h2:" + dbPath + ";MODE=MySQL;AUTO_SERVER=FALSE;DB_CLOSE_ON_EXIT=FALSE",
-                    "sa", ""
-                );
+                String url = "jdbc:h2:" + dbPath + ";MODE=MySQL;AUTO_SERVER=FALSE;DB_CLOSE_ON_EXIT=FALSE";
+                connection = DriverManager.getConnection(url, "sa", "");
+                // Second session for the transaction log writer, so its inserts never
+                // queue behind (or join the transaction of) balance saves
+                logConnection = DriverManager.getConnection(url, "sa", "");
                 
                 // Create tables
                 createTables();
+                migrateMinorUnits();
+                partitions = new TransactionPartitions("transactions", "FETCH FIRST ? ROWS ONLY",
+                    H2StorageProvider::createTransactionPartition, 0);
+                partitions.load(connection);
+                startMaintenance();
                 
                 // Count existing players
                 try (Statement stmt = connection.createStatement();
@@ -77,7 +105,8 @@ public class H2StorageProvider implements StorageProvider {
                     }
                 }
                 
-                LOGGER.at(Level.INFO).log("H2 database initialized: %s.mv.db (%d players)", dbPath, playerCount);
+                LOGGER.at(Level.INFO).log("H2 database initialized: %s.mv.db (%d players, %d transaction partitions)",
+                    dbPath, playerCount, partitions.partitionCount());
                 
             } catch (SQLException e) {
                 LOGGER.at(Level.SEVERE).log("Failed to initialize H2 database: %s", e.getMessage());
@@ -131,6 +160,9 @@ public class H2StorageProvider implements StorageProvider {
             // Create indexes if not exist
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_tx_timestamp ON transactions(timestamp DESC)");
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_tx_player ON transactions(player_name)");
+            
+            // Hourly/daily transaction rollups
+            rollups.createTables(stmt);
 
             // Balance snapshots table (for weekly/monthly trends)
             stmt.execute("""
@@ -142,20 +174,197 @@ public class H2StorageProvider implements StorageProvider {
                 )
             """);
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_snap_day ON balance_snapshots(snap_day)");
+            
+            // Migration: fixed-point minor-unit columns (always written, read when LedgerMode = "minor")
+            try {
+                stmt.execute("ALTER TABLE balances ADD COLUMN IF NOT EXISTS balance_minor BIGINT");
+                stmt.execute("ALTER TABLE balances ADD COLUMN IF NOT EXISTS total_earned_minor BIGINT");
+                stmt.execute("ALTER TABLE balances ADD COLUMN IF NOT EXISTS total_spent_minor BIGINT");
+                stmt.execute("ALTER TABLE transactions ADD COLUMN IF NOT EXISTS amount_minor BIGINT");
+            } catch (SQLException ignored) {
+                // Columns already exist or syntax not supported
+            }
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_balance_minor ON balances(balance_minor DESC)");
+        }
+    }
+    
+    /**
+     * Create one monthly transaction partition (see TransactionPartitions).
+     */
+    private static void createTransactionPartition(Statement stmt, String table) throws SQLException {
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS %s (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                timestamp BIGINT NOT NULL,
+                type VARCHAR(20) NOT NULL,
+                source_uuid VARCHAR(36),
+                target_uuid VARCHAR(36),
+                player_name VARCHAR(64),
+                amount DOUBLE,
+                amount_minor BIGINT,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+        """.formatted(table));
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_%s_timestamp ON %s(timestamp DESC, id DESC)".formatted(table, table));
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_%s_player ON %s(player_name)".formatted(table, table));
+    }
+    
+    /**
+     * Schedule the periodic retention pass, hourly rollup pruning and file compaction.
+     * The scheduler only queues the work; it runs on the IO thread like everything else.
+     */
+    private void startMaintenance() {
+        long interval = Math.max(1, Main.CONFIG.get().getTransactionMaintenanceMinutes());
+        maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Ecotale-H2-Maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        maintenance.scheduleWithFixedDelay(() -> executor.execute(() -> trimExpiredTransactions(0)),
+            interval, interval, TimeUnit.MINUTES);
+    }
+    
+    /**
+     * Retention pass: one small batch per IO task, so saves and log pages are
+     * served between batches. Compacts the file when the pass is done.
+     */
+    private void trimExpiredTransactions(long removedSoFar) {
+        int retentionDays = Main.CONFIG.get().getTransactionRetentionDays();
+        long removed = 0;
+        if (retentionDays > 0) {
+            long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+            try {
+                removed = partitions.removeExpired(connection, cutoff, RETENTION_BATCH_SIZE);
+            } catch (SQLException e) {
+                LOGGER.at(Level.WARNING).log("Failed to remove expired transactions: %s", e.getMessage());
+            }
+        }
+        if (executor.isShutdown()) {
+            return;
+        }
+        if (removed > 0) {
+            long total = removedSoFar + removed;
+            executor.execute(() -> trimExpiredTransactions(total));
+            return;
+        }
+        if (removedSoFar > 0) {
+            LOGGER.at(Level.INFO).log("Removed %d transactions older than %d days", removedSoFar, retentionDays);
+        }
+        try {
+            rollups.pruneHourly(connection,
+                System.currentTimeMillis() - TimeUnit.DAYS.toMillis(TransactionRollup.HOURLY_RETENTION_DAYS));
+        } catch (SQLException e) {
+            LOGGER.at(Level.WARNING).log("Failed to prune hourly rollups: %s", e.getMessage());
+        }
+        compactFile();
+    }
+    
+    /**
+     * Compact the MVStore file for up to COMPACT_MAX_MS: rewrites sparse chunks
+     * and truncates the free space that deleted rows left at the end of the file.
+     */
+    private void compactFile() {
+        File file = new File(dbPath + ".mv.db");
+        long before = file.length();
+        try {
+            if (connection.unwrap(JdbcConnection.class).getSession() instanceof SessionLocal session) {
+                Store store = session.getDatabase().getStore();
+                if (store != null) {
+                    store.compactFile(COMPACT_MAX_MS);
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.at(Level.WARNING).log("Failed to compact H2 database: %s", e.getMessage());
+            return;
+        }
+        long after = file.length();
+        if (after < before) {
+            LOGGER.at(Level.INFO).log("Compacted %s.mv.db: %d KB -> %d KB", dbPath, before / 1024, after / 1024);
         }
     }
+    
+    /**
+     * Online migration for the minor-unit columns.
+     * Balances: fills missing rows; in minor mode also recomputes rows written at
+     * another scale, which covers a DecimalPlaces change. Idempotent.
+     * Transactions: backfilled after startup one batch per IO task, so saves and
+     * loads are served between batches.
+     */
+    private void migrateMinorUnits() throws SQLException {
+        long factor = LedgerScale.getFactor();
+        String sql = """
+            UPDATE balances SET
+                balance_minor = ROUND(balance * ?),
+                total_earned_minor = ROUND(total_earned * ?),
+                total_spent_minor = ROUND(total_spent * ?)
+            WHERE balance_minor IS NULL OR (? AND balance_minor <> ROUND(balance * ?))
+        """;
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setLong(1, factor);
+            ps.setLong(2, factor);
+            ps.setLong(3, factor);
+            ps.setBoolean(4, LedgerScale.isMinorUnits());
+            ps.setLong(5, factor);
+            int updated = ps.executeUpdate();
+            if (updated > 0) {
+                LOGGER.at(Level.INFO).log("Migrated %d balances to minor units (scale %d)", updated, LedgerScale.getDecimalPlaces());
+            }
+        }
+        executor.execute(() -> backfillTransactionMinorUnits(0));
+    }
+    
+    /**
+     * Backfill one batch, then queue the next one behind whatever else is waiting.
+     */
+    private void backfillTransactionMinorUnits(long updatedSoFar) {
+        String sql = "UPDATE transactions SET amount_minor = ROUND(amount * ?) WHERE amount_minor IS NULL FETCH FIRST ? ROWS ONLY";
+        int updated = 0;
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setLong(1, LedgerScale.getFactor());
+            ps.setInt(2, MIGRATION_BATCH_SIZE);
+            updated = ps.executeUpdate();
+        } catch (SQLException e) {
+            LOGGER.at(Level.WARNING).log("Failed to backfill transaction minor units: %s", e.getMessage());
+        }
+        long total = updatedSoFar + updated;
+        if (updated == MIGRATION_BATCH_SIZE && !executor.isShutdown()) {
+            executor.execute(() -> backfillTransactionMinorUnits(total));
+        } else if (total > 0) {
+            LOGGER.at(Level.INFO).log("Backfilled minor units for %d transactions", total);
+        }
+    }
+    
+    /**
+     * Apply a stored balance row to a PlayerBalance, preferring the exact
+     * minor-unit column in minor mode (falls back to DOUBLE for unmigrated rows).
+     */
+    private static void applyStoredBalance(ResultSet rs, PlayerBalance pb, String reason) throws SQLException {
+        if (LedgerScale.isMinorUnits()) {
+            long minor = rs.getLong("balance_minor");
+            if (!rs.wasNull()) {
+                pb.setBalanceMinor(minor, reason);
+                return;
+            }
+        }
+        pb.setBalance(rs.getDouble("balance"), reason);
+    }
+    
+    /** Column to sort balances by: BIGINT in minor mode, DOUBLE otherwise. */
+    private static String balanceOrderColumn() {
+        return LedgerScale.isMinorUnits() ? "balance_minor" : "balance";
+    }
     @Override
     public CompletableFuture<PlayerBalance> loadPlayer(@Nonnull UUID playerUuid) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                String sql = "SELECT balance, total_earned, total_spent FROM balances WHERE uuid = ?";
+                String sql = "SELECT balance, balance_minor, total_earned, total_spent FROM balances WHERE uuid = ?";
                 try (PreparedStatement ps = connection.prepareStatement(sql)) {
                     ps.setString(1, playerUuid.toString());
                     try (ResultSet rs = ps.executeQuery()) {
                         if (rs.next()) {
                             PlayerBalance pb = new PlayerBalance(playerUuid);
                             // Use setBalance to set the loaded balance
-                            pb.setBalance(rs.getDouble("balance"), "Loaded from DB");
+                            applyStoredBalance(rs, pb, "Loaded from DB");
                             return pb;
                         }
                     }
@@ -187,15 +396,14 @@ public class H2StorageProvider implements StorageProvider {
     private void savePlayerSync(UUID playerUuid, PlayerBalance balance) {
         try {
             String sql = """
-                MERGE INTO balances (uuid, balance, total_earned, total_spent, updated_at) 
+                MERGE INTO balances (uuid, balance, total_earned, total_spent,
+                    balance_minor, total_earned_minor, total_spent_minor, updated_at) 
                 KEY(uuid) 
-                VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)
+                VALUES (?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
             """;
             try (PreparedStatement ps = connection.prepareStatement(sql)) {
                 ps.setString(1, playerUuid.toString());
-                ps.setDouble(2, balance.getBalance());
-                ps.setDouble(3, balance.getTotalEarned());
-                ps.setDouble(4, balance.getTotalSpent());
+                bindBalance(ps, 2, balance);
                 ps.executeUpdate();
             }
         } catch (SQLException e) {
@@ -203,6 +411,18 @@ public class H2StorageProvider implements StorageProvider {
         }
     }
     
+    /**
+     * Bind balance, totals and their minor-unit columns (6 parameters from startIndex).
+     */
+    private static void bindBalance(PreparedStatement ps, int startIndex, PlayerBalance balance) throws SQLException {
+        ps.setDouble(startIndex, balance.getBalance());
+        ps.setDouble(startIndex + 1, balance.getTotalEarned());
+        ps.setDouble(startIndex + 2, balance.getTotalSpent());
+        ps.setLong(startIndex + 3, balance.getBalanceMinor());
+        ps.setLong(startIndex + 4, balance.getTotalEarnedMinor());
+        ps.setLong(startIndex + 5, balance.getTotalSpentMinor());
+    }
+    
     /**
      * Update player's cached name.
      * Call this on player join to keep names current.
@@ -373,18 +593,20 @@ public class H2StorageProvider implements StorageProvider {
     /**
      * Get top balances directly from DB (async).
      */
+    @Override
     public CompletableFuture<List<PlayerBalance>> getTopBalances(int limit) {
         return CompletableFuture.supplyAsync(() -> {
             List<PlayerBalance> result = new ArrayList<>();
             try {
-                String sql = "SELECT uuid, balance, total_earned, total_spent FROM balances ORDER BY balance DESC LIMIT ?";
+                String sql = "SELECT uuid, balance, balance_minor, total_earned, total_spent FROM balances ORDER BY "
+                    + balanceOrderColumn() + " DESC LIMIT ?";
                 try (PreparedStatement ps = connection.prepareStatement(sql)) {
                     ps.setInt(1, limit);
                     try (ResultSet rs = ps.executeQuery()) {
                         while (rs.next()) {
                             UUID uuid = UUID.fromString(rs.getString("uuid"));
                             PlayerBalance pb = new PlayerBalance(uuid);
-                            pb.setBalance(rs.getDouble("balance"), "Top query");
+                            applyStoredBalance(rs, pb, "Top query");
                             result.add(pb);
                         }
                     }
@@ -396,6 +618,25 @@ public class H2StorageProvider implements StorageProvider {
         }, executor);
     }
 
+    /**
+     * Sum of all stored balances, aggregated in the database (async).
+     */
+    @Override
+    public CompletableFuture<Double> getTotalBalance() {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT SUM(" + balanceOrderColumn() + ") FROM balances";
+            try (PreparedStatement ps = connection.prepareStatement(sql);
+                 ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return LedgerScale.isMinorUnits() ? LedgerScale.fromMinor(rs.getLong(1)) : rs.getDouble(1);
+                }
+            } catch (SQLException e) {
+                LOGGER.at(Level.WARNING).log("Failed to sum balances: %s", e.getMessage());
+            }
+            return 0.0;
+        }, executor);
+    }
+
     /**
      * Query top balances with pagination (async).
      */
@@ -403,7 +644,8 @@ public class H2StorageProvider implements StorageProvider {
         return CompletableFuture.supplyAsync(() -> {
             List<TopBalanceEntry> result = new ArrayList<>();
             try {
-                String sql = "SELECT uuid, balance, player_name FROM balances ORDER BY balance DESC LIMIT ? OFFSET ?";
+                String sql = "SELECT uuid, balance, player_name FROM balances ORDER BY "
+                    + balanceOrderColumn() + " DESC LIMIT ? OFFSET ?";
                 try (PreparedStatement ps = connection.prepareStatement(sql)) {
                     ps.setInt(1, limit);
                     ps.setInt(2, offset);
@@ -512,9 +754,13 @@ public class H2StorageProvider implements StorageProvider {
     public CompletableFuture<Integer> countPlayersWithBalanceGreaterAsync(double balance) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                String sql = "SELECT COUNT(*) AS total FROM balances WHERE balance > ?";
+                String sql = "SELECT COUNT(*) AS total FROM balances WHERE " + balanceOrderColumn() + " > ?";
                 try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setDouble(1, balance);
+                    if (LedgerScale.isMinorUnits()) {
+                        ps.setLong(1, LedgerScale.toMinor(balance));
+                    } else {
+                        ps.setDouble(1, balance);
+                    }
                     try (ResultSet rs = ps.executeQuery()) {
                         if (rs.next()) {
                             return rs.getInt("total");
@@ -552,16 +798,15 @@ public class H2StorageProvider implements StorageProvider {
         try {
             connection.setAutoCommit(false);
             String sql = """
-                MERGE INTO balances (uuid, balance, total_earned, total_spent, updated_at) 
+                MERGE INTO balances (uuid, balance, total_earned, total_spent,
+                    balance_minor, total_earned_minor, total_spent_minor, updated_at) 
                 KEY(uuid) 
-                VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)
+                VALUES (?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
             """;
             try (PreparedStatement ps = connection.prepareStatement(sql)) {
                 for (var entry : dirtyPlayers.entrySet()) {
                     ps.setString(1, entry.getKey().toString());
-                    ps.setDouble(2, entry.getValue().getBalance());
-                    ps.setDouble(3, entry.getValue().getTotalEarned());
-                    ps.setDouble(4, entry.getValue().getTotalSpent());
+                    bindBalance(ps, 2, entry.getValue());
                     ps.addBatch();
                 }
                 ps.executeBatch();
@@ -585,13 +830,13 @@ public class H2StorageProvider implements StorageProvider {
         return CompletableFuture.supplyAsync(() -> {
             Map<UUID, PlayerBalance> result = new HashMap<>();
             try {
-                String sql = "SELECT uuid, balance, total_earned, total_spent FROM balances";
+                String sql = "SELECT uuid, balance, balance_minor, total_earned, total_spent FROM balances";
                 try (Statement stmt = connection.createStatement();
                      ResultSet rs = stmt.executeQuery(sql)) {
                     while (rs.next()) {
                         UUID uuid = UUID.fromString(rs.getString("uuid"));
                         PlayerBalance pb = new PlayerBalance(uuid);
-                        pb.setBalance(rs.getDouble("balance"), "Bulk load");
+                        applyStoredBalance(rs, pb, "Bulk load");
                         result.put(uuid, pb);
                     }
                 }
@@ -603,6 +848,28 @@ public class H2StorageProvider implements StorageProvider {
         }, executor);
     }
     
+    @Override
+    public CompletableFuture<Void> forEachStored(@Nonnull Consumer<PlayerBalance> consumer) {
+        return CompletableFuture.runAsync(() -> {
+            int count = 0;
+            try {
+                String sql = "SELECT uuid, balance, balance_minor, total_earned, total_spent FROM balances";
+                try (Statement stmt = connection.createStatement();
+                     ResultSet rs = stmt.executeQuery(sql)) {
+                    while (rs.next()) {
+                        PlayerBalance pb = new PlayerBalance(UUID.fromString(rs.getString("uuid")));
+                        applyStoredBalance(rs, pb, "Bulk load");
+                        consumer.accept(pb);
+                        count++;
+                    }
+                }
+                playerCount = count;
+            } catch (SQLException e) {
+                LOGGER.at(Level.SEVERE).log("Failed to stream balances: %s", e.getMessage());
+            }
+        }, executor);
+    }
+    
     @Override
     public CompletableFuture<Boolean> playerExists(@Nonnull UUID playerUuid) {
         return CompletableFuture.supplyAsync(() -> {
@@ -640,69 +907,97 @@ public class H2StorageProvider implements StorageProvider {
      * Called asynchronously to avoid blocking economy operations.
      */
     public void logTransaction(TransactionEntry entry) {
+        logTransactions(List.of(entry));
+    }
+    
+    /**
+     * Log several transactions as one multi-row insert (one IO task, one JDBC batch).
+     */
+    public void logTransactions(List<TransactionEntry> entries) {
+        if (entries.isEmpty()) return;
         executor.execute(() -> {
             try {
-                String sql = """
-                    INSERT INTO transactions (timestamp, type, source_uuid, target_uuid, player_name, amount)
-                    VALUES (?, ?, ?, ?, ?, ?)
-                """;
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    ps.setLong(1, entry.timestamp().toEpochMilli());
-                    ps.setString(2, entry.type().name());
-                    ps.setString(3, entry.sourcePlayer() != null ? entry.sourcePlayer().toString() : null);
-                    ps.setString(4, entry.targetPlayer() != null ? entry.targetPlayer().toString() : null);
-                    ps.setString(5, entry.playerName());
-                    ps.setDouble(6, entry.amount());
-                    ps.executeUpdate();
-                    LOGGER.at(Level.INFO).log("Logged transaction to H2: %s %s %.0f", entry.type(), entry.playerName(), entry.amount());
-                }
+                partitions.insert(connection, entries);
+                LOGGER.at(Level.INFO).log("Logged %d transactions to H2", entries.size());
             } catch (SQLException e) {
-                LOGGER.at(Level.WARNING).log("Failed to log transaction: %s", e.getMessage());
+                LOGGER.at(Level.WARNING).log("Failed to log %d transactions: %s", entries.size(), e.getMessage());
             }
         });
     }
     
+    /**
+     * Insert a batch on the caller's thread, on the log writer's own session.
+     * Used by TransactionLogWriter (group commit); all or nothing, throws so it can spill or retry.
+     */
+    public void writeTransactionsSync(List<TransactionEntry> entries) throws SQLException {
+        partitions.insert(logConnection, entries);
+    }
+    
+    /**
+     * Add rollup deltas on the log writer's session (see TransactionLogWriter).
+     */
+    public void writeRollupsSync(TransactionRollup rollup) throws SQLException {
+        rollups.write(logConnection, rollup);
+    }
+    
+    @Override
+    public CompletableFuture<List<TransactionRollup.TypeTotal>> queryTypeTotalsAsync(
+            @Nonnull TransactionRollup.Period period, long fromMillis, long toMillis) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return rollups.queryTypes(connection, period, fromMillis, toMillis);
+            } catch (SQLException e) {
+                LOGGER.at(Level.WARNING).log("Failed to query transaction rollups: %s", e.getMessage());
+                return List.<TransactionRollup.TypeTotal>of();
+            }
+        }, executor);
+    }
+    
+    @Override
+    public CompletableFuture<List<TransactionRollup.PlayerTotal>> queryTopEarnersAsync(
+            @Nonnull TransactionRollup.Period period, long fromMillis, long toMillis, int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return rollups.queryTopEarners(connection, period, fromMillis, toMillis, limit);
+            } catch (SQLException e) {
+                LOGGER.at(Level.WARNING).log("Failed to query top earners: %s", e.getMessage());
+                return List.<TransactionRollup.PlayerTotal>of();
+            }
+        }, executor);
+    }
+    
     /**
      * Query transactions with optional player filter and pagination (async).
+     * Only the monthly partitions the page falls in are read.
      */
     public CompletableFuture<List<TransactionEntry>> queryTransactionsAsync(String playerFilter, int limit, int offset) {
         return CompletableFuture.supplyAsync(() -> {
-            List<TransactionEntry> results = new ArrayList<>();
             try {
-                String sql;
-                if (playerFilter != null && !playerFilter.isEmpty()) {
-                    sql = """
-                        SELECT * FROM transactions 
-                        WHERE LOWER(player_name) LIKE ? 
-                        ORDER BY timestamp DESC 
-                        LIMIT ? OFFSET ?
-                    """;
-                } else {
-                    sql = """
-                        SELECT * FROM transactions 
-                        ORDER BY timestamp DESC 
-                        LIMIT ? OFFSET ?
-                    """;
-                }
-                
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    int paramIndex = 1;
-                    if (playerFilter != null && !playerFilter.isEmpty()) {
-                        ps.setString(paramIndex++, "%" + playerFilter.toLowerCase() + "%");
-                    }
-                    ps.setInt(paramIndex++, limit);
-                    ps.setInt(paramIndex, offset);
-                    
-                    try (ResultSet rs = ps.executeQuery()) {
-                        while (rs.next()) {
-                            results.add(resultSetToEntry(rs));
-                        }
-                    }
-                }
+                return partitions.query(connection, playerFilter, limit, offset, this::resultSetToEntry);
             } catch (SQLException e) {
                 LOGGER.at(Level.WARNING).log("Failed to query transactions: %s", e.getMessage());
+                return new ArrayList<TransactionEntry>();
+            }
+        }, executor);
+    }
+    
+    /**
+     * One keyset page of transactions, newest first (async).
+     * Seeks to the cursor in the (timestamp, id) index, so every page costs the same.
+     *
+     * @param cursor A cursor of the previous page, or null for the newest page
+     * @param older True for the page older than the cursor, false for the newer one
+     */
+    @Override
+    public CompletableFuture<TransactionPage> queryTransactionPageAsync(String playerFilter, int limit,
+                                                                       TransactionPage.Cursor cursor, boolean older) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return partitions.page(connection, playerFilter, limit, cursor, older, this::resultSetToEntry);
+            } catch (SQLException | NumberFormatException e) {
+                LOGGER.at(Level.WARNING).log("Failed to query transactions: %s", e.getMessage());
+                return TransactionPage.empty();
             }
-            return results;
         }, executor);
     }
     
@@ -717,29 +1012,15 @@ public class H2StorageProvider implements StorageProvider {
     
     /**
      * Count total transactions matching filter (async).
+     * Served from per-partition counts; only partitions written since the last count are scanned.
      */
+    @Override
     public CompletableFuture<Integer> countTransactionsAsync(String playerFilter) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                String sql;
-                if (playerFilter != null && !playerFilter.isEmpty()) {
-                    sql = "SELECT COUNT(*) FROM transactions WHERE LOWER(player_name) LIKE ?";
-                } else {
-                    sql = "SELECT COUNT(*) FROM transactions";
-                }
-                
-                try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                    if (playerFilter != null && !playerFilter.isEmpty()) {
-                        ps.setString(1, "%" + playerFilter.toLowerCase() + "%");
-                    }
-                    try (ResultSet rs = ps.executeQuery()) {
-                        if (rs.next()) {
-                            int count = rs.getInt(1);
-                            LOGGER.at(Level.INFO).log("H2 transaction count: %d (filter: %s)", count, playerFilter);
-                            return count;
-                        }
-                    }
-                }
+                int count = (int) Math.min(Integer.MAX_VALUE, partitions.count(connection, playerFilter));
+                LOGGER.at(Level.INFO).log("H2 transaction count: %d (filter: %s)", count, playerFilter);
+                return count;
             } catch (SQLException e) {
                 LOGGER.at(Level.WARNING).log("Failed to count transactions: %s", e.getMessage());
             }
@@ -782,12 +1063,18 @@ public class H2StorageProvider implements StorageProvider {
     @Override
     public CompletableFuture<Void> shutdown() {
         // Signal executor to stop accepting new tasks
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
         executor.shutdown();
         
         // Close connection synchronously - we're already being called during server shutdown
         // No need to submit to executor since saveAll() has already completed
         LOGGER.at(Level.INFO).log("H2 shutdown: closing connection...");
         try {
+            if (logConnection != null && !logConnection.isClosed()) {
+                logConnection.close();
+            }
             if (connection != null && !connection.isClosed()) {
                 connection.close();
             }
@@ -67,6 +67,7 @@ public class JsonStorageProvider implements StorageProvider {
                 // Create new account with starting balance
                 PlayerBalance newBalance = new PlayerBalance(playerUuid);
                 newBalance.setBalance(Main.CONFIG.get().getStartingBalance(), "Initial balance");
+                savePlayer(playerUuid, newBalance).join(); // Stored like the database providers do
                 playerCount.incrementAndGet();
                 return newBalance;
             }
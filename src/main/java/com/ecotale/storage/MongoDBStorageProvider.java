@@ -1,21 +1,33 @@
 package com.ecotale.storage;
 
 import com.ecotale.Main;
+import com.ecotale.economy.LedgerScale;
 import com.ecotale.economy.PlayerBalance;
 import com.ecotale.economy.TopBalanceEntry;
 import com.ecotale.economy.TransactionEntry;
+import com.ecotale.economy.TransactionPage;
+import com.ecotale.economy.TransactionRollup;
 import com.ecotale.economy.TransactionType;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.ReplaceOptions;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
 import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
 import com.hypixel.hytale.logger.HytaleLogger;
 
 import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.bson.conversions.Bson;
 
 import javax.annotation.Nonnull;
 import java.time.Instant;
@@ -26,6 +38,8 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 /**
@@ -34,8 +48,10 @@ import java.util.logging.Level;
  * 
  * Collections:
  * - balances: Player balance data
- * - transactions: Transaction history
+ * - transactions: Transaction history (keyset pages on the (timestamp, _id) index)
  * - snapshots: Daily balance snapshots for trends
+ * - tx_rollup_type / tx_rollup_player: Hourly/daily transaction aggregates
+ *   ($inc upserts; hourly documents expire through a TTL index on expires_at)
  */
 public class MongoDBStorageProvider implements StorageProvider {
     
@@ -54,6 +70,8 @@ public class MongoDBStorageProvider implements StorageProvider {
     private MongoCollection<Document> balancesCollection;
     private MongoCollection<Document> transactionsCollection;
     private MongoCollection<Document> snapshotsCollection;
+    private MongoCollection<Document> rollupTypeCollection;
+    private MongoCollection<Document> rollupPlayerCollection;
     private int playerCount = 0;
     
     @Override
@@ -69,16 +87,28 @@ public class MongoDBStorageProvider implements StorageProvider {
                 balancesCollection = database.getCollection("balances");
                 transactionsCollection = database.getCollection("transactions");
                 snapshotsCollection = database.getCollection("snapshots");
+                rollupTypeCollection = database.getCollection("tx_rollup_type");
+                rollupPlayerCollection = database.getCollection("tx_rollup_player");
                 
                 // Create indexes
                 balancesCollection.createIndex(new Document("uuid", 1));
                 balancesCollection.createIndex(new Document("player_name", 1));
                 balancesCollection.createIndex(new Document("balance", -1));
-                transactionsCollection.createIndex(new Document("timestamp", -1));
+                balancesCollection.createIndex(new Document("balance_minor", -1));
+                transactionsCollection.createIndex(new Document("timestamp", -1).append("_id", -1));
                 transactionsCollection.createIndex(new Document("player_name", 1));
                 snapshotsCollection.createIndex(new Document("snap_day", 1).append("uuid", 1));
+                IndexOptions unique = new IndexOptions().unique(true);
+                IndexOptions ttl = new IndexOptions().expireAfter(0L, TimeUnit.SECONDS);
+                rollupTypeCollection.createIndex(
+                    new Document("period", 1).append("bucket_start", 1).append("type", 1), unique);
+                rollupTypeCollection.createIndex(new Document("expires_at", 1), ttl);
+                rollupPlayerCollection.createIndex(
+                    new Document("period", 1).append("bucket_start", 1).append("uuid", 1), unique);
+                rollupPlayerCollection.createIndex(new Document("expires_at", 1), ttl);
                 
                 playerCount = (int) balancesCollection.countDocuments();
+                migrateMinorUnits();
                 
                 LOGGER.at(Level.INFO).log("MongoDB connected: %s/%s (%d players)", uri, dbName, playerCount);
                 
@@ -96,7 +126,7 @@ public class MongoDBStorageProvider implements StorageProvider {
                 
                 if (doc != null) {
                     PlayerBalance pb = new PlayerBalance(playerUuid);
-                    pb.setBalance(doc.getDouble("balance"), "Loaded from MongoDB");
+                    applyStoredBalance(doc, pb, "Loaded from MongoDB");
                     return pb;
                 }
                 
@@ -129,6 +159,9 @@ public class MongoDBStorageProvider implements StorageProvider {
                 .append("balance", balance.getBalance())
                 .append("total_earned", balance.getTotalEarned())
                 .append("total_spent", balance.getTotalSpent())
+                .append("balance_minor", balance.getBalanceMinor())
+                .append("total_earned_minor", balance.getTotalEarnedMinor())
+                .append("total_spent_minor", balance.getTotalSpentMinor())
                 .append("updated_at", new Date());
             
             balancesCollection.replaceOne(
@@ -140,6 +173,61 @@ public class MongoDBStorageProvider implements StorageProvider {
             LOGGER.at(Level.SEVERE).log("Failed to save player %s: %s", playerUuid, e.getMessage());
         }
     }
+    
+    /**
+     * Fill the *_minor fields for documents written before minor-unit support.
+     * In minor-unit mode also rescales documents whose stored minor value no longer
+     * matches the DOUBLE field (DecimalPlaces changed). Transactions are backfilled
+     * on the IO thread after startup.
+     */
+    private void migrateMinorUnits() {
+        long factor = LedgerScale.getFactor();
+        Bson stale = LedgerScale.isMinorUnits()
+            ? Filters.or(Filters.exists("balance_minor", false),
+                Filters.expr(new Document("$ne", List.of("$balance_minor", minorExpr("$balance", factor)))))
+            : Filters.exists("balance_minor", false);
+        long migrated = balancesCollection.updateMany(stale, List.of(new Document("$set", new Document()
+            .append("balance_minor", minorExpr("$balance", factor))
+            .append("total_earned_minor", minorExpr("$total_earned", factor))
+            .append("total_spent_minor", minorExpr("$total_spent", factor))))).getModifiedCount();
+        if (migrated > 0) {
+            LOGGER.at(Level.INFO).log("Migrated %d balances to minor units (scale %d)", migrated, factor);
+        }
+        
+        executor.execute(() -> {
+            try {
+                long backfilled = transactionsCollection.updateMany(Filters.exists("amount_minor", false),
+                    List.of(new Document("$set", new Document("amount_minor", minorExpr("$amount", factor)))))
+                    .getModifiedCount();
+                if (backfilled > 0) {
+                    LOGGER.at(Level.INFO).log("Backfilled amount_minor for %d transactions", backfilled);
+                }
+            } catch (Exception e) {
+                LOGGER.at(Level.WARNING).log("Failed to backfill transaction minor units: %s", e.getMessage());
+            }
+        });
+    }
+    
+    /** Aggregation expression: round(field * factor) as a long, 0 if the field is missing. */
+    private static Document minorExpr(String field, long factor) {
+        return new Document("$toLong", new Document("$round", List.of(
+            new Document("$multiply", List.of(new Document("$ifNull", List.of(field, 0)), factor)), 0)));
+    }
+    
+    /** Restore a balance from a document, preferring the exact minor-unit field. */
+    private static void applyStoredBalance(Document doc, PlayerBalance pb, String reason) {
+        Object minor = doc.get("balance_minor");
+        if (LedgerScale.isMinorUnits() && minor instanceof Number n) {
+            pb.setBalanceMinor(n.longValue(), reason);
+        } else {
+            pb.setBalance(doc.getDouble("balance"), reason);
+        }
+    }
+    
+    /** Field to sort and rank by: exact minor units in minor-unit mode. */
+    private static String balanceOrderField() {
+        return LedgerScale.isMinorUnits() ? "balance_minor" : "balance";
+    }
     public void updatePlayerName(@Nonnull UUID playerUuid, @Nonnull String playerName) {
         CompletableFuture.runAsync(() -> {
             try {
@@ -147,7 +235,8 @@ public class MongoDBStorageProvider implements StorageProvider {
                     Filters.eq("uuid", playerUuid.toString()),
                     Updates.combine(
                         Updates.set("player_name", playerName),
-                        Updates.setOnInsert("balance", Main.CONFIG.get().getStartingBalance())
+                        Updates.setOnInsert("balance", Main.CONFIG.get().getStartingBalance()),
+                        Updates.setOnInsert("balance_minor", LedgerScale.toMinor(Main.CONFIG.get().getStartingBalance()))
                     ),
                     new com.mongodb.client.model.UpdateOptions().upsert(true)
                 );
@@ -223,7 +312,8 @@ public class MongoDBStorageProvider implements StorageProvider {
                     Filters.eq("uuid", playerUuid.toString()),
                     Updates.combine(
                         Updates.set("hud_visible", visible),
-                        Updates.setOnInsert("balance", Main.CONFIG.get().getStartingBalance())
+                        Updates.setOnInsert("balance", Main.CONFIG.get().getStartingBalance()),
+                        Updates.setOnInsert("balance_minor", LedgerScale.toMinor(Main.CONFIG.get().getStartingBalance()))
                     ),
                     new com.mongodb.client.model.UpdateOptions().upsert(true)
                 );
@@ -232,16 +322,17 @@ public class MongoDBStorageProvider implements StorageProvider {
             }
         }, executor);
     }
+    @Override
     public CompletableFuture<List<PlayerBalance>> getTopBalances(int limit) {
         return CompletableFuture.supplyAsync(() -> {
             List<PlayerBalance> result = new ArrayList<>();
             try {
                 for (Document doc : balancesCollection.find()
-                        .sort(Sorts.descending("balance"))
+                        .sort(Sorts.descending(balanceOrderField()))
                         .limit(limit)) {
                     UUID uuid = UUID.fromString(doc.getString("uuid"));
                     PlayerBalance pb = new PlayerBalance(uuid);
-                    pb.setBalance(doc.getDouble("balance"), "Top query");
+                    applyStoredBalance(doc, pb, "Top query");
                     result.add(pb);
                 }
             } catch (Exception e) {
@@ -251,12 +342,29 @@ public class MongoDBStorageProvider implements StorageProvider {
         }, executor);
     }
     
+    @Override
+    public CompletableFuture<Double> getTotalBalance() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Document total = balancesCollection.aggregate(List.of(
+                    Aggregates.group(null, Accumulators.sum("total", "$" + balanceOrderField()))
+                )).first();
+                if (total != null && total.get("total") instanceof Number n) {
+                    return LedgerScale.isMinorUnits() ? LedgerScale.fromMinor(n.longValue()) : n.doubleValue();
+                }
+            } catch (Exception e) {
+                LOGGER.at(Level.WARNING).log("Failed to sum balances: %s", e.getMessage());
+            }
+            return 0.0;
+        }, executor);
+    }
+    
     public CompletableFuture<List<TopBalanceEntry>> queryTopBalancesAsync(int limit, int offset) {
         return CompletableFuture.supplyAsync(() -> {
             List<TopBalanceEntry> result = new ArrayList<>();
             try {
                 for (Document doc : balancesCollection.find()
-                        .sort(Sorts.descending("balance"))
+                        .sort(Sorts.descending(balanceOrderField()))
                         .skip(offset)
                         .limit(limit)) {
                     UUID uuid = UUID.fromString(doc.getString("uuid"));
@@ -365,7 +473,9 @@ public class MongoDBStorageProvider implements StorageProvider {
     public CompletableFuture<Integer> countPlayersWithBalanceGreaterAsync(double balance) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                return (int) balancesCollection.countDocuments(Filters.gt("balance", balance));
+                return (int) balancesCollection.countDocuments(LedgerScale.isMinorUnits()
+                    ? Filters.gt("balance_minor", LedgerScale.toMinor(balance))
+                    : Filters.gt("balance", balance));
             } catch (Exception e) {
                 LOGGER.at(Level.WARNING).log("Failed to count balance rank: %s", e.getMessage());
                 return 0;
@@ -398,7 +508,7 @@ public class MongoDBStorageProvider implements StorageProvider {
                 for (Document doc : balancesCollection.find()) {
                     UUID uuid = UUID.fromString(doc.getString("uuid"));
                     PlayerBalance pb = new PlayerBalance(uuid);
-                    pb.setBalance(doc.getDouble("balance"), "Bulk load");
+                    applyStoredBalance(doc, pb, "Bulk load");
                     result.put(uuid, pb);
                 }
                 playerCount = result.size();
@@ -409,6 +519,24 @@ public class MongoDBStorageProvider implements StorageProvider {
         }, executor);
     }
     
+    @Override
+    public CompletableFuture<Void> forEachStored(@Nonnull Consumer<PlayerBalance> consumer) {
+        return CompletableFuture.runAsync(() -> {
+            int count = 0;
+            try {
+                for (Document doc : balancesCollection.find()) {
+                    PlayerBalance pb = new PlayerBalance(UUID.fromString(doc.getString("uuid")));
+                    applyStoredBalance(doc, pb, "Bulk load");
+                    consumer.accept(pb);
+                    count++;
+                }
+                playerCount = count;
+            } catch (Exception e) {
+                LOGGER.at(Level.SEVERE).log("Failed to stream balances: %s", e.getMessage());
+            }
+        }, executor);
+    }
+    
     @Override
     public CompletableFuture<Boolean> playerExists(@Nonnull UUID playerUuid) {
         return CompletableFuture.supplyAsync(() -> {
@@ -432,26 +560,153 @@ public class MongoDBStorageProvider implements StorageProvider {
         }, executor);
     }
     public void logTransaction(TransactionEntry entry) {
+        logTransactions(List.of(entry));
+    }
+    
+    /**
+     * Log several transactions with a single insertMany round trip.
+     */
+    public void logTransactions(List<TransactionEntry> entries) {
+        if (entries.isEmpty()) return;
         executor.execute(() -> {
             try {
-                Document doc = new Document()
-                    .append("timestamp", entry.timestamp().toEpochMilli())
-                    .append("type", entry.type().name())
-                    .append("source_uuid", entry.sourcePlayer() != null ? entry.sourcePlayer().toString() : null)
-                    .append("target_uuid", entry.targetPlayer() != null ? entry.targetPlayer().toString() : null)
-                    .append("player_name", entry.playerName())
-                    .append("amount", entry.amount())
-                    .append("created_at", new Date());
-                
-                transactionsCollection.insertOne(doc);
-                LOGGER.at(Level.INFO).log("Logged transaction to MongoDB: %s %s %.0f", 
-                    entry.type(), entry.playerName(), entry.amount());
+                writeTransactionsSync(entries);
+                LOGGER.at(Level.INFO).log("Logged %d transactions to MongoDB", entries.size());
             } catch (Exception e) {
-                LOGGER.at(Level.WARNING).log("Failed to log transaction: %s", e.getMessage());
+                LOGGER.at(Level.WARNING).log("Failed to log %d transactions: %s", entries.size(), e.getMessage());
             }
         });
     }
     
+    /**
+     * insertMany a batch on the caller's thread (the client is thread-safe).
+     * Used by TransactionLogWriter (group commit); throws so it can spill or retry.
+     */
+    public void writeTransactionsSync(List<TransactionEntry> entries) {
+        List<Document> docs = new ArrayList<>(entries.size());
+        for (TransactionEntry entry : entries) {
+            docs.add(entryToDocument(entry));
+        }
+        transactionsCollection.insertMany(docs);
+    }
+    
+    private Document entryToDocument(TransactionEntry entry) {
+        return new Document()
+            .append("timestamp", entry.timestamp().toEpochMilli())
+            .append("type", entry.type().name())
+            .append("source_uuid", entry.sourcePlayer() != null ? entry.sourcePlayer().toString() : null)
+            .append("target_uuid", entry.targetPlayer() != null ? entry.targetPlayer().toString() : null)
+            .append("player_name", entry.playerName())
+            .append("amount", entry.amount())
+            .append("amount_minor", entry.amountMinor())
+            .append("created_at", new Date());
+    }
+    
+    /**
+     * Add rollup deltas with one unordered bulk write per collection ($inc upserts).
+     * The two collections are not written atomically: a retry after a failed
+     * player write may count its type deltas twice.
+     */
+    public void writeRollupsSync(TransactionRollup rollup) {
+        UpdateOptions upsert = new UpdateOptions().upsert(true);
+        List<WriteModel<Document>> typeWrites = new ArrayList<>();
+        for (TransactionRollup.TypeTotal delta : rollup.typeDeltas()) {
+            typeWrites.add(new UpdateOneModel<>(
+                Filters.and(Filters.eq("period", delta.period().code()),
+                    Filters.eq("bucket_start", delta.bucketStart()),
+                    Filters.eq("type", delta.type().name())),
+                rollupUpdate(delta.period(), delta.bucketStart(),
+                    Updates.inc("tx_count", delta.count()),
+                    Updates.inc("amount_minor", delta.amountMinor())),
+                upsert));
+        }
+        List<WriteModel<Document>> playerWrites = new ArrayList<>();
+        for (TransactionRollup.PlayerTotal delta : rollup.playerDeltas()) {
+            playerWrites.add(new UpdateOneModel<>(
+                Filters.and(Filters.eq("period", delta.period().code()),
+                    Filters.eq("bucket_start", delta.bucketStart()),
+                    Filters.eq("uuid", delta.player().toString())),
+                rollupUpdate(delta.period(), delta.bucketStart(),
+                    Updates.inc("tx_count", delta.count()),
+                    Updates.inc("earned_minor", delta.earnedMinor()),
+                    Updates.inc("spent_minor", delta.spentMinor())),
+                upsert));
+        }
+        BulkWriteOptions unordered = new BulkWriteOptions().ordered(false);
+        if (!typeWrites.isEmpty()) {
+            rollupTypeCollection.bulkWrite(typeWrites, unordered);
+        }
+        if (!playerWrites.isEmpty()) {
+            rollupPlayerCollection.bulkWrite(playerWrites, unordered);
+        }
+    }
+    
+    /** The $inc updates, plus an expiry date for the TTL index on hourly documents (daily ones are kept). */
+    private static Bson rollupUpdate(TransactionRollup.Period period, long bucketStart, Bson... increments) {
+        List<Bson> updates = new ArrayList<>(List.of(increments));
+        if (period == TransactionRollup.Period.HOUR) {
+            updates.add(Updates.setOnInsert("expires_at",
+                new Date(bucketStart + TimeUnit.DAYS.toMillis(TransactionRollup.HOURLY_RETENTION_DAYS))));
+        }
+        return Updates.combine(updates);
+    }
+    
+    @Override
+    public CompletableFuture<List<TransactionRollup.TypeTotal>> queryTypeTotalsAsync(
+            @Nonnull TransactionRollup.Period period, long fromMillis, long toMillis) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<TransactionRollup.TypeTotal> results = new ArrayList<>();
+            try {
+                for (Document doc : rollupTypeCollection.aggregate(List.of(
+                        Aggregates.match(rollupRange(period, fromMillis, toMillis)),
+                        Aggregates.group("$type",
+                            Accumulators.sum("tx_count", "$tx_count"),
+                            Accumulators.sum("amount_minor", "$amount_minor"))))) {
+                    results.add(new TransactionRollup.TypeTotal(period, fromMillis,
+                        TransactionType.valueOf(doc.getString("_id")),
+                        ((Number) doc.get("tx_count")).longValue(),
+                        ((Number) doc.get("amount_minor")).longValue()));
+                }
+            } catch (Exception e) {
+                LOGGER.at(Level.WARNING).log("Failed to query transaction rollups: %s", e.getMessage());
+            }
+            return results;
+        }, executor);
+    }
+    
+    @Override
+    public CompletableFuture<List<TransactionRollup.PlayerTotal>> queryTopEarnersAsync(
+            @Nonnull TransactionRollup.Period period, long fromMillis, long toMillis, int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<TransactionRollup.PlayerTotal> results = new ArrayList<>();
+            try {
+                for (Document doc : rollupPlayerCollection.aggregate(List.of(
+                        Aggregates.match(rollupRange(period, fromMillis, toMillis)),
+                        Aggregates.group("$uuid",
+                            Accumulators.sum("tx_count", "$tx_count"),
+                            Accumulators.sum("earned_minor", "$earned_minor"),
+                            Accumulators.sum("spent_minor", "$spent_minor")),
+                        Aggregates.sort(Sorts.descending("earned_minor")),
+                        Aggregates.limit(limit)))) {
+                    results.add(new TransactionRollup.PlayerTotal(period, fromMillis,
+                        UUID.fromString(doc.getString("_id")),
+                        ((Number) doc.get("tx_count")).longValue(),
+                        ((Number) doc.get("earned_minor")).longValue(),
+                        ((Number) doc.get("spent_minor")).longValue()));
+                }
+            } catch (Exception e) {
+                LOGGER.at(Level.WARNING).log("Failed to query top earners: %s", e.getMessage());
+            }
+            return results;
+        }, executor);
+    }
+    
+    private static Bson rollupRange(TransactionRollup.Period period, long fromMillis, long toMillis) {
+        return Filters.and(Filters.eq("period", period.code()),
+            Filters.gte("bucket_start", period.bucketStart(fromMillis)),
+            Filters.lt("bucket_start", toMillis));
+    }
+    
     public CompletableFuture<List<TransactionEntry>> queryTransactionsAsync(String playerFilter, int limit, int offset) {
         return CompletableFuture.supplyAsync(() -> {
             List<TransactionEntry> results = new ArrayList<>();
@@ -473,13 +728,89 @@ public class MongoDBStorageProvider implements StorageProvider {
         }, executor);
     }
     
+    /**
+     * One keyset page of transactions, newest first.
+     * Seeks to the cursor in the (timestamp, _id) index, so every page costs the same.
+     *
+     * @param cursor A cursor of the previous page, or null for the newest page
+     * @param older True for the page older than the cursor, false for the newer one
+     */
+    @Override
+    public CompletableFuture<TransactionPage> queryTransactionPageAsync(String playerFilter, int limit,
+                                                                       TransactionPage.Cursor cursor, boolean older) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return transactionPage(playerFilter, limit, cursor, older);
+            } catch (Exception e) {
+                LOGGER.at(Level.WARNING).log("Failed to query transactions: %s", e.getMessage());
+                return TransactionPage.empty();
+            }
+        }, executor);
+    }
+    
+    private TransactionPage transactionPage(String playerFilter, int limit, TransactionPage.Cursor cursor, boolean older) {
+        if (cursor == null) {
+            older = true;
+        }
+        List<Bson> filters = new ArrayList<>(2);
+        if (playerFilter != null && !playerFilter.isEmpty()) {
+            filters.add(Filters.regex("player_name", "(?i).*" + playerFilter + ".*"));
+        }
+        if (cursor != null) {
+            long timestamp = cursor.timestamp();
+            ObjectId id = new ObjectId(cursor.id());
+            filters.add(older
+                ? Filters.or(Filters.lt("timestamp", timestamp), Filters.and(Filters.eq("timestamp", timestamp), Filters.lt("_id", id)))
+                : Filters.or(Filters.gt("timestamp", timestamp), Filters.and(Filters.eq("timestamp", timestamp), Filters.gt("_id", id))));
+        }
+        // One extra document tells whether another page follows
+        List<Document> docs = transactionsCollection.find(filters.isEmpty() ? Filters.empty() : Filters.and(filters))
+            .sort(older ? Sorts.descending("timestamp", "_id") : Sorts.ascending("timestamp", "_id"))
+            .limit(limit + 1)
+            .into(new ArrayList<>());
+        
+        if (!older) {
+            if (docs.size() <= limit) {
+                return transactionPage(playerFilter, limit, null, true); // Back at the newest page
+            }
+            docs = new ArrayList<>(docs.subList(0, limit));
+            Collections.reverse(docs);
+            return new TransactionPage(documentsToEntries(docs), cursorOf(docs.get(0)), cursorOf(docs.get(docs.size() - 1)));
+        }
+        boolean more = docs.size() > limit;
+        if (more) {
+            docs = docs.subList(0, limit);
+        }
+        TransactionPage.Cursor newer = cursor == null ? null : docs.isEmpty() ? cursor : cursorOf(docs.get(0));
+        TransactionPage.Cursor next = more ? cursorOf(docs.get(docs.size() - 1)) : null;
+        return new TransactionPage(documentsToEntries(docs), newer, next);
+    }
+    
+    private static TransactionPage.Cursor cursorOf(Document doc) {
+        return new TransactionPage.Cursor(0, doc.getLong("timestamp"), doc.getObjectId("_id").toHexString());
+    }
+    
+    private List<TransactionEntry> documentsToEntries(List<Document> docs) {
+        List<TransactionEntry> entries = new ArrayList<>(docs.size());
+        for (Document doc : docs) {
+            entries.add(documentToEntry(doc));
+        }
+        return entries;
+    }
+    
+    /**
+     * Count transactions matching the filter. The unfiltered total comes from the
+     * collection metadata (estimatedDocumentCount) instead of a scan.
+     */
+    @Override
     public CompletableFuture<Integer> countTransactionsAsync(String playerFilter) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                var query = playerFilter != null && !playerFilter.isEmpty()
-                    ? Filters.regex("player_name", "(?i).*" + playerFilter + ".*")
-                    : Filters.empty();
-                return (int) transactionsCollection.countDocuments(query);
+                if (playerFilter == null || playerFilter.isEmpty()) {
+                    return (int) Math.min(Integer.MAX_VALUE, transactionsCollection.estimatedDocumentCount());
+                }
+                return (int) transactionsCollection.countDocuments(
+                    Filters.regex("player_name", "(?i).*" + playerFilter + ".*"));
             } catch (Exception e) {
                 LOGGER.at(Level.WARNING).log("Failed to count transactions: %s", e.getMessage());
                 return 0;
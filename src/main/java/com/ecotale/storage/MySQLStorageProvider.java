@@ -2,9 +2,12 @@ package com.ecotale.storage;
 
 import com.ecotale.Main;
 import com.ecotale.config.EcotaleConfig;
+import com.ecotale.economy.LedgerScale;
 import com.ecotale.economy.PlayerBalance;
 import com.ecotale.economy.TopBalanceEntry;
 import com.ecotale.economy.TransactionEntry;
+import com.ecotale.economy.TransactionPage;
+import com.ecotale.economy.TransactionRollup;
 import com.ecotale.economy.TransactionType;
 import com.hypixel.hytale.logger.HytaleLogger;
 import com.zaxxer.hikari.HikariConfig;
@@ -20,6 +23,9 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 /**
@@ -41,8 +47,20 @@ public class MySQLStorageProvider implements StorageProvider {
         return t;
     });
     
+    /** Rows per UPDATE when backfilling minor-unit columns */
+    private static final int MIGRATION_BATCH_SIZE = 5000;
+    
+    /** Rows per DELETE when trimming expired transactions */
+    private static final int RETENTION_BATCH_SIZE = 2000;
+    
+    /** How long cached transaction counts and the partition list are trusted (other servers write too) */
+    private static final long PARTITION_CACHE_TTL_MS = 30_000;
+    
     private HikariDataSource dataSource;
     private String tablePrefix;
+    private TransactionPartitions partitions;
+    private TransactionRollupTables rollups;
+    private ScheduledExecutorService maintenance;
     private int playerCount = 0;
     
     @Override
@@ -51,6 +69,7 @@ public class MySQLStorageProvider implements StorageProvider {
             try {
                 EcotaleConfig config = Main.CONFIG.get();
                 tablePrefix = config.getMysqlTablePrefix();
+                rollups = new TransactionRollupTables(tablePrefix);
                 
                 String host = config.getMysqlHost();
                 int port = config.getMysqlPort();
@@ -88,6 +107,13 @@ public class MySQLStorageProvider implements StorageProvider {
                 dataSource = new HikariDataSource(hikariConfig);
                 
                 createTables();
+                migrateMinorUnits();
+                partitions = new TransactionPartitions(tablePrefix + "transactions", "LIMIT ?",
+                    MySQLStorageProvider::createTransactionPartition, PARTITION_CACHE_TTL_MS);
+                try (Connection conn = dataSource.getConnection()) {
+                    partitions.load(conn);
+                }
+                startMaintenance();
                 
                 try (Connection conn = dataSource.getConnection();
                      Statement stmt = conn.createStatement();
@@ -139,6 +165,9 @@ public class MySQLStorageProvider implements StorageProvider {
                 )
                 """.formatted(tablePrefix));
             
+            // Hourly/daily transaction rollups
+            rollups.createTables(stmt);
+            
             // Balance snapshots table for trends
             stmt.execute("""
                 CREATE TABLE IF NOT EXISTS %sbalance_snapshots (
@@ -157,19 +186,190 @@ public class MySQLStorageProvider implements StorageProvider {
             } catch (SQLException ignored) {
                 // Column already exists
             }
+            
+            // Migration: fixed-point minor-unit columns (always written, read when LedgerMode = "minor")
+            try {
+                stmt.execute("ALTER TABLE " + tablePrefix + "balances ADD COLUMN balance_minor BIGINT, "
+                    + "ADD COLUMN total_earned_minor BIGINT, ADD COLUMN total_spent_minor BIGINT, "
+                    + "ADD INDEX idx_balance_minor (balance_minor DESC)");
+            } catch (SQLException ignored) {
+                // Columns already exist
+            }
+            try {
+                stmt.execute("ALTER TABLE " + tablePrefix + "transactions ADD COLUMN amount_minor BIGINT");
+            } catch (SQLException ignored) {
+                // Column already exists
+            }
+        }
+    }
+    
+    /**
+     * Create one monthly transaction partition (see TransactionPartitions).
+     */
+    private static void createTransactionPartition(Statement stmt, String table) throws SQLException {
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS %s (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                timestamp BIGINT NOT NULL,
+                type VARCHAR(20) NOT NULL,
+                source_uuid VARCHAR(36),
+                target_uuid VARCHAR(36),
+                player_name VARCHAR(64),
+                amount DOUBLE,
+                amount_minor BIGINT,
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                INDEX idx_timestamp (timestamp DESC, id DESC),
+                INDEX idx_player (player_name)
+            )
+            """.formatted(table));
+    }
+    
+    /**
+     * Schedule the periodic retention pass and hourly rollup pruning.
+     * The scheduler only queues the work; it runs on the IO thread like everything else.
+     */
+    private void startMaintenance() {
+        long interval = Math.max(1, Main.CONFIG.get().getTransactionMaintenanceMinutes());
+        maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Ecotale-MySQL-Maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        maintenance.scheduleWithFixedDelay(() -> executor.execute(() -> trimExpiredTransactions(0)),
+            interval, interval, TimeUnit.MINUTES);
+    }
+    
+    /**
+     * Retention pass: one small batch per IO task, so saves and log pages are
+     * served between batches and no DELETE holds row locks for long.
+     */
+    private void trimExpiredTransactions(long removedSoFar) {
+        if (removedSoFar == 0) {
+            pruneHourlyRollups();
+        }
+        int retentionDays = Main.CONFIG.get().getTransactionRetentionDays();
+        if (retentionDays <= 0) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+        long removed = 0;
+        try (Connection conn = dataSource.getConnection()) {
+            removed = partitions.removeExpired(conn, cutoff, RETENTION_BATCH_SIZE);
+        } catch (SQLException e) {
+            LOGGER.at(Level.WARNING).log("Failed to remove expired transactions: %s", e.getMessage());
+        }
+        if (removed > 0 && !executor.isShutdown()) {
+            long total = removedSoFar + removed;
+            executor.execute(() -> trimExpiredTransactions(total));
+        } else if (removedSoFar > 0) {
+            LOGGER.at(Level.INFO).log("Removed %d transactions older than %d days", removedSoFar, retentionDays);
         }
     }
+    
+    private void pruneHourlyRollups() {
+        try (Connection conn = dataSource.getConnection()) {
+            rollups.pruneHourly(conn,
+                System.currentTimeMillis() - TimeUnit.DAYS.toMillis(TransactionRollup.HOURLY_RETENTION_DAYS));
+        } catch (SQLException e) {
+            LOGGER.at(Level.WARNING).log("Failed to prune hourly rollups: %s", e.getMessage());
+        }
+    }
+    
+    /**
+     * Online migration for the minor-unit columns.
+     * Balances: fills missing rows; in minor mode also recomputes rows written at
+     * another scale, which covers a DecimalPlaces change. Idempotent.
+     * Transactions: backfilled after startup one batch per IO task, so saves and
+     * loads are served between batches.
+     */
+    private void migrateMinorUnits() throws SQLException {
+        long factor = LedgerScale.getFactor();
+        String sql = """
+            UPDATE %sbalances SET
+                balance_minor = ROUND(balance * ?),
+                total_earned_minor = ROUND(total_earned * ?),
+                total_spent_minor = ROUND(total_spent * ?)
+            WHERE balance_minor IS NULL OR (? AND balance_minor <> ROUND(balance * ?))
+            """.formatted(tablePrefix);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, factor);
+            ps.setLong(2, factor);
+            ps.setLong(3, factor);
+            ps.setBoolean(4, LedgerScale.isMinorUnits());
+            ps.setLong(5, factor);
+            int updated = ps.executeUpdate();
+            if (updated > 0) {
+                LOGGER.at(Level.INFO).log("Migrated %d balances to minor units (scale %d)", updated, LedgerScale.getDecimalPlaces());
+            }
+        }
+        executor.execute(() -> backfillTransactionMinorUnits(0));
+    }
+    
+    /**
+     * Backfill one batch, then queue the next one behind whatever else is waiting.
+     */
+    private void backfillTransactionMinorUnits(long updatedSoFar) {
+        String sql = "UPDATE " + tablePrefix + "transactions SET amount_minor = ROUND(amount * ?) WHERE amount_minor IS NULL LIMIT ?";
+        int updated = 0;
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, LedgerScale.getFactor());
+            ps.setInt(2, MIGRATION_BATCH_SIZE);
+            updated = ps.executeUpdate();
+        } catch (SQLException e) {
+            LOGGER.at(Level.WARNING).log("Failed to backfill transaction minor units: %s", e.getMessage());
+        }
+        long total = updatedSoFar + updated;
+        if (updated == MIGRATION_BATCH_SIZE && !executor.isShutdown()) {
+            executor.execute(() -> backfillTransactionMinorUnits(total));
+        } else if (total > 0) {
+            LOGGER.at(Level.INFO).log("Backfilled minor units for %d transactions", total);
+        }
+    }
+    
+    /**
+     * Apply a stored balance row to a PlayerBalance, preferring the exact
+     * minor-unit column in minor mode (falls back to DOUBLE for unmigrated rows).
+     */
+    private static void applyStoredBalance(ResultSet rs, PlayerBalance pb, String reason) throws SQLException {
+        if (LedgerScale.isMinorUnits()) {
+            long minor = rs.getLong("balance_minor");
+            if (!rs.wasNull()) {
+                pb.setBalanceMinor(minor, reason);
+                return;
+            }
+        }
+        pb.setBalance(rs.getDouble("balance"), reason);
+    }
+    
+    /**
+     * Bind balance, totals and their minor-unit columns (6 parameters from startIndex).
+     */
+    private static void bindBalance(PreparedStatement ps, int startIndex, PlayerBalance balance) throws SQLException {
+        ps.setDouble(startIndex, balance.getBalance());
+        ps.setDouble(startIndex + 1, balance.getTotalEarned());
+        ps.setDouble(startIndex + 2, balance.getTotalSpent());
+        ps.setLong(startIndex + 3, balance.getBalanceMinor());
+        ps.setLong(startIndex + 4, balance.getTotalEarnedMinor());
+        ps.setLong(startIndex + 5, balance.getTotalSpentMinor());
+    }
+    
+    /** Column to sort balances by: BIGINT in minor mode, DOUBLE otherwise. */
+    private static String balanceOrderColumn() {
+        return LedgerScale.isMinorUnits() ? "balance_minor" : "balance";
+    }
     @Override
     public CompletableFuture<PlayerBalance> loadPlayer(@Nonnull UUID playerUuid) {
         return CompletableFuture.supplyAsync(() -> {
             try (Connection conn = dataSource.getConnection()) {
-                String sql = "SELECT balance, total_earned, total_spent FROM " + tablePrefix + "balances WHERE uuid = ?";
+                String sql = "SELECT balance, balance_minor, total_earned, total_spent FROM " + tablePrefix + "balances WHERE uuid = ?";
                 try (PreparedStatement ps = conn.prepareStatement(sql)) {
                     ps.setString(1, playerUuid.toString());
                     try (ResultSet rs = ps.executeQuery()) {
                         if (rs.next()) {
                             PlayerBalance pb = new PlayerBalance(playerUuid);
-                            pb.setBalance(rs.getDouble("balance"), "Loaded from MySQL");
+                            applyStoredBalance(rs, pb, "Loaded from MySQL");
                             return pb;
                         }
                     }
@@ -195,20 +395,22 @@ public class MySQLStorageProvider implements StorageProvider {
     private void savePlayerSync(UUID playerUuid, PlayerBalance balance) {
         try (Connection conn = dataSource.getConnection()) {
             String sql = """
-                INSERT INTO %sbalances (uuid, balance, total_earned, total_spent, updated_at)
-                VALUES (?, ?, ?, ?, NOW())
+                INSERT INTO %sbalances (uuid, balance, total_earned, total_spent,
+                    balance_minor, total_earned_minor, total_spent_minor, updated_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, NOW())
                 ON DUPLICATE KEY UPDATE 
                     balance = VALUES(balance),
                     total_earned = VALUES(total_earned),
                     total_spent = VALUES(total_spent),
+                    balance_minor = VALUES(balance_minor),
+                    total_earned_minor = VALUES(total_earned_minor),
+                    total_spent_minor = VALUES(total_spent_minor),
                     updated_at = NOW()
                 """.formatted(tablePrefix);
             
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
                 ps.setString(1, playerUuid.toString());
-                ps.setDouble(2, balance.getBalance());
-                ps.setDouble(3, balance.getTotalEarned());
-                ps.setDouble(4, balance.getTotalSpent());
+                bindBalance(ps, 2, balance);
                 ps.executeUpdate();
             }
         } catch (SQLException e) {
@@ -334,18 +536,20 @@ public class MySQLStorageProvider implements StorageProvider {
             }
         }, executor);
     }
+    @Override
     public CompletableFuture<List<PlayerBalance>> getTopBalances(int limit) {
         return CompletableFuture.supplyAsync(() -> {
             List<PlayerBalance> result = new ArrayList<>();
             try (Connection conn = dataSource.getConnection()) {
-                String sql = "SELECT uuid, balance FROM " + tablePrefix + "balances ORDER BY balance DESC LIMIT ?";
+                String sql = "SELECT uuid, balance, balance_minor FROM " + tablePrefix + "balances ORDER BY "
+                    + balanceOrderColumn() + " DESC LIMIT ?";
                 try (PreparedStatement ps = conn.prepareStatement(sql)) {
                     ps.setInt(1, limit);
                     try (ResultSet rs = ps.executeQuery()) {
                         while (rs.next()) {
                             UUID uuid = UUID.fromString(rs.getString("uuid"));
                             PlayerBalance pb = new PlayerBalance(uuid);
-                            pb.setBalance(rs.getDouble("balance"), "Top query");
+                            applyStoredBalance(rs, pb, "Top query");
                             result.add(pb);
                         }
                     }
@@ -356,13 +560,30 @@ public class MySQLStorageProvider implements StorageProvider {
             return result;
         }, executor);
     }
+
+    @Override
+    public CompletableFuture<Double> getTotalBalance() {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT SUM(" + balanceOrderColumn() + ") FROM " + tablePrefix + "balances";
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql);
+                 ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return LedgerScale.isMinorUnits() ? LedgerScale.fromMinor(rs.getLong(1)) : rs.getDouble(1);
+                }
+            } catch (SQLException e) {
+                LOGGER.at(Level.WARNING).log("Failed to sum balances: %s", e.getMessage());
+            }
+            return 0.0;
+        }, executor);
+    }
     
     public CompletableFuture<List<TopBalanceEntry>> queryTopBalancesAsync(int limit, int offset) {
         return CompletableFuture.supplyAsync(() -> {
             List<TopBalanceEntry> result = new ArrayList<>();
             try (Connection conn = dataSource.getConnection()) {
                 String sql = "SELECT uuid, player_name, balance FROM " + tablePrefix + 
-                    "balances ORDER BY balance DESC LIMIT ? OFFSET ?";
+                    "balances ORDER BY " + balanceOrderColumn() + " DESC LIMIT ? OFFSET ?";
                 try (PreparedStatement ps = conn.prepareStatement(sql)) {
                     ps.setInt(1, limit);
                     ps.setInt(2, offset);
@@ -458,9 +679,14 @@ public class MySQLStorageProvider implements StorageProvider {
     public CompletableFuture<Integer> countPlayersWithBalanceGreaterAsync(double balance) {
         return CompletableFuture.supplyAsync(() -> {
             try (Connection conn = dataSource.getConnection()) {
-                String sql = "SELECT COUNT(*) AS total FROM " + tablePrefix + "balances WHERE balance > ?";
+                String sql = "SELECT COUNT(*) AS total FROM " + tablePrefix + "balances WHERE "
+                    + balanceOrderColumn() + " > ?";
                 try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                    ps.setDouble(1, balance);
+                    if (LedgerScale.isMinorUnits()) {
+                        ps.setLong(1, LedgerScale.toMinor(balance));
+                    } else {
+                        ps.setDouble(1, balance);
+                    }
                     try (ResultSet rs = ps.executeQuery()) {
                         if (rs.next()) {
                             return rs.getInt("total");
@@ -484,20 +710,22 @@ public class MySQLStorageProvider implements StorageProvider {
         try (Connection conn = dataSource.getConnection()) {
             conn.setAutoCommit(false);
             String sql = """
-                INSERT INTO %sbalances (uuid, balance, total_earned, total_spent, updated_at) 
-                VALUES (?, ?, ?, ?, NOW())
+                INSERT INTO %sbalances (uuid, balance, total_earned, total_spent,
+                    balance_minor, total_earned_minor, total_spent_minor, updated_at) 
+                VALUES (?, ?, ?, ?, ?, ?, ?, NOW())
                 ON DUPLICATE KEY UPDATE 
                     balance = VALUES(balance),
                     total_earned = VALUES(total_earned),
                     total_spent = VALUES(total_spent),
+                    balance_minor = VALUES(balance_minor),
+                    total_earned_minor = VALUES(total_earned_minor),
+                    total_spent_minor = VALUES(total_spent_minor),
                     updated_at = NOW()
                 """.formatted(tablePrefix);
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
                 for (var entry : dirtyPlayers.entrySet()) {
                     ps.setString(1, entry.getKey().toString());
-                    ps.setDouble(2, entry.getValue().getBalance());
-                    ps.setDouble(3, entry.getValue().getTotalEarned());
-                    ps.setDouble(4, entry.getValue().getTotalSpent());
+                    bindBalance(ps, 2, entry.getValue());
                     ps.addBatch();
                 }
                 ps.executeBatch();
@@ -514,13 +742,13 @@ public class MySQLStorageProvider implements StorageProvider {
         return CompletableFuture.supplyAsync(() -> {
             Map<UUID, PlayerBalance> result = new HashMap<>();
             try (Connection conn = dataSource.getConnection()) {
-                String sql = "SELECT uuid, balance, total_earned, total_spent FROM " + tablePrefix + "balances";
+                String sql = "SELECT uuid, balance, balance_minor, total_earned, total_spent FROM " + tablePrefix + "balances";
                 try (Statement stmt = conn.createStatement();
                      ResultSet rs = stmt.executeQuery(sql)) {
                     while (rs.next()) {
                         UUID uuid = UUID.fromString(rs.getString("uuid"));
                         PlayerBalance pb = new PlayerBalance(uuid);
-                        pb.setBalance(rs.getDouble("balance"), "Bulk load");
+                        applyStoredBalance(rs, pb, "Bulk load");
                         result.put(uuid, pb);
                     }
                 }
@@ -532,6 +760,30 @@ public class MySQLStorageProvider implements StorageProvider {
         }, executor);
     }
     
+    @Override
+    public CompletableFuture<Void> forEachStored(@Nonnull Consumer<PlayerBalance> consumer) {
+        return CompletableFuture.runAsync(() -> {
+            int count = 0;
+            try (Connection conn = dataSource.getConnection()) {
+                String sql = "SELECT uuid, balance, balance_minor, total_earned, total_spent FROM " + tablePrefix + "balances";
+                try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    stmt.setFetchSize(Integer.MIN_VALUE); // MySQL driver: stream rows instead of buffering the table
+                    try (ResultSet rs = stmt.executeQuery(sql)) {
+                        while (rs.next()) {
+                            PlayerBalance pb = new PlayerBalance(UUID.fromString(rs.getString("uuid")));
+                            applyStoredBalance(rs, pb, "Bulk load");
+                            consumer.accept(pb);
+                            count++;
+                        }
+                    }
+                }
+                playerCount = count;
+            } catch (SQLException e) {
+                LOGGER.at(Level.SEVERE).log("Failed to stream balances: %s", e.getMessage());
+            }
+        }, executor);
+    }
+    
     @Override
     public CompletableFuture<Boolean> playerExists(@Nonnull UUID playerUuid) {
         return CompletableFuture.supplyAsync(() -> {
@@ -565,88 +817,111 @@ public class MySQLStorageProvider implements StorageProvider {
         }, executor);
     }
     public void logTransaction(TransactionEntry entry) {
+        logTransactions(List.of(entry));
+    }
+    
+    /**
+     * Log several transactions as one multi-row insert (one IO task, one JDBC batch).
+     */
+    public void logTransactions(List<TransactionEntry> entries) {
+        if (entries.isEmpty()) return;
         executor.execute(() -> {
-            try (Connection conn = dataSource.getConnection()) {
-                String sql = """
-                    INSERT INTO %stransactions (timestamp, type, source_uuid, target_uuid, player_name, amount)
-                    VALUES (?, ?, ?, ?, ?, ?)
-                    """.formatted(tablePrefix);
-                try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                    ps.setLong(1, entry.timestamp().toEpochMilli());
-                    ps.setString(2, entry.type().name());
-                    ps.setString(3, entry.sourcePlayer() != null ? entry.sourcePlayer().toString() : null);
-                    ps.setString(4, entry.targetPlayer() != null ? entry.targetPlayer().toString() : null);
-                    ps.setString(5, entry.playerName());
-                    ps.setDouble(6, entry.amount());
-                    ps.executeUpdate();
-                }
+            try {
+                writeTransactionsSync(entries);
             } catch (SQLException e) {
-                LOGGER.at(Level.WARNING).log("Failed to log transaction: %s", e.getMessage());
+                LOGGER.at(Level.WARNING).log("Failed to log %d transactions: %s", entries.size(), e.getMessage());
             }
         });
     }
     
+    /**
+     * Insert a batch on the caller's thread with a pooled connection.
+     * Used by TransactionLogWriter (group commit); all or nothing, throws so it can spill or retry.
+     */
+    public void writeTransactionsSync(List<TransactionEntry> entries) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            partitions.insert(conn, entries);
+        }
+    }
+    
+    /**
+     * Add rollup deltas with a pooled connection (see TransactionLogWriter).
+     */
+    public void writeRollupsSync(TransactionRollup rollup) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            rollups.write(conn, rollup);
+        }
+    }
+    
+    @Override
+    public CompletableFuture<List<TransactionRollup.TypeTotal>> queryTypeTotalsAsync(
+            @Nonnull TransactionRollup.Period period, long fromMillis, long toMillis) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection conn = dataSource.getConnection()) {
+                return rollups.queryTypes(conn, period, fromMillis, toMillis);
+            } catch (SQLException e) {
+                LOGGER.at(Level.WARNING).log("Failed to query transaction rollups: %s", e.getMessage());
+                return List.<TransactionRollup.TypeTotal>of();
+            }
+        }, executor);
+    }
+    
+    @Override
+    public CompletableFuture<List<TransactionRollup.PlayerTotal>> queryTopEarnersAsync(
+            @Nonnull TransactionRollup.Period period, long fromMillis, long toMillis, int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection conn = dataSource.getConnection()) {
+                return rollups.queryTopEarners(conn, period, fromMillis, toMillis, limit);
+            } catch (SQLException e) {
+                LOGGER.at(Level.WARNING).log("Failed to query top earners: %s", e.getMessage());
+                return List.<TransactionRollup.PlayerTotal>of();
+            }
+        }, executor);
+    }
+    
+    /**
+     * Query transactions, newest first; only the monthly partitions the page falls in are read.
+     */
     public CompletableFuture<List<TransactionEntry>> queryTransactionsAsync(String playerFilter, int limit, int offset) {
         return CompletableFuture.supplyAsync(() -> {
-            List<TransactionEntry> results = new ArrayList<>();
             try (Connection conn = dataSource.getConnection()) {
-                String sql;
-                if (playerFilter != null && !playerFilter.isEmpty()) {
-                    sql = """
-                        SELECT * FROM %stransactions 
-                        WHERE LOWER(player_name) LIKE ? 
-                        ORDER BY timestamp DESC 
-                        LIMIT ? OFFSET ?
-                        """.formatted(tablePrefix);
-                } else {
-                    sql = """
-                        SELECT * FROM %stransactions 
-                        ORDER BY timestamp DESC 
-                        LIMIT ? OFFSET ?
-                        """.formatted(tablePrefix);
-                }
-                
-                try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                    int paramIndex = 1;
-                    if (playerFilter != null && !playerFilter.isEmpty()) {
-                        ps.setString(paramIndex++, "%" + playerFilter.toLowerCase() + "%");
-                    }
-                    ps.setInt(paramIndex++, limit);
-                    ps.setInt(paramIndex, offset);
-                    
-                    try (ResultSet rs = ps.executeQuery()) {
-                        while (rs.next()) {
-                            results.add(resultSetToEntry(rs));
-                        }
-                    }
-                }
+                return partitions.query(conn, playerFilter, limit, offset, this::resultSetToEntry);
             } catch (SQLException e) {
                 LOGGER.at(Level.WARNING).log("Failed to query transactions: %s", e.getMessage());
+                return new ArrayList<TransactionEntry>();
             }
-            return results;
         }, executor);
     }
     
+    /**
+     * One keyset page of transactions, newest first.
+     * Seeks to the cursor in the (timestamp, id) index, so every page costs the same.
+     *
+     * @param cursor A cursor of the previous page, or null for the newest page
+     * @param older True for the page older than the cursor, false for the newer one
+     */
+    @Override
+    public CompletableFuture<TransactionPage> queryTransactionPageAsync(String playerFilter, int limit,
+                                                                       TransactionPage.Cursor cursor, boolean older) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection conn = dataSource.getConnection()) {
+                return partitions.page(conn, playerFilter, limit, cursor, older, this::resultSetToEntry);
+            } catch (SQLException | NumberFormatException e) {
+                LOGGER.at(Level.WARNING).log("Failed to query transactions: %s", e.getMessage());
+                return TransactionPage.empty();
+            }
+        }, executor);
+    }
+    
+    /**
+     * Count transactions matching the filter from per-partition counts;
+     * only partitions written since the last count are scanned.
+     */
+    @Override
     public CompletableFuture<Integer> countTransactionsAsync(String playerFilter) {
         return CompletableFuture.supplyAsync(() -> {
             try (Connection conn = dataSource.getConnection()) {
-                String sql;
-                if (playerFilter != null && !playerFilter.isEmpty()) {
-                    sql = "SELECT COUNT(*) FROM " + tablePrefix + "transactions WHERE LOWER(player_name) LIKE ?";
-                } else {
-                    sql = "SELECT COUNT(*) FROM " + tablePrefix + "transactions";
-                }
-                
-                try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                    if (playerFilter != null && !playerFilter.isEmpty()) {
-                        ps.setString(1, "%" + playerFilter.toLowerCase() + "%");
-                    }
-                    try (ResultSet rs = ps.executeQuery()) {
-                        if (rs.next()) {
-                            return rs.getInt(1);
-                        }
-                    }
-                }
+                return (int) Math.min(Integer.MAX_VALUE, partitions.count(conn, playerFilter));
             } catch (SQLException e) {
                 LOGGER.at(Level.WARNING).log("Failed to count transactions: %s", e.getMessage());
             }
@@ -675,6 +950,9 @@ public class MySQLStorageProvider implements StorageProvider {
     }
     @Override
     public CompletableFuture<Void> shutdown() {
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
         executor.shutdown();
         
         LOGGER.at(Level.INFO).log("MySQL shutdown: closing HikariCP pool...");
@@ -1,11 +1,15 @@
 package com.ecotale.storage;
 
 import com.ecotale.economy.PlayerBalance;
+import com.ecotale.economy.TransactionPage;
+import com.ecotale.economy.TransactionRollup;
 
 import javax.annotation.Nonnull;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Storage provider interface for economy data persistence.
@@ -28,7 +32,8 @@ public interface StorageProvider {
     
     /**
      * Load a player's balance from storage.
-     * Creates a new account with starting balance if not exists.
+     * Creates and stores a new account with starting balance if not exists,
+     * so the returned balance always matches what is stored.
      * 
      * @param playerUuid The player's UUID
      * @return The player's balance data
@@ -52,6 +57,71 @@ public interface StorageProvider {
      */
     CompletableFuture<Void> saveAll(@Nonnull Map<UUID, PlayerBalance> dirtyPlayers);
     
+    /**
+     * Highest stored balances, descending.
+     * Default implementation scans loadAll(); database providers use an indexed query.
+     * 
+     * @param limit Maximum number of entries to return
+     */
+    default CompletableFuture<List<PlayerBalance>> getTopBalances(int limit) {
+        return loadAll().thenApply(all -> all.values().stream()
+            .sorted((a, b) -> Long.compare(b.getBalanceSortKey(), a.getBalanceSortKey()))
+            .limit(limit)
+            .toList());
+    }
+    
+    /**
+     * Sum of all stored balances (money in circulation as of the last save).
+     * Default implementation scans loadAll(); database providers aggregate in the database.
+     */
+    default CompletableFuture<Double> getTotalBalance() {
+        return loadAll().thenApply(all -> all.values().stream()
+            .mapToDouble(PlayerBalance::getBalance)
+            .sum());
+    }
+    
+    /**
+     * Per-type transaction totals (count, amount) of the rollup buckets starting
+     * in [fromMillis, toMillis). Reads the hourly/daily rollups, never raw rows.
+     * Default: no transaction log, empty list.
+     */
+    default CompletableFuture<List<TransactionRollup.TypeTotal>> queryTypeTotalsAsync(
+            @Nonnull TransactionRollup.Period period, long fromMillis, long toMillis) {
+        return CompletableFuture.completedFuture(List.of());
+    }
+    
+    /**
+     * Players who earned the most in the rollup buckets starting in
+     * [fromMillis, toMillis), highest first. Default: empty list.
+     */
+    default CompletableFuture<List<TransactionRollup.PlayerTotal>> queryTopEarnersAsync(
+            @Nonnull TransactionRollup.Period period, long fromMillis, long toMillis, int limit) {
+        return CompletableFuture.completedFuture(List.of());
+    }
+    
+    /**
+     * One keyset page of the transaction log, newest first.
+     * Default: no transaction log, empty page.
+     * 
+     * @param playerFilter Case-insensitive name substring, or null for all
+     * @param cursor A cursor of the previous page, or null for the newest page
+     * @param older True for the page older than the cursor, false for the newer one
+     */
+    default CompletableFuture<TransactionPage> queryTransactionPageAsync(String playerFilter, int limit,
+                                                                         TransactionPage.Cursor cursor, boolean older) {
+        return CompletableFuture.completedFuture(TransactionPage.empty());
+    }
+    
+    /**
+     * Count the logged transactions matching a filter.
+     * 
+     * @param playerFilter Case-insensitive name substring, or null for all
+     * @return The count, or null if this storage keeps no transaction log (the default)
+     */
+    default CompletableFuture<Integer> countTransactionsAsync(String playerFilter) {
+        return CompletableFuture.completedFuture(null);
+    }
+    
     /**
      * Load all player balances.
      * Used for leaderboards and startup migration.
@@ -60,6 +130,17 @@ public interface StorageProvider {
      */
     CompletableFuture<Map<UUID, PlayerBalance>> loadAll();
     
+    /**
+     * Stream every stored balance to a consumer without building a map of all of them.
+     * Used to fill the columnar account store at startup.
+     * Default implementation goes through loadAll(); database providers read row by row.
+     * 
+     * @param consumer Called once per stored account, on the storage thread
+     */
+    default CompletableFuture<Void> forEachStored(@Nonnull Consumer<PlayerBalance> consumer) {
+        return loadAll().thenAccept(all -> all.values().forEach(consumer));
+    }
+    
     /**
      * Check if a player has saved data.
      * 
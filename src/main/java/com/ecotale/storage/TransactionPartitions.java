@@ -0,0 +1,531 @@
+package com.ecotale.storage;
+
+import com.ecotale.economy.TransactionEntry;
+import com.ecotale.economy.TransactionPage;
+import com.ecotale.economy.TransactionPage.Cursor;
+
+import javax.annotation.Nonnull;
+import java.sql.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Monthly partitions of the SQL transaction log (H2 and MySQL).
+ *
+ * New transactions go to one table per UTC month (transactions_202610, ...),
+ * created on first use with the same columns as the original table. The
+ * original single table stays readable as the oldest partition; retention
+ * empties it over time and nothing new is written to it.
+ *
+ * Admin log pages walk the partitions newest first and only query the ones
+ * the page falls in, skipping the others by their row count. Keyset pages
+ * (page()) seek to a cursor instead: the log is ordered by (partition,
+ * timestamp, id) and a page reads its rows from the (timestamp, id) index of
+ * the cursor's partition onwards, whatever its depth. Counts are
+ * cached per partition and filter: inserts and deletes adjust the unfiltered
+ * count and drop the filtered ones, so a warm total costs no scan at all and
+ * a filtered count only rescans the partitions written since.
+ *
+ * A shared backend (MySQL behind several servers) is also written and trimmed
+ * by the other servers, which this cache never hears of. There, cached counts
+ * expire after a TTL and the partition list is re-read from the schema on the
+ * same period, and right away when a cursor names an unknown partition or a
+ * statement fails.
+ *
+ * Retention drops whole expired partitions (instant) and trims the boundary
+ * partition and the original table in small DELETE batches.
+ *
+ * Thread-safe; callers pass the connection to use and run on their IO threads.
+ */
+final class TransactionPartitions {
+
+    /** Creates a partition table and its indexes (the dialects differ). */
+    @FunctionalInterface
+    interface TableDdl {
+        void create(Statement stmt, String table) throws SQLException;
+    }
+
+    /** Maps one row of a partition to an entry. */
+    @FunctionalInterface
+    interface RowMapper {
+        TransactionEntry map(ResultSet rs) throws SQLException;
+    }
+
+    /** An entry read for a keyset page, with its key. */
+    private record Keyed(TransactionEntry entry, Cursor key) {}
+
+    /** Most filtered counts cached per partition before they are all dropped */
+    private static final int MAX_CACHED_FILTERS = 64;
+    private static final String UNFILTERED = "";
+
+    /** A cached row count and when it was counted (System.nanoTime). */
+    private record CachedCount(long rows, long countedAt) {}
+
+    /**
+     * One table and its cached counts.
+     * Writers bump the version around each change; a count is only cached if no
+     * write overlapped its query.
+     */
+    private static final class Partition {
+        final String table;
+        final int month; // yyyyMM, 0 for the original table
+        final AtomicLong version = new AtomicLong();
+        final AtomicInteger writers = new AtomicInteger();
+        final Map<String, CachedCount> counts = new ConcurrentHashMap<>(); // filter -> rows
+
+        Partition(String table, int month) {
+            this.table = table;
+            this.month = month;
+        }
+
+        void beginWrite() {
+            writers.incrementAndGet();
+            version.incrementAndGet();
+        }
+
+        /**
+         * @param delta Rows added (negative when deleted), or null if unknown (failed write)
+         */
+        void endWrite(Long delta) {
+            if (delta == null) {
+                counts.clear();
+            } else {
+                counts.keySet().removeIf(filter -> !filter.equals(UNFILTERED));
+                counts.computeIfPresent(UNFILTERED, (k, cached) -> new CachedCount(cached.rows + delta, cached.countedAt));
+            }
+            version.incrementAndGet();
+            writers.decrementAndGet();
+        }
+    }
+
+    private final String baseTable;
+    private final String deleteLimitClause;
+    private final TableDdl ddl;
+    private final Partition legacy;
+    private final ConcurrentSkipListMap<Integer, Partition> months = new ConcurrentSkipListMap<>();
+    private final long sharedTtlNanos;
+    private volatile long loadedAt;
+    private volatile boolean stale = true;
+
+    /**
+     * @param baseTable Original table name (with prefix); partitions are named baseTable_yyyyMM
+     * @param deleteLimitClause Dialect clause bounding a DELETE, with one parameter ("LIMIT ?")
+     * @param ddl Creates a partition table
+     * @param sharedTtlMillis For a backend other servers write too: how long cached counts and the
+     *                        partition list are trusted. 0 when this process is the only writer.
+     */
+    TransactionPartitions(@Nonnull String baseTable, @Nonnull String deleteLimitClause, @Nonnull TableDdl ddl,
+                          long sharedTtlMillis) {
+        this.baseTable = baseTable;
+        this.deleteLimitClause = deleteLimitClause;
+        this.ddl = ddl;
+        this.legacy = new Partition(baseTable, 0);
+        this.sharedTtlNanos = Math.max(0, sharedTtlMillis) * 1_000_000L;
+    }
+
+    /**
+     * (Re-)read the partition tables that exist: register new ones and forget the
+     * ones dropped since. Call once after the schema is created; shared backends
+     * call it again on their own.
+     */
+    void load(@Nonnull Connection conn) throws SQLException {
+        Pattern name = Pattern.compile(Pattern.quote(baseTable) + "_(\\d{6})", Pattern.CASE_INSENSITIVE);
+        synchronized (this) { // Against ensure(): a partition it creates is in the schema by the time it is listed
+            Set<Integer> found = new HashSet<>();
+            try (ResultSet rs = conn.getMetaData().getTables(conn.getCatalog(), null, "%", null)) {
+                while (rs.next()) {
+                    Matcher m = name.matcher(rs.getString("TABLE_NAME"));
+                    if (m.matches()) {
+                        int month = Integer.parseInt(m.group(1));
+                        found.add(month);
+                        months.putIfAbsent(month, new Partition(tableFor(month), month));
+                    }
+                }
+            }
+            months.keySet().retainAll(found);
+            loadedAt = System.nanoTime();
+            stale = false;
+        }
+    }
+
+    /** Number of monthly partitions (the original table not included). */
+    int partitionCount() {
+        return months.size();
+    }
+
+    /**
+     * Insert entries into their months' partitions, creating partitions as needed.
+     * One JDBC batch per month (a batch normally falls in a single month), all in
+     * one transaction: a failed insert leaves no rows behind, so the caller can
+     * retry or spill the whole batch without duplicating any.
+     * Restores the connection's auto-commit mode.
+     */
+    void insert(@Nonnull Connection conn, @Nonnull List<TransactionEntry> entries) throws SQLException {
+        refreshIfStale(conn);
+        Map<Integer, List<TransactionEntry>> byMonth = new TreeMap<>();
+        for (TransactionEntry entry : entries) {
+            byMonth.computeIfAbsent(monthOf(entry.timestamp().toEpochMilli()), m -> new ArrayList<>()).add(entry);
+        }
+        // Create missing partitions first: DDL would commit the open transaction
+        Map<Partition, List<TransactionEntry>> groups = new LinkedHashMap<>();
+        for (Map.Entry<Integer, List<TransactionEntry>> group : byMonth.entrySet()) {
+            groups.put(ensure(conn, group.getKey()), group.getValue());
+        }
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        groups.keySet().forEach(Partition::beginWrite);
+        boolean committed = false;
+        try {
+            for (Map.Entry<Partition, List<TransactionEntry>> group : groups.entrySet()) {
+                String sql = """
+                    INSERT INTO %s (timestamp, type, source_uuid, target_uuid, player_name, amount, amount_minor)
+                    VALUES (?, ?, ?, ?, ?, ?, ?)
+                    """.formatted(group.getKey().table);
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    for (TransactionEntry entry : group.getValue()) {
+                        ps.setLong(1, entry.timestamp().toEpochMilli());
+                        ps.setString(2, entry.type().name());
+                        ps.setString(3, entry.sourcePlayer() != null ? entry.sourcePlayer().toString() : null);
+                        ps.setString(4, entry.targetPlayer() != null ? entry.targetPlayer().toString() : null);
+                        ps.setString(5, entry.playerName());
+                        ps.setDouble(6, entry.amount());
+                        ps.setLong(7, entry.amountMinor());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            }
+            conn.commit();
+            committed = true;
+        } catch (SQLException e) {
+            conn.rollback();
+            stale = shared(); // Maybe a partition another server dropped
+            throw e;
+        } finally {
+            for (Map.Entry<Partition, List<TransactionEntry>> group : groups.entrySet()) {
+                group.getKey().endWrite(committed ? (long) group.getValue().size() : null);
+            }
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Newest entries first, skipping offset, at most limit; only partitions the page falls in are queried.
+     *
+     * @param playerFilter Case-insensitive name substring, or null/empty for all
+     */
+    List<TransactionEntry> query(@Nonnull Connection conn, String playerFilter, int limit, int offset,
+                                 @Nonnull RowMapper mapper) throws SQLException {
+        refreshIfStale(conn);
+        String filter = normalize(playerFilter);
+        List<TransactionEntry> results = new ArrayList<>(Math.max(0, limit));
+        long skip = Math.max(0, offset);
+        for (Partition partition : newestFirst()) {
+            if (results.size() >= limit) {
+                break;
+            }
+            if (skip > 0) {
+                long rows = count(conn, partition, filter);
+                if (skip >= rows) {
+                    skip -= rows;
+                    continue;
+                }
+            }
+            String sql = "SELECT * FROM " + partition.table
+                + (filter.isEmpty() ? "" : " WHERE LOWER(player_name) LIKE ?")
+                + " ORDER BY timestamp DESC LIMIT ? OFFSET ?";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                int paramIndex = 1;
+                if (!filter.isEmpty()) {
+                    ps.setString(paramIndex++, "%" + filter + "%");
+                }
+                ps.setInt(paramIndex++, limit - results.size());
+                ps.setLong(paramIndex, skip);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        results.add(mapper.map(rs));
+                    }
+                }
+            }
+            skip = 0;
+        }
+        return results;
+    }
+
+    /**
+     * One keyset page, newest first. The cursor's partition is read from the cursor
+     * on (an index seek), the partitions past it from their start, until the page is
+     * full. Every partition in range is read: a cached count may be behind the table,
+     * and an empty partition costs one index probe.
+     *
+     * Paging newer than the first page's worth returns the first page itself, so the
+     * newest page is always full.
+     *
+     * @param playerFilter Case-insensitive name substring, or null/empty for all
+     * @param cursor Position to continue from (exclusive), or null for the newest page
+     * @param older True for the entries older than the cursor, false for the newer ones
+     */
+    TransactionPage page(@Nonnull Connection conn, String playerFilter, int limit, Cursor cursor,
+                         boolean older, @Nonnull RowMapper mapper) throws SQLException {
+        if (cursor == null) {
+            older = true;
+        }
+        if (cursor != null && cursor.partition() != 0 && shared() && !months.containsKey(cursor.partition())) {
+            stale = true; // Created by another server since the last refresh
+        }
+        refreshIfStale(conn);
+        String filter = normalize(playerFilter);
+        List<Partition> walk = newestFirst();
+        if (!older) {
+            Collections.reverse(walk);
+        }
+        // One extra row tells whether another page follows
+        List<Keyed> rows = new ArrayList<>(Math.max(0, limit) + 1);
+        for (Partition partition : walk) {
+            if (rows.size() > limit) {
+                break;
+            }
+            if (cursor != null && (older ? partition.month > cursor.partition() : partition.month < cursor.partition())) {
+                continue; // Before the cursor in walk order
+            }
+            Cursor from = cursor != null && partition.month == cursor.partition() ? cursor : null;
+            seek(conn, partition, filter, from, older, limit + 1 - rows.size(), mapper, rows);
+        }
+
+        if (!older) {
+            if (rows.size() <= limit) {
+                return page(conn, playerFilter, limit, null, true, mapper);
+            }
+            rows = new ArrayList<>(rows.subList(0, limit));
+            Collections.reverse(rows);
+            return new TransactionPage(entries(rows), rows.get(0).key, rows.get(rows.size() - 1).key);
+        }
+        boolean more = rows.size() > limit;
+        if (more) {
+            rows = rows.subList(0, limit);
+        }
+        Cursor newer = cursor == null ? null : rows.isEmpty() ? cursor : rows.get(0).key;
+        Cursor next = more ? rows.get(rows.size() - 1).key : null;
+        return new TransactionPage(entries(rows), newer, next);
+    }
+
+    /**
+     * Rows matching the filter across all partitions, from the per-partition cache where possible.
+     */
+    long count(@Nonnull Connection conn, String playerFilter) throws SQLException {
+        refreshIfStale(conn);
+        String filter = normalize(playerFilter);
+        long total = 0;
+        for (Partition partition : newestFirst()) {
+            total += count(conn, partition, filter);
+        }
+        return total;
+    }
+
+    /**
+     * One step of retention: drop the oldest partition if it is entirely older than
+     * the cutoff, otherwise delete up to batchSize expired rows from the oldest
+     * table that still has some.
+     *
+     * @return Rows removed (a dropped partition counts its cached rows, at least 1), 0 when done
+     */
+    long removeExpired(@Nonnull Connection conn, long cutoffMillis, int batchSize) throws SQLException {
+        refreshIfStale(conn);
+        int deleted = deleteBefore(conn, legacy, cutoffMillis, batchSize);
+        if (deleted > 0) {
+            return deleted;
+        }
+        int cutoffMonth = monthOf(cutoffMillis);
+        for (Partition partition : months.values()) {
+            if (partition.month > cutoffMonth) {
+                break; // Months are ordered: the rest is newer still
+            }
+            if (monthEnd(partition.month) <= cutoffMillis) {
+                Long rows = cachedCount(partition, UNFILTERED);
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("DROP TABLE IF EXISTS " + partition.table);
+                }
+                months.remove(partition.month, partition);
+                return Math.max(1, rows != null ? rows : 0);
+            }
+            return deleteBefore(conn, partition, cutoffMillis, batchSize);
+        }
+        return 0;
+    }
+
+    /**
+     * Month key (yyyyMM, UTC) of a timestamp.
+     */
+    static int monthOf(long epochMillis) {
+        ZonedDateTime time = Instant.ofEpochMilli(epochMillis).atZone(ZoneOffset.UTC);
+        return time.getYear() * 100 + time.getMonthValue();
+    }
+
+    /** First millisecond after a month (UTC). */
+    private static long monthEnd(int month) {
+        return LocalDate.of(month / 100, month % 100, 1).plusMonths(1)
+            .atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+
+    private String tableFor(int month) {
+        return baseTable + "_" + month;
+    }
+
+    private List<Partition> newestFirst() {
+        List<Partition> all = new ArrayList<>(months.size() + 1);
+        all.addAll(months.descendingMap().values());
+        all.add(legacy);
+        return all;
+    }
+
+    private Partition ensure(Connection conn, int month) throws SQLException {
+        Partition partition = months.get(month);
+        if (partition != null) {
+            return partition;
+        }
+        synchronized (this) {
+            partition = months.get(month);
+            if (partition == null) {
+                partition = new Partition(tableFor(month), month);
+                try (Statement stmt = conn.createStatement()) {
+                    ddl.create(stmt, partition.table);
+                }
+                months.put(month, partition);
+            }
+            return partition;
+        }
+    }
+
+    private boolean shared() {
+        return sharedTtlNanos > 0;
+    }
+
+    /** Re-read the partition list if it may be out of date (shared backends only). */
+    private void refreshIfStale(Connection conn) throws SQLException {
+        if (shared() && (stale || System.nanoTime() - loadedAt > sharedTtlNanos)) {
+            load(conn);
+        }
+    }
+
+    /** A cached count, or null if there is none or it has expired. */
+    private Long cachedCount(Partition partition, String filter) {
+        CachedCount cached = partition.counts.get(filter);
+        if (cached == null) {
+            return null;
+        }
+        if (shared() && System.nanoTime() - cached.countedAt > sharedTtlNanos) {
+            partition.counts.remove(filter, cached);
+            return null;
+        }
+        return cached.rows;
+    }
+
+    private long count(Connection conn, Partition partition, String filter) throws SQLException {
+        Long cached = cachedCount(partition, filter);
+        if (cached != null) {
+            return cached;
+        }
+        long version = partition.version.get();
+        boolean quiet = partition.writers.get() == 0;
+        long countedAt = System.nanoTime();
+        String sql = "SELECT COUNT(*) FROM " + partition.table
+            + (filter.isEmpty() ? "" : " WHERE LOWER(player_name) LIKE ?");
+        long rows = 0;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            if (!filter.isEmpty()) {
+                ps.setString(1, "%" + filter + "%");
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    rows = rs.getLong(1);
+                }
+            }
+        }
+        if (quiet && partition.writers.get() == 0 && partition.version.get() == version) {
+            if (partition.counts.size() >= MAX_CACHED_FILTERS) {
+                partition.counts.keySet().removeIf(f -> !f.equals(UNFILTERED));
+            }
+            CachedCount cachedCount = new CachedCount(rows, countedAt);
+            partition.counts.put(filter, cachedCount);
+            if (partition.version.get() != version) {
+                partition.counts.remove(filter, cachedCount); // A write slipped in after the check
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Read up to limit rows of one partition past a cursor (or from its newest /
+     * oldest row), in walk order, into rows.
+     */
+    private static void seek(Connection conn, Partition partition, String filter, Cursor from, boolean older,
+                             int limit, RowMapper mapper, List<Keyed> rows) throws SQLException {
+        List<String> where = new ArrayList<>(2);
+        if (from != null) {
+            // A range on timestamp, so the index seeks straight to the cursor
+            where.add(older ? "timestamp <= ? AND (timestamp < ? OR id < ?)" : "timestamp >= ? AND (timestamp > ? OR id > ?)");
+        }
+        if (!filter.isEmpty()) {
+            where.add("LOWER(player_name) LIKE ?");
+        }
+        String sql = "SELECT * FROM " + partition.table
+            + (where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where))
+            + (older ? " ORDER BY timestamp DESC, id DESC" : " ORDER BY timestamp ASC, id ASC")
+            + " LIMIT ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            int paramIndex = 1;
+            if (from != null) {
+                ps.setLong(paramIndex++, from.timestamp());
+                ps.setLong(paramIndex++, from.timestamp());
+                ps.setLong(paramIndex++, Long.parseLong(from.id()));
+            }
+            if (!filter.isEmpty()) {
+                ps.setString(paramIndex++, "%" + filter + "%");
+            }
+            ps.setInt(paramIndex, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Cursor key = new Cursor(partition.month, rs.getLong("timestamp"), Long.toString(rs.getLong("id")));
+                    rows.add(new Keyed(mapper.map(rs), key));
+                }
+            }
+        }
+    }
+
+    private static List<TransactionEntry> entries(List<Keyed> rows) {
+        List<TransactionEntry> entries = new ArrayList<>(rows.size());
+        for (Keyed row : rows) {
+            entries.add(row.entry);
+        }
+        return entries;
+    }
+
+    private int deleteBefore(Connection conn, Partition partition, long cutoffMillis, int batchSize) throws SQLException {
+        String sql = "DELETE FROM " + partition.table + " WHERE timestamp < ? " + deleteLimitClause;
+        Long removed = null;
+        partition.beginWrite();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, cutoffMillis);
+            ps.setInt(2, batchSize);
+            int deleted = ps.executeUpdate();
+            removed = (long) -deleted;
+            return deleted;
+        } finally {
+            partition.endWrite(removed);
+        }
+    }
+
+    private static String normalize(String playerFilter) {
+        return playerFilter == null ? UNFILTERED : playerFilter.toLowerCase();
+    }
+}
@@ -0,0 +1,177 @@
+package com.ecotale.storage;
+
+import com.ecotale.economy.TransactionRollup;
+import com.ecotale.economy.TransactionRollup.Period;
+import com.ecotale.economy.TransactionRollup.PlayerTotal;
+import com.ecotale.economy.TransactionRollup.TypeTotal;
+import com.ecotale.economy.TransactionType;
+
+import javax.annotation.Nonnull;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Rollup tables of the SQL providers (H2 in MySQL mode and MySQL share the SQL).
+ *
+ * - tx_rollup_type: (period, bucket_start, type) -> tx_count, amount_minor
+ * - tx_rollup_player: (period, bucket_start, uuid) -> tx_count, earned_minor, spent_minor
+ *
+ * Deltas are applied with INSERT ... ON DUPLICATE KEY UPDATE (count += n) in
+ * one transaction, so a failed write can be retried whole. Range queries
+ * read the primary key prefix (period, bucket_start).
+ */
+final class TransactionRollupTables {
+
+    private final String typeTable;
+    private final String playerTable;
+
+    TransactionRollupTables(@Nonnull String tablePrefix) {
+        this.typeTable = tablePrefix + "tx_rollup_type";
+        this.playerTable = tablePrefix + "tx_rollup_player";
+    }
+
+    void createTables(@Nonnull Statement stmt) throws SQLException {
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS %s (
+                period CHAR(1) NOT NULL,
+                bucket_start BIGINT NOT NULL,
+                type VARCHAR(20) NOT NULL,
+                tx_count BIGINT NOT NULL,
+                amount_minor BIGINT NOT NULL,
+                PRIMARY KEY (period, bucket_start, type)
+            )
+            """.formatted(typeTable));
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS %s (
+                period CHAR(1) NOT NULL,
+                bucket_start BIGINT NOT NULL,
+                uuid VARCHAR(36) NOT NULL,
+                tx_count BIGINT NOT NULL,
+                earned_minor BIGINT NOT NULL,
+                spent_minor BIGINT NOT NULL,
+                PRIMARY KEY (period, bucket_start, uuid)
+            )
+            """.formatted(playerTable));
+    }
+
+    /**
+     * Add the pending deltas, all or nothing. Restores the connection's auto-commit mode.
+     */
+    void write(@Nonnull Connection conn, @Nonnull TransactionRollup rollup) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            try (PreparedStatement ps = conn.prepareStatement("""
+                INSERT INTO %s (period, bucket_start, type, tx_count, amount_minor) VALUES (?, ?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE tx_count = tx_count + VALUES(tx_count),
+                    amount_minor = amount_minor + VALUES(amount_minor)
+                """.formatted(typeTable))) {
+                for (TypeTotal delta : rollup.typeDeltas()) {
+                    ps.setString(1, delta.period().code());
+                    ps.setLong(2, delta.bucketStart());
+                    ps.setString(3, delta.type().name());
+                    ps.setLong(4, delta.count());
+                    ps.setLong(5, delta.amountMinor());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = conn.prepareStatement("""
+                INSERT INTO %s (period, bucket_start, uuid, tx_count, earned_minor, spent_minor) VALUES (?, ?, ?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE tx_count = tx_count + VALUES(tx_count),
+                    earned_minor = earned_minor + VALUES(earned_minor),
+                    spent_minor = spent_minor + VALUES(spent_minor)
+                """.formatted(playerTable))) {
+                for (PlayerTotal delta : rollup.playerDeltas()) {
+                    ps.setString(1, delta.period().code());
+                    ps.setLong(2, delta.bucketStart());
+                    ps.setString(3, delta.player().toString());
+                    ps.setLong(4, delta.count());
+                    ps.setLong(5, delta.earnedMinor());
+                    ps.setLong(6, delta.spentMinor());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Per-type totals of the buckets starting in [fromMillis, toMillis).
+     */
+    List<TypeTotal> queryTypes(@Nonnull Connection conn, @Nonnull Period period,
+                               long fromMillis, long toMillis) throws SQLException {
+        String sql = """
+            SELECT type, SUM(tx_count), SUM(amount_minor) FROM %s
+            WHERE period = ? AND bucket_start >= ? AND bucket_start < ?
+            GROUP BY type
+            """.formatted(typeTable);
+        List<TypeTotal> results = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, period.code());
+            ps.setLong(2, period.bucketStart(fromMillis));
+            ps.setLong(3, toMillis);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    results.add(new TypeTotal(period, fromMillis, TransactionType.valueOf(rs.getString(1)),
+                        rs.getLong(2), rs.getLong(3)));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Players with the most earned in the buckets starting in [fromMillis, toMillis).
+     */
+    List<PlayerTotal> queryTopEarners(@Nonnull Connection conn, @Nonnull Period period,
+                                      long fromMillis, long toMillis, int limit) throws SQLException {
+        String sql = """
+            SELECT uuid, SUM(tx_count), SUM(earned_minor) AS earned, SUM(spent_minor) FROM %s
+            WHERE period = ? AND bucket_start >= ? AND bucket_start < ?
+            GROUP BY uuid
+            ORDER BY earned DESC
+            LIMIT ?
+            """.formatted(playerTable);
+        List<PlayerTotal> results = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, period.code());
+            ps.setLong(2, period.bucketStart(fromMillis));
+            ps.setLong(3, toMillis);
+            ps.setInt(4, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    results.add(new PlayerTotal(period, fromMillis, UUID.fromString(rs.getString(1)),
+                        rs.getLong(2), rs.getLong(3), rs.getLong(4)));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Delete hourly rows older than the cutoff (daily rows are kept).
+     *
+     * @return Rows deleted
+     */
+    int pruneHourly(@Nonnull Connection conn, long cutoffMillis) throws SQLException {
+        int deleted = 0;
+        for (String table : new String[] {typeTable, playerTable}) {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "DELETE FROM " + table + " WHERE period = ? AND bucket_start < ?")) {
+                ps.setString(1, Period.HOUR.code());
+                ps.setLong(2, cutoffMillis);
+                deleted += ps.executeUpdate();
+            }
+        }
+        return deleted;
+    }
+}
@@ -1,22 +1,36 @@
 package com.ecotale.systems;
 
 import com.ecotale.hud.BalanceHud;
+import com.ecotale.lib.simplehud.HudScheduler;
+import com.ecotale.lib.simplehud.SimpleHud;
 
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Tracks active balance HUDs for updates.
  * 
  * Uses static methods for easy access from EconomyManager.
- * Thread safety is handled internally by SimpleHud's pushIncrementalUpdate()
- * which dispatches to WorldThread automatically.
+ * 
+ * Balance changes are coalesced: EconomyManager (often inside an account lock)
+ * only records the latest balance per player, and one pass per frame (aligned
+ * to the 50 ms server tick) applies them on the HUD scheduler thread. A player
+ * earning 50 rewards a second gets one HUD update per frame, not 50, and the
+ * pass sends all pushes of a world in a single World.execute().
  */
 public class BalanceHudSystem {
     
+    private static final long FRAME_MS = 50; // One server tick at 20 TPS
+    
     // Track active HUDs for each player
     private static final ConcurrentHashMap<UUID, BalanceHud> activeHuds = new ConcurrentHashMap<>();
     
+    // Latest balance per player not yet shown; newer changes overwrite older ones
+    private static final ConcurrentHashMap<UUID, Double> pendingBalances = new ConcurrentHashMap<>();
+    private static final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    
     /**
      * Register a HUD for a player
      */
@@ -26,20 +40,68 @@ public class BalanceHudSystem {
     
     /**
      * Update a player's balance HUD when their balance changes.
-     * Thread-safe: SimpleHud handles WorldThread dispatch internally.
+     * Only records the new balance; the next frame shows it. Never blocks.
      */
     public static void updatePlayerHud(UUID playerUuid, double newBalance) {
-        BalanceHud hud = activeHuds.get(playerUuid);
-        if (hud != null) {
-            hud.updateBalance(newBalance);
+        if (!activeHuds.containsKey(playerUuid)) {
+            return;
+        }
+        pendingBalances.put(playerUuid, newBalance);
+        scheduleFlush();
+    }
+    
+    /**
+     * Update many HUDs at once (bulk payouts).
+     * Skips players without an active HUD up front; all are shown in the same frame.
+     */
+    public static void updatePlayerHuds(Map<UUID, Double> newBalances) {
+        boolean any = false;
+        for (Map.Entry<UUID, Double> entry : newBalances.entrySet()) {
+            if (activeHuds.containsKey(entry.getKey())) {
+                pendingBalances.put(entry.getKey(), entry.getValue());
+                any = true;
+            }
+        }
+        if (any) {
+            scheduleFlush();
         }
     }
     
+    /**
+     * Schedule the frame pass at the next tick boundary, unless one is already pending.
+     */
+    private static void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            long delay = FRAME_MS - System.currentTimeMillis() % FRAME_MS;
+            HudScheduler.runLater(BalanceHudSystem::flushPending, delay);
+        }
+    }
+    
+    /**
+     * Frame pass: one update per player with a pending balance, pushes grouped per world.
+     */
+    private static void flushPending() {
+        // Re-arm first: changes recorded from now on schedule the next frame
+        flushScheduled.set(false);
+        SimpleHud.batchUpdates(() -> {
+            for (UUID playerUuid : pendingBalances.keySet()) {
+                Double balance = pendingBalances.remove(playerUuid);
+                BalanceHud hud = activeHuds.get(playerUuid);
+                if (balance != null && hud != null) {
+                    // Once per player per frame, not once per balance change
+                    hud.refreshWorldCache();
+                    hud.updateBalance(balance);
+                }
+            }
+        });
+    }
+
     /**
      * Remove HUD tracking when player leaves
      */
     public static void removePlayerHud(UUID playerUuid) {
         BalanceHud hud = activeHuds.remove(playerUuid);
+        pendingBalances.remove(playerUuid);
         if (hud != null) {
             hud.cleanup(); // Cancel any pending animations
         }
@@ -57,8 +119,10 @@ public class BalanceHudSystem {
      * Thread-safe: SimpleHud handles WorldThread dispatch internally.
      */
     public static void refreshAllHuds() {
-        for (BalanceHud hud : activeHuds.values()) {
-            hud.refresh();
-        }
+        SimpleHud.batchUpdates(() -> {
+            for (BalanceHud hud : activeHuds.values()) {
+                hud.refresh();
+            }
+        });
     }
 }
@@ -2,6 +2,7 @@ package com.ecotale.util;
 
 import com.ecotale.Main;
 import com.ecotale.economy.EconomyManager;
+import com.ecotale.economy.StripedLockTable;
 
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -17,6 +18,23 @@ public class PerformanceMonitor {
     // Economy Metrics
     private int cachedPlayers;
     
+    // Lock contention (striped mode only, -1 = per-player locks)
+    private int lockStripes = -1;
+    private long lockWaits;
+    private long lockWaitMillis;
+    private int hottestStripe;
+    private long hottestStripeWaits;
+    
+    // Account loading on join
+    private long joinLoads;
+    private long joinWaitMillis;
+    
+    // Columnar account store (CacheMode = "columnar")
+    private long columnStoreBytes;
+    
+    // Running economy totals vs. the last full scan
+    private double totalsDrift;
+    
     public PerformanceMonitor() {
         instance = this;
         this.scheduler = Executors.newSingleThreadScheduledExecutor(
@@ -30,11 +48,33 @@ public class PerformanceMonitor {
             EconomyManager em = Main.getInstance().getEconomyManager();
             if (em != null) {
                 this.cachedPlayers = em.getCachedPlayerCount();
+                this.joinLoads = em.getJoinLoads();
+                this.joinWaitMillis = TimeUnit.NANOSECONDS.toMillis(em.getJoinWaitNanos());
+                this.columnStoreBytes = em.getColumnStoreBytes();
+                this.totalsDrift = em.getTotalsDrift();
+                
+                StripedLockTable locks = em.getStripedLocks();
+                if (locks != null) {
+                    this.lockStripes = locks.getStripeCount();
+                    this.lockWaits = locks.getTotalWaitCount();
+                    this.lockWaitMillis = TimeUnit.NANOSECONDS.toMillis(locks.getTotalWaitNanos());
+                    this.hottestStripe = locks.getHottestStripe();
+                    this.hottestStripeWaits = locks.getWaitCount(hottestStripe);
+                }
             }
         } catch (Exception ignored) {}
     }
     
     public int getCachedPlayers() { return cachedPlayers; }
+    public int getLockStripes() { return lockStripes; }
+    public long getLockWaits() { return lockWaits; }
+    public long getLockWaitMillis() { return lockWaitMillis; }
+    public int getHottestStripe() { return hottestStripe; }
+    public long getHottestStripeWaits() { return hottestStripeWaits; }
+    public long getJoinLoads() { return joinLoads; }
+    public long getJoinWaitMillis() { return joinWaitMillis; }
+    public long getColumnStoreBytes() { return columnStoreBytes; }
+    public double getTotalsDrift() { return totalsDrift; }
 
     public void shutdown() {
         if (scheduler != null) {